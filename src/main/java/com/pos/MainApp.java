@@ -1,15 +1,22 @@
 package com.pos;
 
+import atlantafx.base.theme.PrimerLight;
+import com.pos.controllers.core.LoginController;
 import com.pos.manager.core.CssManager;
 import com.pos.manager.core.StageManager;
 import com.pos.config.ViewConfiguration;
+import com.pos.manager.core.FxFrameMonitor;
+import com.pos.manager.core.StartupPipeline;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
 import javafx.stage.Stage;
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.io.IOException;
+
 /**
  * Main application class that serves as the entry point for the POS system.
  * Integrates Spring Boot with JavaFX.
@@ -17,7 +24,7 @@ import org.springframework.context.ConfigurableApplicationContext;
 @SpringBootApplication
 public class MainApp extends Application {
 
-	private ConfigurableApplicationContext springContext;
+	private final StartupPipeline startup = new StartupPipeline();
 
 	/**
 	 * Main method that launches the JavaFX application.
@@ -29,32 +36,43 @@ public class MainApp extends Application {
 	}
 
 	/**
-	 * Initializes Spring context before JavaFX application starts.
+	 * Starts the Spring context in the background; it keeps initializing while the login screen is shown.
 	 *
 	 * @throws Exception If initialization fails
 	 */
 	@Override
 	public void init() throws Exception {
-		springContext = SpringApplication.run(MainApp.class);
+		startup.phase("JavaFX iniciado");
+		startup.start(MainApp.class, getParameters().getRaw().toArray(String[]::new));
 	}
 
 	/**
 	 * Starts the JavaFX application, setting up the primary stage and showing the login screen.
+	 * The screen is shown before the Spring context is ready; only submitting the login waits for it.
 	 *
 	 * @param primaryStage The primary stage for the application
+	 * @throws IOException If the login view cannot be loaded
 	 */
 	@Override
-	public void start(Stage primaryStage) {
-        StageManager stageManager = springContext.getBean(StageManager.class);
-		stageManager.setPrimaryStage(primaryStage);
-
-		CssManager cssManager = springContext.getBean(CssManager.class);
-		cssManager.setLightTheme();
+	public void start(Stage primaryStage) throws IOException {
+		// Same theme CssManager applies, set directly since the bean does not exist yet
+		Application.setUserAgentStylesheet(new PrimerLight().getUserAgentStylesheet());
 
 		// Set application title
 		primaryStage.setTitle("POS System");
-		// Display login screen
-		stageManager.switchScene(ViewConfiguration.LOGIN_VIEW);
+
+		// Display login screen with a controller that resolves its services once Spring is up
+		FXMLLoader loader = new FXMLLoader(getClass().getResource(ViewConfiguration.LOGIN_VIEW));
+		loader.setControllerFactory(type -> new LoginController(startup));
+		primaryStage.setScene(new Scene(loader.load()));
+		primaryStage.show();
+		startup.phase("Login visible");
+
+		startup.whenReady().thenAccept(context -> Platform.runLater(() -> {
+			context.getBean(StageManager.class).setPrimaryStage(primaryStage);
+			context.getBean(CssManager.class).setLightTheme();
+			context.getBean(FxFrameMonitor.class).start();
+		}));
 	}
 
 	/**
@@ -64,7 +82,8 @@ public class MainApp extends Application {
 	 */
 	@Override
 	public void stop() throws Exception {
-		springContext.close();
+		// Closes the context as soon as it exists if the window is closed while it is still starting
+		startup.whenReady().thenAccept(ConfigurableApplicationContext::close);
 		Platform.exit();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.pos.actions.products;
+
+import atlantafx.base.theme.Styles;
+import com.pos.controllers.products.ProductListController;
+import com.pos.models.products.Product;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableCell;
+import javafx.scene.layout.HBox;
+
+import java.util.Optional;
+
+/**
+ * Edit and delete buttons of a product row. The buttons and their container are created once per
+ * cell and only attached or detached as the cell is reused for other rows.
+ */
+public class ProductActionCell extends TableCell<Product, Product> {
+
+    private final HBox buttonsContainer;
+    private final ProductListController controller;
+
+    public ProductActionCell(ProductListController controller, boolean canDelete) {
+        this.controller = controller;
+        Button editButton = createEditButton();
+        Button deleteButton = createDeleteButton();
+        deleteButton.setDisable(!canDelete);
+        this.buttonsContainer = new HBox(5);
+        this.buttonsContainer.getChildren().addAll(editButton, deleteButton);
+    }
+
+    private Button createEditButton() {
+        Button editButton = new Button("Editar");
+        editButton.getStyleClass().add(Styles.WARNING);
+        editButton.setOnAction(event -> this.getCurrentProduct().ifPresent(this.controller::openProductForm));
+        return editButton;
+    }
+
+    private Button createDeleteButton() {
+        Button deleteButton = new Button("Eliminar");
+        deleteButton.getStyleClass().add(Styles.DANGER);
+        deleteButton.setOnAction(event -> this.getCurrentProduct().ifPresent(this.controller::deleteProduct));
+        return deleteButton;
+    }
+
+    private Optional<Product> getCurrentProduct() {
+        Product product = (getIndex() >= 0 && getIndex() < getTableView().getItems().size()) ?
+                                getTableView().getItems().get(getIndex()) :
+                                null;
+        return Optional.ofNullable(product);
+    }
+
+    @Override
+    protected void updateItem(Product product, boolean empty) {
+        super.updateItem(product, empty);
+
+        if (empty || product == null) {
+            setGraphic(null);
+        } else if (getGraphic() != this.buttonsContainer) {
+            setGraphic(this.buttonsContainer);
+        }
+        setText(null);
+    }
+}
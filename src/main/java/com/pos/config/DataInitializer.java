@@ -1,10 +1,12 @@
 package com.pos.config;
 
+import com.pos.manager.product.InventoryManager;
 import com.pos.models.core.Role;
 import com.pos.models.core.User;
 import com.pos.models.products.Category;
 import com.pos.models.products.Price;
 import com.pos.models.products.Product;
+import com.pos.models.products.StockMovement;
 import com.pos.models.products.Tax;
 import com.pos.repositories.core.RoleRepository;
 import com.pos.repositories.core.UserRepository;
@@ -35,6 +37,7 @@ public class DataInitializer implements CommandLineRunner {
     private final TaxRepository taxRepository;
     private final PriceRepository priceRepository;
     private final CategoryRepository categoryRepository;
+    private final InventoryManager inventoryManager;
 
     /**
      * Constructor with dependencies.
@@ -43,12 +46,14 @@ public class DataInitializer implements CommandLineRunner {
      * @param userRepository The user repository
      * @param productRepository The product repository
      * @param passwordEncoder The password encoder
+     * @param inventoryManager The stock ledger used to load the initial stock
      */
     public DataInitializer(
             RoleRepository roleRepository,
             UserRepository userRepository,
             ProductRepository productRepository,
-            PasswordEncoder passwordEncoder, TaxRepository taxRepository, PriceRepository priceRepository, CategoryRepository categoryRepository) {
+            PasswordEncoder passwordEncoder, TaxRepository taxRepository, PriceRepository priceRepository, CategoryRepository categoryRepository,
+            InventoryManager inventoryManager) {
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
@@ -56,6 +61,7 @@ public class DataInitializer implements CommandLineRunner {
         this.taxRepository = taxRepository;
         this.priceRepository = priceRepository;
         this.categoryRepository = categoryRepository;
+        this.inventoryManager = inventoryManager;
     }
 
     /**
@@ -161,7 +167,9 @@ public class DataInitializer implements CommandLineRunner {
      */
     private Product createProduct(String barcode, String name, String description, BigDecimal price, BigDecimal cost, Integer stock, Tax tax, Category category) {
         Product product = new Product(barcode, name, description, this.createPrice(price, tax), true, category);
-        return productRepository.save(product);
+        product = productRepository.save(product);
+        inventoryManager.increment(product.getId(), stock, StockMovement.Type.PURCHASE, "Stock inicial");
+        return product;
     }
 
     private Price createPrice(BigDecimal value, Tax tax) {
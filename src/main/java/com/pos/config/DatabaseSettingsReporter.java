@@ -0,0 +1,67 @@
+package com.pos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Logs the database settings in effect once the application is ready, so a till can be checked
+ * against the profile it is supposed to run with.
+ */
+@Component
+public class DatabaseSettingsReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseSettingsReporter.class);
+
+    private static final List<String> H2_SETTINGS = List.of(
+            "CACHE_SIZE", "QUERY_CACHE_SIZE", "LOCK_TIMEOUT", "MAX_COMPACT_TIME", "VERSION");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+
+    public DatabaseSettingsReporter(DataSource dataSource, JdbcTemplate jdbcTemplate, Environment environment) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+    }
+
+    /**
+     * Logs the profile, pool, Hibernate and H2 settings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        LOGGER.info("Perfiles activos: {}", Arrays.toString(environment.getActiveProfiles()));
+        LOGGER.info("Esquema: ddl-auto={}, lotes JDBC={}",
+                environment.getProperty("spring.jpa.hibernate.ddl-auto"),
+                environment.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "sin lotes"));
+
+        if (dataSource instanceof HikariDataSource hikari) {
+            LOGGER.info("Pool {}: máximo {}, mínimo inactivo {}, espera {} ms",
+                    hikari.getPoolName(), hikari.getMaximumPoolSize(), hikari.getMinimumIdle(),
+                    hikari.getConnectionTimeout());
+        }
+
+        try {
+            jdbcTemplate.query("SELECT SETTING_NAME, SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS", rs -> {
+                String name = rs.getString(1);
+                String upper = name.toUpperCase(Locale.ROOT);
+                if (H2_SETTINGS.stream().anyMatch(upper::contains)) {
+                    LOGGER.info("H2 {} = {}", name, rs.getString(2));
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("No se pudieron leer los ajustes de H2: {}", e.getMessage());
+        }
+    }
+}
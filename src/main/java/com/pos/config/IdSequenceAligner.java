@@ -0,0 +1,54 @@
+package com.pos.config;
+
+import com.pos.models.products.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the id sequences of prices, products, sales and sale lines past the ids already in use.
+ * <p>
+ * Databases created before those entities switched from identity columns to pooled sequences
+ * already hold rows, while the sequences Hibernate creates for them start at 1. This runs before
+ * any other startup task and only touches a sequence that is behind its table.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdSequenceAligner implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "PRICE_SEQ", "Price",
+            "PRODUCTS_SEQ", "products",
+            "SALES_SEQ", "sales",
+            "SALE_LINES_SEQ", "sale_lines");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        SEQUENCES.forEach((sequence, table) -> {
+            List<Long> next = jdbcTemplate.queryForList(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequence);
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (!next.isEmpty() && maxId != null && next.get(0) <= maxId) {
+                // The pooled optimizer hands out the block that ends at the value it reads
+                long restart = maxId + Product.ID_ALLOCATION_SIZE;
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+                LOGGER.info("Secuencia {} movida a {} (id máximo en {}: {})", sequence, restart, table, maxId);
+            }
+        });
+    }
+}
@@ -1,47 +1,39 @@
 package com.pos.config;
 
+import com.pos.manager.core.QuickUnlock;
+import com.pos.manager.core.UserDetailsCache;
 import com.pos.services.core.UserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
-import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.web.SecurityFilterChain;
 
+/**
+ * Authentication used by the desktop login. It does not depend on the servlet stack, so it is
+ * available in both deployment modes; the web part lives in {@link WebSecurityConfig}.
+ */
 @Configuration
-@EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final QuickUnlock quickUnlock;
 
     /**
      * Constructor con inyección de dependencias
      * Ahora inyectamos PasswordEncoder desde fuera en lugar de crearlo aquí
      */
-    public SecurityConfig(UserService userService, PasswordEncoder passwordEncoder) {
+    public SecurityConfig(UserService userService, PasswordEncoder passwordEncoder,
+                          UserDetailsCache userDetailsCache, QuickUnlock quickUnlock) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
-    }
-
-    @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        // Configuración básica para una aplicación de escritorio (standalone)
-        // Desactivamos CSRF y la mayoría de las protecciones web
-        http
-                .csrf().disable()
-                .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/h2-console/**").permitAll()
-                        .anyRequest().authenticated()
-                )
-                .headers().frameOptions().sameOrigin();  // Necesario para la consola H2
-
-        return http.build();
+        this.userDetailsCache = userDetailsCache;
+        this.quickUnlock = quickUnlock;
     }
 
     @Bean
@@ -49,14 +41,15 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userService);
         provider.setPasswordEncoder(passwordEncoder); // Ahora usamos el passwordEncoder inyectado
+        provider.setUserCache(userDetailsCache);
         return provider;
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
-        return http.getSharedObject(AuthenticationManagerBuilder.class)
-                .authenticationProvider(authenticationProvider())
-                .build();
+    public AuthenticationManager authenticationManager(DaoAuthenticationProvider authenticationProvider) {
+        // Built directly instead of through HttpSecurity, which only exists in web mode
+        // A recent login is checked by the quick unlock first; anything it cannot decide goes to BCrypt
+        return new ProviderManager(quickUnlock, authenticationProvider);
     }
 
-}
\ No newline at end of file
+}
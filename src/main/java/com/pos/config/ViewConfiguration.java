@@ -34,6 +34,11 @@ public class ViewConfiguration {
     public static final String CATEGORY_FORM_VIEW = "/templates/product/category-form.fxml";
     public static final String INVENTORY_DASHBOARD = "/templates/product/inventory-dashboard.fxml";
 
+    /**
+     * Path to the reports view FXML.
+     */
+    public static final String REPORTS_VIEW = "/templates/reports/reports.fxml";
+
     /**
      * Path to the user management view FXML.
      */
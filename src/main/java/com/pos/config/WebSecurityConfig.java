@@ -0,0 +1,35 @@
+package com.pos.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Filter chain for the back-office mode, which runs the embedded servlet container (mainly for
+ * the H2 console). Tills started with {@code spring.main.web-application-type=none} skip it.
+ */
+@Configuration
+@EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebSecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // Configuración básica para una aplicación de escritorio (standalone)
+        // Desactivamos CSRF y la mayoría de las protecciones web
+        http
+                .csrf().disable()
+                .authorizeHttpRequests(authorize -> authorize
+                        .requestMatchers("/h2-console/**").permitAll()
+                        // Tills authenticate with their token in SyncController
+                        .requestMatchers("/api/sync/**").permitAll()
+                        .anyRequest().authenticated()
+                )
+                .headers().frameOptions().sameOrigin();  // Necesario para la consola H2
+
+        return http.build();
+    }
+}
@@ -1,13 +1,15 @@
 package com.pos.controllers.core;
 
 import com.pos.config.ViewConfiguration;
+import com.pos.interfaces.core.ReusableView;
+import com.pos.manager.core.PermissionSnapshot;
 import com.pos.manager.core.StageManager;
+import com.pos.manager.core.ViewRegistry;
 import com.pos.services.core.AuthService;
 import com.pos.services.products.ProductService;
 import javafx.animation.FadeTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -21,7 +23,6 @@ import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 
@@ -32,7 +33,7 @@ import java.util.ResourceBundle;
  * Controlador para la vista principal del dashboard.
  */
 @Controller
-public class DashboardController implements Initializable {
+public class DashboardController implements Initializable, ReusableView {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DashboardController.class);
 
@@ -69,7 +70,7 @@ public class DashboardController implements Initializable {
     private final AuthService authService;
     private final StageManager stageManager;
     private final ProductService productService;
-    private final ApplicationContext applicationContext;
+    private final ViewRegistry viewRegistry;
 
     @Value("${app.ui.animation-speed:300}")
     private int animationSpeed;
@@ -80,17 +81,17 @@ public class DashboardController implements Initializable {
      * @param authService Servicio de autenticación
      * @param stageManager Gestor de ventanas
      * @param productService Servicio de productos
-     * @param applicationContext Contexto de la aplicación Spring
+     * @param viewRegistry Registro de vistas ya analizadas
      */
     public DashboardController(
             AuthService authService,
             StageManager stageManager,
             ProductService productService,
-            ApplicationContext applicationContext) {
+            ViewRegistry viewRegistry) {
         this.authService = authService;
         this.stageManager = stageManager;
         this.productService = productService;
-        this.applicationContext = applicationContext;
+        this.viewRegistry = viewRegistry;
     }
 
     /**
@@ -122,6 +123,20 @@ public class DashboardController implements Initializable {
 
         // Mostrar pantalla de bienvenida
         showWelcomeScreen();
+
+        // Dejar listas las vistas que se abren desde el menú
+        viewRegistry.preload(ViewConfiguration.INVENTORY_DASHBOARD, ViewConfiguration.PRODUCT_FORM_VIEW);
+    }
+
+    /**
+     * Restablece la vista para el usuario que acaba de iniciar sesión al reutilizarla.
+     */
+    @Override
+    public void resetView() {
+        rootPane.setOpacity(1.0);
+        setUserInfo();
+        configureMenuAccess();
+        showWelcomeScreen();
     }
 
     /**
@@ -130,10 +145,7 @@ public class DashboardController implements Initializable {
     private void setupEventHandlers() {
         inventoryButton.setOnAction(event -> openInventory());
 
-        // El botón de reportes será funcional en futuras extensiones
-        reportsButton.setOnAction(event ->
-                showModuleInDevelopment("Módulo de Reportes",
-                        "El módulo de reportes estará disponible en futuras versiones."));
+        reportsButton.setOnAction(event -> openReports());
 
         // El botón de configuración será funcional en futuras extensiones
         configButton.setOnAction(event ->
@@ -152,9 +164,10 @@ public class DashboardController implements Initializable {
             usernameLabel.setText(currentUser.getUsername());
 
             // Establecer etiqueta de rol
-            if (authService.hasRole("ROLE_ADMIN")) {
+            PermissionSnapshot permissions = authService.getPermissions();
+            if (permissions.has(PermissionSnapshot.ADMIN)) {
                 roleLabel.setText("Administrador");
-            } else if (authService.hasRole("ROLE_VENDEDOR")) {
+            } else if (permissions.has(PermissionSnapshot.VENDEDOR)) {
                 roleLabel.setText("Vendedor");
             } else {
                 roleLabel.setText("Usuario");
@@ -167,7 +180,7 @@ public class DashboardController implements Initializable {
      */
     private void configureMenuAccess() {
         // El administrador puede acceder a todas las funciones
-        if (authService.hasRole("ROLE_ADMIN")) {
+        if (authService.getPermissions().has(PermissionSnapshot.ADMIN)) {
             configButton.setDisable(false);
         } else {
             // El vendedor tiene acceso limitado
@@ -183,12 +196,9 @@ public class DashboardController implements Initializable {
      */
     private void openInventory() {
         try {
-            // Cargar la vista de inventario en el área de contenido en lugar de cambiar de escena
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(ViewConfiguration.INVENTORY_DASHBOARD));
-            fxmlLoader.setControllerFactory(applicationContext::getBean);
-
-            // Cargar el contenido
-            Parent inventoryView = fxmlLoader.load();
+            // Cargar la vista de inventario en el área de contenido en lugar de cambiar de escena;
+            // se analiza una sola vez y se reutiliza al volver a abrirla
+            Parent inventoryView = viewRegistry.get(ViewConfiguration.INVENTORY_DASHBOARD).getRoot();
 
             // Limpiar contenido actual y establecer el nuevo contenido
             contentArea.getChildren().clear();
@@ -207,6 +217,24 @@ public class DashboardController implements Initializable {
         }
     }
 
+    /**
+     * Abre la vista de reportes dentro del área de contenido del dashboard.
+     */
+    private void openReports() {
+        try {
+            // Los reportes leen totales ya agregados, así que la vista abre al instante
+            Parent reportsView = viewRegistry.get(ViewConfiguration.REPORTS_VIEW).getRoot();
+            contentArea.getChildren().clear();
+            contentArea.getChildren().add(reportsView);
+            updateStatusLabel("Módulo de Reportes cargado");
+        } catch (Exception e) {
+            Platform.runLater(() -> {
+                stageManager.showErrorDialog("Error", "Error al cargar el módulo de reportes: " + e.getMessage());
+            });
+            LOGGER.error("Error al cargar el módulo de reportes", e);
+        }
+    }
+
     /**
      * Muestra un mensaje informativo para módulos en desarrollo.
      *
@@ -1,15 +1,20 @@
 package com.pos.controllers.core;
 
 import com.pos.manager.core.StageManager;
+import com.pos.manager.core.StartupPipeline;
 import com.pos.config.ViewConfiguration;
+import com.pos.interfaces.core.ReusableView;
 import com.pos.services.core.AuthService;
+import com.pos.services.core.BackgroundTaskService;
 import javafx.animation.FadeTransition;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
 import javafx.util.Duration;
@@ -23,9 +28,12 @@ import java.util.ResourceBundle;
 
 /**
  * Controller for the login view.
+ * <p>
+ * The first login view is created before the Spring context is ready, so services are looked up
+ * through the {@link StartupPipeline} when the login is submitted instead of being injected.
  */
 @Controller
-public class LoginController implements Initializable {
+public class LoginController implements Initializable, ReusableView {
 
     @FXML
     private AnchorPane rootPane;
@@ -42,21 +50,22 @@ public class LoginController implements Initializable {
     @FXML
     private Label errorLabel;
 
-    private final AuthService authService;
-    private final StageManager stageManager;
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
+    private final StartupPipeline startup;
 
+    // Injected only when Spring creates the controller; the first login view uses the default
     @Value("${app.ui.animation-speed:300}")
-    private int animationSpeed;
+    private int animationSpeed = 300;
 
     /**
      * Constructor with dependencies.
      *
-     * @param authService The authentication service
-     * @param stageManager The stage manager
+     * @param startup The startup pipeline that provides the services once the context is ready
      */
-    public LoginController(AuthService authService, StageManager stageManager) {
-        this.authService = authService;
-        this.stageManager = stageManager;
+    public LoginController(StartupPipeline startup) {
+        this.startup = startup;
     }
 
     /**
@@ -81,12 +90,24 @@ public class LoginController implements Initializable {
 
         // Add enter key handler to password field
         passwordField.setOnKeyPressed(event -> {
-            if (event.getCode().toString().equals("ENTER")) {
+            if (event.getCode().toString().equals("ENTER") && !loginButton.isDisable()) {
                 handleLogin(new ActionEvent());
             }
         });
     }
 
+    /**
+     * Clears the previous session's credentials when the view is shown again after a logout.
+     */
+    @Override
+    public void resetView() {
+        rootPane.setOpacity(1.0);
+        errorLabel.setText("");
+        passwordField.clear();
+        loginButton.setDisable(false);
+        usernameField.requestFocus();
+    }
+
     /**
      * Handles the login button action.
      *
@@ -107,9 +128,21 @@ public class LoginController implements Initializable {
             return;
         }
 
-        try {
-            // Attempt authentication
-            authService.authenticate(username, password);
+        // Still starting: submit again by itself once the services are available
+        if (!startup.isReady()) {
+            waitForStartup(event);
+            return;
+        }
+
+        AuthService authService = startup.getBean(AuthService.class);
+        StageManager stageManager = startup.getBean(StageManager.class);
+
+        // Attempt authentication in the background: BCrypt takes long enough to freeze the UI
+        loginButton.setDisable(true);
+        startup.getBean(BackgroundTaskService.class).submit("auth.login", () -> authService.checkCredentials(username, password), authenticated -> {
+            loginButton.setDisable(false);
+            // The session lives on the FX thread, where the views read it
+            authService.logIn(authenticated);
 
             // On success, transition to dashboard
             FadeTransition fadeOut = new FadeTransition(Duration.millis(animationSpeed), rootPane);
@@ -117,14 +150,37 @@ public class LoginController implements Initializable {
             fadeOut.setToValue(0.0);
             fadeOut.setOnFinished(e -> stageManager.switchScene(ViewConfiguration.DASHBOARD_VIEW));
             fadeOut.play();
+        }, e -> {
+            loginButton.setDisable(false);
+            if (e instanceof BadCredentialsException) {
+                showError("Credenciales inválidas");
+            } else if (e instanceof UsernameNotFoundException) {
+                showError("Usuario no encontrado");
+            } else {
+                showError("Error de autenticación: " + e.getMessage());
+            }
+        }, loadingIndicator);
+    }
 
-        } catch (BadCredentialsException e) {
-            showError("Credenciales inválidas");
-        } catch (UsernameNotFoundException e) {
-            showError("Usuario no encontrado");
-        } catch (Exception e) {
-            showError("Error de autenticación: " + e.getMessage());
-        }
+    /**
+     * Keeps the login on hold until the Spring context has started.
+     *
+     * @param event The action event of the held login
+     */
+    private void waitForStartup(ActionEvent event) {
+        loginButton.setDisable(true);
+        loadingIndicator.setVisible(true);
+        errorLabel.setText("Iniciando el sistema...");
+
+        startup.whenReady().whenComplete((context, e) -> Platform.runLater(() -> {
+            loadingIndicator.setVisible(false);
+            loginButton.setDisable(false);
+            if (e != null) {
+                showError("No se pudo iniciar el sistema: " + e.getMessage());
+            } else {
+                handleLogin(event);
+            }
+        }));
     }
 
     /**
@@ -5,28 +5,31 @@ import atlantafx.base.theme.Tweaks;
 import com.pos.actions.products.CategoryActionCell;
 import com.pos.config.ViewConfiguration;
 import com.pos.dtos.products.CategoryDTO;
+import com.pos.manager.core.LiveSearch;
 import com.pos.manager.core.StageManager;
 import com.pos.services.core.AlertViewService;
+import com.pos.services.core.BackgroundTaskService;
 import com.pos.services.core.ModalViewService;
 import com.pos.services.products.CategoryService;
-import javafx.beans.property.SimpleObjectProperty;
+import com.pos.utils.TableCellFactory;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.Callback;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.List;
 import java.util.Objects;
@@ -58,20 +61,29 @@ public class CategoryController implements Initializable {
     @FXML
     private Button searchButton;
 
-    private String currentSearchTerm = "";
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
+    private LiveSearch<List<CategoryDTO>> liveSearch;
     private Stage stage;
     private final ObservableList<CategoryDTO> categoryList = FXCollections.observableArrayList();
     private final CategoryService categoryService;
     private final ModalViewService modalViewService;
     private final AlertViewService alertViewService;
     private final StageManager stageManager;
+    private final BackgroundTaskService backgroundTaskService;
+
+    @Value("${app.ui.search-delay-ms:250}")
+    private int searchDelay;
 
     public CategoryController(CategoryService categoryService,
-                              ModalViewService modalViewService, AlertViewService alertViewService, StageManager stageManager) {
+                              ModalViewService modalViewService, AlertViewService alertViewService, StageManager stageManager,
+                              BackgroundTaskService backgroundTaskService) {
         this.categoryService = categoryService;
         this.modalViewService = modalViewService;
         this.alertViewService = alertViewService;
         this.stageManager = stageManager;
+        this.backgroundTaskService = backgroundTaskService;
     }
 
     @Override
@@ -83,6 +95,17 @@ public class CategoryController implements Initializable {
     }
 
     private void initializeSearchText() {
+        // Live results while typing; narrower terms filter the previous list instead of querying again
+        this.liveSearch = new LiveSearch<>(this.backgroundTaskService, "categories.load", Duration.millis(this.searchDelay),
+                searchTerm -> StringUtils.isEmpty(searchTerm) ?
+                        this.categoryService.getAllCategories() :
+                        this.categoryService.getCategoriesByNameContaining(searchTerm),
+                CategoryController::narrow,
+                (searchTerm, categories) -> this.categoryList.setAll(categories),
+                e -> this.alertViewService.showErrorDialog("Error", "Error al cargar las categorias: " + e.getMessage(), this.stage),
+                this.loadingIndicator);
+        this.liveSearch.bind(this.searchField);
+
         this.searchField.setOnKeyPressed( event -> {
             if (Objects.equals(KeyCode.ENTER, event.getCode())) {
                 this.onSearch(null);
@@ -91,28 +114,41 @@ public class CategoryController implements Initializable {
     }
 
     private void loadCategory() {
-        List<CategoryDTO> categoryDTOList = StringUtils.isEmpty(currentSearchTerm) ?
-                                            this.categoryService.getAllCategories() :
-                                            this.categoryService.getCategoriesByNameContaining(currentSearchTerm);
-        categoryList.clear();
-        categoryList.addAll(categoryDTOList);
+        this.liveSearch.refresh();
+    }
+
+    /**
+     * The search matches names containing the term, so a term containing the previous one only
+     * keeps categories of the previous result.
+     */
+    private static List<CategoryDTO> narrow(List<CategoryDTO> previous, String previousTerm, String searchTerm) {
+        if (!searchTerm.contains(previousTerm)) {
+            return null;
+        }
+        return previous.stream()
+                .filter(category -> category.getName() != null && category.getName().contains(searchTerm))
+                .toList();
     }
 
     private void initializeTableCategory() {
         this.categoryTable.setRowFactory(this.getCategoryTableFactory());
-        this.nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
-        this.descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("descritpion"));
+        this.nameColumn.setCellValueFactory(TableCellFactory.value(CategoryDTO::getName));
+        this.descriptionColumn.setCellValueFactory(TableCellFactory.value(CategoryDTO::getDescription));
         this.actionsColumn.getStyleClass().add(Tweaks.ALIGN_CENTER);
-        this.actionsColumn.setCellValueFactory(category -> new SimpleObjectProperty<>(category.getValue()));
+        this.actionsColumn.setCellValueFactory(TableCellFactory.row());
         this.actionsColumn.setCellFactory(category -> new CategoryActionCell(this));
     }
 
     private Callback<TableView<CategoryDTO>, TableRow<CategoryDTO>> getCategoryTableFactory() {
         return tv -> {
             TableRow<CategoryDTO> categoryDTOTableRow = new TableRow<>();
+            // Rows are reused for other categories, so the style is toggled rather than only added
             categoryDTOTableRow.itemProperty().addListener((obs, oldItem, newItem) -> {
-                if (Objects.nonNull(newItem) && !newItem.isActive()) {
-                    categoryDTOTableRow.getStyleClass().addAll(Styles.TEXT_SUBTLE);
+                boolean inactive = Objects.nonNull(newItem) && !newItem.isActive();
+                if (!inactive) {
+                    categoryDTOTableRow.getStyleClass().remove(Styles.TEXT_SUBTLE);
+                } else if (!categoryDTOTableRow.getStyleClass().contains(Styles.TEXT_SUBTLE)) {
+                    categoryDTOTableRow.getStyleClass().add(Styles.TEXT_SUBTLE);
                 }
             });
             return categoryDTOTableRow;
@@ -120,12 +156,11 @@ public class CategoryController implements Initializable {
     }
 
     public void onSearch(ActionEvent actionEvent) {
-        this.currentSearchTerm =  this.searchField.getText().trim();
-        loadCategory();
+        this.liveSearch.searchNow(this.searchField.getText());
     }
 
     public void onUpdate(ActionEvent actionEvent) {
-        this.onSearch(actionEvent);
+        this.loadCategory();
     }
 
     public void onCreateCategory(ActionEvent actionEvent) {
@@ -137,7 +172,7 @@ public class CategoryController implements Initializable {
             String titleModal = Objects.isNull(categoryDTO) ? "Crear categoria" : "Actualizar categoria";
             this.modalViewService.loadViewByPathAndParam(ViewConfiguration.CATEGORY_FORM_VIEW, titleModal, categoryDTO);
             this.loadCategory();
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             this.alertViewService.showErrorDialog("Error", "Error al abrir el formulario de producto: " + e.getMessage(), this.stage);
             LOGGER.error("Error al abrir el formulario de producto", e);
         }
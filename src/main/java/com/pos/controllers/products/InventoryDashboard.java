@@ -1,17 +1,15 @@
 package com.pos.controllers.products;
 
-import com.pos.services.core.ModalViewService;
+import com.pos.manager.core.ViewRegistry;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 
@@ -20,16 +18,13 @@ public class InventoryDashboard implements Initializable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InventoryDashboard.class);
 
-    private final ApplicationContext applicationContext;
-    private final ModalViewService modalViewService;
+    private final ViewRegistry viewRegistry;
 
     @FXML
     private TabPane inventoryTabPane;
 
-    public InventoryDashboard(ApplicationContext applicationContext,
-                              ModalViewService modalViewService) {
-        this.applicationContext = applicationContext;
-        this.modalViewService = modalViewService;
+    public InventoryDashboard(ViewRegistry viewRegistry) {
+        this.viewRegistry = viewRegistry;
     }
 
     @Override
@@ -53,9 +48,8 @@ public class InventoryDashboard implements Initializable {
         try {
             String tabId = tab.getId();
             InventoryView inventoryView = InventoryView.getByTabId(tabId);
-            FXMLLoader loader = this.modalViewService.createFxmlLoaderByPathView(inventoryView.getPathView());
-            tab.setContent(loader.load());
-        } catch (IOException e) {
+            tab.setContent(this.viewRegistry.get(inventoryView.getPathView()).getRoot());
+        } catch (UncheckedIOException e) {
             LOGGER.error("Error al cargar tab de Inventario", e);
         }
     }
@@ -109,6 +109,9 @@ public class ProductFormController implements Initializable, FormInitialize {
     public void setProduct(Product product) {
         this.product = product;
 
+        // The form is reused, so clear what the previous opening left
+        errorLabel.setText("");
+
         if (product != null) {
             // Editing existing product
             titleLabel.setText("Editar Producto");
@@ -120,6 +123,8 @@ public class ProductFormController implements Initializable, FormInitialize {
             priceField.setText(product.getPrice().toString());
             //costField.setText(product.getCost().toString());
             //stockField.setText(product.getStock().toString());
+            costField.clear();
+            stockField.clear();
         } else {
             // Creating new product
             titleLabel.setText("Agregar Producto");
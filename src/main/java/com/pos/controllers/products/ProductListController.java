@@ -1,36 +1,52 @@
 package com.pos.controllers.products;
 
-import atlantafx.base.theme.Styles;
 import atlantafx.base.theme.Tweaks;
+import com.pos.actions.products.ProductActionCell;
 import com.pos.config.ViewConfiguration;
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.manager.core.LiveSearch;
+import com.pos.manager.core.PermissionSnapshot;
 import com.pos.manager.core.StageManager;
+import com.pos.manager.product.PriceCache;
+import com.pos.manager.product.ProductKeysetPager;
+import com.pos.manager.product.ProductWindowList;
 import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductSortKey;
 import com.pos.services.core.AuthService;
+import com.pos.services.core.BackgroundTaskService;
+import com.pos.services.core.ModalViewService;
+import com.pos.services.products.CatalogueExportService;
 import com.pos.services.products.ProductService;
+import com.pos.utils.TableCellFactory;
 import javafx.application.Platform;
-import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.stage.Modality;
-import javafx.stage.Stage;
-import javafx.util.Callback;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URL;
-import java.text.NumberFormat;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Controller for the product list view.
@@ -38,6 +54,8 @@ import java.util.ResourceBundle;
 @Controller
 public class ProductListController implements Initializable {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductListController.class);
+
     @FXML
     private TableView<Product> productTable;
 
@@ -51,7 +69,7 @@ public class ProductListController implements Initializable {
     private TableColumn<Product, String> nameColumn;
 
     @FXML
-    private TableColumn<Product, BigDecimal> priceColumn;
+    private TableColumn<Product, Product> priceColumn;
 
     @FXML
     private TableColumn<Product, BigDecimal> costColumn;
@@ -74,9 +92,18 @@ public class ProductListController implements Initializable {
     @FXML
     private Button refreshButton;
 
+    @FXML
+    private Button exportButton;
+
+    @FXML
+    private ProgressBar exportProgress;
+
     @FXML
     private Pagination pagination;
 
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
     @FXML
     private ComboBox<String> sortByComboBox;
 
@@ -86,34 +113,67 @@ public class ProductListController implements Initializable {
     private final ProductService productService;
     private final StageManager stageManager;
     private final AuthService authService;
-    private final ApplicationContext applicationContext;
+    private final ModalViewService modalViewService;
+    private final BackgroundTaskService backgroundTaskService;
+    private final PriceCache priceCache;
+    private final CatalogueExportService catalogueExportService;
 
     private final ObservableList<Product> productList = FXCollections.observableArrayList();
     private int currentPage = 0;
-    private String currentSortBy = "id";
+    private ProductSortKey currentSortBy = ProductSortKey.ID;
     private boolean currentSortAscending = true;
     private String currentSearchTerm = "";
+    private ProductKeysetPager pager;
+
+    // Infinite scroll: the table shows a window list fed by blocks, and each sort reads with its own pager
+    private static final int BLOCK_SIZE = 100;
+    private static final int MAX_BLOCKS = 20;
+    private static final int PREFETCH_BLOCKS = 2;
+    private ProductWindowList windowList;
+    private final Map<ProductWindowList.Query, ProductKeysetPager> blockPagers = new ConcurrentHashMap<>();
+    private final AtomicLong blockRequests = new AtomicLong();
 
     @Value("${app.ui.page-size:20}")
     private int pageSize;
 
+    @Value("${app.ui.infinite-scroll:false}")
+    private boolean infiniteScroll;
+
+    @Value("${app.ui.search-delay-ms:250}")
+    private int searchDelay;
+
+    private LiveSearch<Page<Product>> liveSearch;
+
+    // Export runs in the background; the export button cancels it while it runs
+    private final AtomicBoolean exportCancelled = new AtomicBoolean();
+    private boolean exporting;
+
     /**
      * Constructor with dependencies.
      *
      * @param productService The product service
      * @param stageManager The stage manager
      * @param authService The authentication service
-     * @param applicationContext The Spring application context
+     * @param modalViewService The service that shows the product form
+     * @param backgroundTaskService The service that runs loads off the FX thread
+     * @param priceCache The precomputed gross prices
+     * @param catalogueExportService The service that exports the catalogue
      */
     public ProductListController(
             ProductService productService,
             StageManager stageManager,
             AuthService authService,
-            ApplicationContext applicationContext) {
+            ModalViewService modalViewService,
+            BackgroundTaskService backgroundTaskService,
+            PriceCache priceCache,
+            CatalogueExportService catalogueExportService) {
         this.productService = productService;
         this.stageManager = stageManager;
         this.authService = authService;
-        this.applicationContext = applicationContext;
+        this.modalViewService = modalViewService;
+        this.backgroundTaskService = backgroundTaskService;
+        this.priceCache = priceCache;
+        this.catalogueExportService = catalogueExportService;
     }
 
     /**
@@ -124,6 +184,11 @@ public class ProductListController implements Initializable {
      */
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        pager = new ProductKeysetPager(productService, pageSize);
+        if (infiniteScroll) {
+            windowList = new ProductWindowList(BLOCK_SIZE, MAX_BLOCKS, PREFETCH_BLOCKS, this::fetchBlock);
+        }
+
         // Initialize table columns
         initializeTableColumns();
 
@@ -132,8 +197,29 @@ public class ProductListController implements Initializable {
 
         // Set button actions
         addButton.setOnAction(event -> openProductForm(null));
-        refreshButton.setOnAction(event -> loadProducts());
+        refreshButton.setOnAction(event -> {
+            pager.reset();
+            loadProducts();
+        });
         searchButton.setOnAction(event -> search());
+        exportButton.setOnAction(event -> {
+            if (exporting) {
+                exportCancelled.set(true);
+            } else {
+                exportCatalogue();
+            }
+        });
+
+        // Live results while typing. The search index is in memory, so narrower terms are not
+        // filtered from the previous result: that would lose its fuzzy matching and ranking
+        liveSearch = new LiveSearch<>(backgroundTaskService, "products.search", Duration.millis(searchDelay),
+                searchTerm -> searchTerm.isEmpty() ? null
+                        : productService.searchProducts(searchTerm, 0, windowList != null ? BLOCK_SIZE : pageSize),
+                null,
+                this::showSearchResult,
+                e -> stageManager.showErrorDialog("Error", "Error al buscar productos: " + e.getMessage()),
+                loadingIndicator);
+        liveSearch.bind(searchField);
 
         // Enter key in search field triggers search
         searchField.setOnKeyPressed(event -> {
@@ -142,11 +228,16 @@ public class ProductListController implements Initializable {
             }
         });
 
-        // Set up pagination
-        pagination.setPageFactory(this::createPage);
+        // Set up pagination, which infinite scroll replaces
+        if (windowList != null) {
+            pagination.setVisible(false);
+            pagination.setManaged(false);
+        } else {
+            pagination.setPageFactory(this::createPage);
+        }
 
         // Load initial data
-        loadProducts();
+        showProducts();
 
         // Set button permissions
         setButtonPermissions();
@@ -156,23 +247,15 @@ public class ProductListController implements Initializable {
      * Initializes the table columns.
      */
     private void initializeTableColumns() {
-        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        barcodeColumn.setCellValueFactory(new PropertyValueFactory<>("barcode"));
-        nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
+        // Typed getters instead of PropertyValueFactory reflection; cells keep their graphics and formatter
+        idColumn.setCellValueFactory(TableCellFactory.value(Product::getId));
+        barcodeColumn.setCellValueFactory(TableCellFactory.value(Product::getBarcode));
+        nameColumn.setCellValueFactory(TableCellFactory.value(Product::getName));
 
-        // Format price column
-        //priceColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getPrice()));
-        priceColumn.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(BigDecimal price, boolean empty) {
-                super.updateItem(price, empty);
-                if (empty || price == null) {
-                    setText(null);
-                } else {
-                    setText(NumberFormat.getCurrencyInstance().format(price));
-                }
-            }
-        });
+        // Format price column: the gross price is read from the precomputed cache
+        priceColumn.setCellValueFactory(TableCellFactory.row());
+        priceColumn.setCellFactory(TableCellFactory.currency(product -> product.getId() == null
+                ? TableCellFactory.NO_VALUE : priceCache.getRetailCents(product.getId())));
 
         //costColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getCost()));
         costColumn.setCellFactory(column -> new TableCell<>() {
@@ -182,21 +265,23 @@ public class ProductListController implements Initializable {
                 if (empty || price == null) {
                     setText(null);
                 } else {
-                    setText(NumberFormat.getCurrencyInstance().format(price));
+                    setText(TableCellFactory.formatAmount(price));
                 }
             }
         });
 
-        stockColumn.setCellValueFactory(new PropertyValueFactory<>("stock"));
+        // Stock lives in the ledger now, which is not read per row; Product has no stock property
+        //stockColumn.setCellValueFactory(new PropertyValueFactory<>("stock"));
 
         // Configure actions column
+        boolean canDelete = authService.getPermissions().has(PermissionSnapshot.ADMIN);
         actionsColumn.getStyleClass().add(Tweaks.ALIGN_CENTER);
-        actionsColumn.setCellValueFactory(param -> new SimpleObjectProperty<>(param.getValue()));
-        actionsColumn.setCellFactory(getActionColumnCellFactory());
+        actionsColumn.setCellValueFactory(TableCellFactory.row());
+        actionsColumn.setCellFactory(column -> new ProductActionCell(this, canDelete));
 
         productTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
         // Set table items
-        productTable.setItems(productList);
+        productTable.setItems(windowList != null ? windowList : productList);
     }
 
     /**
@@ -204,33 +289,30 @@ public class ProductListController implements Initializable {
      */
     private void initializeSortOptions() {
         // Populate sort by combo box
-        sortByComboBox.getItems().addAll("ID", "Código", "Nombre", "Precio", "Costo", "Stock");
+        sortByComboBox.getItems().addAll("ID", "Código", "Nombre", "Precio", "Costo");
         sortByComboBox.setValue("ID");
         sortByComboBox.setOnAction(event -> {
             switch (sortByComboBox.getValue()) {
                 case "ID":
-                    currentSortBy = "id";
+                    currentSortBy = ProductSortKey.ID;
                     break;
                 case "Código":
-                    currentSortBy = "barcode";
+                    currentSortBy = ProductSortKey.BARCODE;
                     break;
                 case "Nombre":
-                    currentSortBy = "name";
+                    currentSortBy = ProductSortKey.NAME;
                     break;
                 case "Precio":
-                    currentSortBy = "price";
+                    currentSortBy = ProductSortKey.PRICE;
                     break;
                 case "Costo":
-                    currentSortBy = "cost";
-                    break;
-                case "Stock":
-                    currentSortBy = "stock";
+                    currentSortBy = ProductSortKey.COST;
                     break;
                 default:
-                    currentSortBy = "id";
+                    currentSortBy = ProductSortKey.ID;
                     break;
             }
-            loadProducts();
+            changeSort();
         });
 
         // Populate sort direction combo box
@@ -238,16 +320,25 @@ public class ProductListController implements Initializable {
         sortDirectionComboBox.setValue("Ascendente");
         sortDirectionComboBox.setOnAction(event -> {
             currentSortAscending = "Ascendente".equals(sortDirectionComboBox.getValue());
-            loadProducts();
+            changeSort();
         });
     }
 
+    /**
+     * Applies the selected sort and goes back to the first page.
+     */
+    private void changeSort() {
+        pager.sort(currentSortBy, currentSortAscending);
+        currentPage = 0;
+        showProducts();
+    }
+
     /**
      * Sets button permissions based on user role.
      */
     private void setButtonPermissions() {
         // Only admins and vendors can add products
-        addButton.setDisable(!authService.hasRole("ROLE_ADMIN") && !authService.hasRole("ROLE_VENDEDOR"));
+        addButton.setDisable(!authService.getPermissions().hasAny(PermissionSnapshot.ADMIN, PermissionSnapshot.VENDEDOR));
     }
 
     /**
@@ -258,94 +349,190 @@ public class ProductListController implements Initializable {
      */
     private TableView<Product> createPage(int pageIndex) {
         currentPage = pageIndex;
-        loadProducts();
+        loadPage();
         return productTable;
     }
 
     /**
-     * Loads products from the service.
+     * Reloads the products after the catalogue changed. With infinite scroll every cached block
+     * is dropped.
      */
     public void loadProducts() {
-        try {
-            Page<Product> productPage;
+        if (windowList != null) {
+            blockPagers.clear();
+            windowList.invalidate();
+        } else {
+            loadPage();
+        }
+    }
 
-            // Check if searching
-            if (currentSearchTerm != null && !currentSearchTerm.trim().isEmpty()) {
-                productPage = productService.searchProducts(currentSearchTerm, currentPage, pageSize);
-            } else {
-                productPage = productService.findAllPaginated(currentPage, pageSize, currentSortBy, currentSortAscending);
+    /**
+     * Reloads the visible products when scheduled prices take effect, so the list shows the new
+     * prices without waiting for the user to page or search.
+     *
+     * @param event The activated changes
+     */
+    @TransactionalEventListener
+    public void onPricesActivated(PricesActivatedEvent event) {
+        if (productTable != null) {
+            Platform.runLater(this::loadProducts);
+        }
+    }
+
+    /**
+     * Shows the current sort or search: the current page, or with infinite scroll the blocks
+     * cached for that query.
+     */
+    private void showProducts() {
+        if (windowList != null) {
+            String searchTerm = currentSearchTerm;
+            windowList.setQuery(searchTerm == null || searchTerm.isEmpty()
+                    ? ProductWindowList.Query.sorted(currentSortBy, currentSortAscending)
+                    : ProductWindowList.Query.search(searchTerm));
+        } else {
+            loadPage();
+        }
+    }
+
+    /**
+     * Reads a block for the infinite scroll in the background. Each block is its own task, so
+     * reading one never cancels another.
+     *
+     * @param query The query to read
+     * @param block The block index
+     */
+    private void fetchBlock(ProductWindowList.Query query, int block) {
+        backgroundTaskService.submit("products.block." + blockRequests.incrementAndGet(), () -> {
+            if (query.isSearch()) {
+                return productService.searchProducts(query.getSearchTerm(), block, BLOCK_SIZE);
             }
+            ProductKeysetPager blockPager = blockPagers.computeIfAbsent(query, key -> {
+                ProductKeysetPager queryPager = new ProductKeysetPager(productService, BLOCK_SIZE);
+                queryPager.sort(key.getSortKey(), key.isAscending());
+                return queryPager;
+            });
+            // Blocks read in order continue by keyset from the previous one
+            return blockPager.page(block);
+        }, productPage -> windowList.blockLoaded(query, block, productPage.getContent(), productPage.getTotalElements()),
+                e -> windowList.blockFailed(query, block));
+    }
+
+    /**
+     * Loads the current page in the background. A newer load supersedes one still running.
+     */
+    private void loadPage() {
+        String searchTerm = currentSearchTerm;
+        int page = currentPage;
 
+        backgroundTaskService.submit("products.load", () -> {
+            // Check if searching
+            if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+                return productService.searchProducts(searchTerm, page, pageSize);
+            }
+            // Keyset pagination: the cost of a page does not depend on its depth
+            return pager.page(page);
+        }, productPage -> {
             // Update pagination
             int totalPages = productPage.getTotalPages();
             pagination.setPageCount(totalPages > 0 ? totalPages : 1);
-            pagination.setCurrentPageIndex(currentPage);
+            pagination.setCurrentPageIndex(page);
 
             // Update table
-            productList.clear();
-            productList.addAll(productPage.getContent());
-        } catch (Exception e) {
-            stageManager.showErrorDialog("Error", "Error al cargar los productos: " + e.getMessage());
-        }
+            productList.setAll(productPage.getContent());
+        }, e -> stageManager.showErrorDialog("Error", "Error al cargar los productos: " + e.getMessage()),
+                loadingIndicator);
     }
 
     /**
      * Performs a search based on the search field text.
      */
     private void search() {
-        currentSearchTerm = searchField.getText().trim();
-        currentPage = 0;
-        pagination.setCurrentPageIndex(0);
-        loadProducts();
+        liveSearch.searchNow(searchField.getText());
     }
 
     /**
-     * Gets the cell factory for the action column.
+     * Shows the first rows of a search, or the whole catalogue again when the term is empty.
      *
-     * @return The cell factory
+     * @param searchTerm The search term
+     * @param firstPage The first rows of the search, null for an empty term
      */
-    private Callback<TableColumn<Product, Product>, TableCell<Product, Product>> getActionColumnCellFactory() {
-        return param -> new TableCell<>() {
-            private final Button editButton = new Button("Editar");
-            private final Button deleteButton = new Button("Eliminar");
-
-            {
-                // Configure edit button
-                editButton.getStyleClass().add(Styles.WARNING);
-                editButton.setOnAction(event -> {
-                    Product product = getTableView().getItems().get(getIndex());
-                    openProductForm(product);
-                });
-
-                // Configure delete button
-                deleteButton.getStyleClass().add(Styles.DANGER);
-                deleteButton.setOnAction(event -> {
-                    Product product = getTableView().getItems().get(getIndex());
-                    deleteProduct(product);
-                });
-
-                // Disable buttons for non-admin users
-                if (!authService.hasRole("ROLE_ADMIN")) {
-                    deleteButton.setDisable(true);
-                }
+    private void showSearchResult(String searchTerm, Page<Product> firstPage) {
+        currentSearchTerm = searchTerm;
+        currentPage = 0;
+        if (firstPage == null) {
+            pagination.setCurrentPageIndex(0);
+            showProducts();
+        } else if (windowList != null) {
+            ProductWindowList.Query query = ProductWindowList.Query.search(searchTerm);
+            windowList.seed(query, 0, firstPage.getContent(), firstPage.getTotalElements());
+            windowList.setQuery(query);
+        } else {
+            int totalPages = firstPage.getTotalPages();
+            pagination.setPageCount(totalPages > 0 ? totalPages : 1);
+            pagination.setCurrentPageIndex(0);
+            productList.setAll(firstPage.getContent());
+        }
+    }
+
+    /**
+     * Exports the catalogue to a CSV or Excel file chosen by the user, in the background with
+     * progress. A cancelled or failed export deletes the partial file.
+     */
+    private void exportCatalogue() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exportar catálogo");
+        fileChooser.setInitialFileName("productos.csv");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("Excel", "*.xlsx"));
+        File file = fileChooser.showSaveDialog(stageManager.getPrimaryStage());
+        if (file == null) {
+            return;
+        }
+        CatalogueExportService.Format format = file.getName().toLowerCase(Locale.ROOT).endsWith(".xlsx")
+                ? CatalogueExportService.Format.XLSX : CatalogueExportService.Format.CSV;
+
+        exporting = true;
+        exportCancelled.set(false);
+        exportButton.setText("Cancelar exportación");
+        exportProgress.setProgress(0);
+        exportProgress.setVisible(true);
+
+        backgroundTaskService.submit("products.export", () -> {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                return catalogueExportService.export(output, format, progress -> {
+                    double done = progress.getTotal() > 0 ? (double) progress.getExported() / progress.getTotal() : 1;
+                    Platform.runLater(() -> exportProgress.setProgress(Math.min(done, 1)));
+                }, exportCancelled::get);
             }
+        }, result -> {
+            finishExport();
+            if (result.isCancelled()) {
+                deletePartialExport(file);
+                stageManager.showInfoDialog("Exportación cancelada", "No se generó el archivo.");
+            } else {
+                stageManager.showInfoDialog("Catálogo exportado",
+                        result.getExported() + " productos exportados a " + file.getName());
+            }
+        }, e -> {
+            finishExport();
+            deletePartialExport(file);
+            stageManager.showErrorDialog("Error", "Error al exportar el catálogo: " + e.getMessage());
+        });
+    }
 
-            @Override
-            protected void updateItem(Product product, boolean empty) {
-                super.updateItem(product, empty);
+    private void finishExport() {
+        exporting = false;
+        exportButton.setText("Exportar");
+        exportProgress.setVisible(false);
+    }
 
-                if (empty || product == null) {
-                    setGraphic(null);
-                    setText(null);
-                } else {
-                    // Create button container
-                    javafx.scene.layout.HBox buttons = new javafx.scene.layout.HBox(5);
-                    buttons.getChildren().addAll(editButton, deleteButton);
-                    setGraphic(buttons);
-                    setText(null);
-                }
-            }
-        };
+    private static void deletePartialExport(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("No se pudo eliminar la exportación incompleta {}", file, e);
+        }
     }
 
     /**
@@ -354,27 +541,16 @@ public class ProductListController implements Initializable {
      *
      * @param product El producto a editar, o null para crear uno nuevo
      */
-    private void openProductForm(Product product) {
+    public void openProductForm(Product product) {
         try {
-            // Load the product form FXML
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(ViewConfiguration.PRODUCT_FORM_VIEW));
-            fxmlLoader.setControllerFactory(applicationContext::getBean);
-            Parent formRoot = fxmlLoader.load();
-
-            // Get the controller and set the product
-            ProductFormController controller = fxmlLoader.getController();
-            controller.setProduct(product);
-            controller.setProductListController(this);
-
-            // Create a new stage for the form
-            Stage formStage = new Stage();
-            formStage.initModality(Modality.APPLICATION_MODAL);
-            formStage.initOwner(stageManager.getPrimaryStage());
-            formStage.setTitle(product == null ? "Agregar Producto" : "Editar Producto");
-            formStage.setScene(new Scene(formRoot));
-            formStage.showAndWait();
+            // The form is parsed once and reset with the product on every opening
+            modalViewService.<ProductFormController>showModal(ViewConfiguration.PRODUCT_FORM_VIEW,
+                    product == null ? "Agregar Producto" : "Editar Producto", controller -> {
+                        controller.setProduct(product);
+                        controller.setProductListController(this);
+                    });
 
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             Platform.runLater(() -> {
                 stageManager.showErrorDialog("Error", "Error al abrir el formulario de producto: " + e.getMessage());
             });
@@ -388,7 +564,7 @@ public class ProductListController implements Initializable {
      *
      * @param product The product to delete
      */
-    private void deleteProduct(Product product) {
+    public void deleteProduct(Product product) {
         // Confirm deletion using Platform.runLater to avoid threading issues
         Platform.runLater(() -> {
             boolean confirmed = stageManager.showConfirmationDialog(
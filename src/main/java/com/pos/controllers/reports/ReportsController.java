@@ -0,0 +1,193 @@
+package com.pos.controllers.reports;
+
+import com.pos.dtos.reports.ReportRowDTO;
+import com.pos.interfaces.core.ReusableView;
+import com.pos.manager.core.PermissionSnapshot;
+import com.pos.manager.core.StageManager;
+import com.pos.services.core.AuthService;
+import com.pos.services.core.BackgroundTaskService;
+import com.pos.services.reports.ReportService;
+import com.pos.utils.TableCellFactory;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Controller;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Controlador de la vista de reportes. Las consultas leen los totales ya agregados, así que
+ * abren al instante sin importar cuántas ventas haya en el historial.
+ */
+@Controller
+public class ReportsController implements Initializable, ReusableView {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportsController.class);
+
+    private static final Map<String, ReportService.Grouping> GROUPINGS = Map.of(
+            "Día", ReportService.Grouping.DAY,
+            "Hora", ReportService.Grouping.HOUR,
+            "Producto", ReportService.Grouping.PRODUCT,
+            "Categoría", ReportService.Grouping.CATEGORY,
+            "Impuesto", ReportService.Grouping.TAX);
+
+    @FXML
+    private DatePicker fromDatePicker;
+
+    @FXML
+    private DatePicker toDatePicker;
+
+    @FXML
+    private ComboBox<String> groupingComboBox;
+
+    @FXML
+    private Button rebuildButton;
+
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
+    @FXML
+    private Label salesLabel;
+
+    @FXML
+    private Label totalLabel;
+
+    @FXML
+    private Label taxLabel;
+
+    @FXML
+    private Label inventoryLabel;
+
+    @FXML
+    private TableView<ReportRowDTO> reportTable;
+
+    @FXML
+    private TableColumn<ReportRowDTO, String> labelColumn;
+
+    @FXML
+    private TableColumn<ReportRowDTO, Long> entriesColumn;
+
+    @FXML
+    private TableColumn<ReportRowDTO, Long> quantityColumn;
+
+    @FXML
+    private TableColumn<ReportRowDTO, ReportRowDTO> netColumn;
+
+    @FXML
+    private TableColumn<ReportRowDTO, ReportRowDTO> taxColumn;
+
+    @FXML
+    private TableColumn<ReportRowDTO, ReportRowDTO> totalColumn;
+
+    private final ObservableList<ReportRowDTO> rows = FXCollections.observableArrayList();
+    private final ReportService reportService;
+    private final BackgroundTaskService backgroundTaskService;
+    private final AuthService authService;
+    private final StageManager stageManager;
+
+    /**
+     * Constructor con dependencias.
+     *
+     * @param reportService Servicio de reportes
+     * @param backgroundTaskService Ejecuta las consultas fuera del hilo de JavaFX
+     * @param authService Servicio de autenticación
+     * @param stageManager Gestor de ventanas
+     */
+    public ReportsController(ReportService reportService, BackgroundTaskService backgroundTaskService,
+                             AuthService authService, StageManager stageManager) {
+        this.reportService = reportService;
+        this.backgroundTaskService = backgroundTaskService;
+        this.authService = authService;
+        this.stageManager = stageManager;
+    }
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        labelColumn.setCellValueFactory(TableCellFactory.value(ReportRowDTO::label));
+        entriesColumn.setCellValueFactory(TableCellFactory.value(ReportRowDTO::entries));
+        quantityColumn.setCellValueFactory(TableCellFactory.value(ReportRowDTO::quantity));
+        netColumn.setCellValueFactory(TableCellFactory.row());
+        netColumn.setCellFactory(TableCellFactory.currency(ReportRowDTO::netCents));
+        taxColumn.setCellValueFactory(TableCellFactory.row());
+        taxColumn.setCellFactory(TableCellFactory.currency(ReportRowDTO::taxCents));
+        totalColumn.setCellValueFactory(TableCellFactory.row());
+        totalColumn.setCellFactory(TableCellFactory.currency(ReportRowDTO::totalCents));
+        reportTable.setItems(rows);
+
+        groupingComboBox.getItems().addAll("Día", "Hora", "Producto", "Categoría", "Impuesto");
+        groupingComboBox.setOnAction(event -> showReport());
+        resetView();
+    }
+
+    /**
+     * Vuelve al reporte del mes en curso para el usuario que abre la vista.
+     */
+    @Override
+    public void resetView() {
+        LocalDate today = LocalDate.now();
+        fromDatePicker.setValue(today.withDayOfMonth(1));
+        toDatePicker.setValue(today);
+        groupingComboBox.setValue("Día");
+        // Recalcular lee todo el historial, así que queda para el administrador
+        rebuildButton.setDisable(!authService.getPermissions().has(PermissionSnapshot.ADMIN));
+        showReport();
+    }
+
+    public void onShow(ActionEvent actionEvent) {
+        showReport();
+    }
+
+    public void onRebuild(ActionEvent actionEvent) {
+        if (!stageManager.showConfirmationDialog("Recalcular reportes",
+                "Se volverán a sumar todas las ventas del historial. ¿Desea continuar?")) {
+            return;
+        }
+        backgroundTaskService.submit("reports.rebuild", reportService::rebuild, lines -> {
+            stageManager.showInfoDialog("Reportes recalculados", "Se procesaron " + lines + " líneas de venta.");
+            showReport();
+        }, e -> {
+            LOGGER.error("Error al recalcular los reportes", e);
+            stageManager.showErrorDialog("Error", "Error al recalcular los reportes: " + e.getMessage());
+        }, loadingIndicator);
+    }
+
+    private void showReport() {
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        ReportService.Grouping grouping = GROUPINGS.get(groupingComboBox.getValue());
+        if (from == null || to == null || grouping == null) {
+            return;
+        }
+
+        backgroundTaskService.submit("reports.load",
+                () -> new Report(reportService.getTotals(from, to), reportService.getSales(from, to, grouping),
+                        reportService.getInventoryValueCents()),
+                report -> {
+                    rows.setAll(report.rows());
+                    salesLabel.setText("Ventas: " + report.totals().entries());
+                    totalLabel.setText("Total: " + TableCellFactory.formatCents(report.totals().totalCents()));
+                    taxLabel.setText("Impuestos: " + TableCellFactory.formatCents(report.totals().taxCents()));
+                    inventoryLabel.setText("Inventario a costo: " + TableCellFactory.formatCents(report.inventoryCents()));
+                },
+                e -> stageManager.showErrorDialog("Error", "Error al consultar el reporte: " + e.getMessage()),
+                loadingIndicator);
+    }
+
+    private record Report(ReportRowDTO totals, List<ReportRowDTO> rows, long inventoryCents) {
+    }
+}
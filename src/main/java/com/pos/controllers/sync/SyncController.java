@@ -0,0 +1,100 @@
+package com.pos.controllers.sync;
+
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.dtos.sync.SyncAckDTO;
+import com.pos.dtos.sync.SyncBatchDTO;
+import com.pos.manager.sync.CataloguePuller;
+import com.pos.manager.sync.JournalReplicator;
+import com.pos.services.sync.CatalogueDeltaService;
+import com.pos.services.sync.SyncReceiverService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Back-office endpoints that receive the journals of the tills and send them the catalogue.
+ * Tills authenticate with the shared {@code app.sync.token}; without a token configured the
+ * endpoints refuse every request.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SyncController {
+
+    private final SyncReceiverService syncReceiverService;
+    private final CatalogueDeltaService catalogueDeltaService;
+    private final byte[] token;
+
+    public SyncController(SyncReceiverService syncReceiverService, CatalogueDeltaService catalogueDeltaService,
+                          @Value("${app.sync.token:}") String token) {
+        this.syncReceiverService = syncReceiverService;
+        this.catalogueDeltaService = catalogueDeltaService;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stores a batch of journal entries.
+     *
+     * @param tillToken The shared secret sent by the till
+     * @param batch The batch
+     * @return The last sequence of the till stored without gaps
+     */
+    @PostMapping(JournalReplicator.ENTRIES_PATH)
+    public SyncAckDTO receive(@RequestHeader(name = JournalReplicator.TOKEN_HEADER, required = false) String tillToken,
+                              @RequestBody SyncBatchDTO batch) {
+        checkToken(tillToken);
+        try {
+            return new SyncAckDTO(syncReceiverService.receive(batch));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the catalogue rows changed after a version.
+     *
+     * @param tillToken The shared secret sent by the till
+     * @param after The last catalogue version the till applied
+     * @param limit The maximum number of changes
+     * @return The delta
+     */
+    @GetMapping(CataloguePuller.CHANGES_PATH)
+    public CatalogueDeltaDTO catalogueChanges(@RequestHeader(name = JournalReplicator.TOKEN_HEADER, required = false) String tillToken,
+                                              @RequestParam long after,
+                                              @RequestParam(defaultValue = "1000") int limit) {
+        checkToken(tillToken);
+        return catalogueDeltaService.changesAfter(after, limit);
+    }
+
+    /**
+     * Sends a page of the whole catalogue to a till that has never synchronized.
+     *
+     * @param tillToken The shared secret sent by the till
+     * @param after The last product ID of the previous page, 0 for the first page
+     * @param limit The maximum number of products
+     * @return The page
+     */
+    @GetMapping(CataloguePuller.SNAPSHOT_PATH)
+    public CatalogueDeltaDTO catalogueSnapshot(@RequestHeader(name = JournalReplicator.TOKEN_HEADER, required = false) String tillToken,
+                                               @RequestParam(defaultValue = "0") long after,
+                                               @RequestParam(defaultValue = "1000") int limit) {
+        checkToken(tillToken);
+        return catalogueDeltaService.snapshot(after, limit);
+    }
+
+    private void checkToken(String tillToken) {
+        if (token.length == 0 || tillToken == null
+                || !MessageDigest.isEqual(token, tillToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token de caja inválido");
+        }
+    }
+}
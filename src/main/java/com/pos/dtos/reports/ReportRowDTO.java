@@ -0,0 +1,14 @@
+package com.pos.dtos.reports;
+
+/**
+ * A row of a sales report, with amounts in cents.
+ *
+ * @param label What the row is about: a day, an hour, a product, a category or a tax
+ * @param entries Sales for days and hours, sold lines for the rest
+ * @param quantity Units sold
+ * @param netCents Total without tax
+ * @param taxCents Tax
+ * @param totalCents Total with tax
+ */
+public record ReportRowDTO(String label, long entries, long quantity, long netCents, long taxCents, long totalCents) {
+}
@@ -0,0 +1,22 @@
+package com.pos.dtos.sales;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A sale line with what the reports aggregate by, read without loading the sale or the product.
+ *
+ * @param lineId The line ID
+ * @param saleDate When the sale was made
+ * @param lineNumber The number of the line in its sale
+ * @param productId The product ID
+ * @param categoryId The category ID of the product when it was sold, or null if it was not recorded
+ * @param taxId The tax ID when it was sold, or null if the line is untaxed or the tax was not recorded
+ * @param quantity The quantity sold
+ * @param taxAmount The tax of the line
+ * @param total The total of the line with tax
+ * @param voided Whether the line was voided
+ */
+public record SoldLineDTO(Long lineId, LocalDateTime saleDate, int lineNumber, Long productId, Long categoryId,
+                          Long taxId, int quantity, BigDecimal taxAmount, BigDecimal total, boolean voided) {
+}
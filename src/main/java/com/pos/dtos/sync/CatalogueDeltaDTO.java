@@ -0,0 +1,68 @@
+package com.pos.dtos.sync;
+
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Catalogue rows the back office sends to a till, either the changes after a version or a page
+ * of the full snapshot. Rows carry their back-office IDs, which the till keeps.
+ *
+ * @param version The catalogue version the till reaches once the rows are applied
+ * @param more Whether the till should ask again straight away
+ * @param taxes Taxes to create or update
+ * @param categories Categories to create or update
+ * @param products Products to create or update, with their price
+ * @param deletedCategoryIds Categories that no longer exist
+ * @param deletedProductIds Products that no longer exist
+ */
+public record CatalogueDeltaDTO(long version, boolean more, List<TaxRow> taxes, List<CategoryRow> categories,
+                                List<ProductRow> products, List<Long> deletedCategoryIds, List<Long> deletedProductIds) {
+
+    /**
+     * @return The number of rows in the delta
+     */
+    public int size() {
+        return taxes.size() + categories.size() + products.size() + deletedCategoryIds.size() + deletedProductIds.size();
+    }
+
+    public record TaxRow(Long id, String name, String description, BigDecimal percentage) {
+
+        public static TaxRow of(Tax tax) {
+            return new TaxRow(tax.getId(), tax.getName(), tax.getDescription(), tax.getPercentage());
+        }
+    }
+
+    public record CategoryRow(Long id, String name, String description, boolean active) {
+
+        public static CategoryRow of(Category category) {
+            return new CategoryRow(category.getId(), category.getName(), category.getDescription(), category.isActive());
+        }
+    }
+
+    /**
+     * A product and its price, which only ever changes through its product.
+     */
+    public record ProductRow(Long id, String barcode, String name, String description, boolean active,
+                             Long categoryId, Timestamp creationDate, Long priceId, BigDecimal purchasePrice,
+                             BigDecimal salePrice, BigDecimal wholesalePrice, Long taxId, LocalDateTime priceUpdateDate) {
+
+        /**
+         * @param product A product with its price, tax and category loaded
+         * @return The row of the product
+         */
+        public static ProductRow of(Product product) {
+            Price price = product.getPrice();
+            return new ProductRow(product.getId(), product.getBarcode(), product.getName(), product.getDescription(),
+                    product.isActive(), product.getCategory().getId(), product.getCreationDate(), price.getId(),
+                    price.getPurchasePrice(), price.getSalePrice(), price.getWholesalePrice(),
+                    price.getTax() != null ? price.getTax().getId() : null, price.getUpdateDate());
+        }
+    }
+}
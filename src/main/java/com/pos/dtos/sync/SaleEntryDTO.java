@@ -0,0 +1,51 @@
+package com.pos.dtos.sync;
+
+import com.pos.models.sales.Sale;
+import com.pos.models.sales.SaleLine;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A committed sale as a till journals it for the back office.
+ *
+ * @param saleId The sale ID on the till
+ * @param saleDate When the sale was made
+ * @param cashier The username of the cashier
+ * @param wholesale Whether wholesale prices applied
+ * @param netTotal Total without tax
+ * @param taxTotal Tax
+ * @param total Total with tax
+ * @param lines The lines, in order
+ */
+public record SaleEntryDTO(Long saleId, LocalDateTime saleDate, String cashier, boolean wholesale,
+                           BigDecimal netTotal, BigDecimal taxTotal, BigDecimal total, List<Line> lines) {
+
+    /**
+     * @param lineNumber The number of the line in its sale
+     * @param productId The product ID
+     * @param taxId The tax ID, or null if the line is untaxed
+     * @param quantity The quantity sold
+     * @param unitPrice The unit price
+     * @param taxAmount The tax of the line
+     * @param total The total of the line with tax
+     * @param voided Whether the line was voided
+     */
+    public record Line(int lineNumber, Long productId, Long taxId, int quantity, BigDecimal unitPrice,
+                       BigDecimal taxAmount, BigDecimal total, boolean voided) {
+    }
+
+    /**
+     * @param sale A sale with its lines; the products are only read for their ID
+     * @return The entry of the sale
+     */
+    public static SaleEntryDTO of(Sale sale) {
+        List<Line> lines = sale.getLines().stream()
+                .map(line -> new Line(line.getLineNumber(), line.getProduct().getId(), line.getTaxId(),
+                        line.getQuantity(), line.getUnitPrice(), line.getTaxAmount(), line.getTotal(), line.isVoided()))
+                .toList();
+        return new SaleEntryDTO(sale.getId(), sale.getSaleDate(), sale.getCashier(), sale.isWholesale(),
+                sale.getNetTotal(), sale.getTaxTotal(), sale.getTotal(), lines);
+    }
+}
@@ -0,0 +1,28 @@
+package com.pos.dtos.sync;
+
+import com.pos.models.products.StockMovement;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stock ledger entry as a till journals it for the back office.
+ *
+ * @param movementId The movement ID on the till
+ * @param productId The product ID
+ * @param quantity The signed quantity: positive when stock comes in, negative when it goes out
+ * @param type The reason of the movement
+ * @param reference The source document, or null
+ * @param createdAt When the movement was recorded
+ */
+public record StockMovementEntryDTO(Long movementId, Long productId, int quantity, StockMovement.Type type,
+                                    String reference, LocalDateTime createdAt) {
+
+    /**
+     * @param movement A saved movement
+     * @return The entry of the movement
+     */
+    public static StockMovementEntryDTO of(StockMovement movement) {
+        return new StockMovementEntryDTO(movement.getId(), movement.getProductId(), movement.getQuantity(),
+                movement.getType(), movement.getReference(), movement.getCreatedAt());
+    }
+}
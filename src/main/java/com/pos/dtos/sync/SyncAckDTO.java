@@ -0,0 +1,9 @@
+package com.pos.dtos.sync;
+
+/**
+ * Answer of the back office to a batch.
+ *
+ * @param acknowledged The last sequence of the till stored without gaps; the till resends from the next one
+ */
+public record SyncAckDTO(long acknowledged) {
+}
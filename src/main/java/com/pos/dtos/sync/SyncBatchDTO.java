@@ -0,0 +1,12 @@
+package com.pos.dtos.sync;
+
+import java.util.List;
+
+/**
+ * Consecutive journal entries of a till, sent in one request.
+ *
+ * @param tillId The till that journaled the entries
+ * @param entries The entries, in sequence order
+ */
+public record SyncBatchDTO(String tillId, List<SyncEntryDTO> entries) {
+}
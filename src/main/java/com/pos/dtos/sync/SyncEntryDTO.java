@@ -0,0 +1,12 @@
+package com.pos.dtos.sync;
+
+/**
+ * A journal entry shipped from a till to the back office.
+ *
+ * @param sequence The position of the entry in the journal of the till, without gaps
+ * @param type The kind of entry, a {@link com.pos.manager.sync.JournalEntryType} name
+ * @param sourceId The ID of the journaled row on the till
+ * @param payload The entry as JSON
+ */
+public record SyncEntryDTO(long sequence, String type, long sourceId, String payload) {
+}
@@ -0,0 +1,21 @@
+package com.pos.events.products;
+
+/**
+ * Event published by {@link com.pos.services.products.CategoryService} whenever a category is
+ * created, updated or deleted.
+ */
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    /**
+     * @param categoryId The ID of the changed category
+     */
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
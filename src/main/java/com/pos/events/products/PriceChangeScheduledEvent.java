@@ -0,0 +1,32 @@
+package com.pos.events.products;
+
+import com.pos.models.products.ScheduledPriceChange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published by {@link com.pos.services.products.ScheduledPriceService} when a price or tax
+ * change is scheduled. The scheduler picks it up after the transaction commits, so it never
+ * has to poll the database for new changes.
+ */
+public class PriceChangeScheduledEvent {
+
+    private final Long changeId;
+    private final LocalDateTime effectiveAt;
+
+    /**
+     * @param change The saved change
+     */
+    public PriceChangeScheduledEvent(ScheduledPriceChange change) {
+        this.changeId = change.getId();
+        this.effectiveAt = change.getEffectiveAt();
+    }
+
+    public Long getChangeId() {
+        return changeId;
+    }
+
+    public LocalDateTime getEffectiveAt() {
+        return effectiveAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pos.events.products;
+
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+
+import java.util.List;
+
+/**
+ * Event published by {@link com.pos.services.products.ScheduledPriceService} when a batch of
+ * scheduled changes takes effect. Listeners that show or sell at the prices swap the whole batch
+ * at once after commit, so a basket never sees half of a price list change.
+ * <p>
+ * The usual {@link ProductChangedEvent}s and {@link TaxChangedEvent}s are published as well, for
+ * the caches that do not depend on prices.
+ */
+public class PricesActivatedEvent {
+
+    private final List<Product> products;
+    private final List<Tax> taxes;
+
+    /**
+     * @param products The products whose prices changed, with price and tax initialized
+     * @param taxes The taxes whose percentage changed
+     */
+    public PricesActivatedEvent(List<Product> products, List<Tax> taxes) {
+        this.products = List.copyOf(products);
+        this.taxes = List.copyOf(taxes);
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public List<Tax> getTaxes() {
+        return taxes;
+    }
+}
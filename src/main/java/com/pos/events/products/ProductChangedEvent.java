@@ -0,0 +1,67 @@
+package com.pos.events.products;
+
+import com.pos.models.products.Product;
+
+/**
+ * Event published by {@link com.pos.services.products.ProductService} whenever a product is
+ * created, updated or deleted. In-memory caches listen to it after the transaction commits.
+ */
+public class ProductChangedEvent {
+
+    /**
+     * Kind of change applied to the product.
+     */
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final Product product;
+    private final String previousBarcode;
+
+    private ProductChangedEvent(Type type, Long productId, Product product, String previousBarcode) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.previousBarcode = previousBarcode;
+    }
+
+    /**
+     * Creates an event for a product that was created or updated.
+     *
+     * @param product The saved product, with its associations initialized
+     * @param previousBarcode The barcode before the update, or null for new products
+     * @return The event
+     */
+    public static ProductChangedEvent saved(Product product, String previousBarcode) {
+        return new ProductChangedEvent(Type.SAVED, product.getId(), product, previousBarcode);
+    }
+
+    /**
+     * Creates an event for a deleted product.
+     *
+     * @param product The product that was deleted
+     * @return The event
+     */
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(Type.DELETED, product.getId(), product, product.getBarcode());
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public String getPreviousBarcode() {
+        return previousBarcode;
+    }
+}
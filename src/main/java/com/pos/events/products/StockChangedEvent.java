@@ -0,0 +1,37 @@
+package com.pos.events.products;
+
+import com.pos.models.products.StockMovement;
+
+/**
+ * Event published by {@link com.pos.manager.product.InventoryManager} whenever the on-hand
+ * quantity of a product changes. Listeners that keep stock figures read it after the
+ * transaction commits.
+ */
+public class StockChangedEvent {
+
+    private final StockMovement movement;
+
+    /**
+     * Creates an event for a stock movement.
+     *
+     * @param movement The saved ledger entry
+     */
+    public StockChangedEvent(StockMovement movement) {
+        this.movement = movement;
+    }
+
+    public Long getProductId() {
+        return movement.getProductId();
+    }
+
+    /**
+     * @return The signed quantity: positive when stock comes in, negative when it goes out
+     */
+    public int getQuantity() {
+        return movement.getQuantity();
+    }
+
+    public StockMovement getMovement() {
+        return movement;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pos.events.products;
+
+import com.pos.models.products.Tax;
+
+import java.math.BigDecimal;
+
+/**
+ * Event published by {@link com.pos.services.products.TaxService} whenever a tax is updated.
+ * Caches that hold prices with the tax applied listen to it after the transaction commits.
+ */
+public class TaxChangedEvent {
+
+    private final Long taxId;
+    private final BigDecimal percentage;
+
+    /**
+     * Creates an event for an updated tax.
+     *
+     * @param tax The saved tax
+     */
+    public TaxChangedEvent(Tax tax) {
+        this.taxId = tax.getId();
+        this.percentage = tax.getPercentage();
+    }
+
+    public Long getTaxId() {
+        return taxId;
+    }
+
+    public BigDecimal getPercentage() {
+        return percentage;
+    }
+}
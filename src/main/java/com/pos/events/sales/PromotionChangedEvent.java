@@ -0,0 +1,22 @@
+package com.pos.events.sales;
+
+/**
+ * Event published by {@link com.pos.services.sales.PromotionService} whenever a promotion is
+ * saved, switched on or off, or deleted. The compiled promotions are rebuilt after the
+ * transaction commits.
+ */
+public class PromotionChangedEvent {
+
+    private final Long promotionId;
+
+    /**
+     * @param promotionId The ID of the changed promotion
+     */
+    public PromotionChangedEvent(Long promotionId) {
+        this.promotionId = promotionId;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+}
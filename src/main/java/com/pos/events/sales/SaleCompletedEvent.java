@@ -0,0 +1,37 @@
+package com.pos.events.sales;
+
+import com.pos.manager.reports.SalesCubeDelta;
+import com.pos.models.sales.Sale;
+
+/**
+ * Event published by {@link com.pos.services.sales.SaleService} when a sale is checked out.
+ * Reports and the sync journal listen to it after the transaction commits.
+ */
+public class SaleCompletedEvent {
+
+    private final Sale sale;
+    private final SalesCubeDelta delta;
+
+    /**
+     * Creates an event for a saved sale.
+     *
+     * @param sale The saved sale, with its lines
+     * @param delta What the sale adds to the sales cube
+     */
+    public SaleCompletedEvent(Sale sale, SalesCubeDelta delta) {
+        this.sale = sale;
+        this.delta = delta;
+    }
+
+    public Sale getSale() {
+        return sale;
+    }
+
+    public Long getSaleId() {
+        return sale.getId();
+    }
+
+    public SalesCubeDelta getDelta() {
+        return delta;
+    }
+}
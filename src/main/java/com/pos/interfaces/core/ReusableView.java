@@ -0,0 +1,13 @@
+package com.pos.interfaces.core;
+
+/**
+ * Controller of a view that is parsed once and shown again, implemented by views that must
+ * clear what the previous use left behind.
+ */
+public interface ReusableView {
+
+    /**
+     * Called on the FX thread each time a cached view is shown again.
+     */
+    void resetView();
+}
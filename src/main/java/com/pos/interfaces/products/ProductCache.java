@@ -0,0 +1,44 @@
+package com.pos.interfaces.products;
+
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.models.products.Product;
+
+import java.util.List;
+
+/**
+ * In-memory view of the product catalogue that is filled once at startup.
+ * <p>
+ * Caches follow committed catalogue changes with their own listeners. Changes committed while
+ * a load was running are handed to them again through the methods below once the load is done,
+ * as the catalogue they were loaded with may predate them. Applying a change twice must leave
+ * the cache as applying it once; caches that do not follow a kind of change keep the default.
+ */
+public interface ProductCache {
+
+    /**
+     * Replaces the cache contents.
+     *
+     * @param products Every product, with price, tax and category initialized
+     */
+    void load(List<Product> products);
+
+    /**
+     * @param event A committed product change
+     */
+    default void onProductChanged(ProductChangedEvent event) {
+    }
+
+    /**
+     * @param event A committed tax change
+     */
+    default void onTaxChanged(TaxChangedEvent event) {
+    }
+
+    /**
+     * @param event A committed batch of scheduled price and tax changes
+     */
+    default void onPricesActivated(PricesActivatedEvent event) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.pos.manager.core;
+
+import javafx.animation.AnimationTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measures how long the JavaFX application thread is blocked between pulses.
+ * <p>
+ * JavaFX renders at 60 pulses per second, so a healthy gap between pulses is about 16.7 ms.
+ * Anything beyond that is time the FX thread spent blocked. Stalls above the threshold are
+ * logged together with the worst stall seen so far. Keeping an {@link AnimationTimer} active
+ * forces a pulse on every frame, so the monitor is opt-in through
+ * {@code app.ui.frame-monitor.enabled}.
+ */
+@Component
+public class FxFrameMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FxFrameMonitor.class);
+    private static final long PULSE_PERIOD_NANOS = 1_000_000_000L / 60;
+
+    @Value("${app.ui.frame-monitor.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.ui.frame-monitor.threshold-ms:16}")
+    private long thresholdMillis;
+
+    private AnimationTimer timer;
+    private long lastPulse;
+    private volatile long maxStallNanos;
+    private volatile long stalls;
+    private volatile long frames;
+
+    /**
+     * Starts monitoring if enabled. Must be called on the FX thread.
+     */
+    public void start() {
+        if (!enabled || timer != null) {
+            return;
+        }
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+        timer.start();
+        LOGGER.info("Monitor de frames activo (umbral {} ms)", thresholdMillis);
+    }
+
+    /**
+     * Stops monitoring. Must be called on the FX thread.
+     */
+    public void stop() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+            lastPulse = 0;
+        }
+    }
+
+    private void onPulse(long now) {
+        if (lastPulse != 0) {
+            long stall = now - lastPulse - PULSE_PERIOD_NANOS;
+            frames++;
+            if (stall > maxStallNanos) {
+                maxStallNanos = stall;
+            }
+            if (stall > thresholdMillis * 1_000_000) {
+                stalls++;
+                LOGGER.warn("Hilo de FX bloqueado {} ms (máximo {} ms, {} de {} frames)",
+                        stall / 1_000_000, maxStallNanos / 1_000_000, stalls, frames);
+            }
+        }
+        lastPulse = now;
+    }
+
+    /**
+     * @return Longest time the FX thread was blocked beyond a pulse period, in milliseconds
+     */
+    public long getMaxStallMillis() {
+        return maxStallNanos / 1_000_000;
+    }
+
+    /**
+     * @return Number of frames that exceeded the threshold
+     */
+    public long getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Resets the collected statistics.
+     */
+    public void reset() {
+        maxStallNanos = 0;
+        stalls = 0;
+        frames = 0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.pos.manager.core;
+
+import com.pos.services.core.BackgroundTaskService;
+import javafx.animation.PauseTransition;
+import javafx.scene.Node;
+import javafx.scene.control.TextInputControl;
+import javafx.util.Duration;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Search-as-you-type for a text field.
+ * <p>
+ * Keystrokes are debounced, so the query only runs once typing pauses. A term equal to the one
+ * already requested or shown is dropped, and a new query supersedes the one in flight through
+ * {@link BackgroundTaskService}, so a stale result is never shown. When a {@link Narrowing} is
+ * given and the new term only restricts the previous one, the result is computed in memory from
+ * the previous result instead of querying again.
+ * <p>
+ * Used from the FX thread only.
+ *
+ * @param <R> The result of a query
+ */
+public class LiveSearch<R> {
+
+    /**
+     * Derives the result of a more restrictive term from the result of a broader one.
+     *
+     * @param <R> The result of a query
+     */
+    @FunctionalInterface
+    public interface Narrowing<R> {
+
+        /**
+         * @param previous The complete result of the previous term
+         * @param previousTerm The previous term
+         * @param term The new term
+         * @return The result for the new term, or {@code null} if it has to be queried
+         */
+        R narrow(R previous, String previousTerm, String term);
+    }
+
+    private final BackgroundTaskService backgroundTaskService;
+    private final String key;
+    private final Function<String, R> query;
+    private final Narrowing<R> narrowing;
+    private final BiConsumer<String, R> onResult;
+    private final Consumer<Throwable> onError;
+    private final Node busyIndicator;
+    private final PauseTransition debounce;
+
+    private String typedTerm = "";
+    private String requestedTerm;
+    private String resultTerm;
+    private R result;
+
+    /**
+     * @param backgroundTaskService Runs the queries
+     * @param key The task key, so a new query supersedes the previous one
+     * @param delay How long typing has to pause before searching
+     * @param query Runs the search for a trimmed term, off the FX thread
+     * @param narrowing Derives narrower results in memory, may be null
+     * @param onResult Receives the term and its result on the FX thread
+     * @param onError Receives a failed query on the FX thread
+     * @param busyIndicator Node shown while a query runs, may be null
+     */
+    public LiveSearch(BackgroundTaskService backgroundTaskService, String key, Duration delay,
+                      Function<String, R> query, Narrowing<R> narrowing, BiConsumer<String, R> onResult,
+                      Consumer<Throwable> onError, Node busyIndicator) {
+        this.backgroundTaskService = backgroundTaskService;
+        this.key = key;
+        this.query = query;
+        this.narrowing = narrowing;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.busyIndicator = busyIndicator;
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(event -> run(typedTerm));
+    }
+
+    /**
+     * Searches as the user types in the field.
+     *
+     * @param field The search field
+     */
+    public void bind(TextInputControl field) {
+        field.textProperty().addListener((observable, oldText, newText) -> type(newText));
+    }
+
+    /**
+     * Searches once typing pauses.
+     *
+     * @param text The text typed so far
+     */
+    public void type(String text) {
+        typedTerm = normalize(text);
+        debounce.playFromStart();
+    }
+
+    /**
+     * Searches right away, for ENTER or the search button.
+     *
+     * @param text The search text
+     */
+    public void searchNow(String text) {
+        debounce.stop();
+        typedTerm = normalize(text);
+        run(typedTerm);
+    }
+
+    /**
+     * Queries the current term again, discarding the previous result, after the data changed.
+     */
+    public void refresh() {
+        debounce.stop();
+        requestedTerm = null;
+        resultTerm = null;
+        result = null;
+        run(typedTerm);
+    }
+
+    /**
+     * @return The term of the last search run
+     */
+    public String getTerm() {
+        return requestedTerm != null ? requestedTerm : typedTerm;
+    }
+
+    private void run(String term) {
+        if (term.equals(requestedTerm)) {
+            return;
+        }
+        requestedTerm = term;
+
+        R narrowed = narrowing != null && result != null ? narrowing.narrow(result, resultTerm, term) : null;
+        if (narrowed != null) {
+            backgroundTaskService.cancel(key);
+            accept(term, narrowed);
+            return;
+        }
+
+        backgroundTaskService.submit(key, () -> query.apply(term), queried -> accept(term, queried), e -> {
+            requestedTerm = null;
+            onError.accept(e);
+        }, busyIndicator);
+    }
+
+    private void accept(String term, R value) {
+        resultTerm = term;
+        result = value;
+        onResult.accept(term, value);
+    }
+
+    private static String normalize(String text) {
+        return Objects.requireNonNullElse(text, "").trim();
+    }
+}
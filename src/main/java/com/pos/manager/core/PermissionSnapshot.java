@@ -0,0 +1,123 @@
+package com.pos.manager.core;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The authorities granted to a user, frozen as a bit set when the user logs in.
+ * <p>
+ * Every authority name gets a bit the first time it is seen, shared by all snapshots. Checking a
+ * {@link Authority} resolved once, such as {@link #ADMIN}, is a single bit test; checking by name
+ * adds one map lookup. Snapshots never change: a new login builds a new one.
+ */
+public final class PermissionSnapshot {
+
+    private static final Map<String, Authority> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_BIT = new AtomicInteger();
+
+    public static final Authority ADMIN = authority("ROLE_ADMIN");
+    public static final Authority VENDEDOR = authority("ROLE_VENDEDOR");
+
+    /**
+     * Nobody logged in: nothing is granted.
+     */
+    public static final PermissionSnapshot NONE = new PermissionSnapshot(null, new BitSet());
+
+    private final String username;
+    private final BitSet granted;
+
+    private PermissionSnapshot(String username, BitSet granted) {
+        this.username = username;
+        this.granted = granted;
+    }
+
+    /**
+     * @param username The user the authorities belong to
+     * @param authorities The authorities granted to the user
+     * @return The snapshot of those authorities
+     */
+    public static PermissionSnapshot of(String username, Collection<? extends GrantedAuthority> authorities) {
+        BitSet granted = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getAuthority() != null) {
+                granted.set(authority(authority.getAuthority()).bit);
+            }
+        }
+        return new PermissionSnapshot(username, granted);
+    }
+
+    /**
+     * Resolves an authority name to its bit, to keep for repeated checks.
+     *
+     * @param name The authority name, such as {@code ROLE_ADMIN}
+     * @return The authority
+     */
+    public static Authority authority(String name) {
+        return AUTHORITIES.computeIfAbsent(name, key -> new Authority(key, NEXT_BIT.getAndIncrement()));
+    }
+
+    /**
+     * @param authority The authority to check
+     * @return Whether it is granted
+     */
+    public boolean has(Authority authority) {
+        return granted.get(authority.bit);
+    }
+
+    /**
+     * @param name The authority name to check
+     * @return Whether it is granted; a name never granted to anybody is not
+     */
+    public boolean has(String name) {
+        Authority authority = AUTHORITIES.get(name);
+        return authority != null && granted.get(authority.bit);
+    }
+
+    /**
+     * @param authorities The authorities to check
+     * @return Whether any of them is granted
+     */
+    public boolean hasAny(Authority... authorities) {
+        for (Authority authority : authorities) {
+            if (granted.get(authority.bit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The user the snapshot belongs to, or {@code null} for {@link #NONE}
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * An authority name with its bit in every snapshot.
+     */
+    public static final class Authority {
+
+        private final String name;
+        private final int bit;
+
+        private Authority(String name, int bit) {
+            this.name = name;
+            this.bit = bit;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
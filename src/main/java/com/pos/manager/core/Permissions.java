@@ -0,0 +1,79 @@
+package com.pos.manager.core;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * The permissions of the user logged in, as a {@link PermissionSnapshot} taken at login and
+ * dropped at logout, so the UI and the services check roles without walking the security
+ * context and the authorities on every call.
+ * <p>
+ * Registered as {@code permissions}, so method security reads the same snapshot, for example
+ * {@code @PreAuthorize("@permissions.has('ROLE_ADMIN')")}.
+ */
+@Component("permissions")
+public class Permissions {
+
+    private volatile PermissionSnapshot snapshot = PermissionSnapshot.NONE;
+
+    /**
+     * Takes the snapshot of a successful login.
+     *
+     * @param authentication The authenticated user
+     */
+    public void grant(Authentication authentication) {
+        snapshot = PermissionSnapshot.of(authentication.getName(), authentication.getAuthorities());
+    }
+
+    /**
+     * Takes the snapshot again if the user is the one logged in, after its roles changed.
+     *
+     * @param username The username the user had when it logged in
+     * @param user The user as it is now
+     */
+    public void update(String username, UserDetails user) {
+        PermissionSnapshot current = snapshot;
+        if (username.equals(current.getUsername())) {
+            snapshot = user.isEnabled()
+                    ? PermissionSnapshot.of(user.getUsername(), user.getAuthorities())
+                    : PermissionSnapshot.NONE;
+        }
+    }
+
+    /**
+     * Drops the snapshot at logout.
+     */
+    public void revoke() {
+        snapshot = PermissionSnapshot.NONE;
+    }
+
+    /**
+     * @return The permissions of the user logged in, {@link PermissionSnapshot#NONE} if nobody is
+     */
+    public PermissionSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * @param authority The authority name
+     * @return Whether the user logged in has it
+     */
+    public boolean has(String authority) {
+        return snapshot.has(authority);
+    }
+
+    /**
+     * @param authorities The authority names
+     * @return Whether the user logged in has any of them
+     */
+    public boolean hasAny(String... authorities) {
+        PermissionSnapshot current = snapshot;
+        for (String authority : authorities) {
+            if (current.has(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
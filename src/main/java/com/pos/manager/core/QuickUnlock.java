@@ -0,0 +1,159 @@
+package com.pos.manager.core;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets a user who logged in a short while ago log in again without BCrypt, for shift changes and
+ * unlocking the screen.
+ * <p>
+ * After a full login the password is kept as an HMAC-SHA256 under a random key that only lives in
+ * this process, never the password itself. A later login within the time to live is checked
+ * against that hash, which takes microseconds instead of the tens of milliseconds BCrypt takes.
+ * Logging in again does not extend the time to live, so BCrypt runs again once it expires. After a
+ * few wrong passwords the entry is dropped, so guessing falls back to BCrypt speed.
+ * <p>
+ * As an {@link AuthenticationProvider} placed before the BCrypt one, it returns {@code null}
+ * whenever it cannot decide, and the login goes on to the full check.
+ */
+@Component
+public class QuickUnlock implements AuthenticationProvider {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final long ttlNanos;
+    private final int maxFailures;
+    private final LongSupplier clock;
+    private final SecretKeySpec key;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    @Autowired
+    public QuickUnlock(@Value("${app.security.quick-unlock.ttl-minutes:15}") long ttlMinutes,
+                       @Value("${app.security.quick-unlock.max-failures:3}") int maxFailures) {
+        this(Duration.ofMinutes(ttlMinutes), maxFailures, System::nanoTime);
+    }
+
+    QuickUnlock(Duration ttl, int maxFailures, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxFailures = maxFailures;
+        this.clock = clock;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * Checks the password against the hash kept from the last full login.
+     *
+     * @param authentication The login attempt
+     * @return The authenticated user, or {@code null} to fall back to the full check
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return null;
+        }
+        String username = authentication.getName();
+        byte[] digest = digest(username, password);
+
+        UserDetails user;
+        synchronized (this) {
+            Entry entry = validEntry(username);
+            if (entry == null) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(digest, entry.digest)) {
+                if (++entry.failures >= maxFailures) {
+                    entries.remove(username);
+                }
+                return null;
+            }
+            entry.failures = 0;
+            user = entry.user;
+        }
+
+        UsernamePasswordAuthenticationToken result =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    /**
+     * Keeps the password of a successful login as a keyed hash. An unexpired entry for the same
+     * password is left as it is, so unlocking does not extend its time to live.
+     *
+     * @param user The authenticated user
+     * @param password The password the user logged in with
+     */
+    public void remember(UserDetails user, String password) {
+        byte[] digest = digest(user.getUsername(), password);
+        synchronized (this) {
+            Entry entry = validEntry(user.getUsername());
+            if (entry == null || !MessageDigest.isEqual(digest, entry.digest)) {
+                entries.put(user.getUsername(), new Entry(user, digest, clock.getAsLong()));
+            }
+        }
+    }
+
+    /**
+     * Drops every entry, after users, their passwords or their roles change.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private Entry validEntry(String username) {
+        Entry entry = entries.get(username);
+        if (entry != null && clock.getAsLong() - entry.createdAt > ttlNanos) {
+            entries.remove(username);
+            return null;
+        }
+        return entry;
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC no disponible", e);
+        }
+    }
+
+    private static final class Entry {
+        private final UserDetails user;
+        private final byte[] digest;
+        private final long createdAt;
+        private int failures;
+
+        private Entry(UserDetails user, byte[] digest, long createdAt) {
+            this.user = user;
+            this.digest = digest;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -2,22 +2,16 @@ package com.pos.manager.core;
 
 
 import javafx.animation.FadeTransition;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
 import java.util.Optional;
 
-import static com.pos.util.ResourcePathChecker.getExistingResources;
-
 /**
  * Manages the JavaFX stages and scenes.
  * Handles navigation between views and applies transitions.
@@ -25,7 +19,7 @@ import static com.pos.util.ResourcePathChecker.getExistingResources;
 @Component
 public class StageManager {
 
-    private final ApplicationContext applicationContext;
+    private final ViewRegistry viewRegistry;
     private final CssManager cssManager;
     private Stage primaryStage;
 
@@ -35,11 +29,11 @@ public class StageManager {
     /**
      * Constructor with dependencies.
      *
-     * @param applicationContext The Spring application context
+     * @param viewRegistry The registry that parses each view once
      */
-    public StageManager(ApplicationContext applicationContext,
+    public StageManager(ViewRegistry viewRegistry,
                         CssManager cssManager) {
-        this.applicationContext = applicationContext;
+        this.viewRegistry = viewRegistry;
         this.cssManager = cssManager;
     }
 
@@ -58,58 +52,20 @@ public class StageManager {
      * @param viewName The name of the view to switch to
      */
     public void switchScene(String viewName) {
-        try {
-            // Debug: Check if the resource exists
-            boolean resourceExists = com.pos.util.ResourcePathChecker.resourceExists(viewName);
-            if (!resourceExists) {
-                System.err.println("!!! ERROR: FXML resource not found: " + viewName);
-                System.err.println("Checking alternate paths...");
-
-                // Try to find the resource with alternate paths
-                String[] alternatePaths = {
-                        viewName.replace("/product/", "/"),
-                        viewName.replace("/product/", "-"),
-                        viewName.replace("/product/", "/product-"),
-                        viewName
-                };
-                com.pos.util.ResourcePathChecker.printResourceDebugInfo("FXML", alternatePaths);
-
-                // If we can't find the resource, throw an exception
-                if (!getExistingResources(alternatePaths).isEmpty()) {
-                    String foundPath = getExistingResources(alternatePaths).get(0);
-                    System.out.println("Found alternative path: " + foundPath);
-                    viewName = foundPath;
-                } else {
-                    throw new IOException("Resource not found: " + viewName);
-                }
-            }
-
-            // Load the FXML file
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(viewName));
-
-            // Set the controller factory to use Spring beans
-            fxmlLoader.setControllerFactory(applicationContext::getBean);
-
-            // Load the root element
-            Parent root = fxmlLoader.load();
-
-            // Create new scene
-            Scene scene = new Scene(root);
-
-            // Apply CSS theme
-            //applyTheme(scene);
-
-            // Set the scene on the stage
-            if (primaryStage.getScene() == null) {
-                // First load, no transition needed
-                primaryStage.setScene(scene);
-                primaryStage.show();
-            } else {
-                // Animate transition to new scene
-                animateSceneChange(scene);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Error al cargar la vista: " + viewName, e);
+        // Parsed once; view paths are validated at startup by the registry
+        Scene scene = viewRegistry.get(viewName).getScene();
+
+        // Apply CSS theme
+        //applyTheme(scene);
+
+        // Set the scene on the stage
+        if (primaryStage.getScene() == null) {
+            // First load, no transition needed
+            primaryStage.setScene(scene);
+            primaryStage.show();
+        } else {
+            // Animate transition to new scene
+            animateSceneChange(scene);
         }
     }
 
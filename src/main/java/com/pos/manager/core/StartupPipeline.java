@@ -0,0 +1,89 @@
+package com.pos.manager.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Brings the Spring context up on a background thread, so the login view can be shown while
+ * Hibernate, the startup runners and the caches are still initializing.
+ * <p>
+ * Only what needs Spring beans waits for {@link #whenReady()}. Each startup phase is logged with
+ * the time since the JVM started, the time since the previous phase and the heap in use, which
+ * is how the desktop and back-office modes are compared.
+ */
+public class StartupPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupPipeline.class);
+
+    private final CompletableFuture<ConfigurableApplicationContext> context = new CompletableFuture<>();
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private long lastPhase = jvmStart;
+
+    /**
+     * Starts the Spring application in the background. The pipeline itself is registered as a
+     * bean so controllers created later by Spring can reach it too.
+     *
+     * @param source The Spring Boot application class
+     * @param args The command line arguments
+     */
+    public void start(Class<?> source, String... args) {
+        Thread.ofPlatform().name("pos-startup").daemon(true).start(() -> {
+            try {
+                SpringApplication application = new SpringApplication(source);
+                application.addInitializers(applicationContext ->
+                        applicationContext.getBeanFactory().registerSingleton("startupPipeline", this));
+                ConfigurableApplicationContext started = application.run(args);
+                phase(started instanceof WebServerApplicationContext
+                        ? "Contexto Spring listo (back office, con servidor web)"
+                        : "Contexto Spring listo (escritorio, sin servidor web)");
+                context.complete(started);
+            } catch (Throwable e) {
+                LOGGER.error("Error al iniciar la aplicación", e);
+                context.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Logs the end of a startup phase.
+     *
+     * @param name The phase that just finished
+     */
+    public synchronized void phase(String name) {
+        long now = System.currentTimeMillis();
+        Runtime runtime = Runtime.getRuntime();
+        LOGGER.info("Arranque: {} a los {} ms (+{} ms), heap en uso {} MB", name, now - jvmStart, now - lastPhase,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        lastPhase = now;
+    }
+
+    /**
+     * @return Whether the Spring context started successfully
+     */
+    public boolean isReady() {
+        return context.isDone() && !context.isCompletedExceptionally();
+    }
+
+    /**
+     * @return Completes with the Spring context once it has started, or with the startup failure
+     */
+    public CompletableFuture<ConfigurableApplicationContext> whenReady() {
+        return context;
+    }
+
+    /**
+     * Gets a bean, waiting for the context if it is still starting.
+     *
+     * @param type The bean type
+     * @return The bean
+     */
+    public <T> T getBean(Class<T> type) {
+        return context.join().getBean(type);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pos.manager.core;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Changes a component collects while a transaction runs, registered on that transaction so they
+ * are written before it commits. Each component gets one instance per transaction; an inner
+ * {@code REQUIRES_NEW} transaction suspends the synchronizations of the outer one, so it gets its
+ * own.
+ * <p>
+ * Components that collect changes this way usually also expose a method bulk writers call for
+ * each row, since they do not publish an event per row.
+ */
+public abstract class TransactionChanges implements TransactionSynchronization {
+
+    private final Object owner;
+
+    /**
+     * @param owner The component collecting the changes
+     */
+    protected TransactionChanges(Object owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the changes the owner collects in the current transaction, registering new ones
+     * the first time.
+     *
+     * @param owner The component collecting the changes
+     * @param type The class of the changes
+     * @param factory Creates the changes for a transaction that has none yet
+     * @return The changes of the current transaction
+     * @throws IllegalStateException If no transaction is active
+     */
+    public static <T extends TransactionChanges> T current(Object owner, Class<T> type, Supplier<T> factory) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Los cambios deben registrarse dentro de una transacción");
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (type.isInstance(synchronization) && ((TransactionChanges) synchronization).owner == owner) {
+                return type.cast(synchronization);
+            }
+        }
+        T changes = factory.get();
+        TransactionSynchronizationManager.registerSynchronization(changes);
+        return changes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.pos.manager.core;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Users read for a login, kept so the next login of the same user does not read the user and
+ * its roles again. Bounded to the most recently used users and expired after a time to live.
+ * <p>
+ * Plugged into {@code DaoAuthenticationProvider}, which still checks the password against the
+ * cached user and reloads it if the check fails.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    @Autowired
+    public UserDetailsCache(@Value("${app.security.user-cache.max-size:64}") int maxSize,
+                            @Value("${app.security.user-cache.ttl-minutes:30}") long ttlMinutes) {
+        this(maxSize, Duration.ofMinutes(ttlMinutes), System::nanoTime);
+    }
+
+    UserDetailsCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserDetailsCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized UserDetails getUserFromCache(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.cachedAt > ttlNanos) {
+            entries.remove(username);
+            return null;
+        }
+        return entry.user;
+    }
+
+    @Override
+    public synchronized void putUserInCache(UserDetails user) {
+        entries.put(user.getUsername(), new Entry(user, clock.getAsLong()));
+    }
+
+    @Override
+    public synchronized void removeUserFromCache(String username) {
+        entries.remove(username);
+    }
+
+    /**
+     * Drops every cached user, after users or their roles change.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private record Entry(UserDetails user, long cachedAt) {
+    }
+}
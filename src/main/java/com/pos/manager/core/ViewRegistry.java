@@ -0,0 +1,213 @@
+package com.pos.manager.core;
+
+import com.pos.config.ViewConfiguration;
+import com.pos.interfaces.core.ReusableView;
+import com.pos.util.ResourcePathChecker;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses each FXML view once and hands out the same root and controller afterwards.
+ * <p>
+ * Controllers are Spring singletons, so a view and its controller always belong together and
+ * can be reused as a pair; controllers implementing {@link ReusableView} are reset every time
+ * their view is reused. Views are only built on the FX thread. What can be done elsewhere, reading
+ * the FXML and loading the classes it imports, is done for every view in the background once the
+ * application is ready, which is also when the view paths are validated.
+ */
+@Component
+public class ViewRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViewRegistry.class);
+    private static final Pattern IMPORT = Pattern.compile("<\\?import\\s+([\\w.]+)\\s*\\?>");
+
+    private final ApplicationContext applicationContext;
+    private final Map<String, View> views = new HashMap<>();
+    private final Map<String, byte[]> templates = new ConcurrentHashMap<>();
+
+    public ViewRegistry(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Checks that every view in {@link ViewConfiguration} exists and warms up their templates in
+     * the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<String> paths = new ArrayList<>();
+        for (String path : configuredViews()) {
+            if (ResourcePathChecker.resourceExists(path)) {
+                paths.add(path);
+            } else {
+                LOGGER.warn("Vista no encontrada: {}", path);
+            }
+        }
+        Thread.ofVirtual().name("view-templates").start(() -> preloadTemplates(paths));
+    }
+
+    /**
+     * Gets a view, parsing it on first use and resetting its controller afterwards. Must be
+     * called on the FX thread.
+     *
+     * @param path The FXML path, one of {@link ViewConfiguration}
+     * @return The view
+     * @throws UncheckedIOException If the view does not exist or cannot be parsed
+     */
+    public View get(String path) {
+        View view = views.get(path);
+        if (view == null) {
+            view = load(path);
+            views.put(path, view);
+        } else if (view.controller instanceof ReusableView reusable) {
+            reusable.resetView();
+        }
+        return view;
+    }
+
+    /**
+     * Builds the given views on the FX thread, one per pulse so the UI keeps responding. Views
+     * already built are left as they are.
+     *
+     * @param paths The FXML paths
+     */
+    public void preload(String... paths) {
+        Deque<String> pending = new ArrayDeque<>(List.of(paths));
+        Platform.runLater(() -> preloadNext(pending));
+    }
+
+    private void preloadNext(Deque<String> pending) {
+        String path = pending.poll();
+        if (path == null) {
+            return;
+        }
+        if (!views.containsKey(path)) {
+            try {
+                long start = System.nanoTime();
+                views.put(path, load(path));
+                LOGGER.debug("Vista {} precargada en {} ms", path, (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                LOGGER.warn("No se pudo precargar la vista {}", path, e);
+            }
+        }
+        Platform.runLater(() -> preloadNext(pending));
+    }
+
+    private View load(String path) {
+        URL location = getClass().getResource(path);
+        if (location == null) {
+            throw new UncheckedIOException("Vista no encontrada: " + path, new FileNotFoundException(path));
+        }
+        FXMLLoader loader = new FXMLLoader(location);
+        loader.setControllerFactory(applicationContext::getBean);
+        try {
+            byte[] template = templates.get(path);
+            Parent root = template != null ? loader.load(new ByteArrayInputStream(template)) : loader.load();
+            return new View(root, loader.getController());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al cargar la vista: " + path, e);
+        }
+    }
+
+    private void preloadTemplates(List<String> paths) {
+        long start = System.nanoTime();
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (String path : paths) {
+            try (InputStream in = getClass().getResourceAsStream(path)) {
+                byte[] template = in.readAllBytes();
+                templates.put(path, template);
+
+                // Loading the imported classes here leaves only their instantiation to the FX thread
+                Matcher matcher = IMPORT.matcher(new String(template, StandardCharsets.UTF_8));
+                while (matcher.find()) {
+                    try {
+                        Class.forName(matcher.group(1), false, classLoader);
+                    } catch (ClassNotFoundException e) {
+                        LOGGER.warn("Clase importada no encontrada en {}: {}", path, matcher.group(1));
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("No se pudo leer la vista {}", path, e);
+            }
+        }
+        LOGGER.info("{} plantillas de vista preparadas en {} ms", templates.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static List<String> configuredViews() {
+        List<String> paths = new ArrayList<>();
+        for (Field field : ViewConfiguration.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    String path = (String) field.get(null);
+                    if (!paths.contains(path)) {
+                        paths.add(path);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * A parsed view: its root node, its controller and, once it is shown on its own, its scene.
+     */
+    public static final class View {
+
+        private final Parent root;
+        private final Object controller;
+        private Scene scene;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getController() {
+            return (T) controller;
+        }
+
+        /**
+         * @return The scene holding the root, created on first call
+         */
+        public Scene getScene() {
+            if (scene == null) {
+                scene = new Scene(root);
+            }
+            return scene;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.interfaces.products.ProductCache;
+import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-mostly in-memory index of products by barcode used by the scan path.
+ * <p>
+ * Numeric barcodes of up to 17 digits (EAN-8, UPC-A, EAN-13...) are packed into a {@code long}
+ * together with their length, so leading zeros are preserved and lookups never compare strings.
+ * Any other barcode is kept under its string value. Both kinds share a single open-addressing
+ * table with linear probing and backward-shift deletion.
+ * <p>
+ * The index is loaded by {@link ProductCacheLoader} and kept up to date from
+ * {@link ProductChangedEvent}s after their transaction commits. Lookups that miss fall back to
+ * the repository and warm the index with the result, unless the index changed while the
+ * repository was read: the product read may then be older than the change.
+ */
+@Component
+public class BarcodeIndex implements ProductCache {
+
+    private static final int MAX_PACKED_DIGITS = 17;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private long[] keys;
+    private String[] texts;
+    private int[] hashes;
+    private Product[] values;
+    private int size;
+    // Bumped under the write lock by every change other than warming a miss
+    private volatile long version;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param productRepository The product repository used to resolve misses
+     */
+    public BarcodeIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Rebuilds the index.
+     *
+     * @param products Every product
+     */
+    @Override
+    public void load(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            allocate(capacityFor(products.size()));
+            for (Product product : products) {
+                insert(product.getBarcode(), product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a product by barcode, falling back to the repository when it is not indexed.
+     *
+     * @param barcode The scanned barcode
+     * @return An Optional containing the product if found
+     */
+    public Optional<Product> find(String barcode) {
+        if (barcode == null) {
+            return Optional.empty();
+        }
+        Product product = get(barcode);
+        if (product != null) {
+            hits.increment();
+            return Optional.of(product);
+        }
+
+        misses.increment();
+        long stamp = version;
+        Optional<Product> loaded = productRepository.findByBarcode(barcode);
+        loaded.ifPresent(found -> warm(found, stamp));
+        return loaded;
+    }
+
+    /**
+     * Looks up a barcode in memory only.
+     *
+     * @param barcode The barcode
+     * @return The indexed product, or null if it is not indexed
+     */
+    public Product get(String barcode) {
+        long packed = pack(barcode);
+        int hash = packed != 0 ? mix(packed) : mix(barcode.hashCode());
+
+        lock.readLock().lock();
+        try {
+            int mask = values.length - 1;
+            for (int i = hash & mask; values[i] != null; i = (i + 1) & mask) {
+                if (hashes[i] == hash && matches(i, packed, barcode)) {
+                    return values[i];
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a product in the index.
+     *
+     * @param product The product, with the associations needed by the scan path initialized
+     */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            insert(product.getBarcode(), product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a barcode from the index.
+     *
+     * @param barcode The barcode to remove
+     */
+    public void remove(String barcode) {
+        if (barcode == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            version++;
+            delete(barcode);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the index in sync with committed product changes.
+     *
+     * @param event The product change
+     */
+    @TransactionalEventListener
+    @Override
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            if (event.getPreviousBarcode() != null) {
+                delete(event.getPreviousBarcode());
+            }
+            if (event.getType() == ProductChangedEvent.Type.SAVED) {
+                insert(event.getProduct().getBarcode(), event.getProduct());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed barcodes
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of lookups answered from memory
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of lookups that had to go to the repository
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    // Indexes a product read after a miss, unless the index changed since the read started.
+    private void warm(Product product, long stamp) {
+        lock.writeLock().lock();
+        try {
+            if (version == stamp) {
+                insert(product.getBarcode(), product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Must be called with the write lock held.
+    private void insert(String barcode, Product product) {
+        long packed = pack(barcode);
+        int hash = packed != 0 ? mix(packed) : mix(barcode.hashCode());
+        int mask = values.length - 1;
+
+        int i = hash & mask;
+        while (values[i] != null) {
+            if (hashes[i] == hash && matches(i, packed, barcode)) {
+                values[i] = product;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = packed;
+        texts[i] = packed != 0 ? null : barcode;
+        hashes[i] = hash;
+        values[i] = product;
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+    }
+
+    // Must be called with the write lock held.
+    private void delete(String barcode) {
+        long packed = pack(barcode);
+        int hash = packed != 0 ? mix(packed) : mix(barcode.hashCode());
+        int mask = values.length - 1;
+
+        int i = hash & mask;
+        while (values[i] != null && !(hashes[i] == hash && matches(i, packed, barcode))) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == null) {
+            return;
+        }
+
+        // Backward-shift deletion: pull later entries of the same probe run into the gap
+        int gap = i;
+        for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = hashes[j] & mask;
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                keys[gap] = keys[j];
+                texts[gap] = texts[j];
+                hashes[gap] = hashes[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        texts[gap] = null;
+        hashes[gap] = 0;
+        values[gap] = null;
+        size--;
+    }
+
+    private boolean matches(int slot, long packed, String barcode) {
+        return packed != 0 ? keys[slot] == packed : barcode.equals(texts[slot]);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        String[] oldTexts = texts;
+        int[] oldHashes = hashes;
+        Product[] oldValues = values;
+
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] == null) {
+                continue;
+            }
+            int i = oldHashes[j] & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            texts[i] = oldTexts[j];
+            hashes[i] = oldHashes[j];
+            values[i] = oldValues[j];
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        texts = new String[capacity];
+        hashes = new int[capacity];
+        values = new Product[capacity];
+        size = 0;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < entries * 2 + 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Packs a numeric barcode into {@code digits << 5 | length}.
+     *
+     * @param barcode The barcode
+     * @return The packed key, or 0 if the barcode is not a short numeric code
+     */
+    static long pack(String barcode) {
+        int length = barcode.length();
+        if (length == 0 || length > MAX_PACKED_DIGITS) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = barcode.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        return (value << 5) | length;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
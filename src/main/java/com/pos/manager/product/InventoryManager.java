@@ -1,7 +1,160 @@
 package com.pos.manager.product;
 
+import com.pos.events.products.StockChangedEvent;
+import com.pos.models.products.Stock;
+import com.pos.models.products.StockMovement;
+import com.pos.repositories.products.StockMovementRepository;
+import com.pos.repositories.products.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Keeps the stock of each product: an append-only ledger of {@link StockMovement}s and the
+ * on-hand {@link Stock} quantity it adds up to.
+ * <p>
+ * Quantities are changed with a single conditional {@code UPDATE} and the movement is appended
+ * in the same transaction, so several tills can sell the same product at once without reading
+ * it first, losing updates or locking it beyond their own statement.
+ * <p>
+ * Every product has a stock row from the moment it is created; products from before the ledger
+ * get theirs on start. Stock put in for a product still without one creates the empty row in a
+ * transaction of its own, where a till doing the same at once only costs a duplicate key, and
+ * then updates it like any other.
+ */
 @Component
 public class InventoryManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryManager.class);
+
+    private static final String INSERT_EMPTY =
+            "INSERT INTO stock (product_id, quantity) SELECT ?, 0 WHERE NOT EXISTS (SELECT 1 FROM stock WHERE product_id = ?)";
+    private static final String INSERT_MISSING = """
+            INSERT INTO stock (product_id, quantity)
+            SELECT p.id, 0 FROM products p WHERE NOT EXISTS (SELECT 1 FROM stock s WHERE s.product_id = p.id)
+            """;
+
+    private final StockRepository stockRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param stockRepository The on-hand quantity repository
+     * @param stockMovementRepository The stock ledger repository
+     * @param eventPublisher The publisher for stock change events
+     * @param jdbcTemplate Inserts the empty stock rows
+     * @param transactionManager The transaction manager
+     */
+    public InventoryManager(StockRepository stockRepository, StockMovementRepository stockMovementRepository,
+                            ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.stockRepository = stockRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Gives the products without a stock row an empty one, before any sale can be made.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Integer inserted = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_MISSING));
+        if (inserted != null && inserted > 0) {
+            LOGGER.info("Stock iniciado en cero para {} productos", inserted);
+        }
+    }
+
+    /**
+     * Creates the empty stock row of a new product, in the transaction that creates the product.
+     *
+     * @param productId The product ID
+     */
+    @Transactional
+    public void createStock(Long productId) {
+        jdbcTemplate.update(INSERT_EMPTY, productId, productId);
+    }
+
+    /**
+     * Puts stock in.
+     *
+     * @param productId The product ID
+     * @param quantity The quantity to put in
+     * @param type The reason of the movement
+     * @param reference The source document, or null
+     * @throws IllegalArgumentException If the quantity is not positive
+     */
+    @Transactional
+    public void increment(Long productId, int quantity, StockMovement.Type type, String reference) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero: " + quantity);
+        }
+        if (stockRepository.increment(productId, quantity) == 0) {
+            createMissingStock(productId);
+            if (stockRepository.increment(productId, quantity) == 0) {
+                throw new IllegalStateException("No se pudo crear el stock del producto: " + productId);
+            }
+        }
+        StockMovement movement = stockMovementRepository.save(new StockMovement(productId, quantity, type, reference));
+        eventPublisher.publishEvent(new StockChangedEvent(movement));
+    }
+
+    /**
+     * Takes stock out if enough is on hand.
+     *
+     * @param productId The product ID
+     * @param quantity The quantity to take out
+     * @param type The reason of the movement
+     * @param reference The source document, or null
+     * @throws IllegalArgumentException If the quantity is not positive or there is not enough stock
+     */
+    @Transactional
+    public void decrement(Long productId, int quantity, StockMovement.Type type, String reference) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero: " + quantity);
+        }
+        if (stockRepository.decrement(productId, quantity) == 0) {
+            throw new IllegalArgumentException("El stock no puede ser negativo. Stock actual: " +
+                    getOnHand(productId) + ", Cantidad a restar: " + quantity);
+        }
+        StockMovement movement = stockMovementRepository.save(new StockMovement(productId, -quantity, type, reference));
+        eventPublisher.publishEvent(new StockChangedEvent(movement));
+    }
+
+    // Committed on its own, so a duplicate key from a till creating the same row does not
+    // roll back the caller; either way the row exists afterwards
+    private void createMissingStock(Long productId) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_EMPTY, productId, productId));
+        } catch (DuplicateKeyException e) {
+            LOGGER.debug("Stock del producto {} creado por otra transacción", productId);
+        }
+    }
+
+    /**
+     * Gets the on-hand quantity of a product.
+     *
+     * @param productId The product ID
+     * @return The quantity, 0 if the product never had stock
+     */
+    public int getOnHand(Long productId) {
+        return stockRepository.findQuantityByProductId(productId).orElse(0);
+    }
 }
@@ -0,0 +1,437 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.interfaces.products.ProductCache;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Precomputed retail and wholesale gross prices per product, kept as {@code long} cents.
+ * <p>
+ * Prices are computed once with {@link Price#grossPrice} and stored in an open-addressing
+ * table keyed by product id, so checkout and the product list read them without allocating.
+ * The net prices are kept alongside, so a tax change only recomputes the entries that use it.
+ * <p>
+ * The cache is loaded by {@link ProductCacheLoader} and kept up to date from
+ * {@link ProductChangedEvent}s and {@link TaxChangedEvent}s after their transaction commits.
+ * Scheduled price changes arrive as one {@link PricesActivatedEvent} and are swapped under a
+ * single write lock, so no reader sees part of a batch.
+ */
+@Component
+public class PriceCache implements ProductCache {
+
+    /**
+     * Returned when the product has no cached price.
+     */
+    public static final long NO_PRICE = -1;
+
+    /**
+     * Returned as tax id for untaxed products.
+     */
+    public static final long NO_TAX = 0;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] keys;
+    private long[] taxIds;
+    private long[] netRetail;
+    private long[] netWholesale;
+    private long[] retail;
+    private long[] wholesale;
+    private int size;
+
+    public PriceCache() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Rebuilds the cache.
+     *
+     * @param products Every product, with price and tax initialized
+     */
+    @Override
+    public void load(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            allocate(capacityFor(products.size()));
+            for (Product product : products) {
+                insert(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the retail price of a product with tax.
+     *
+     * @param productId The product ID
+     * @return The price in cents, or {@link #NO_PRICE} if the product is not cached
+     */
+    public long getRetailCents(long productId) {
+        return getCents(productId, false);
+    }
+
+    /**
+     * Gets the wholesale price of a product with tax, or the retail price when it has none.
+     *
+     * @param productId The product ID
+     * @return The price in cents, or {@link #NO_PRICE} if the product is not cached
+     */
+    public long getWholesaleCents(long productId) {
+        return getCents(productId, true);
+    }
+
+    /**
+     * Gets the price of a product with tax.
+     *
+     * @param productId The product ID
+     * @param isWholesale Whether to use the wholesale price
+     * @return The price in cents, or {@link #NO_PRICE} if the product is not cached
+     */
+    public long getCents(long productId, boolean isWholesale) {
+        lock.readLock().lock();
+        try {
+            int slot = find(productId);
+            if (slot < 0) {
+                return NO_PRICE;
+            }
+            return isWholesale ? wholesale[slot] : retail[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the price of a product without tax.
+     *
+     * @param productId The product ID
+     * @param isWholesale Whether to use the wholesale price
+     * @return The price in cents, or {@link #NO_PRICE} if the product is not cached
+     */
+    public long getNetCents(long productId, boolean isWholesale) {
+        lock.readLock().lock();
+        try {
+            int slot = find(productId);
+            if (slot < 0) {
+                return NO_PRICE;
+            }
+            return isWholesale && netWholesale[slot] != NO_PRICE ? netWholesale[slot] : netRetail[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the tax applied to a product.
+     *
+     * @param productId The product ID
+     * @return The tax ID, or {@link #NO_TAX} if the product is untaxed or not cached
+     */
+    public long getTaxId(long productId) {
+        lock.readLock().lock();
+        try {
+            int slot = find(productId);
+            return slot < 0 ? NO_TAX : taxIds[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the gross and net prices and the tax of a product at once, so they all come from the
+     * same version of the product even while a change is being applied.
+     *
+     * @param productId The product ID
+     * @param isWholesale Whether to use the wholesale price
+     * @param quote Receives the prices and tax; left as it was if the product is not cached
+     * @return Whether the product is cached
+     */
+    public boolean quote(long productId, boolean isWholesale, Quote quote) {
+        lock.readLock().lock();
+        try {
+            int slot = find(productId);
+            if (slot < 0) {
+                return false;
+            }
+            quote.cents = isWholesale ? wholesale[slot] : retail[slot];
+            quote.netCents = isWholesale && netWholesale[slot] != NO_PRICE ? netWholesale[slot] : netRetail[slot];
+            quote.taxId = taxIds[slot];
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the prices of a product.
+     *
+     * @param product The product, with price and tax initialized
+     */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            insert(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of cached products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the prices of a committed product change.
+     *
+     * @param event The product change
+     */
+    @TransactionalEventListener
+    @Override
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            delete(event.getProductId());
+            if (event.getType() == ProductChangedEvent.Type.SAVED) {
+                insert(event.getProduct());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the prices of every product that uses a committed tax change.
+     *
+     * @param event The tax change
+     */
+    @TransactionalEventListener
+    @Override
+    public void onTaxChanged(TaxChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            recomputeTax(event.getTaxId(), event.getPercentage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Swaps in every price of a committed batch of scheduled changes at once. Runs before the
+     * other listeners, so the product and tax events of the same batch find the prices in place.
+     *
+     * @param event The activated changes
+     */
+    // Right after ProductCacheLoader, which must see every change before the caches do
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener
+    @Override
+    public void onPricesActivated(PricesActivatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Tax tax : event.getTaxes()) {
+                recomputeTax(tax.getId(), tax.getPercentage());
+            }
+            for (Product product : event.getProducts()) {
+                insert(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Must be called with the write lock held.
+    private void recomputeTax(long taxId, BigDecimal percentage) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && taxIds[i] == taxId) {
+                computeGross(i, percentage);
+            }
+        }
+    }
+
+    // Must be called with the write lock held.
+    private void insert(Product product) {
+        Price price = product.getPrice();
+        if (product.getId() == null || price == null || price.getSalePrice() == null) {
+            return;
+        }
+
+        long key = product.getId();
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == 0) {
+            keys[i] = key;
+            size++;
+        }
+
+        Tax tax = price.getTax();
+        taxIds[i] = tax != null ? tax.getId() : NO_TAX;
+        netRetail[i] = toCents(price.getSalePrice());
+        netWholesale[i] = price.getWholesalePrice() != null ? toCents(price.getWholesalePrice()) : NO_PRICE;
+        computeGross(i, tax != null ? tax.getPercentage() : null);
+
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private void computeGross(int slot, BigDecimal percentage) {
+        retail[slot] = toCents(Price.grossPrice(BigDecimal.valueOf(netRetail[slot], 2), percentage));
+        wholesale[slot] = netWholesale[slot] != NO_PRICE
+                ? toCents(Price.grossPrice(BigDecimal.valueOf(netWholesale[slot], 2), percentage))
+                : retail[slot];
+    }
+
+    // Must be called with the write lock held.
+    private void delete(long key) {
+        int i = find(key);
+        if (i < 0) {
+            return;
+        }
+
+        // Backward-shift deletion: pull later entries of the same probe run into the gap
+        int mask = keys.length - 1;
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                move(j, gap);
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        size--;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        taxIds[to] = taxIds[from];
+        netRetail[to] = netRetail[from];
+        netWholesale[to] = netWholesale[from];
+        retail[to] = retail[from];
+        wholesale[to] = wholesale[from];
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldTaxIds = taxIds;
+        long[] oldNetRetail = netRetail;
+        long[] oldNetWholesale = netWholesale;
+        long[] oldRetail = retail;
+        long[] oldWholesale = wholesale;
+
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) {
+                continue;
+            }
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            taxIds[i] = oldTaxIds[j];
+            netRetail[i] = oldNetRetail[j];
+            netWholesale[i] = oldNetWholesale[j];
+            retail[i] = oldRetail[j];
+            wholesale[i] = oldWholesale[j];
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        taxIds = new long[capacity];
+        netRetail = new long[capacity];
+        netWholesale = new long[capacity];
+        retail = new long[capacity];
+        wholesale = new long[capacity];
+        size = 0;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < entries * 2 + 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The prices of a product as read by {@link #quote}. Callers keep one and reuse it, so reading
+     * does not allocate.
+     */
+    public static final class Quote {
+
+        private long cents;
+        private long netCents;
+        private long taxId;
+
+        /**
+         * @return The price with tax, in cents
+         */
+        public long getCents() {
+            return cents;
+        }
+
+        /**
+         * @return The price without tax, in cents
+         */
+        public long getNetCents() {
+            return netCents;
+        }
+
+        /**
+         * @return The tax ID, or {@link #NO_TAX} if the product is untaxed
+         */
+        public long getTaxId() {
+            return taxId;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.PriceChangeScheduledEvent;
+import com.pos.models.products.ScheduledPriceChange;
+import com.pos.services.products.ScheduledPriceService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Activates scheduled price and tax changes when they are due.
+ * <p>
+ * Pending changes are read once on start and put on a {@link TimerWheel}; changes scheduled
+ * later arrive with {@link PriceChangeScheduledEvent} after they commit, so the database is never
+ * polled. A background thread sleeps until the next tick with due changes and applies all of
+ * them in one transaction, at most one tick after they are due.
+ * <p>
+ * When a batch fails, its changes are applied again one at a time, so one bad change does not
+ * hold back the others. A change that still fails is retried after a growing delay, and after
+ * {@code max-attempts} failures it is parked: it stays pending in the database, is no longer
+ * retried, and is tried again on the next start.
+ */
+@Component
+public class PriceChangeScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PriceChangeScheduler.class);
+
+    private static final int SLOTS = 512;
+
+    private final ScheduledPriceService scheduledPriceService;
+    private final TimerWheel<Long> wheel;
+    private final long retryDelayMillis;
+    private final int maxAttempts;
+    // Failed attempts of the changes waiting for a retry; only used by the worker thread
+    private final Map<Long, Integer> attempts = new HashMap<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public PriceChangeScheduler(ScheduledPriceService scheduledPriceService,
+                                @Value("${app.pricing.schedule.tick-ms:100}") long tickMillis,
+                                @Value("${app.pricing.schedule.retry-delay-ms:5000}") long retryDelayMillis,
+                                @Value("${app.pricing.schedule.max-attempts:5}") int maxAttempts) {
+        this.scheduledPriceService = scheduledPriceService;
+        this.wheel = new TimerWheel<>(tickMillis, SLOTS, System.currentTimeMillis());
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Loads the pending changes and starts activating them once the application is ready.
+     * Changes that fell due while the application was closed are applied straight away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<ScheduledPriceChange> pending = scheduledPriceService.findPending();
+        for (ScheduledPriceChange change : pending) {
+            schedule(change.getId(), change.getEffectiveAt());
+        }
+        if (!pending.isEmpty()) {
+            LOGGER.info("{} cambios de precio programados pendientes", pending.size());
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("price-change-scheduler").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Adds a committed change to the wheel. A change also read on start is activated once, as
+     * activation skips changes that are no longer pending.
+     *
+     * @param event The scheduled change
+     */
+    @TransactionalEventListener
+    public void onPriceChangeScheduled(PriceChangeScheduledEvent event) {
+        schedule(event.getChangeId(), event.getEffectiveAt());
+    }
+
+    /**
+     * @return The number of changes waiting to be activated
+     */
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    private void schedule(Long changeId, LocalDateTime effectiveAt) {
+        wheel.schedule(changeId, effectiveAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private void run() {
+        while (running) {
+            List<Long> due;
+            try {
+                due = wheel.poll();
+            } catch (InterruptedException e) {
+                return;
+            }
+            activate(due);
+        }
+    }
+
+    /**
+     * Applies due changes together, or one at a time if the batch fails.
+     *
+     * @param due The IDs of the due changes
+     */
+    void activate(List<Long> due) {
+        long start = System.nanoTime();
+        try {
+            int applied = scheduledPriceService.activate(due);
+            due.forEach(attempts::remove);
+            LOGGER.info("{} cambios de precio programados aplicados en {} ms",
+                    applied, (System.nanoTime() - start) / 1_000_000);
+            return;
+        } catch (RuntimeException e) {
+            if (due.size() == 1) {
+                retryOrPark(due.getFirst(), e);
+                return;
+            }
+            LOGGER.warn("Error al aplicar {} cambios de precio programados juntos, se aplicarán uno por uno",
+                    due.size(), e);
+        }
+
+        List<Long> ordered;
+        try {
+            // In the order the batch would have applied them, so the latest change of a product still wins
+            ordered = scheduledPriceService.findPendingIds(due);
+        } catch (RuntimeException e) {
+            due.forEach(changeId -> retryOrPark(changeId, e));
+            return;
+        }
+        int applied = 0;
+        for (Long changeId : ordered) {
+            try {
+                applied += scheduledPriceService.activate(List.of(changeId));
+                attempts.remove(changeId);
+            } catch (RuntimeException e) {
+                retryOrPark(changeId, e);
+            }
+        }
+        LOGGER.info("{} de {} cambios de precio programados aplicados uno por uno en {} ms",
+                applied, due.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void retryOrPark(Long changeId, RuntimeException cause) {
+        int attempt = attempts.merge(changeId, 1, Integer::sum);
+        if (attempt >= maxAttempts) {
+            attempts.remove(changeId);
+            LOGGER.error("El cambio de precio programado {} falló {} veces y no se reintentará hasta el próximo inicio",
+                    changeId, attempt, cause);
+            return;
+        }
+        LOGGER.error("Error al aplicar el cambio de precio programado {} (intento {} de {}), se reintentará",
+                changeId, attempt, maxAttempts, cause);
+        wheel.schedule(changeId, System.currentTimeMillis() + retryDelayMillis * attempt);
+    }
+}
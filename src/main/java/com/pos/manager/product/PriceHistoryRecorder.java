@@ -0,0 +1,147 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.manager.core.TransactionChanges;
+import com.pos.models.products.PriceHistory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Appends to the {@link PriceHistory} the prices of the products saved in a transaction.
+ * <p>
+ * Saved products and changed taxes are collected while the transaction runs and written just
+ * before it commits, with one {@code INSERT ... SELECT} per chunk that copies the current price
+ * and tax rate. A product whose price and rate equal its last entry gets no new one, so saving a
+ * product without touching its price, or republishing it, leaves the history as it is. Nothing
+ * of this runs while selling: the scan path keeps reading the current price from the caches.
+ * <p>
+ * On start, products without any entry get one from when their current price was created, so
+ * catalogues from before the history have a starting point.
+ */
+@Component
+public class PriceHistoryRecorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PriceHistoryRecorder.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_CHANGED = """
+            INSERT INTO price_history (product_id, valid_from, purchase_price, sale_price, wholesale_price, tax_id, tax_percentage)
+            SELECT p.id, ?, pr.purchase_price, pr.sale_price, pr.wholesale_price, pr.tax_id, t.percentage
+            FROM products p JOIN Price pr ON pr.id = p.product_id LEFT JOIN taxes t ON t.id = pr.tax_id
+            WHERE %s AND NOT EXISTS (SELECT 1 FROM price_history h
+                WHERE h.id = (SELECT MAX(newest.id) FROM price_history newest WHERE newest.product_id = p.id)
+                AND h.purchase_price = pr.purchase_price AND h.sale_price = pr.sale_price
+                AND h.wholesale_price IS NOT DISTINCT FROM pr.wholesale_price
+                AND h.tax_id IS NOT DISTINCT FROM pr.tax_id
+                AND h.tax_percentage IS NOT DISTINCT FROM t.percentage)
+            """;
+    private static final String INSERT_PRODUCTS = INSERT_CHANGED.formatted("p.id = ANY(?)");
+    private static final String INSERT_TAX = INSERT_CHANGED.formatted("pr.tax_id = ?");
+    private static final String INSERT_MISSING = """
+            INSERT INTO price_history (product_id, valid_from, purchase_price, sale_price, wholesale_price, tax_id, tax_percentage)
+            SELECT p.id, COALESCE(pr.update_date, p.creation_date, CURRENT_TIMESTAMP), pr.purchase_price, pr.sale_price,
+                pr.wholesale_price, pr.tax_id, t.percentage
+            FROM products p JOIN Price pr ON pr.id = p.product_id LEFT JOIN taxes t ON t.id = pr.tax_id
+            WHERE NOT EXISTS (SELECT 1 FROM price_history h WHERE h.product_id = p.id)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PriceHistoryRecorder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.SAVED) {
+            record(event.getProductId());
+        }
+    }
+
+    @EventListener
+    public void onTaxChanged(TaxChangedEvent event) {
+        pendingPrices().taxIds.add(event.getTaxId());
+    }
+
+    /**
+     * Records the current price of a product when the current transaction commits, for the
+     * catalogue import, which saves products without an event each.
+     *
+     * @param productId The product ID
+     * @throws IllegalStateException If no transaction is active
+     */
+    public void record(Long productId) {
+        pendingPrices().productIds.add(productId);
+    }
+
+    /**
+     * Gives the products without history their first entry, in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("price-history-backfill").start(() -> {
+            try {
+                Integer inserted = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_MISSING));
+                if (inserted != null && inserted > 0) {
+                    LOGGER.info("Historial de precios iniciado para {} productos", inserted);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Error al iniciar el historial de precios", e);
+            }
+        });
+    }
+
+    private PendingPrices pendingPrices() {
+        return TransactionChanges.current(this, PendingPrices.class, PendingPrices::new);
+    }
+
+    /**
+     * Products and taxes changed by one transaction, recorded before it commits.
+     */
+    private final class PendingPrices extends TransactionChanges {
+
+        private final Set<Long> productIds = new LinkedHashSet<>();
+        private final Set<Long> taxIds = new LinkedHashSet<>();
+
+        private PendingPrices() {
+            super(PriceHistoryRecorder.this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // The statements read the prices from the tables, so pending entity changes go first
+            entityManager.flush();
+            Timestamp validFrom = Timestamp.valueOf(LocalDateTime.now());
+            List<Long> ids = new ArrayList<>(productIds);
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                Long[] chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())).toArray(Long[]::new);
+                jdbcTemplate.update(INSERT_PRODUCTS, validFrom, chunk);
+            }
+            for (Long taxId : taxIds) {
+                jdbcTemplate.update(INSERT_TAX, validFrom, taxId);
+            }
+        }
+    }
+}
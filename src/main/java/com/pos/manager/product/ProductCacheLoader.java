@@ -0,0 +1,130 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.interfaces.products.ProductCache;
+import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the catalogue once when the application is ready and hands it to every
+ * {@link ProductCache}, so each cache does not issue its own full load.
+ * <p>
+ * Catalogue changes that commit while a load runs reach the caches before the older catalogue
+ * replaces their contents. They are recorded from the start of the read and handed to every
+ * cache again once all of them are loaded. Recording runs before the caches' own listeners
+ * and waits for a replay in progress, so a change that misses the replay reaches the caches
+ * after it.
+ */
+@Component
+public class ProductCacheLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCacheLoader.class);
+
+    private final ProductRepository productRepository;
+    private final List<ProductCache> caches;
+    private final Object changesLock = new Object();
+    // Changes committed since the current load started reading, null while no load runs
+    private List<Object> changesDuringLoad;
+
+    public ProductCacheLoader(ProductRepository productRepository, List<ProductCache> caches) {
+        this.productRepository = productRepository;
+        this.caches = caches;
+    }
+
+    /**
+     * Loads the caches in the background once the application has started, so the login is not
+     * held back by the catalogue read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("product-cache-loader").start(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                LOGGER.error("Error al cargar las cachés de productos", e);
+            }
+        });
+    }
+
+    /**
+     * Reloads every cache from the database. Concurrent reloads run one after another.
+     */
+    public synchronized void reload() {
+        synchronized (changesLock) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            List<Product> products = productRepository.findAllForScan();
+            LOGGER.info("Catálogo leído: {} productos en {} ms", products.size(), (System.nanoTime() - start) / 1_000_000);
+
+            for (ProductCache cache : caches) {
+                long cacheStart = System.nanoTime();
+                cache.load(products);
+                LOGGER.info("{} cargado en {} ms", cache.getClass().getSimpleName(), (System.nanoTime() - cacheStart) / 1_000_000);
+            }
+        } finally {
+            replayChanges();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        record(event);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTaxChanged(TaxChangedEvent event) {
+        record(event);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPricesActivated(PricesActivatedEvent event) {
+        record(event);
+    }
+
+    private void record(Object change) {
+        synchronized (changesLock) {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        }
+    }
+
+    private void replayChanges() {
+        synchronized (changesLock) {
+            List<Object> changes = changesDuringLoad;
+            changesDuringLoad = null;
+            for (Object change : changes) {
+                for (ProductCache cache : caches) {
+                    if (change instanceof ProductChangedEvent event) {
+                        cache.onProductChanged(event);
+                    } else if (change instanceof TaxChangedEvent event) {
+                        cache.onTaxChanged(event);
+                    } else {
+                        cache.onPricesActivated((PricesActivatedEvent) change);
+                    }
+                }
+            }
+            if (!changes.isEmpty()) {
+                LOGGER.info("{} cambios del catálogo recibidos durante la carga aplicados de nuevo", changes.size());
+            }
+        }
+    }
+}
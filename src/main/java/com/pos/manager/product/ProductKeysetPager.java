@@ -0,0 +1,86 @@
+package com.pos.manager.product;
+
+import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductSortKey;
+import com.pos.services.products.ProductService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the keyset cursor where each visited page of the product list starts, so moving to
+ * the next, previous or any already visited page is a seek instead of an OFFSET scan.
+ * Jumping to a page that was never reached reads it once by offset and continues by keyset
+ * from there. Methods are synchronized because pages are loaded on background threads.
+ */
+public class ProductKeysetPager {
+
+    private final ProductService productService;
+    private final int pageSize;
+    private final Map<Integer, ScrollPosition> pageStarts = new HashMap<>();
+    private ProductSortKey sortKey = ProductSortKey.ID;
+    private boolean ascending = true;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param productService The product service
+     * @param pageSize The page size
+     */
+    public ProductKeysetPager(ProductService productService, int pageSize) {
+        this.productService = productService;
+        this.pageSize = pageSize;
+        reset();
+    }
+
+    /**
+     * Changes the sort order, discarding the known page cursors.
+     *
+     * @param sortKey The column to sort by
+     * @param ascending Whether to sort in ascending order
+     */
+    public synchronized void sort(ProductSortKey sortKey, boolean ascending) {
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        reset();
+    }
+
+    /**
+     * Discards the known page cursors.
+     */
+    public synchronized void reset() {
+        pageStarts.clear();
+        pageStarts.put(0, ScrollPosition.keyset());
+    }
+
+    /**
+     * Reads a page, remembering where the following page starts. The total comes from the
+     * cached product count.
+     *
+     * @param pageIndex The page index (zero-based)
+     * @return The page of products
+     */
+    public synchronized Page<Product> page(int pageIndex) {
+        ScrollPosition start = pageStarts.get(pageIndex);
+        List<Product> content;
+        if (start != null) {
+            Window<Product> window = productService.findAllByKeyset(sortKey, ascending, start, pageSize);
+            content = window.getContent();
+            if (!window.isEmpty()) {
+                pageStarts.put(pageIndex + 1, window.positionAt(window.size() - 1));
+            }
+        } else {
+            content = productService.findSlice(pageIndex, pageSize, sortKey, ascending).getContent();
+            if (!content.isEmpty()) {
+                pageStarts.put(pageIndex + 1, sortKey.positionAfter(content.getLast()));
+            }
+        }
+        return new PageImpl<>(content, PageRequest.of(pageIndex, pageSize), productService.countProducts());
+    }
+}
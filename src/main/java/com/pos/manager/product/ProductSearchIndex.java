@@ -0,0 +1,484 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.interfaces.products.ProductCache;
+import com.pos.models.products.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over the product catalogue.
+ * <p>
+ * Product name, description, category name and barcode are tokenized and accent-folded
+ * ("Cámara" and "camara" are the same term) into an inverted index. Every query token has to
+ * match a document, either exactly, as a prefix of an indexed term, or within one edit
+ * (insertion, deletion, substitution or transposition) for tokens of four or more characters.
+ * Typo candidates are found through a deletion dictionary, so the cost does not depend on the
+ * size of the vocabulary. Results are ranked by field weight and match quality.
+ * <p>
+ * The index is loaded by {@link ProductCacheLoader} and updated incrementally from
+ * {@link ProductChangedEvent}s after their transaction commits.
+ */
+@Component
+public class ProductSearchIndex implements ProductCache {
+
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_CATEGORY = 2;
+    private static final int FIELD_DESCRIPTION = 4;
+    private static final int FIELD_BARCODE = 8;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float FUZZY_MATCH = 0.4f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, List<String>> deletions = new HashMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private Product[] docs = new Product[INITIAL_CAPACITY];
+    private String[][] docTerms = new String[INITIAL_CAPACITY][];
+    private int nextDoc;
+
+    /**
+     * Rebuilds the index.
+     *
+     * @param products Every product
+     */
+    @Override
+    public void load(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            rebuild(products);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the catalogue.
+     *
+     * @param query The text typed by the user
+     * @param offset Number of ranked results to skip
+     * @param limit Maximum number of results to return
+     * @return The total number of matches and the requested slice of ranked products
+     */
+    public Result search(String query, int offset, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new Result(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            float[] scores = new float[nextDoc];
+            int[] matched = new int[nextDoc];
+            TokenMatches matches = new TokenMatches(nextDoc);
+
+            for (int t = 0; t < tokens.size(); t++) {
+                collect(tokens.get(t), matches);
+                for (int i = 0; i < matches.count; i++) {
+                    int doc = matches.touched[i];
+                    if (matched[doc] == t) {
+                        matched[doc] = t + 1;
+                        scores[doc] += matches.best[doc];
+                    }
+                    matches.best[doc] = 0;
+                }
+                matches.count = 0;
+            }
+            return rank(scores, matched, tokens.size(), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the index in sync with committed product changes.
+     *
+     * @param event The product change
+     */
+    @TransactionalEventListener
+    @Override
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.getProductId());
+            if (event.getType() == ProductChangedEvent.Type.SAVED) {
+                addDocument(event.getProduct());
+            }
+            if (nextDoc > INITIAL_CAPACITY && nextDoc > docByProductId.size() * 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records in {@code matches} the best score of each document for one query token.
+     */
+    private void collect(String token, TokenMatches matches) {
+        // Exact and prefix matches. Every term with the prefix is taken, however many, so a short
+        // token never loses documents; the cost stays that of the postings a result has to visit.
+        for (Map.Entry<String, Postings> entry : terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            String term = entry.getKey();
+            float quality = term.length() == token.length()
+                    ? EXACT_MATCH
+                    : 0.5f + 0.3f * token.length() / term.length();
+            matches.accumulate(entry.getValue(), quality);
+        }
+
+        // Typo tolerance
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyCandidates(token)) {
+                matches.accumulate(terms.get(term), FUZZY_MATCH);
+            }
+        }
+    }
+
+    private List<String> fuzzyCandidates(String token) {
+        List<String> candidates = new ArrayList<>();
+        addVerified(candidates, token, deletions.get(token));
+        for (int i = 0; i < token.length(); i++) {
+            String deleted = token.substring(0, i) + token.substring(i + 1);
+            if (terms.containsKey(deleted)) {
+                addVerified(candidates, token, List.of(deleted));
+            }
+            addVerified(candidates, token, deletions.get(deleted));
+        }
+        return candidates;
+    }
+
+    private void addVerified(List<String> candidates, String token, List<String> options) {
+        if (options == null) {
+            return;
+        }
+        for (String term : options) {
+            // Prefix matches were already scored with a better quality
+            if (!term.startsWith(token) && !candidates.contains(term) && withinOneEdit(token, term)) {
+                candidates.add(term);
+            }
+        }
+    }
+
+    private Result rank(float[] scores, int[] matched, int tokenCount, int offset, int limit) {
+        int wanted = offset + limit;
+        PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> compare(scores, b, a));
+        int total = 0;
+        for (int doc = 0; doc < matched.length; doc++) {
+            if (matched[doc] != tokenCount || docs[doc] == null) {
+                continue;
+            }
+            total++;
+            top.add(doc);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        Integer[] ranked = top.toArray(new Integer[0]);
+        Arrays.sort(ranked, (a, b) -> compare(scores, a, b));
+        List<Product> page = new ArrayList<>(Math.max(0, Math.min(limit, ranked.length - offset)));
+        for (int i = offset; i < ranked.length; i++) {
+            page.add(docs[ranked[i]]);
+        }
+        return new Result(page, total);
+    }
+
+    /**
+     * Orders by descending score, then by name so ties are stable.
+     */
+    private int compare(float[] scores, int a, int b) {
+        int byScore = Float.compare(scores[b], scores[a]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        return String.CASE_INSENSITIVE_ORDER.compare(docs[a].getName(), docs[b].getName());
+    }
+
+    // Must be called with the write lock held.
+    private void rebuild(List<Product> products) {
+        terms.clear();
+        deletions.clear();
+        docByProductId.clear();
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < products.size()) {
+            capacity <<= 1;
+        }
+        docs = new Product[capacity];
+        docTerms = new String[capacity][];
+        nextDoc = 0;
+        for (Product product : products) {
+            addDocument(product);
+        }
+    }
+
+    // Must be called with the write lock held.
+    private void compact() {
+        List<Product> live = new ArrayList<>(docByProductId.size());
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (docs[doc] != null) {
+                live.add(docs[doc]);
+            }
+        }
+        rebuild(live);
+    }
+
+    // Must be called with the write lock held.
+    private void addDocument(Product product) {
+        Map<String, Integer> fieldsByTerm = new LinkedHashMap<>();
+        addField(fieldsByTerm, product.getName(), FIELD_NAME);
+        addField(fieldsByTerm, product.getDescription(), FIELD_DESCRIPTION);
+        if (product.getCategory() != null) {
+            addField(fieldsByTerm, product.getCategory().getName(), FIELD_CATEGORY);
+        }
+        addField(fieldsByTerm, product.getBarcode(), FIELD_BARCODE);
+
+        if (nextDoc == docs.length) {
+            docs = Arrays.copyOf(docs, nextDoc * 2);
+            docTerms = Arrays.copyOf(docTerms, nextDoc * 2);
+        }
+        int doc = nextDoc++;
+        docs[doc] = product;
+        docTerms[doc] = fieldsByTerm.keySet().toArray(new String[0]);
+        docByProductId.put(product.getId(), doc);
+
+        for (Map.Entry<String, Integer> entry : fieldsByTerm.entrySet()) {
+            Postings postings = terms.get(entry.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(entry.getKey(), postings);
+                addDeletions(entry.getKey());
+            }
+            postings.add(doc, entry.getValue());
+        }
+    }
+
+    // Must be called with the write lock held.
+    private void removeDocument(Long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : docTerms[doc]) {
+            Postings postings = terms.get(term);
+            postings.remove(doc);
+            if (postings.size == 0) {
+                terms.remove(term);
+                removeDeletions(term);
+            }
+        }
+        docs[doc] = null;
+        docTerms[doc] = null;
+    }
+
+    private void addField(Map<String, Integer> fieldsByTerm, String text, int field) {
+        for (String term : tokenize(text)) {
+            fieldsByTerm.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            String deleted = term.substring(0, i) + term.substring(i + 1);
+            List<String> options = deletions.computeIfAbsent(deleted, key -> new ArrayList<>(2));
+            if (!options.contains(term)) {
+                options.add(term);
+            }
+        }
+    }
+
+    private void removeDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            String deleted = term.substring(0, i) + term.substring(i + 1);
+            List<String> options = deletions.get(deleted);
+            if (options != null) {
+                options.remove(term);
+                if (options.isEmpty()) {
+                    deletions.remove(deleted);
+                }
+            }
+        }
+    }
+
+    private static float weight(int fields) {
+        if ((fields & (FIELD_NAME | FIELD_BARCODE)) != 0) {
+            return 3f;
+        }
+        if ((fields & FIELD_CATEGORY) != 0) {
+            return 2f;
+        }
+        return 1f;
+    }
+
+    /**
+     * Checks whether two strings are at most one insertion, deletion, substitution or
+     * adjacent transposition apart.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (Math.abs(lengthDiff) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDiff > 0) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (lengthDiff < 0) {
+            return b.regionMatches(i + 1, a, i, a.length() - i);
+        }
+        if (i == a.length() || a.regionMatches(i + 1, b, i + 1, a.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1)
+                && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2);
+    }
+
+    /**
+     * Splits text into lower-case, accent-folded alphanumeric tokens.
+     *
+     * @param text The text to tokenize, may be null
+     * @return The tokens in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Per-query scratch space holding the best score of each document for the current token.
+     */
+    private static final class TokenMatches {
+        private final float[] best;
+        private int[] touched = new int[64];
+        private int count;
+
+        private TokenMatches(int documents) {
+            this.best = new float[documents];
+        }
+
+        private void accumulate(Postings postings, float quality) {
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                float score = quality * weight(postings.fields[i]);
+                if (best[doc] == 0) {
+                    if (count == touched.length) {
+                        touched = Arrays.copyOf(touched, count * 2);
+                    }
+                    touched[count++] = doc;
+                    best[doc] = score;
+                } else if (score > best[doc]) {
+                    best[doc] = score;
+                }
+            }
+        }
+    }
+
+    /**
+     * Documents containing a term, with the fields the term appears in.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        private void add(int doc, int fieldMask) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size] = (byte) fieldMask;
+            size++;
+        }
+
+        private void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    fields[i] = fields[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A page of ranked search results.
+     */
+    public static final class Result {
+        private final List<Product> products;
+        private final int total;
+
+        public Result(List<Product> products, int total) {
+            this.products = products;
+            this.total = total;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.pos.manager.product;
+
+import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductSortKey;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * List of the whole product result that only holds the blocks of rows around what is being
+ * looked at, for an infinitely scrolling table.
+ * <p>
+ * The list reports the full size of the current query. Reading a row whose block is not cached
+ * returns {@code null}, which the table shows as an empty row, and asks the {@link BlockFetcher}
+ * for that block and the ones right after it. When a block arrives its rows are announced as
+ * replaced, so the table redraws them. Blocks are kept per query, so going back to a sort or a
+ * search that was already scrolled is served from memory, and the least recently read blocks
+ * are evicted once {@code maxBlocks} are held, which bounds memory at any catalogue size.
+ * <p>
+ * Not thread-safe: used from the FX thread, with fetched blocks handed back on it.
+ */
+public class ProductWindowList extends ObservableListBase<Product> {
+
+    /**
+     * Reads blocks in the background and hands each one back through
+     * {@link #blockLoaded(Query, int, List, long)} or {@link #blockFailed(Query, int)}.
+     */
+    public interface BlockFetcher {
+
+        /**
+         * @param query The query to read
+         * @param block The block index; the block starts at row {@code block * blockSize}
+         */
+        void fetch(Query query, int block);
+    }
+
+    private final int blockSize;
+    private final int maxBlocks;
+    private final int prefetchBlocks;
+    private final BlockFetcher fetcher;
+    private final LinkedHashMap<BlockKey, List<Product>> blocks;
+    private final Map<Query, Integer> totals = new HashMap<>();
+    private final Set<BlockKey> pending = new HashSet<>();
+    private Query query;
+    private int size;
+
+    /**
+     * @param blockSize Rows per block
+     * @param maxBlocks Blocks kept in memory across all queries
+     * @param prefetchBlocks Blocks read ahead of the last one touched
+     * @param fetcher Reads blocks in the background
+     */
+    public ProductWindowList(int blockSize, int maxBlocks, int prefetchBlocks, BlockFetcher fetcher) {
+        if (blockSize <= 0 || maxBlocks <= prefetchBlocks) {
+            throw new IllegalArgumentException("Tamaño de bloque o número de bloques inválido");
+        }
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+        this.prefetchBlocks = prefetchBlocks;
+        this.fetcher = fetcher;
+        this.blocks = new LinkedHashMap<>(maxBlocks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BlockKey, List<Product>> eldest) {
+                return size() > ProductWindowList.this.maxBlocks;
+            }
+        };
+    }
+
+    /**
+     * Shows another query. Its size and blocks come from the cache if it was shown before.
+     *
+     * @param query The query to show
+     */
+    public void setQuery(Query query) {
+        this.query = query;
+        Integer total = totals.get(query);
+        // Rows already cached for the query are shown again; the rest is fetched as it is read
+        replaceAll(total != null ? total : 0);
+        if (total == null) {
+            request(0);
+        }
+    }
+
+    /**
+     * Drops every cached block and reads the current query again, after the catalogue changed.
+     */
+    public void invalidate() {
+        blocks.clear();
+        totals.clear();
+        pending.clear();
+        if (query != null) {
+            // The table reads the visible rows again, which fetches their blocks
+            replaceAll(size);
+            request(0);
+        }
+    }
+
+    /**
+     * Stores a block read in the background. Must be called on the FX thread.
+     *
+     * @param query The query the block belongs to
+     * @param block The block index
+     * @param rows The rows of the block
+     * @param total The number of rows of the query
+     */
+    public void blockLoaded(Query query, int block, List<Product> rows, long total) {
+        BlockKey key = new BlockKey(query, block);
+        if (!pending.remove(key)) {
+            // Invalidated while it was being read
+            return;
+        }
+        blocks.put(key, rows);
+        totals.put(query, (int) Math.min(total, Integer.MAX_VALUE));
+        if (!query.equals(this.query)) {
+            return;
+        }
+
+        resize(totals.get(query));
+        int from = block * blockSize;
+        int to = Math.min(from + rows.size(), size);
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, (Product) null));
+            endChange();
+        }
+    }
+
+    /**
+     * Stores a block that was read outside the list, such as the first rows of a search, so
+     * showing its query does not read it again.
+     *
+     * @param query The query the block belongs to
+     * @param block The block index
+     * @param rows The rows of the block
+     * @param total The number of rows of the query
+     */
+    public void seed(Query query, int block, List<Product> rows, long total) {
+        BlockKey key = new BlockKey(query, block);
+        pending.remove(key);
+        blocks.put(key, rows);
+        totals.put(query, (int) Math.min(total, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Forgets a block that could not be read, so it is asked for again when it is next needed.
+     *
+     * @param query The query the block belongs to
+     * @param block The block index
+     */
+    public void blockFailed(Query query, int block) {
+        pending.remove(new BlockKey(query, block));
+    }
+
+    /**
+     * @param index The row index
+     * @return The product, or {@code null} while its block is being read
+     */
+    @Override
+    public Product get(int index) {
+        Objects.checkIndex(index, size);
+        int block = index / blockSize;
+        List<Product> rows = blocks.get(new BlockKey(query, block));
+        if (rows == null) {
+            request(block);
+        } else {
+            prefetch(block);
+        }
+        int offset = index - block * blockSize;
+        return rows != null && offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of blocks held in memory
+     */
+    public int getCachedBlocks() {
+        return blocks.size();
+    }
+
+    private void prefetch(int block) {
+        int lastBlock = (size - 1) / blockSize;
+        for (int next = block + 1; next <= Math.min(block + prefetchBlocks, lastBlock); next++) {
+            BlockKey key = new BlockKey(query, next);
+            // containsKey does not count as an access, so prefetching does not keep blocks alive
+            if (!blocks.containsKey(key)) {
+                request(next);
+            }
+        }
+    }
+
+    private void request(int block) {
+        if (pending.add(new BlockKey(query, block))) {
+            fetcher.fetch(query, block);
+        }
+    }
+
+    private void resize(int newSize) {
+        if (newSize == size) {
+            return;
+        }
+        beginChange();
+        if (newSize > size) {
+            nextAdd(size, newSize);
+        } else {
+            nextRemove(newSize, Collections.nCopies(size - newSize, (Product) null));
+        }
+        size = newSize;
+        endChange();
+    }
+
+    private void replaceAll(int newSize) {
+        if (size == 0 && newSize == 0) {
+            return;
+        }
+        beginChange();
+        nextReplace(0, newSize, Collections.nCopies(size, (Product) null));
+        size = newSize;
+        endChange();
+    }
+
+    /**
+     * What the list shows: the products matching a search term, ranked by relevance, or the
+     * whole catalogue in a sort order.
+     */
+    public static final class Query {
+
+        private final ProductSortKey sortKey;
+        private final boolean ascending;
+        private final String searchTerm;
+
+        private Query(ProductSortKey sortKey, boolean ascending, String searchTerm) {
+            this.sortKey = sortKey;
+            this.ascending = ascending;
+            this.searchTerm = searchTerm;
+        }
+
+        /**
+         * @param sortKey The column to sort by
+         * @param ascending Whether to sort in ascending order
+         * @return The whole catalogue in that order
+         */
+        public static Query sorted(ProductSortKey sortKey, boolean ascending) {
+            return new Query(sortKey, ascending, null);
+        }
+
+        /**
+         * @param searchTerm The search term
+         * @return The products matching the term; search results are ranked, so no sort applies
+         */
+        public static Query search(String searchTerm) {
+            return new Query(null, true, searchTerm);
+        }
+
+        public ProductSortKey getSortKey() {
+            return sortKey;
+        }
+
+        public boolean isAscending() {
+            return ascending;
+        }
+
+        public String getSearchTerm() {
+            return searchTerm;
+        }
+
+        public boolean isSearch() {
+            return searchTerm != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Query other)) return false;
+            return ascending == other.ascending && sortKey == other.sortKey
+                    && Objects.equals(searchTerm, other.searchTerm);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sortKey, ascending, searchTerm);
+        }
+    }
+
+    private record BlockKey(Query query, int block) {
+    }
+}
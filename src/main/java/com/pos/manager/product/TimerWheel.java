@@ -0,0 +1,166 @@
+package com.pos.manager.product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: items are hashed by their deadline tick into a ring of slots, so
+ * scheduling is O(1) and each tick only looks at one slot, however many items are waiting.
+ * An item whose deadline is further away than one turn of the wheel stays in its slot until the
+ * turn in which it is due.
+ * <p>
+ * Items never fire early: a deadline is rounded up to the next tick, and a tick is processed
+ * once the clock has reached its start. Thread safe; {@link #poll()} sleeps until the earliest
+ * tick that has an item, and only wakes up before it when an earlier item is scheduled.
+ *
+ * @param <T> The type of the scheduled items
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    // Earliest tick with an item, Long.MAX_VALUE while the wheel is empty
+    private long nextTick = Long.MAX_VALUE;
+    private int size;
+
+    /**
+     * @param tickMillis The length of a tick, which bounds how late an item fires
+     * @param slotCount The number of slots, rounded up to a power of two
+     * @param startMillis The current time; ticks up to it count as processed
+     */
+    public TimerWheel(long tickMillis, int slotCount, long startMillis) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("La duración del tick y la cantidad de casillas deben ser positivas");
+        }
+        int slotsPowerOfTwo = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = slotsPowerOfTwo - 1;
+        this.slots = new ArrayList<>(slotsPowerOfTwo);
+        for (int i = 0; i < slotsPowerOfTwo; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules an item. An item whose deadline has passed fires on the next tick.
+     *
+     * @param item The item
+     * @param deadlineMillis When the item is due, in epoch milliseconds
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        slots.get((int) (tick & mask)).add(new Entry<>(item, tick));
+        size++;
+        if (tick < nextTick) {
+            nextTick = tick;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Processes the ticks up to a time.
+     *
+     * @param nowMillis The current time, in epoch milliseconds
+     * @return The items that became due, in tick order
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        if (targetTick <= currentTick) {
+            return expired;
+        }
+        if (nextTick > targetTick) {
+            currentTick = targetTick;
+            return expired;
+        }
+        // After a long pause every slot is visited once instead of once per missed tick
+        long from = targetTick - currentTick > mask ? targetTick - mask : currentTick + 1;
+        for (long tick = from; tick <= targetTick && size > 0; tick++) {
+            expire(slots.get((int) (tick & mask)), targetTick, expired);
+        }
+        currentTick = targetTick;
+        nextTick = findNextTick();
+        return expired;
+    }
+
+    /**
+     * @return When the earliest item is due, rounded up to its tick, or {@link Long#MAX_VALUE} if the wheel is empty
+     */
+    public synchronized long nextDueMillis() {
+        return nextTick == Long.MAX_VALUE ? Long.MAX_VALUE : nextTick * tickMillis;
+    }
+
+    // Looks one turn ahead slot by slot; only items all more than a turn away need a full scan.
+    private long findNextTick() {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        for (long tick = currentTick + 1; tick <= currentTick + mask + 1; tick++) {
+            for (Entry<T> entry : slots.get((int) (tick & mask))) {
+                if (entry.tick() == tick) {
+                    return tick;
+                }
+            }
+        }
+        long earliest = Long.MAX_VALUE;
+        for (List<Entry<T>> slot : slots) {
+            for (Entry<T> entry : slot) {
+                earliest = Math.min(earliest, entry.tick());
+            }
+        }
+        return earliest;
+    }
+
+    private void expire(List<Entry<T>> slot, long targetTick, List<T> expired) {
+        for (int i = 0; i < slot.size(); ) {
+            Entry<T> entry = slot.get(i);
+            if (entry.tick() <= targetTick) {
+                expired.add(entry.item());
+                // Swap-remove: order within a slot does not matter
+                slot.set(i, slot.getLast());
+                slot.removeLast();
+                size--;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Waits until at least one item is due and returns the due items.
+     *
+     * @return The items that became due
+     * @throws InterruptedException If the waiting thread is interrupted
+     */
+    public synchronized List<T> poll() throws InterruptedException {
+        while (true) {
+            if (size == 0) {
+                wait();
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            long dueAt = nextTick * tickMillis;
+            if (now < dueAt) {
+                wait(dueAt - now);
+                continue;
+            }
+            List<T> expired = advance(now);
+            if (!expired.isEmpty()) {
+                return expired;
+            }
+        }
+    }
+
+    /**
+     * @return The number of items waiting
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.pos.manager.reports;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.StockChangedEvent;
+import com.pos.interfaces.products.ProductCache;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Stock;
+import com.pos.repositories.products.StockRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The value of the stock on hand at purchase price, kept as a running total.
+ * <p>
+ * Loaded by {@link com.pos.manager.product.ProductCacheLoader} with the on-hand quantities, then
+ * adjusted by every committed {@link StockChangedEvent} and by purchase price changes in
+ * {@link ProductChangedEvent}s, so reading it never sums the catalogue.
+ */
+@Component
+public class InventoryValuation implements ProductCache {
+
+    private final StockRepository stockRepository;
+    private final Map<Long, Item> items = new HashMap<>();
+    private long valueCents;
+    private long units;
+
+    public InventoryValuation(StockRepository stockRepository) {
+        this.stockRepository = stockRepository;
+    }
+
+    /**
+     * Rebuilds the valuation.
+     *
+     * @param products Every product, with price initialized
+     */
+    @Override
+    public void load(List<Product> products) {
+        List<Stock> stock = stockRepository.findAll();
+        synchronized (this) {
+            items.clear();
+            valueCents = 0;
+            units = 0;
+            for (Product product : products) {
+                item(product.getId()).costCents = costCents(product);
+            }
+            for (Stock row : stock) {
+                stockChanged(row.getProductId(), row.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * @return The value of the stock on hand at purchase price, in cents
+     */
+    public synchronized long getValueCents() {
+        return valueCents;
+    }
+
+    /**
+     * @return The units on hand across all products
+     */
+    public synchronized long getUnits() {
+        return units;
+    }
+
+    /**
+     * Values a committed stock movement.
+     *
+     * @param event The stock change
+     */
+    @TransactionalEventListener
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        stockChanged(event.getProductId(), event.getQuantity());
+    }
+
+    /**
+     * Revalues the stock of a product whose purchase price changed, or drops a deleted one.
+     *
+     * @param event The product change
+     */
+    @TransactionalEventListener
+    @Override
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            Item item = items.remove(event.getProductId());
+            if (item != null) {
+                valueCents -= item.quantity * item.costCents;
+                units -= item.quantity;
+            }
+            return;
+        }
+
+        Item item = item(event.getProductId());
+        long costCents = costCents(event.getProduct());
+        valueCents += item.quantity * (costCents - item.costCents);
+        item.costCents = costCents;
+    }
+
+    // Must be called while holding the lock.
+    private void stockChanged(Long productId, long quantity) {
+        Item item = item(productId);
+        item.quantity += quantity;
+        valueCents += quantity * item.costCents;
+        units += quantity;
+    }
+
+    private Item item(Long productId) {
+        return items.computeIfAbsent(productId, id -> new Item());
+    }
+
+    private static long costCents(Product product) {
+        Price price = product.getPrice();
+        if (price == null || price.getPurchasePrice() == null) {
+            return 0;
+        }
+        return price.getPurchasePrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class Item {
+        private long quantity;
+        private long costCents;
+    }
+}
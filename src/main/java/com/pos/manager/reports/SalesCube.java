@@ -0,0 +1,212 @@
+package com.pos.manager.reports;
+
+import com.pos.dtos.sales.SoldLineDTO;
+import com.pos.events.sales.SaleCompletedEvent;
+import com.pos.models.reports.SalesCubeCell;
+import com.pos.repositories.reports.SalesCubeRepository;
+import com.pos.repositories.sales.SaleRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keeps the {@link SalesCubeCell}s up to date: every committed sale adds its
+ * {@link SalesCubeDelta} to the cells it touches, so reports never scan the sale lines.
+ * <p>
+ * A checkout only queues its sale once it commits. A single background writer adds the queued
+ * sales, merged into one delta, in a transaction of its own, so the checkout neither waits for
+ * the cube nor fails because of it, and a burst of sales costs one write per cell it touches.
+ * Writes and rebuilds run one at a time; the H2 file is owned by a single process, so this also
+ * keeps two writes from creating the same cell at once.
+ * <p>
+ * Each sale is marked when it is added, in the same transaction as its cells. A rebuild marks
+ * every sale committed when it starts and reads only marked sales, so a sale committed while it
+ * runs is left to the writer, whatever the order its lines got their IDs in, and a queued sale
+ * the rebuild already counted is not added again.
+ */
+@Component
+public class SalesCube {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesCube.class);
+
+    private static final int REBUILD_BATCH = 5_000;
+    // Sales per write transaction
+    private static final int WRITE_BATCH = 500;
+
+    private final SalesCubeRepository salesCubeRepository;
+    private final SaleRepository saleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<SaleCompletedEvent> queue = new LinkedBlockingQueue<>();
+    // One permit per queued sale; the writer only takes sales off the queue under the lock
+    private final Semaphore queued = new Semaphore(0);
+    private volatile boolean running;
+    private Thread writer;
+
+    public SalesCube(PlatformTransactionManager transactionManager, SalesCubeRepository salesCubeRepository,
+                     SaleRepository saleRepository) {
+        this.salesCubeRepository = salesCubeRepository;
+        this.saleRepository = saleRepository;
+        // Runs on the writer thread and after a sale committed, which needs a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Starts the writer. It first builds the cube when there are sales but no cells yet, such as
+     * the first start after upgrading from a version without reports.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        running = true;
+        writer = Thread.ofVirtual().name("sales-cube-writer").start(() -> {
+            try {
+                if (salesCubeRepository.count() == 0 && saleRepository.count() > 0) {
+                    rebuild();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Error al recalcular los reportes", e);
+            }
+            run();
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    /**
+     * Queues a committed sale for the writer.
+     *
+     * @param event The completed sale
+     */
+    @TransactionalEventListener
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        queue.add(event);
+        queued.release();
+    }
+
+    /**
+     * Recomputes every cell from the sale lines, after the cube was lost or got out of step.
+     * Takes as long as the history is; sales committed meanwhile stay queued until it ends.
+     *
+     * @return The number of sale lines read
+     */
+    public synchronized long rebuild() {
+        long start = System.nanoTime();
+        long lines = transactionTemplate.execute(status -> recompute());
+        LOGGER.info("Reportes recalculados: {} líneas de venta en {} ms", lines, (System.nanoTime() - start) / 1_000_000);
+        return lines;
+    }
+
+    /**
+     * Adds the queued sales now, on the calling thread.
+     */
+    synchronized void flush() {
+        List<SaleCompletedEvent> events = new ArrayList<>(WRITE_BATCH);
+        while (queue.drainTo(events, WRITE_BATCH) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(events));
+            } catch (RuntimeException e) {
+                // The sales are committed either way; a rebuild puts them in the cube
+                LOGGER.error("Error al actualizar los reportes con {} ventas", events.size(), e);
+            }
+            events.clear();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                queued.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // The sales behind the permit are written together with any queued after it
+            queued.drainPermits();
+            flush();
+        }
+    }
+
+    // Must be called while holding the lock, inside a transaction.
+    private void write(List<SaleCompletedEvent> events) {
+        List<Long> ids = new ArrayList<>(events.size());
+        for (SaleCompletedEvent event : events) {
+            ids.add(event.getSaleId());
+        }
+        Set<Long> pending = new HashSet<>(saleRepository.findIdsNotInCube(ids));
+        if (pending.isEmpty()) {
+            return;
+        }
+        saleRepository.markInCube(List.copyOf(pending));
+        SalesCubeDelta delta = new SalesCubeDelta();
+        for (SaleCompletedEvent event : events) {
+            if (pending.contains(event.getSaleId())) {
+                delta.addAll(event.getDelta());
+            }
+        }
+        apply(delta);
+    }
+
+    // Must be called while holding the lock, inside a transaction.
+    private long recompute() {
+        salesCubeRepository.deleteAllCells();
+        saleRepository.markAllInCube();
+
+        long lastLineId = 0;
+        long lines = 0;
+        List<SoldLineDTO> batch;
+        do {
+            // Each batch is added like a sale, so memory stays bounded by the batch and not the history
+            SalesCubeDelta delta = new SalesCubeDelta();
+            batch = saleRepository.findSoldLines(lastLineId, Limit.of(REBUILD_BATCH));
+            for (SoldLineDTO line : batch) {
+                delta.addLine(line.saleDate(), line.lineNumber(), line.productId(),
+                        line.categoryId() != null ? line.categoryId() : SalesCubeCell.NO_MEMBER,
+                        line.taxId() != null ? line.taxId() : SalesCubeCell.NO_MEMBER, line.quantity(),
+                        toCents(line.taxAmount()), toCents(line.total()), line.voided());
+                lastLineId = line.lineId();
+            }
+            apply(delta);
+            lines += batch.size();
+        } while (batch.size() == REBUILD_BATCH);
+        return lines;
+    }
+
+    // Must be called while holding the lock, inside a transaction.
+    private void apply(SalesCubeDelta delta) {
+        for (SalesCubeCell cell : delta.getCells()) {
+            int updated = salesCubeRepository.add(cell.getDimension(), cell.getBucket(), cell.getMemberId(),
+                    cell.getEntries(), cell.getQuantity(), cell.getNetCents(), cell.getTaxCents(), cell.getTotalCents());
+            if (updated == 0) {
+                salesCubeRepository.insert(cell.getDimension(), cell.getBucket(), cell.getMemberId(),
+                        cell.getEntries(), cell.getQuantity(), cell.getNetCents(), cell.getTaxCents(), cell.getTotalCents());
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
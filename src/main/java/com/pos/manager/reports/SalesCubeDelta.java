@@ -0,0 +1,104 @@
+package com.pos.manager.reports;
+
+import com.pos.models.reports.SalesCubeCell;
+import com.pos.models.reports.SalesCubeCell.Dimension;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a set of sale lines adds to the sales cube, summed per cell.
+ * <p>
+ * Every line adds to its hour, its day, its product, its category and its tax. The sale itself
+ * is counted once, on its first line, so a sale whose lines are added in two deltas is not
+ * counted twice. Voided lines only count towards the sale. The same code builds the delta of a
+ * single checkout and the whole cube on a rebuild, so both always agree.
+ * <p>
+ * Not thread-safe.
+ */
+public class SalesCubeDelta {
+
+    private static final int ENTRIES = 0;
+    private static final int QUANTITY = 1;
+    private static final int NET = 2;
+    private static final int TAX = 3;
+    private static final int TOTAL = 4;
+
+    private final Map<CellKey, long[]> cells = new HashMap<>();
+
+    /**
+     * Adds a sale line.
+     *
+     * @param saleDate When the sale was made
+     * @param lineNumber The number of the line in its sale, starting at 1
+     * @param productId The product ID
+     * @param categoryId The category ID of the product
+     * @param taxId The tax ID, or {@link SalesCubeCell#NO_MEMBER} if the line is untaxed
+     * @param quantity The quantity sold
+     * @param taxCents The tax of the line
+     * @param totalCents The total of the line with tax
+     * @param voided Whether the line was voided
+     */
+    public void addLine(LocalDateTime saleDate, int lineNumber, long productId, long categoryId, long taxId,
+                        int quantity, long taxCents, long totalCents, boolean voided) {
+        LocalDateTime hour = saleDate.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = saleDate.truncatedTo(ChronoUnit.DAYS);
+        if (lineNumber == 1) {
+            cell(Dimension.HOUR, hour, SalesCubeCell.NO_MEMBER)[ENTRIES]++;
+            cell(Dimension.DAY, day, SalesCubeCell.NO_MEMBER)[ENTRIES]++;
+        }
+        if (voided) {
+            return;
+        }
+
+        long netCents = totalCents - taxCents;
+        add(cell(Dimension.HOUR, hour, SalesCubeCell.NO_MEMBER), 0, quantity, netCents, taxCents, totalCents);
+        add(cell(Dimension.DAY, day, SalesCubeCell.NO_MEMBER), 0, quantity, netCents, taxCents, totalCents);
+        add(cell(Dimension.PRODUCT, day, productId), 1, quantity, netCents, taxCents, totalCents);
+        add(cell(Dimension.CATEGORY, day, categoryId), 1, quantity, netCents, taxCents, totalCents);
+        add(cell(Dimension.TAX, day, taxId), 1, quantity, netCents, taxCents, totalCents);
+    }
+
+    /**
+     * Adds what another delta adds, so several sales can be written together.
+     *
+     * @param other The other delta
+     */
+    public void addAll(SalesCubeDelta other) {
+        other.cells.forEach((key, totals) -> add(cells.computeIfAbsent(key, k -> new long[5]),
+                totals[ENTRIES], totals[QUANTITY], totals[NET], totals[TAX], totals[TOTAL]));
+    }
+
+    /**
+     * @return The cells the lines add to, with the amounts to add
+     */
+    public List<SalesCubeCell> getCells() {
+        List<SalesCubeCell> result = new ArrayList<>(cells.size());
+        cells.forEach((key, totals) -> result.add(new SalesCubeCell(key.dimension(), key.bucket(), key.memberId(),
+                totals[ENTRIES], totals[QUANTITY], totals[NET], totals[TAX], totals[TOTAL])));
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    private long[] cell(Dimension dimension, LocalDateTime bucket, long memberId) {
+        return cells.computeIfAbsent(new CellKey(dimension, bucket, memberId), key -> new long[5]);
+    }
+
+    private static void add(long[] totals, long entries, long quantity, long netCents, long taxCents, long totalCents) {
+        totals[ENTRIES] += entries;
+        totals[QUANTITY] += quantity;
+        totals[NET] += netCents;
+        totals[TAX] += taxCents;
+        totals[TOTAL] += totalCents;
+    }
+
+    private record CellKey(Dimension dimension, LocalDateTime bucket, long memberId) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.pos.manager.sales;
+
+import com.pos.models.sales.Promotion;
+
+import java.util.Arrays;
+
+/**
+ * Works out the discounts of a cart's lines from a {@link PromotionIndex}. Owned by one cart and
+ * reused on every evaluation, so evaluating does not allocate once its buffers have grown.
+ * <p>
+ * Only the rules listed under the products and categories in the cart are looked at. Line rules
+ * do not stack: the rule that takes the most off goes first and claims the lines it discounts,
+ * and each following rule is evaluated again on the lines still unclaimed. The best threshold
+ * rule the basket reaches after that is spread over the active lines in proportion to what they
+ * still cost, so the tax of every line stays right.
+ */
+final class BasketPromotions {
+
+    private static final int INITIAL_CANDIDATES = 16;
+
+    private PromotionIndex index;
+    // Evaluation in which each line rule was last seen, and its candidate slot then
+    private int[] ruleStamps = new int[0];
+    private int[] ruleSlots = new int[0];
+    private int stamp;
+
+    private int[] candidateRules = new int[INITIAL_CANDIDATES];
+    private int[][] candidateLines = new int[INITIAL_CANDIDATES][];
+    private int[] candidateLineCounts = new int[INITIAL_CANDIDATES];
+    private long[] order = new long[INITIAL_CANDIDATES];
+    private int candidateCount;
+
+    private boolean[] claimed = new boolean[0];
+    private long[] shares = new long[0];
+
+    private long basketDiscountCents;
+    private long basketPromotionId;
+
+    /**
+     * Evaluates the rules against the active lines and writes each line's discount.
+     *
+     * @param index The rules in force
+     * @param lineCount Number of lines
+     * @param productIds Product of each line
+     * @param categoryIds Category of each line, 0 for none
+     * @param quantities Quantity of each line
+     * @param unitCents Unit price with tax of each line
+     * @param voided Whether each line is voided
+     * @param discountCents Receives the discount with tax of each line, basket discount included
+     * @param promotionIds Receives the ID of the line rule applied to each line, 0 for none
+     */
+    void evaluate(PromotionIndex index, int lineCount, long[] productIds, long[] categoryIds, int[] quantities,
+                  long[] unitCents, boolean[] voided, long[] discountCents, long[] promotionIds) {
+        Arrays.fill(discountCents, 0, lineCount, 0);
+        Arrays.fill(promotionIds, 0, lineCount, 0);
+        basketDiscountCents = 0;
+        basketPromotionId = 0;
+        if (index.isEmpty()) {
+            return;
+        }
+        prepare(index, lineCount);
+
+        collectCandidates(lineCount, productIds, categoryIds, voided);
+        int ordered = 0;
+        for (int slot = 0; slot < candidateCount; slot++) {
+            long discount = apply(slot, quantities, unitCents, null, null);
+            if (discount > 0) {
+                // Largest discount first; ties go to the rule found first
+                order[ordered++] = (discount << 20) | (0xFFFFF - slot);
+            }
+        }
+        Arrays.sort(order, 0, ordered);
+        for (int k = ordered - 1; k >= 0; k--) {
+            int slot = 0xFFFFF - (int) (order[k] & 0xFFFFF);
+            apply(slot, quantities, unitCents, discountCents, promotionIds);
+        }
+
+        applyThreshold(lineCount, quantities, unitCents, voided, discountCents);
+    }
+
+    /**
+     * Forgets the basket discount of the last evaluation, for an emptied cart.
+     */
+    void reset() {
+        basketDiscountCents = 0;
+        basketPromotionId = 0;
+    }
+
+    /**
+     * @return Discount of the threshold rule applied by the last evaluation, already spread over the lines
+     */
+    long getBasketDiscountCents() {
+        return basketDiscountCents;
+    }
+
+    /**
+     * @return ID of the threshold rule applied by the last evaluation, 0 for none
+     */
+    long getBasketPromotionId() {
+        return basketPromotionId;
+    }
+
+    private void prepare(PromotionIndex index, int lineCount) {
+        if (this.index != index) {
+            this.index = index;
+            ruleStamps = new int[index.lineRuleCount()];
+            ruleSlots = new int[index.lineRuleCount()];
+            stamp = 0;
+        }
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(ruleStamps, 0);
+            stamp = 1;
+        }
+        if (claimed.length < lineCount) {
+            claimed = new boolean[Math.max(lineCount, claimed.length * 2)];
+            shares = new long[claimed.length];
+        }
+        Arrays.fill(claimed, 0, lineCount, false);
+        candidateCount = 0;
+    }
+
+    private void collectCandidates(int lineCount, long[] productIds, long[] categoryIds, boolean[] voided) {
+        for (int line = 0; line < lineCount; line++) {
+            if (voided[line]) {
+                continue;
+            }
+            for (int rule : index.rulesForProduct(productIds[line])) {
+                addCandidate(rule, line);
+            }
+            if (categoryIds[line] != 0) {
+                for (int rule : index.rulesForCategory(categoryIds[line])) {
+                    addCandidate(rule, line);
+                }
+            }
+        }
+    }
+
+    private void addCandidate(int rule, int line) {
+        int slot;
+        if (ruleStamps[rule] == stamp) {
+            slot = ruleSlots[rule];
+            int count = candidateLineCounts[slot];
+            // A rule listing both the product and its category sees the line twice in a row
+            if (candidateLines[slot][count - 1] == line) {
+                return;
+            }
+        } else {
+            if (candidateCount == candidateRules.length) {
+                growCandidates();
+            }
+            slot = candidateCount++;
+            ruleStamps[rule] = stamp;
+            ruleSlots[rule] = slot;
+            candidateRules[slot] = rule;
+            candidateLineCounts[slot] = 0;
+            if (candidateLines[slot] == null) {
+                candidateLines[slot] = new int[8];
+            }
+        }
+        int count = candidateLineCounts[slot];
+        if (count == candidateLines[slot].length) {
+            candidateLines[slot] = Arrays.copyOf(candidateLines[slot], count * 2);
+        }
+        candidateLines[slot][count] = line;
+        candidateLineCounts[slot] = count + 1;
+    }
+
+    // Returns what the rule takes off its unclaimed lines; with output arrays, also writes and claims them.
+    private long apply(int slot, int[] quantities, long[] unitCents, long[] discountCents, long[] promotionIds) {
+        int rule = candidateRules[slot];
+        int[] lines = candidateLines[slot];
+        int count = candidateLineCounts[slot];
+        Promotion.Type type = index.type(rule);
+        if (type == Promotion.Type.BUNDLE_PRICE) {
+            return applyBundle(rule, lines, count, quantities, unitCents, discountCents, promotionIds);
+        }
+
+        long total = 0;
+        for (int k = 0; k < count; k++) {
+            int line = lines[k];
+            if (claimed[line]) {
+                continue;
+            }
+            long discount;
+            if (type == Promotion.Type.BUY_N_PAY_M) {
+                int n = index.quantity(rule);
+                discount = (long) (quantities[line] / n) * (n - index.payQuantity(rule)) * unitCents[line];
+            } else {
+                discount = PromotionIndex.percentOf(unitCents[line] * quantities[line], index.basisPoints(rule));
+            }
+            if (discount > 0) {
+                total += discount;
+                if (discountCents != null) {
+                    discountCents[line] = discount;
+                    promotionIds[line] = index.ruleId(rule);
+                    claimed[line] = true;
+                }
+            }
+        }
+        return total;
+    }
+
+    // Mix and match: the dearest units make up the bundles, which favours the customer.
+    private long applyBundle(int rule, int[] lines, int count, int[] quantities, long[] unitCents,
+                             long[] discountCents, long[] promotionIds) {
+        sortByUnitPriceDescending(lines, count, unitCents);
+        int size = index.quantity(rule);
+        long units = 0;
+        for (int k = 0; k < count; k++) {
+            if (!claimed[lines[k]]) {
+                units += quantities[lines[k]];
+            }
+        }
+        long bundles = units / size;
+        if (bundles == 0) {
+            return 0;
+        }
+        long remaining = bundles * size;
+        long value = 0;
+        for (int k = 0; k < count && remaining > 0; k++) {
+            int line = lines[k];
+            if (claimed[line]) {
+                continue;
+            }
+            long taken = Math.min(quantities[line], remaining);
+            remaining -= taken;
+            shares[line] = taken * unitCents[line];
+            value += shares[line];
+        }
+        long discount = value - bundles * index.amountCents(rule);
+        if (discount <= 0 || discountCents == null) {
+            return Math.max(discount, 0);
+        }
+
+        // Spread the discount over the lines in the bundles by what they contribute
+        long spread = 0;
+        int last = -1;
+        remaining = bundles * size;
+        for (int k = 0; k < count && remaining > 0; k++) {
+            int line = lines[k];
+            if (claimed[line]) {
+                continue;
+            }
+            remaining -= Math.min(quantities[line], remaining);
+            long part = discount * shares[line] / value;
+            discountCents[line] = part;
+            promotionIds[line] = index.ruleId(rule);
+            claimed[line] = true;
+            spread += part;
+            last = line;
+        }
+        discountCents[last] += discount - spread;
+        return discount;
+    }
+
+    private void applyThreshold(int lineCount, int[] quantities, long[] unitCents, boolean[] voided,
+                                long[] discountCents) {
+        long total = 0;
+        for (int line = 0; line < lineCount; line++) {
+            if (!voided[line]) {
+                total += unitCents[line] * quantities[line] - discountCents[line];
+            }
+        }
+        int rule = index.bestThreshold(total);
+        if (rule < 0 || total <= 0) {
+            return;
+        }
+        long discount = index.thresholdDiscount(rule, total);
+        if (discount <= 0) {
+            return;
+        }
+        long spread = 0;
+        int last = -1;
+        for (int line = 0; line < lineCount; line++) {
+            if (voided[line]) {
+                continue;
+            }
+            long remaining = unitCents[line] * quantities[line] - discountCents[line];
+            if (remaining <= 0) {
+                continue;
+            }
+            long part = discount * remaining / total;
+            discountCents[line] += part;
+            spread += part;
+            last = line;
+        }
+        discountCents[last] += discount - spread;
+        basketDiscountCents = discount;
+        basketPromotionId = index.ruleId(rule);
+    }
+
+    // Insertion sort: a rule rarely matches more than a handful of lines in one basket
+    private static void sortByUnitPriceDescending(int[] lines, int count, long[] unitCents) {
+        for (int i = 1; i < count; i++) {
+            int line = lines[i];
+            int j = i - 1;
+            while (j >= 0 && unitCents[lines[j]] < unitCents[line]) {
+                lines[j + 1] = lines[j];
+                j--;
+            }
+            lines[j + 1] = line;
+        }
+    }
+
+    private void growCandidates() {
+        int capacity = candidateRules.length * 2;
+        candidateRules = Arrays.copyOf(candidateRules, capacity);
+        candidateLines = Arrays.copyOf(candidateLines, capacity);
+        candidateLineCounts = Arrays.copyOf(candidateLineCounts, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
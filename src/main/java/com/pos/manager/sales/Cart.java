@@ -0,0 +1,506 @@
+package com.pos.manager.sales;
+
+import com.pos.manager.product.PriceCache;
+import com.pos.models.products.Product;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Lines of the sale being rung up at a till, with running totals.
+ * <p>
+ * Lines are kept in parallel arrays and every amount is a {@code long} in cents, read from
+ * {@link PriceCache}. Adding, changing, voiding or removing a line adjusts the sale total and
+ * the per-tax buckets by the difference, so without promotions a scan costs the same on a long
+ * basket as on an empty one and does not allocate once the arrays have grown.
+ * <p>
+ * Scanning the same product again adds to its active line. Voided lines stay in the cart, so
+ * they are printed and stored with the sale, but no longer count towards the totals.
+ * <p>
+ * Promotions are evaluated again after every change, against the rules in force at the time.
+ * The discount of each line is kept apart from its list price: line totals, line taxes, tax
+ * buckets and the sale totals are reported after discounts, while unit prices stay the list
+ * prices. The tax part of a discount is in proportion to the line's tax.
+ * <p>
+ * A cart belongs to a single till and is not thread-safe.
+ */
+public class Cart {
+
+    private static final int INITIAL_LINES = 64;
+    private static final int INITIAL_BUCKETS = 4;
+
+    private final PriceCache priceCache;
+    private final Supplier<PromotionIndex> promotions;
+    private final BasketPromotions basketPromotions = new BasketPromotions();
+    private final PriceCache.Quote quote = new PriceCache.Quote();
+    private boolean wholesale;
+
+    private Product[] products = new Product[INITIAL_LINES];
+    private long[] productIds = new long[INITIAL_LINES];
+    private long[] categoryIds = new long[INITIAL_LINES];
+    private int[] quantities = new int[INITIAL_LINES];
+    private long[] unitCents = new long[INITIAL_LINES];
+    private long[] unitNetCents = new long[INITIAL_LINES];
+    private int[] buckets = new int[INITIAL_LINES];
+    private boolean[] voided = new boolean[INITIAL_LINES];
+    private long[] discountCents = new long[INITIAL_LINES];
+    private long[] discountNetCents = new long[INITIAL_LINES];
+    private long[] promotionIds = new long[INITIAL_LINES];
+    private int lineCount;
+
+    private long[] bucketTaxIds = new long[INITIAL_BUCKETS];
+    private long[] bucketCents = new long[INITIAL_BUCKETS];
+    private long[] bucketNetCents = new long[INITIAL_BUCKETS];
+    private long[] bucketDiscountCents = new long[INITIAL_BUCKETS];
+    private long[] bucketDiscountNetCents = new long[INITIAL_BUCKETS];
+    private int bucketCount;
+
+    // Totals at list prices; discounts are kept apart and taken off by the getters
+    private long totalCents;
+    private long netCents;
+    private long totalDiscountCents;
+    private long totalDiscountNetCents;
+    private int itemCount;
+
+    /**
+     * Creates an empty retail cart without promotions.
+     *
+     * @param priceCache The precomputed prices
+     */
+    public Cart(PriceCache priceCache) {
+        this(priceCache, () -> PromotionIndex.EMPTY);
+    }
+
+    /**
+     * Creates an empty retail cart.
+     *
+     * @param priceCache The precomputed prices
+     * @param promotions The promotions in force, asked for on every change
+     */
+    public Cart(PriceCache priceCache, Supplier<PromotionIndex> promotions) {
+        this.priceCache = priceCache;
+        this.promotions = promotions;
+    }
+
+    /**
+     * Adds a product to the cart, merging it with its active line if it already has one.
+     *
+     * @param product The product, which must have a cached price
+     * @param quantity The quantity to add
+     * @return The index of the line
+     * @throws IllegalArgumentException If the quantity is not positive or the product has no price
+     */
+    public int add(Product product, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero: " + quantity);
+        }
+        long productId = product.getId();
+        for (int i = lineCount - 1; i >= 0; i--) {
+            if (productIds[i] == productId && !voided[i]) {
+                setQuantity(i, quantities[i] + quantity);
+                return i;
+            }
+        }
+
+        if (!priceCache.quote(productId, wholesale, quote)) {
+            throw new IllegalArgumentException("El producto no tiene precio: " + product.getBarcode());
+        }
+        if (lineCount == products.length) {
+            growLines();
+        }
+
+        int line = lineCount++;
+        products[line] = product;
+        productIds[line] = productId;
+        categoryIds[line] = product.getCategory() != null && product.getCategory().getId() != null
+                ? product.getCategory().getId() : 0;
+        quantities[line] = quantity;
+        unitCents[line] = quote.getCents();
+        unitNetCents[line] = quote.getNetCents();
+        buckets[line] = bucketFor(quote.getTaxId());
+        voided[line] = false;
+        discountCents[line] = 0;
+        discountNetCents[line] = 0;
+        promotionIds[line] = 0;
+        apply(line, 1);
+        evaluatePromotions();
+        return line;
+    }
+
+    /**
+     * Changes the quantity of an active line.
+     *
+     * @param line The line index
+     * @param quantity The new quantity
+     * @throws IllegalArgumentException If the quantity is not positive
+     * @throws IllegalStateException If the line is voided
+     */
+    public void setQuantity(int line, int quantity) {
+        checkLine(line);
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero: " + quantity);
+        }
+        if (voided[line]) {
+            throw new IllegalStateException("La línea está anulada: " + line);
+        }
+        apply(line, -1);
+        quantities[line] = quantity;
+        apply(line, 1);
+        evaluatePromotions();
+    }
+
+    /**
+     * Voids a line. It stays in the cart but no longer counts towards the totals.
+     *
+     * @param line The line index
+     */
+    public void voidLine(int line) {
+        checkLine(line);
+        if (!voided[line]) {
+            apply(line, -1);
+            voided[line] = true;
+            evaluatePromotions();
+        }
+    }
+
+    /**
+     * Removes a line from the cart. Later lines move up by one.
+     *
+     * @param line The line index
+     */
+    public void remove(int line) {
+        checkLine(line);
+        if (!voided[line]) {
+            apply(line, -1);
+        }
+        int moved = lineCount - line - 1;
+        System.arraycopy(products, line + 1, products, line, moved);
+        System.arraycopy(productIds, line + 1, productIds, line, moved);
+        System.arraycopy(categoryIds, line + 1, categoryIds, line, moved);
+        System.arraycopy(quantities, line + 1, quantities, line, moved);
+        System.arraycopy(unitCents, line + 1, unitCents, line, moved);
+        System.arraycopy(unitNetCents, line + 1, unitNetCents, line, moved);
+        System.arraycopy(buckets, line + 1, buckets, line, moved);
+        System.arraycopy(voided, line + 1, voided, line, moved);
+        System.arraycopy(discountCents, line + 1, discountCents, line, moved);
+        System.arraycopy(discountNetCents, line + 1, discountNetCents, line, moved);
+        System.arraycopy(promotionIds, line + 1, promotionIds, line, moved);
+        products[--lineCount] = null;
+        evaluatePromotions();
+    }
+
+    /**
+     * Switches between retail and wholesale prices, repricing every line.
+     *
+     * @param wholesale Whether to use wholesale prices
+     */
+    public void setWholesale(boolean wholesale) {
+        if (this.wholesale == wholesale) {
+            return;
+        }
+        this.wholesale = wholesale;
+        resetTotals();
+        for (int i = 0; i < lineCount; i++) {
+            if (priceCache.quote(productIds[i], wholesale, quote)) {
+                unitCents[i] = quote.getCents();
+                unitNetCents[i] = quote.getNetCents();
+            }
+            if (!voided[i]) {
+                apply(i, 1);
+            }
+        }
+        evaluatePromotions();
+    }
+
+    /**
+     * Empties the cart for the next sale.
+     */
+    public void clear() {
+        Arrays.fill(products, 0, lineCount, null);
+        // Evaluation is skipped while no rule is in force, so no line discount may outlive the sale
+        Arrays.fill(discountCents, 0, lineCount, 0);
+        Arrays.fill(discountNetCents, 0, lineCount, 0);
+        Arrays.fill(promotionIds, 0, lineCount, 0);
+        lineCount = 0;
+        bucketCount = 0;
+        resetTotals();
+        resetDiscounts();
+        basketPromotions.reset();
+    }
+
+    public boolean isWholesale() {
+        return wholesale;
+    }
+
+    public boolean isEmpty() {
+        return itemCount == 0;
+    }
+
+    /**
+     * @return Number of lines, including voided ones
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return Number of units in active lines
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Applies the promotions in force again, such as after they changed while the sale was open.
+     */
+    public void refreshPromotions() {
+        evaluatePromotions();
+    }
+
+    /**
+     * @return Sale total with tax, after discounts, in cents
+     */
+    public long getTotalCents() {
+        return totalCents - totalDiscountCents;
+    }
+
+    /**
+     * @return Sale total without tax, after discounts, in cents
+     */
+    public long getNetCents() {
+        return netCents - totalDiscountNetCents;
+    }
+
+    /**
+     * @return Sale total with tax at list prices, in cents
+     */
+    public long getSubtotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return Discount with tax of every promotion applied, in cents
+     */
+    public long getDiscountCents() {
+        return totalDiscountCents;
+    }
+
+    /**
+     * @return Part of the line discounts that comes from the basket threshold promotion, in cents
+     */
+    public long getBasketDiscountCents() {
+        return basketPromotions.getBasketDiscountCents();
+    }
+
+    /**
+     * @return The ID of the threshold promotion applied to the basket, or 0 for none
+     */
+    public long getBasketPromotionId() {
+        return basketPromotions.getBasketPromotionId();
+    }
+
+    /**
+     * @return Tax of the sale, after discounts, in cents
+     */
+    public long getTaxCents() {
+        return getTotalCents() - getNetCents();
+    }
+
+    public Product getProduct(int line) {
+        checkLine(line);
+        return products[line];
+    }
+
+    public int getQuantity(int line) {
+        checkLine(line);
+        return quantities[line];
+    }
+
+    public boolean isVoided(int line) {
+        checkLine(line);
+        return voided[line];
+    }
+
+    /**
+     * @param line The line index
+     * @return Unit price with tax, in cents
+     */
+    public long getUnitCents(int line) {
+        checkLine(line);
+        return unitCents[line];
+    }
+
+    /**
+     * @param line The line index
+     * @return Line total with tax, after discounts, in cents
+     */
+    public long getLineCents(int line) {
+        checkLine(line);
+        return unitCents[line] * quantities[line] - discountCents[line];
+    }
+
+    /**
+     * @param line The line index
+     * @return Discount with tax of the line, threshold promotion included, in cents
+     */
+    public long getLineDiscountCents(int line) {
+        checkLine(line);
+        return discountCents[line];
+    }
+
+    /**
+     * @param line The line index
+     * @return The ID of the line promotion applied to the line, or 0 for none
+     */
+    public long getLinePromotionId(int line) {
+        checkLine(line);
+        return promotionIds[line];
+    }
+
+    /**
+     * @param line The line index
+     * @return The tax ID of the line, or {@link PriceCache#NO_TAX} for untaxed products
+     */
+    public long getTaxId(int line) {
+        checkLine(line);
+        return bucketTaxIds[buckets[line]];
+    }
+
+    /**
+     * @param line The line index
+     * @return Tax of the line, after discounts, in cents
+     */
+    public long getLineTaxCents(int line) {
+        checkLine(line);
+        return (unitCents[line] - unitNetCents[line]) * quantities[line]
+                - (discountCents[line] - discountNetCents[line]);
+    }
+
+    /**
+     * @return Number of distinct taxes in the cart
+     */
+    public int getTaxBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * @param bucket The bucket index
+     * @return The tax ID of the bucket, or {@link PriceCache#NO_TAX} for untaxed products
+     */
+    public long getTaxBucketTaxId(int bucket) {
+        return bucketTaxIds[bucket];
+    }
+
+    /**
+     * @param bucket The bucket index
+     * @return Total with tax of the active lines in the bucket, after discounts, in cents
+     */
+    public long getTaxBucketCents(int bucket) {
+        return bucketCents[bucket] - bucketDiscountCents[bucket];
+    }
+
+    /**
+     * @param bucket The bucket index
+     * @return Tax of the active lines in the bucket, after discounts, in cents
+     */
+    public long getTaxBucketTaxCents(int bucket) {
+        return bucketCents[bucket] - bucketNetCents[bucket]
+                - (bucketDiscountCents[bucket] - bucketDiscountNetCents[bucket]);
+    }
+
+    // Adds (sign 1) or subtracts (sign -1) a line from the running totals.
+    private void apply(int line, int sign) {
+        long quantity = (long) quantities[line] * sign;
+        long gross = unitCents[line] * quantity;
+        long net = unitNetCents[line] * quantity;
+        int bucket = buckets[line];
+
+        totalCents += gross;
+        netCents += net;
+        bucketCents[bucket] += gross;
+        bucketNetCents[bucket] += net;
+        itemCount += (int) quantity;
+    }
+
+    // Recomputes every line discount and the discount totals from the promotions in force.
+    private void evaluatePromotions() {
+        PromotionIndex index = promotions.get();
+        if (index.isEmpty() && totalDiscountCents == 0) {
+            return;
+        }
+        basketPromotions.evaluate(index, lineCount, productIds, categoryIds, quantities, unitCents, voided,
+                discountCents, promotionIds);
+        resetDiscounts();
+        for (int i = 0; i < lineCount; i++) {
+            long discount = discountCents[i];
+            if (discount == 0) {
+                discountNetCents[i] = 0;
+                continue;
+            }
+            // The net part keeps the line's ratio of net to gross price
+            long net = unitCents[i] == 0 ? 0 : (discount * unitNetCents[i] * 2 + unitCents[i]) / (unitCents[i] * 2);
+            discountNetCents[i] = net;
+            totalDiscountCents += discount;
+            totalDiscountNetCents += net;
+            bucketDiscountCents[buckets[i]] += discount;
+            bucketDiscountNetCents[buckets[i]] += net;
+        }
+    }
+
+    private void resetDiscounts() {
+        Arrays.fill(bucketDiscountCents, 0, bucketCount, 0);
+        Arrays.fill(bucketDiscountNetCents, 0, bucketCount, 0);
+        totalDiscountCents = 0;
+        totalDiscountNetCents = 0;
+    }
+
+    private int bucketFor(long taxId) {
+        for (int b = 0; b < bucketCount; b++) {
+            if (bucketTaxIds[b] == taxId) {
+                return b;
+            }
+        }
+        if (bucketCount == bucketTaxIds.length) {
+            bucketTaxIds = Arrays.copyOf(bucketTaxIds, bucketCount * 2);
+            bucketCents = Arrays.copyOf(bucketCents, bucketCount * 2);
+            bucketNetCents = Arrays.copyOf(bucketNetCents, bucketCount * 2);
+            bucketDiscountCents = Arrays.copyOf(bucketDiscountCents, bucketCount * 2);
+            bucketDiscountNetCents = Arrays.copyOf(bucketDiscountNetCents, bucketCount * 2);
+        }
+        bucketTaxIds[bucketCount] = taxId;
+        bucketCents[bucketCount] = 0;
+        bucketNetCents[bucketCount] = 0;
+        bucketDiscountCents[bucketCount] = 0;
+        bucketDiscountNetCents[bucketCount] = 0;
+        return bucketCount++;
+    }
+
+    private void resetTotals() {
+        Arrays.fill(bucketCents, 0, bucketCount, 0);
+        Arrays.fill(bucketNetCents, 0, bucketCount, 0);
+        totalCents = 0;
+        netCents = 0;
+        itemCount = 0;
+    }
+
+    private void growLines() {
+        int capacity = products.length * 2;
+        products = Arrays.copyOf(products, capacity);
+        productIds = Arrays.copyOf(productIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        unitCents = Arrays.copyOf(unitCents, capacity);
+        unitNetCents = Arrays.copyOf(unitNetCents, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        voided = Arrays.copyOf(voided, capacity);
+        discountCents = Arrays.copyOf(discountCents, capacity);
+        discountNetCents = Arrays.copyOf(discountNetCents, capacity);
+        promotionIds = Arrays.copyOf(promotionIds, capacity);
+    }
+
+    private void checkLine(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Línea inexistente: " + line);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.pos.manager.sales;
+
+import com.pos.events.sales.PromotionChangedEvent;
+import com.pos.models.sales.Promotion;
+import com.pos.repositories.sales.PromotionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Keeps the active promotions compiled into a {@link PromotionIndex} for the carts.
+ * <p>
+ * The rules are read when the application is ready and again after a promotion change commits.
+ * Between changes, the index is compiled again in memory from the rules already read when one of
+ * them starts or ends, so carts never see an expired rule and the database is not polled.
+ */
+@Component
+public class PromotionEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PromotionEngine.class);
+
+    private final PromotionRepository promotionRepository;
+    private volatile List<Promotion> promotions = List.of();
+    private volatile PromotionIndex index = PromotionIndex.EMPTY;
+
+    public PromotionEngine(PromotionRepository promotionRepository) {
+        this.promotionRepository = promotionRepository;
+    }
+
+    /**
+     * Gets the rules in force, for evaluating a cart.
+     *
+     * @return The compiled rules
+     */
+    public PromotionIndex current() {
+        PromotionIndex current = index;
+        if (System.currentTimeMillis() < current.getValidUntilMillis()) {
+            return current;
+        }
+        return recompile(current);
+    }
+
+    /**
+     * Reads the rules in the background once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("promotion-loader").start(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                LOGGER.error("Error al cargar las promociones", e);
+            }
+        });
+    }
+
+    /**
+     * Reads the rules again after a committed promotion change.
+     *
+     * @param event The promotion change
+     */
+    @TransactionalEventListener
+    public void onPromotionChanged(PromotionChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Reads the active rules from the database and compiles them. Concurrent reloads run one after
+     * another.
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        List<Promotion> loaded = List.copyOf(promotionRepository.findAllByActiveTrue());
+        promotions = loaded;
+        index = PromotionIndex.compile(loaded, System.currentTimeMillis());
+        LOGGER.info("Promociones compiladas: {} en vigor de {} activas en {} ms",
+                index.size(), loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private synchronized PromotionIndex recompile(PromotionIndex expired) {
+        if (index == expired) {
+            index = PromotionIndex.compile(promotions, System.currentTimeMillis());
+        }
+        return index;
+    }
+}
@@ -0,0 +1,326 @@
+package com.pos.manager.sales;
+
+import com.pos.models.sales.Promotion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Promotions in force, compiled for evaluation on every scan.
+ * <p>
+ * Line rules are numbered and listed under each product and category they target, in
+ * open-addressing tables keyed by ID, so a cart only looks at the rules of the products and
+ * categories it holds: the cost of an evaluation grows with the basket, not with the number of
+ * rules. Threshold rules are sorted by threshold with the best discount seen so far at each
+ * position, so the best one a basket reaches is found by binary search.
+ * <p>
+ * Amounts are {@code long} cents and percentages basis points. The index only holds rules in
+ * force when it was compiled and is immutable; {@link #getValidUntilMillis()} tells when a rule
+ * starts or ends and it must be compiled again.
+ */
+public final class PromotionIndex {
+
+    private static final int[] NO_RULES = new int[0];
+
+    /**
+     * Index without rules.
+     */
+    public static final PromotionIndex EMPTY = compile(List.of(), 0);
+
+    private final long[] ruleIds;
+    private final Promotion.Type[] types;
+    private final int[] quantities;
+    private final int[] payQuantities;
+    private final long[] basisPoints;
+    private final long[] amountCents;
+    private final RuleTable byProduct;
+    private final RuleTable byCategory;
+
+    private final long[] thresholdCents;
+    // Best fixed and percentage discount among the thresholds up to each position, as rule numbers
+    private final int[] bestAmountRule;
+    private final int[] bestPercentRule;
+
+    private final int lineRuleCount;
+    private final long validUntilMillis;
+
+    private PromotionIndex(List<Promotion> lineRules, List<Promotion> thresholdRules, long validUntilMillis) {
+        int count = lineRules.size() + thresholdRules.size();
+        this.ruleIds = new long[count];
+        this.types = new Promotion.Type[count];
+        this.quantities = new int[count];
+        this.payQuantities = new int[count];
+        this.basisPoints = new long[count];
+        this.amountCents = new long[count];
+        this.lineRuleCount = lineRules.size();
+        this.validUntilMillis = validUntilMillis;
+
+        Map<Long, List<Integer>> productRules = new HashMap<>();
+        Map<Long, List<Integer>> categoryRules = new HashMap<>();
+        for (int rule = 0; rule < lineRules.size(); rule++) {
+            Promotion promotion = lineRules.get(rule);
+            store(rule, promotion);
+            for (Long productId : promotion.getProductIds()) {
+                productRules.computeIfAbsent(productId, id -> new ArrayList<>()).add(rule);
+            }
+            for (Long categoryId : promotion.getCategoryIds()) {
+                categoryRules.computeIfAbsent(categoryId, id -> new ArrayList<>()).add(rule);
+            }
+        }
+        this.byProduct = new RuleTable(productRules);
+        this.byCategory = new RuleTable(categoryRules);
+
+        List<Promotion> sorted = new ArrayList<>(thresholdRules);
+        sorted.sort((a, b) -> a.getThreshold().compareTo(b.getThreshold()));
+        this.thresholdCents = new long[sorted.size()];
+        this.bestAmountRule = new int[sorted.size()];
+        this.bestPercentRule = new int[sorted.size()];
+        int bestAmount = -1;
+        int bestPercent = -1;
+        for (int i = 0; i < sorted.size(); i++) {
+            int rule = lineRuleCount + i;
+            store(rule, sorted.get(i));
+            thresholdCents[i] = toCents(sorted.get(i).getThreshold());
+            if (amountCents[rule] > 0 && (bestAmount < 0 || amountCents[rule] > amountCents[bestAmount])) {
+                bestAmount = rule;
+            }
+            if (basisPoints[rule] > 0 && (bestPercent < 0 || basisPoints[rule] > basisPoints[bestPercent])) {
+                bestPercent = rule;
+            }
+            bestAmountRule[i] = bestAmount;
+            bestPercentRule[i] = bestPercent;
+        }
+    }
+
+    /**
+     * Compiles the rules in force at an instant. Inactive rules, rules outside their dates and
+     * rules missing the fields their type needs are left out.
+     *
+     * @param promotions The rules, with their products and categories loaded
+     * @param nowMillis The instant, in epoch milliseconds
+     * @return The index
+     */
+    public static PromotionIndex compile(Collection<Promotion> promotions, long nowMillis) {
+        List<Promotion> lineRules = new ArrayList<>();
+        List<Promotion> thresholdRules = new ArrayList<>();
+        long validUntil = Long.MAX_VALUE;
+        for (Promotion promotion : promotions) {
+            if (!promotion.isActive() || !isComplete(promotion)) {
+                continue;
+            }
+            long startsAt = toMillis(promotion.getStartsAt(), Long.MIN_VALUE);
+            long endsAt = toMillis(promotion.getEndsAt(), Long.MAX_VALUE);
+            if (startsAt > nowMillis) {
+                validUntil = Math.min(validUntil, startsAt);
+                continue;
+            }
+            if (endsAt <= nowMillis) {
+                continue;
+            }
+            validUntil = Math.min(validUntil, endsAt);
+            (promotion.getType() == Promotion.Type.THRESHOLD ? thresholdRules : lineRules).add(promotion);
+        }
+        return new PromotionIndex(lineRules, thresholdRules, validUntil);
+    }
+
+    /**
+     * @return Number of rules in force
+     */
+    public int size() {
+        return ruleIds.length;
+    }
+
+    public boolean isEmpty() {
+        return ruleIds.length == 0;
+    }
+
+    /**
+     * @return When the first rule starts or ends after the index was compiled, in epoch
+     * milliseconds, or {@link Long#MAX_VALUE} if none does
+     */
+    public long getValidUntilMillis() {
+        return validUntilMillis;
+    }
+
+    /**
+     * @return Number of line rules; line rules are numbered from zero
+     */
+    int lineRuleCount() {
+        return lineRuleCount;
+    }
+
+    /**
+     * @param productId The product ID
+     * @return The numbers of the line rules that list the product; must not be modified
+     */
+    int[] rulesForProduct(long productId) {
+        return byProduct.get(productId);
+    }
+
+    /**
+     * @param categoryId The category ID
+     * @return The numbers of the line rules that list the category; must not be modified
+     */
+    int[] rulesForCategory(long categoryId) {
+        return byCategory.get(categoryId);
+    }
+
+    long ruleId(int rule) {
+        return ruleIds[rule];
+    }
+
+    Promotion.Type type(int rule) {
+        return types[rule];
+    }
+
+    int quantity(int rule) {
+        return quantities[rule];
+    }
+
+    int payQuantity(int rule) {
+        return payQuantities[rule];
+    }
+
+    long basisPoints(int rule) {
+        return basisPoints[rule];
+    }
+
+    long amountCents(int rule) {
+        return amountCents[rule];
+    }
+
+    /**
+     * Finds the threshold rule that takes the most off a basket.
+     *
+     * @param totalCents The basket total after line discounts
+     * @return The rule number, or -1 if the basket reaches no threshold
+     */
+    int bestThreshold(long totalCents) {
+        int i = Arrays.binarySearch(thresholdCents, totalCents);
+        if (i < 0) {
+            i = -i - 2;
+        } else {
+            // Several rules may share the threshold; all of them are reached
+            while (i + 1 < thresholdCents.length && thresholdCents[i + 1] == totalCents) {
+                i++;
+            }
+        }
+        if (i < 0) {
+            return -1;
+        }
+        int amountRule = bestAmountRule[i];
+        int percentRule = bestPercentRule[i];
+        if (amountRule < 0) {
+            return percentRule;
+        }
+        if (percentRule < 0) {
+            return amountRule;
+        }
+        return thresholdDiscount(percentRule, totalCents) > amountCents[amountRule] ? percentRule : amountRule;
+    }
+
+    /**
+     * @param rule A threshold rule number
+     * @param totalCents The basket total after line discounts
+     * @return What the rule takes off the basket, never more than the total
+     */
+    long thresholdDiscount(int rule, long totalCents) {
+        long discount = amountCents[rule] > 0 ? amountCents[rule] : percentOf(totalCents, basisPoints[rule]);
+        return Math.min(discount, totalCents);
+    }
+
+    /**
+     * @param cents An amount in cents
+     * @param basisPoints A percentage in hundredths
+     * @return The percentage of the amount, rounded to the cent
+     */
+    static long percentOf(long cents, long basisPoints) {
+        return (cents * basisPoints + 5_000) / 10_000;
+    }
+
+    private void store(int rule, Promotion promotion) {
+        ruleIds[rule] = promotion.getId();
+        types[rule] = promotion.getType();
+        quantities[rule] = promotion.getQuantity() != null ? promotion.getQuantity() : 0;
+        payQuantities[rule] = promotion.getPayQuantity() != null ? promotion.getPayQuantity() : 0;
+        basisPoints[rule] = promotion.getPercentage() != null
+                ? promotion.getPercentage().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact()
+                : 0;
+        amountCents[rule] = promotion.getAmount() != null ? toCents(promotion.getAmount()) : 0;
+    }
+
+    private static boolean isComplete(Promotion promotion) {
+        if (promotion.getId() == null || promotion.getType() == null) {
+            return false;
+        }
+        return switch (promotion.getType()) {
+            case BUY_N_PAY_M -> promotion.getQuantity() != null && promotion.getPayQuantity() != null
+                    && promotion.getPayQuantity() >= 0 && promotion.getQuantity() > promotion.getPayQuantity();
+            case PERCENT_OFF -> promotion.getPercentage() != null && promotion.getPercentage().signum() > 0;
+            case BUNDLE_PRICE -> promotion.getQuantity() != null && promotion.getQuantity() > 0
+                    && promotion.getAmount() != null && promotion.getAmount().signum() >= 0;
+            case THRESHOLD -> promotion.getThreshold() != null
+                    && (promotion.getAmount() != null && promotion.getAmount().signum() > 0)
+                    != (promotion.getPercentage() != null && promotion.getPercentage().signum() > 0);
+        };
+    }
+
+    private static long toMillis(LocalDateTime instant, long absent) {
+        return instant == null ? absent : instant.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Read-only open-addressing table from an ID to the rule numbers that list it.
+     */
+    private static final class RuleTable {
+
+        private final long[] keys;
+        private final int[][] rules;
+
+        private RuleTable(Map<Long, List<Integer>> entries) {
+            int capacity = 16;
+            while (capacity < entries.size() * 2 + 2) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            rules = new int[capacity][];
+            int mask = capacity - 1;
+            for (Map.Entry<Long, List<Integer>> entry : entries.entrySet()) {
+                long key = entry.getKey();
+                int i = mix(key) & mask;
+                while (rules[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                rules[i] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        private int[] get(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; rules[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return rules[i];
+                }
+            }
+            return NO_RULES;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
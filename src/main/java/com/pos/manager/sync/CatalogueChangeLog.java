@@ -0,0 +1,108 @@
+package com.pos.manager.sync;
+
+import com.pos.events.products.CategoryChangedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.manager.core.TransactionChanges;
+import com.pos.models.sync.CatalogueChange;
+import com.pos.repositories.sync.CatalogueChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records the catalogue changes of the back office in the {@link CatalogueChange} log the tills
+ * pull from.
+ * <p>
+ * Changes are collected while the transaction runs and written just before it commits, once per
+ * row. Writing takes a lock that is released when the transaction completes, so versions become
+ * visible in the order they are numbered: a till that has read version N can never miss a lower
+ * version committed later. The back office is the only process writing its database, so a JVM
+ * lock is enough.
+ * <p>
+ * Tills ({@code app.sync.enabled}) take their catalogue from the back office and record nothing.
+ */
+@Component
+public class CatalogueChangeLog {
+
+    private final CatalogueChangeRepository catalogueChangeRepository;
+    private final boolean till;
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+
+    public CatalogueChangeLog(CatalogueChangeRepository catalogueChangeRepository,
+                              @Value("${app.sync.enabled:false}") boolean till) {
+        this.catalogueChangeRepository = catalogueChangeRepository;
+        this.till = till;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        record(CatalogueChange.EntityType.PRODUCT, event.getProductId());
+    }
+
+    @EventListener
+    public void onTaxChanged(TaxChangedEvent event) {
+        record(CatalogueChange.EntityType.TAX, event.getTaxId());
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        record(CatalogueChange.EntityType.CATEGORY, event.getCategoryId());
+    }
+
+    /**
+     * Records a changed row in the current transaction, for the catalogue import, which saves
+     * rows without an event each.
+     *
+     * @param type The kind of row
+     * @param id The ID of the row
+     * @throws IllegalStateException If no transaction is active on the back office
+     */
+    public void record(CatalogueChange.EntityType type, long id) {
+        if (till) {
+            return;
+        }
+        TransactionChanges.current(this, PendingChanges.class, PendingChanges::new).changes.add(new Key(type, id));
+    }
+
+    private record Key(CatalogueChange.EntityType type, long id) {
+    }
+
+    /**
+     * Changes of one transaction, written before it commits.
+     */
+    private final class PendingChanges extends TransactionChanges {
+
+        private final Set<Key> changes = new LinkedHashSet<>();
+        private boolean locked;
+
+        private PendingChanges() {
+            super(CatalogueChangeLog.this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            writeLock.lock();
+            locked = true;
+            List<CatalogueChange> entries = new ArrayList<>(changes.size());
+            for (Key key : changes) {
+                entries.add(new CatalogueChange(key.type(), key.id()));
+            }
+            catalogueChangeRepository.saveAll(entries);
+            catalogueChangeRepository.flush();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (locked) {
+                writeLock.unlock();
+            }
+        }
+    }
+}
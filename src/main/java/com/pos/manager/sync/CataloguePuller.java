@@ -0,0 +1,160 @@
+package com.pos.manager.sync;
+
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.models.sync.CatalogueSyncState;
+import com.pos.services.sync.CatalogueApplyService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+
+/**
+ * Keeps the catalogue of the till in step with the back office in the background.
+ * <p>
+ * A till that has never synchronized reads the whole catalogue once, in pages by product ID,
+ * remembering the catalogue version of the first page. From then on it pulls only the rows
+ * changed after the last version it applied. Each answer is applied in its own transaction
+ * together with the new position, so after a restart or an error pulling resumes where the
+ * last applied answer left it. While the back office is unreachable the till keeps selling with
+ * the catalogue it has.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sync", name = "enabled", havingValue = "true")
+public class CataloguePuller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CataloguePuller.class);
+
+    /**
+     * Path of the back-office endpoint that sends the changes after a version.
+     */
+    public static final String CHANGES_PATH = "/api/sync/catalogue/changes";
+
+    /**
+     * Path of the back-office endpoint that sends the whole catalogue in pages.
+     */
+    public static final String SNAPSHOT_PATH = "/api/sync/catalogue/snapshot";
+
+    private final CatalogueApplyService catalogueApplyService;
+    private final RestClient restClient;
+    private final String token;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration maxBackoff;
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public CataloguePuller(CatalogueApplyService catalogueApplyService,
+                           RestClient.Builder restClientBuilder,
+                           @Value("${app.sync.central-url}") String centralUrl,
+                           @Value("${app.sync.token:}") String token,
+                           @Value("${app.sync.catalogue.batch-size:1000}") int batchSize,
+                           @Value("${app.sync.catalogue.poll-interval-ms:30000}") long pollIntervalMs,
+                           @Value("${app.sync.max-backoff-seconds:60}") long maxBackoffSeconds) {
+        this(catalogueApplyService, JournalReplicator.client(restClientBuilder, centralUrl), token, batchSize,
+                Duration.ofMillis(pollIntervalMs), Duration.ofSeconds(maxBackoffSeconds));
+    }
+
+    CataloguePuller(CatalogueApplyService catalogueApplyService, RestClient restClient, String token, int batchSize,
+                    Duration pollInterval, Duration maxBackoff) {
+        this.catalogueApplyService = catalogueApplyService;
+        this.restClient = restClient;
+        this.token = token;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Starts pulling once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("sync-catalogue").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            try {
+                boolean more = pullOnce();
+                failures = 0;
+                if (!more) {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RestClientException | DataAccessException e) {
+                if (failures++ == 0) {
+                    LOGGER.warn("No se pudo actualizar el catálogo desde el servidor central, se reintentará: {}", e.getMessage());
+                } else {
+                    LOGGER.debug("Reintento {} de actualización del catálogo fallido: {}", failures, e.getMessage());
+                }
+                try {
+                    Thread.sleep(Math.min(pollInterval.toMillis() << Math.min(failures, 16), maxBackoff.toMillis()));
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Pulls and applies the next page of the snapshot or the next changes.
+     *
+     * @return Whether the back office has more to send straight away
+     * @throws RestClientException If the back office cannot be reached or rejects the request
+     */
+    boolean pullOnce() {
+        CatalogueSyncState state = catalogueApplyService.getState();
+        if (state == null || !state.isSnapshotComplete()) {
+            long after = state == null ? 0 : state.getSnapshotPosition();
+            CatalogueDeltaDTO page = get(SNAPSHOT_PATH, after);
+            long version = state == null ? page.version() : state.getVersion();
+            Long position = page.more() ? page.products().getLast().id() : null;
+            catalogueApplyService.apply(page, new CatalogueSyncState(version, position));
+            if (position == null) {
+                LOGGER.info("Catálogo inicial recibido del servidor central (versión {})", version);
+            }
+            return true;
+        }
+
+        CatalogueDeltaDTO delta = get(CHANGES_PATH, state.getVersion());
+        if (delta.version() <= state.getVersion()) {
+            return false;
+        }
+        catalogueApplyService.apply(delta, new CatalogueSyncState(delta.version(), null));
+        return delta.more();
+    }
+
+    private CatalogueDeltaDTO get(String path, long after) {
+        CatalogueDeltaDTO delta = restClient.get()
+                .uri(uri -> uri.path(path).queryParam("after", after).queryParam("limit", batchSize).build())
+                .header(JournalReplicator.TOKEN_HEADER, token)
+                .retrieve()
+                .body(CatalogueDeltaDTO.class);
+        if (delta == null) {
+            throw new RestClientException("El servidor central no envió el catálogo");
+        }
+        return delta;
+    }
+}
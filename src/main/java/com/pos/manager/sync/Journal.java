@@ -0,0 +1,475 @@
+package com.pos.manager.sync;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of entries kept in memory-mapped segment files.
+ * <p>
+ * Every entry gets the next sequence number, starting at 1. Appending copies the entry into the
+ * mapped segment and returns, so it costs a memory copy; {@link #flush()} forces what was
+ * appended to the disk and is meant to be called periodically, which groups many appends in one
+ * fsync. A full segment is forced and a new one started. The reader acknowledges a sequence once
+ * it no longer needs it: the acknowledged position survives restarts and segments whose entries
+ * are all acknowledged are deleted.
+ * <p>
+ * Each segment starts with a header holding its first sequence and, per entry type, the highest
+ * source ID journaled before it, so the last source IDs are known after older segments are
+ * deleted. Each entry is {@code length, sequence, type, source ID, payload, CRC32} and its length
+ * is written last. Opening the journal scans the segments and drops a torn entry at the end of
+ * the last one, left by a crash in the middle of an append.
+ * <p>
+ * Thread-safe. Appends and reads hold a lock for the copy only; fsyncs and file deletions run
+ * outside of it.
+ */
+public class Journal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Journal.class);
+
+    /**
+     * Entry types are numbered from 0 to {@code MAX_TYPES - 1}.
+     */
+    public static final int MAX_TYPES = 8;
+
+    private static final int MAGIC = 0x504F534A;
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 * MAX_TYPES;
+    // length, sequence, type, source ID, CRC32
+    static final int ENTRY_OVERHEAD = 4 + 8 + 1 + 8 + 4;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ACK_FILE = "journal.ack";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel ackChannel;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final long[] lastSourceIds = new long[MAX_TYPES];
+    private final List<Path> pendingDeletes = new ArrayList<>();
+    private Segment active;
+    private long nextSequence;
+    private long acknowledged;
+    private boolean dirty;
+
+    // Where the last read stopped, so the next read continues without scanning the segment
+    private long cursorSequence = -1;
+    private Segment cursorSegment;
+    private int cursorPosition;
+
+    private Journal(Path directory, int segmentSize, FileChannel ackChannel) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.ackChannel = ackChannel;
+    }
+
+    /**
+     * Opens the journal in a directory, creating it if needed, and recovers its state.
+     *
+     * @param directory The directory of the segment files
+     * @param segmentSize The size of new segment files in bytes
+     * @return The journal
+     * @throws IOException If the files cannot be read or created
+     */
+    public static Journal open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE + ENTRY_OVERHEAD) {
+            throw new IllegalArgumentException("Tamaño de segmento inválido: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        FileChannel ackChannel = FileChannel.open(directory.resolve(ACK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Journal journal = new Journal(directory, segmentSize, ackChannel);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        if (ackChannel.size() >= Long.BYTES) {
+            ByteBuffer ack = ByteBuffer.allocate(Long.BYTES);
+            ackChannel.read(ack, 0);
+            acknowledged = ack.flip().getLong();
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Segment segment = Segment.open(file);
+                if (segment == null) {
+                    // Created but its header never reached the disk
+                    Files.delete(file);
+                } else {
+                    segments.put(segment.baseSequence, segment);
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            nextSequence = acknowledged + 1;
+            active = newSegment();
+        } else {
+            active = segments.lastEntry().getValue();
+            nextSequence = active.lastSequence + 1;
+            System.arraycopy(active.sourceIds, 0, lastSourceIds, 0, MAX_TYPES);
+        }
+        releaseAcknowledged().forEach(this::delete);
+        LOGGER.info("Diario de sincronización abierto: {} registros pendientes en {} segmentos",
+                nextSequence - 1 - acknowledged, segments.size());
+    }
+
+    /**
+     * Appends an entry. It reaches the disk with the next {@link #flush()}.
+     *
+     * @param type The entry type, from 0 to {@link #MAX_TYPES} - 1
+     * @param sourceId The ID of the journaled row
+     * @param payload The serialized entry
+     * @return The sequence of the entry
+     * @throws IOException If a new segment cannot be created
+     * @throws IllegalArgumentException If the type is out of range or the payload is empty or does not fit in a segment
+     */
+    public synchronized long append(int type, long sourceId, byte[] payload) throws IOException {
+        if (type < 0 || type >= MAX_TYPES) {
+            throw new IllegalArgumentException("Tipo de registro inválido: " + type);
+        }
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("El registro está vacío");
+        }
+        int size = ENTRY_OVERHEAD + payload.length;
+        if (HEADER_SIZE + size > segmentSize) {
+            throw new IllegalArgumentException("El registro no cabe en un segmento del diario: " + payload.length + " bytes");
+        }
+        if (active.end + size > active.buffer.capacity()) {
+            active.buffer.force();
+            active = newSegment();
+        }
+
+        long sequence = nextSequence;
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.end;
+        buffer.putLong(position + 4, sequence);
+        buffer.put(position + 12, (byte) type);
+        buffer.putLong(position + 13, sourceId);
+        buffer.put(position + 21, payload);
+        buffer.putInt(position + 21 + payload.length, checksum(buffer, position, payload.length));
+        // The length goes last: until it is written the entry reads as the end of the segment
+        buffer.putInt(position, payload.length);
+
+        active.end += size;
+        active.lastSequence = sequence;
+        lastSourceIds[type] = Math.max(lastSourceIds[type], sourceId);
+        nextSequence++;
+        dirty = true;
+        return sequence;
+    }
+
+    /**
+     * Forces the entries appended since the last flush to the disk.
+     */
+    public void flush() {
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            buffer = active.buffer;
+        }
+        // A segment that fills up meanwhile is forced when the next one starts
+        buffer.force();
+    }
+
+    /**
+     * Reads entries in sequence order.
+     *
+     * @param fromSequence The first sequence to read; it must not be acknowledged yet
+     * @param maxEntries The maximum number of entries to read
+     * @return The entries, empty if there are none from that sequence on
+     * @throws IllegalArgumentException If the entries from that sequence were already deleted
+     */
+    public synchronized List<JournalRecord> read(long fromSequence, int maxEntries) {
+        List<JournalRecord> entries = new ArrayList<>();
+        if (fromSequence >= nextSequence) {
+            return entries;
+        }
+
+        Segment segment;
+        int position;
+        if (fromSequence == cursorSequence && segments.get(cursorSegment.baseSequence) == cursorSegment) {
+            segment = cursorSegment;
+            position = cursorPosition;
+        } else {
+            Map.Entry<Long, Segment> floor = segments.floorEntry(fromSequence);
+            if (floor == null) {
+                throw new IllegalArgumentException("Los registros desde " + fromSequence + " ya fueron eliminados");
+            }
+            segment = floor.getValue();
+            position = HEADER_SIZE;
+            for (long sequence = segment.baseSequence; sequence < fromSequence && position < segment.end; sequence++) {
+                position += ENTRY_OVERHEAD + segment.buffer.getInt(position);
+            }
+        }
+
+        long sequence = fromSequence;
+        while (entries.size() < maxEntries && sequence < nextSequence) {
+            if (position >= segment.end) {
+                segment = segments.higherEntry(segment.baseSequence).getValue();
+                position = HEADER_SIZE;
+                continue;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int length = buffer.getInt(position);
+            byte[] payload = new byte[length];
+            buffer.get(position + 21, payload);
+            entries.add(new JournalRecord(buffer.getLong(position + 4), buffer.get(position + 12),
+                    buffer.getLong(position + 13), payload));
+            position += ENTRY_OVERHEAD + length;
+            sequence++;
+        }
+        cursorSequence = sequence;
+        cursorSegment = segment;
+        cursorPosition = position;
+        return entries;
+    }
+
+    /**
+     * Records that the entries up to a sequence are no longer needed and deletes the segments
+     * that only hold such entries. Meant to be called by the single reader of the journal.
+     *
+     * @param sequence The last sequence no longer needed
+     * @throws IOException If the acknowledged position cannot be stored
+     */
+    public void acknowledge(long sequence) throws IOException {
+        synchronized (this) {
+            if (sequence <= acknowledged) {
+                return;
+            }
+            sequence = Math.min(sequence, nextSequence - 1);
+        }
+        ByteBuffer ack = ByteBuffer.allocate(Long.BYTES).putLong(0, sequence);
+        ackChannel.write(ack, 0);
+        ackChannel.force(false);
+
+        List<Segment> released;
+        synchronized (this) {
+            acknowledged = Math.max(acknowledged, sequence);
+            released = releaseAcknowledged();
+        }
+        released.forEach(this::delete);
+    }
+
+    /**
+     * @return The last acknowledged sequence, 0 if none
+     */
+    public synchronized long getAcknowledged() {
+        return acknowledged;
+    }
+
+    /**
+     * @return The sequence the next entry will get
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return The number of entries appended and not acknowledged
+     */
+    public synchronized long getPendingCount() {
+        return nextSequence - 1 - acknowledged;
+    }
+
+    /**
+     * @param type The entry type
+     * @return The highest source ID ever journaled with that type, 0 if none
+     */
+    public synchronized long getLastSourceId(int type) {
+        return lastSourceIds[type];
+    }
+
+    /**
+     * Forces the pending entries to the disk and closes the files.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.buffer.force();
+        }
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        segments.clear();
+        ackChannel.close();
+    }
+
+    /**
+     * Takes the segments whose entries are all acknowledged out of the journal, except the one
+     * being written, which keeps the last source IDs. Must hold the lock.
+     */
+    private List<Segment> releaseAcknowledged() {
+        List<Segment> released = new ArrayList<>();
+        Iterator<Segment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment == active || segment.lastSequence > acknowledged) {
+                break;
+            }
+            iterator.remove();
+            released.add(segment);
+        }
+        return released;
+    }
+
+    private void delete(Segment segment) {
+        List<Path> paths;
+        synchronized (pendingDeletes) {
+            pendingDeletes.add(segment.path);
+            paths = new ArrayList<>(pendingDeletes);
+            pendingDeletes.clear();
+        }
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("No se pudo cerrar el segmento {}", segment.path, e);
+        }
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // Some systems keep a mapped file until the mapping is collected: try again later
+                synchronized (pendingDeletes) {
+                    pendingDeletes.add(path);
+                }
+            }
+        }
+    }
+
+    private Segment newSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        Segment segment = Segment.create(path, nextSequence, lastSourceIds, segmentSize);
+        segments.put(segment.baseSequence, segment);
+        return segment;
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int payloadLength) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + 4, 17 + payloadLength));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A mapped segment file.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long baseSequence;
+        // Highest source ID per type up to the end of the segment
+        private final long[] sourceIds = new long[MAX_TYPES];
+        private int end = HEADER_SIZE;
+        private long lastSequence;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer, long baseSequence) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.baseSequence = baseSequence;
+            this.lastSequence = baseSequence - 1;
+        }
+
+        static Segment create(Path path, long baseSequence, long[] sourceIds, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, baseSequence);
+            for (int type = 0; type < MAX_TYPES; type++) {
+                buffer.putLong(16 + type * 8, sourceIds[type]);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+
+            Segment segment = new Segment(path, channel, buffer, baseSequence);
+            System.arraycopy(sourceIds, 0, segment.sourceIds, 0, MAX_TYPES);
+            return segment;
+        }
+
+        /**
+         * Maps an existing segment and finds the end of its valid entries.
+         *
+         * @return The segment, or null if its header was never written
+         */
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) {
+                channel.close();
+                return null;
+            }
+            if (buffer.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException("Versión de segmento del diario no soportada: " + path);
+            }
+
+            Segment segment = new Segment(path, channel, buffer, buffer.getLong(8));
+            for (int type = 0; type < MAX_TYPES; type++) {
+                segment.sourceIds[type] = buffer.getLong(16 + type * 8);
+            }
+            segment.scan();
+            return segment;
+        }
+
+        private void scan() {
+            int position = HEADER_SIZE;
+            long expected = baseSequence;
+            while (position + ENTRY_OVERHEAD <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || position + ENTRY_OVERHEAD + length > buffer.capacity()
+                        || buffer.getLong(position + 4) != expected
+                        || buffer.getInt(position + 21 + length) != checksum(buffer, position, length)) {
+                    LOGGER.warn("Registro incompleto en {} en la posición {}, se descarta el resto del segmento", path, position);
+                    // Later appends must not find the torn bytes after their own end
+                    for (int i = position; i < buffer.capacity(); i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    buffer.force();
+                    break;
+                }
+                int type = buffer.get(position + 12);
+                if (type >= 0 && type < MAX_TYPES) {
+                    sourceIds[type] = Math.max(sourceIds[type], buffer.getLong(position + 13));
+                }
+                position += ENTRY_OVERHEAD + length;
+                expected++;
+            }
+            end = position;
+            lastSequence = expected - 1;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.pos.manager.sync;
+
+/**
+ * Kinds of entries a till journals for the back office. The code is what the {@link Journal}
+ * stores, so codes must never be reused.
+ */
+public enum JournalEntryType {
+    SALE(1),
+    STOCK_MOVEMENT(2);
+
+    private final int code;
+
+    JournalEntryType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @param code A stored code
+     * @return The type with that code
+     * @throws IllegalArgumentException If no type has the code
+     */
+    public static JournalEntryType of(int code) {
+        for (JournalEntryType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de registro desconocido: " + code);
+    }
+}
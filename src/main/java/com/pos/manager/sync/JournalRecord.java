@@ -0,0 +1,12 @@
+package com.pos.manager.sync;
+
+/**
+ * Entry read back from the {@link Journal}.
+ *
+ * @param sequence The position of the entry in the journal, starting at 1 and without gaps
+ * @param type The kind of entry, see {@link JournalEntryType}
+ * @param sourceId The ID of the journaled row, such as the sale ID
+ * @param payload The serialized entry
+ */
+public record JournalRecord(long sequence, int type, long sourceId, byte[] payload) {
+}
@@ -0,0 +1,177 @@
+package com.pos.manager.sync;
+
+import com.pos.dtos.sync.SyncAckDTO;
+import com.pos.dtos.sync.SyncBatchDTO;
+import com.pos.dtos.sync.SyncEntryDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ships the {@link Journal} of the till to the back office in the background.
+ * <p>
+ * Entries are sent in batches from the first one not acknowledged. The back office stores them
+ * by till and sequence, skipping sequences it already has, and answers with the last sequence it
+ * holds without gaps; the journal is acknowledged up to there and the next batch starts after
+ * it. A batch whose answer was lost is sent again and stored once, and after a restart shipping
+ * resumes from the acknowledged position. While the back office is unreachable the replicator
+ * retries with an exponential backoff and the till keeps selling.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sync", name = "enabled", havingValue = "true")
+public class JournalReplicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalReplicator.class);
+
+    /**
+     * Header carrying the shared secret of the till.
+     */
+    public static final String TOKEN_HEADER = "X-Till-Token";
+
+    /**
+     * Path of the back-office endpoint that receives the batches.
+     */
+    public static final String ENTRIES_PATH = "/api/sync/entries";
+
+    private final Journal journal;
+    private final RestClient restClient;
+    private final String tillId;
+    private final String token;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration maxBackoff;
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public JournalReplicator(TillJournal tillJournal,
+                             RestClient.Builder restClientBuilder,
+                             @Value("${app.sync.central-url}") String centralUrl,
+                             @Value("${app.sync.till-id}") String tillId,
+                             @Value("${app.sync.token:}") String token,
+                             @Value("${app.sync.batch-size:500}") int batchSize,
+                             @Value("${app.sync.poll-interval-ms:1000}") long pollIntervalMs,
+                             @Value("${app.sync.max-backoff-seconds:60}") long maxBackoffSeconds) {
+        this(tillJournal.getJournal(), client(restClientBuilder, centralUrl), tillId, token, batchSize,
+                Duration.ofMillis(pollIntervalMs), Duration.ofSeconds(maxBackoffSeconds));
+    }
+
+    JournalReplicator(Journal journal, RestClient restClient, String tillId, String token, int batchSize,
+                      Duration pollInterval, Duration maxBackoff) {
+        this.journal = journal;
+        this.restClient = restClient;
+        this.tillId = tillId;
+        this.token = token;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxBackoff = maxBackoff;
+    }
+
+    static RestClient client(RestClient.Builder builder, String centralUrl) {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(30));
+        return builder.baseUrl(centralUrl).requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Starts shipping once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("sync-replicator").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            try {
+                int shipped = replicateOnce();
+                if (failures > 0) {
+                    LOGGER.info("Servidor central disponible de nuevo, {} registros pendientes", journal.getPendingCount());
+                    failures = 0;
+                }
+                if (shipped == 0) {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RestClientException | IOException | IllegalArgumentException e) {
+                if (failures++ == 0) {
+                    LOGGER.warn("No se pudo enviar el diario al servidor central, se reintentará: {}", e.getMessage());
+                } else {
+                    LOGGER.debug("Reintento {} de envío del diario fallido: {}", failures, e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoff(failures).toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the next batch and acknowledges what the back office stored.
+     *
+     * @return The number of entries acknowledged, 0 when there was nothing to send
+     * @throws IOException If the acknowledged position cannot be stored
+     * @throws RestClientException If the back office cannot be reached or rejects the batch
+     */
+    int replicateOnce() throws IOException {
+        long acknowledged = journal.getAcknowledged();
+        List<JournalRecord> records = journal.read(acknowledged + 1, batchSize);
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        List<SyncEntryDTO> entries = records.stream()
+                .map(record -> new SyncEntryDTO(record.sequence(), JournalEntryType.of(record.type()).name(),
+                        record.sourceId(), new String(record.payload(), StandardCharsets.UTF_8)))
+                .toList();
+        SyncAckDTO ack = restClient.post()
+                .uri(ENTRIES_PATH)
+                .header(TOKEN_HEADER, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new SyncBatchDTO(tillId, entries))
+                .retrieve()
+                .body(SyncAckDTO.class);
+        if (ack == null || ack.acknowledged() < acknowledged) {
+            throw new RestClientException("El servidor central confirmó la secuencia "
+                    + (ack != null ? ack.acknowledged() : null) + " pero ya se habían confirmado hasta la " + acknowledged);
+        }
+
+        journal.acknowledge(ack.acknowledged());
+        return (int) (journal.getAcknowledged() - acknowledged);
+    }
+
+    Duration backoff(int failures) {
+        long millis = pollInterval.toMillis() << Math.min(failures, 16);
+        return Duration.ofMillis(Math.min(millis, maxBackoff.toMillis()));
+    }
+}
@@ -0,0 +1,247 @@
+package com.pos.manager.sync;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.dtos.sync.SaleEntryDTO;
+import com.pos.dtos.sync.StockMovementEntryDTO;
+import com.pos.events.products.StockChangedEvent;
+import com.pos.events.sales.SaleCompletedEvent;
+import com.pos.models.products.StockMovement;
+import com.pos.models.sales.Sale;
+import com.pos.repositories.products.StockMovementRepository;
+import com.pos.repositories.sales.SaleRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journals the committed sales and stock movements of the till for the back office.
+ * <p>
+ * Entries are appended to the local {@link Journal} after their transaction commits, on the
+ * thread that committed, which only costs a copy into the mapped segment; a background task
+ * forces them to the disk every {@code flush-interval-ms}, as H2's write delay does for the
+ * database. Checkout never waits for the disk or for the back office, and a journal problem is
+ * logged without failing the sale.
+ * <p>
+ * A crash between a commit and its append would lose the entry, so on start the rows committed
+ * after the last journaled IDs, up to the highest ID at that moment, are journaled again in the
+ * background. Events of rows the catch-up already journaled are skipped, and the other way round.
+ * On the first start this ships the whole history of the till.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sync", name = "enabled", havingValue = "true")
+public class TillJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TillJournal.class);
+
+    private static final int CATCH_UP_BATCH = 500;
+
+    private final Journal journal;
+    private final ObjectMapper objectMapper;
+    private final SaleRepository saleRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService flusher;
+
+    private final CatchUp saleCatchUp;
+    private final CatchUp movementCatchUp;
+
+    public TillJournal(@Value("${app.sync.journal.path:./journal}") Path path,
+                       @Value("${app.sync.journal.segment-size-mb:16}") int segmentSizeMb,
+                       @Value("${app.sync.journal.flush-interval-ms:200}") long flushIntervalMs,
+                       ObjectMapper objectMapper,
+                       SaleRepository saleRepository,
+                       StockMovementRepository stockMovementRepository,
+                       PlatformTransactionManager transactionManager) throws IOException {
+        this.journal = Journal.open(path, segmentSizeMb * 1024 * 1024);
+        this.saleCatchUp = new CatchUp(journal.getLastSourceId(JournalEntryType.SALE.getCode()));
+        this.movementCatchUp = new CatchUp(journal.getLastSourceId(JournalEntryType.STOCK_MOVEMENT.getCode()));
+        this.objectMapper = objectMapper;
+        this.saleRepository = saleRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("sync-journal-flush").factory());
+        this.flusher.scheduleWithFixedDelay(journal::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The journal the replicator ships
+     */
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Journals a committed sale.
+     *
+     * @param event The completed sale
+     */
+    @TransactionalEventListener
+    public synchronized void onSaleCompleted(SaleCompletedEvent event) {
+        if (saleCatchUp.journalEvent(event.getSaleId())) {
+            append(JournalEntryType.SALE, event.getSaleId(), SaleEntryDTO.of(event.getSale()));
+        }
+    }
+
+    /**
+     * Journals a committed stock movement.
+     *
+     * @param event The stock change
+     */
+    @TransactionalEventListener
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        StockMovement movement = event.getMovement();
+        if (movementCatchUp.journalEvent(movement.getId())) {
+            append(JournalEntryType.STOCK_MOVEMENT, movement.getId(), StockMovementEntryDTO.of(movement));
+        }
+    }
+
+    /**
+     * Journals in the background the rows committed after the last journaled ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("sync-journal-catch-up").start(() -> {
+            try {
+                catchUp();
+            } catch (RuntimeException e) {
+                LOGGER.error("Error al completar el diario de sincronización", e);
+            }
+        });
+    }
+
+    void catchUp() {
+        long saleBound = saleRepository.findMaxId();
+        synchronized (this) {
+            saleCatchUp.bound = saleBound;
+        }
+        int sales = 0;
+        long lastSaleId = saleCatchUp.watermark;
+        List<Long> saleIds;
+        while (!(saleIds = ids(saleRepository.findIdsAfter(lastSaleId, Limit.of(CATCH_UP_BATCH)), saleBound)).isEmpty()) {
+            List<Long> batch = saleIds;
+            List<Sale> loaded = transactionTemplate.execute(status -> saleRepository.findWithLinesByIdIn(batch));
+            synchronized (this) {
+                saleCatchUp.caughtUp.clear();
+                for (Sale sale : loaded) {
+                    if (saleCatchUp.journalCaughtUp(sale.getId())) {
+                        append(JournalEntryType.SALE, sale.getId(), SaleEntryDTO.of(sale));
+                    }
+                }
+            }
+            lastSaleId = saleIds.getLast();
+            sales += saleIds.size();
+        }
+        synchronized (this) {
+            saleCatchUp.finish();
+        }
+
+        long movementBound = stockMovementRepository.findMaxId();
+        synchronized (this) {
+            movementCatchUp.bound = movementBound;
+        }
+        int movements = 0;
+        long lastMovementId = movementCatchUp.watermark;
+        List<StockMovement> batch;
+        while (!(batch = stockMovementRepository.findByIdGreaterThanOrderByIdAsc(lastMovementId, Limit.of(CATCH_UP_BATCH))).isEmpty()
+                && batch.getFirst().getId() <= movementBound) {
+            synchronized (this) {
+                movementCatchUp.caughtUp.clear();
+                for (StockMovement movement : batch) {
+                    if (movement.getId() <= movementBound && movementCatchUp.journalCaughtUp(movement.getId())) {
+                        append(JournalEntryType.STOCK_MOVEMENT, movement.getId(), StockMovementEntryDTO.of(movement));
+                    }
+                }
+            }
+            lastMovementId = batch.getLast().getId();
+            movements += batch.size();
+        }
+        synchronized (this) {
+            movementCatchUp.finish();
+        }
+
+        if (sales > 0 || movements > 0) {
+            LOGGER.info("Diario de sincronización completado con {} ventas y {} movimientos de stock", sales, movements);
+        }
+    }
+
+    private static List<Long> ids(List<Long> ids, long bound) {
+        return ids.stream().filter(id -> id <= bound).toList();
+    }
+
+    private void append(JournalEntryType type, long sourceId, Object entry) {
+        try {
+            journal.append(type.getCode(), sourceId, objectMapper.writeValueAsBytes(entry));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("No se pudo registrar {} {} en el diario de sincronización", type, sourceId, e);
+        }
+    }
+
+    /**
+     * Keeps the catch-up of one entry type and its after-commit events from journaling a row
+     * twice. Guarded by the lock of the journal.
+     */
+    private static final class CatchUp {
+
+        // Highest source ID journaled before this start
+        private final long watermark;
+        // Highest ID the catch-up journals; unknown until it starts
+        private long bound = Long.MAX_VALUE;
+        // Rows up to the bound journaled from their event
+        private final Set<Long> journaledByEvent = new HashSet<>();
+        // Rows of the last catch-up batch, whose events may still arrive
+        private final Set<Long> caughtUp = new HashSet<>();
+        private boolean finished;
+
+        private CatchUp(long watermark) {
+            this.watermark = watermark;
+        }
+
+        boolean journalEvent(long id) {
+            if (id > bound) {
+                return true;
+            }
+            if (caughtUp.contains(id)) {
+                return false;
+            }
+            if (!finished) {
+                journaledByEvent.add(id);
+            }
+            return true;
+        }
+
+        boolean journalCaughtUp(long id) {
+            caughtUp.add(id);
+            return !journaledByEvent.remove(id);
+        }
+
+        void finish() {
+            finished = true;
+            journaledByEvent.clear();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flusher.shutdown();
+        journal.close();
+    }
+}
@@ -3,14 +3,25 @@ package com.pos.models.products;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "Price")
 public class Price {
 
+    /**
+     * Precision used for tax arithmetic, so percentages like 10.5 / 3 never throw on a
+     * non-terminating expansion.
+     */
+    public static final MathContext PRICE_CONTEXT = MathContext.DECIMAL64;
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_seq")
+    @SequenceGenerator(name = "price_seq", sequenceName = "price_seq", allocationSize = Product.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "purchase_price", nullable = false, precision = 12, scale = 2)
@@ -64,11 +75,22 @@ public class Price {
         BigDecimal basePrice = isWholesale && wholesalePrice != null ?
                 wholesalePrice : salePrice;
 
-        if(tax != null) {
-            return basePrice.multiply(BigDecimal.ONE.add(
-                    tax.getPercentage().divide(BigDecimal.valueOf(100))));
+        return grossPrice(basePrice, tax != null ? tax.getPercentage() : null);
+    }
+
+    /**
+     * Applies a tax percentage to a net price, rounded to cents.
+     *
+     * @param basePrice The net price
+     * @param percentage The tax percentage, or null for untaxed prices
+     * @return The gross price with scale 2
+     */
+    public static BigDecimal grossPrice(BigDecimal basePrice, BigDecimal percentage) {
+        if (percentage == null) {
+            return basePrice.setScale(2, RoundingMode.HALF_UP);
         }
-        return basePrice;
+        BigDecimal factor = BigDecimal.ONE.add(percentage.divide(ONE_HUNDRED, PRICE_CONTEXT));
+        return basePrice.multiply(factor, PRICE_CONTEXT).setScale(2, RoundingMode.HALF_UP);
     }
 
     @Override
@@ -0,0 +1,72 @@
+package com.pos.models.products;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the append-only price history of a product: the prices and tax rate in force from
+ * {@code validFrom} until the next entry of the same product. The tax percentage is copied, so a
+ * later change of the tax does not rewrite the past.
+ */
+@Entity
+@Table(name = "price_history",
+        indexes = @Index(name = "idx_price_history_product_valid_from", columnList = "product_id, valid_from"))
+public class PriceHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(name = "valid_from", nullable = false, updatable = false)
+    private LocalDateTime validFrom;
+
+    @Column(name = "purchase_price", nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal purchasePrice;
+
+    @Column(name = "sale_price", nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal salePrice;
+
+    @Column(name = "wholesale_price", updatable = false, precision = 12, scale = 2)
+    private BigDecimal wholesalePrice;
+
+    @Column(name = "tax_id", updatable = false)
+    private Long taxId;
+
+    @Column(name = "tax_percentage", updatable = false)
+    private BigDecimal taxPercentage;
+
+    public PriceHistory() {
+    }
+
+    public Long getId() { return id; }
+
+    public Long getProductId() { return productId; }
+
+    public LocalDateTime getValidFrom() { return validFrom; }
+
+    public BigDecimal getPurchasePrice() { return purchasePrice; }
+
+    public BigDecimal getSalePrice() { return salePrice; }
+
+    public BigDecimal getWholesalePrice() { return wholesalePrice; }
+
+    public Long getTaxId() { return taxId; }
+
+    public BigDecimal getTaxPercentage() { return taxPercentage; }
+
+    /**
+     * Same rule as {@link Price#getFinalPrice(boolean)}, with the tax rate of the time.
+     *
+     * @param isWholesale Whether wholesale prices apply
+     * @return The gross price the product sold for while this entry was in force
+     */
+    public BigDecimal getFinalPrice(boolean isWholesale) {
+        BigDecimal basePrice = isWholesale && wholesalePrice != null ? wholesalePrice : salePrice;
+        return Price.grossPrice(basePrice, taxPercentage);
+    }
+}
@@ -7,13 +7,35 @@ import java.sql.Timestamp;
 
 /**
  * Entity representing a product in the inventory.
+ * <p>
+ * All associations are lazy; read paths that need them use the {@link #SALE_GRAPH} fetch plan
+ * so price, tax and category arrive in the same query as the product.
  */
 @Entity
 @Table(name = "products")
+@NamedEntityGraph(
+        name = Product.SALE_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "price", subgraph = "price"),
+                @NamedAttributeNode("category")
+        },
+        subgraphs = @NamedSubgraph(name = "price", attributeNodes = @NamedAttributeNode("tax"))
+)
 public class Product {
 
+    /**
+     * Fetch plan with everything needed to list, search and sell a product.
+     */
+    public static final String SALE_GRAPH = "Product.sale";
+
+    /**
+     * Ids reserved per sequence call, so bulk inserts can be batched.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -35,7 +57,7 @@ public class Product {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Price price;
 
@@ -0,0 +1,135 @@
+package com.pos.models.products;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A price or tax change that takes effect at a given instant, such as a promotion starting at
+ * midnight. Pending changes are activated by {@link com.pos.manager.product.PriceChangeScheduler};
+ * the row is kept afterwards as a record of what was applied and when.
+ */
+@Entity
+@Table(name = "scheduled_price_changes",
+        indexes = @Index(name = "idx_scheduled_price_changes_status_effective_at", columnList = "status, effective_at"))
+public class ScheduledPriceChange {
+
+    /**
+     * What the change targets.
+     */
+    public enum Type {
+        /** New prices of a product; {@code targetId} is the product ID. */
+        PRODUCT_PRICE,
+        /** New percentage of a tax; {@code targetId} is the tax ID. */
+        TAX
+    }
+
+    public enum Status {
+        PENDING,
+        APPLIED,
+        CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 20)
+    private Type type;
+
+    @Column(name = "target_id", nullable = false, updatable = false)
+    private Long targetId;
+
+    @Column(name = "effective_at", nullable = false, updatable = false)
+    private LocalDateTime effectiveAt;
+
+    @Column(name = "purchase_price", updatable = false, precision = 12, scale = 2)
+    private BigDecimal purchasePrice;
+
+    @Column(name = "sale_price", updatable = false, precision = 12, scale = 2)
+    private BigDecimal salePrice;
+
+    @Column(name = "wholesale_price", updatable = false, precision = 12, scale = 2)
+    private BigDecimal wholesalePrice;
+
+    @Column(updatable = false)
+    private BigDecimal percentage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "applied_at")
+    private LocalDateTime appliedAt;
+
+    public ScheduledPriceChange() {
+    }
+
+    /**
+     * Creates a pending change of the prices of a product.
+     *
+     * @param productId The product ID
+     * @param effectiveAt When the prices take effect
+     * @param purchasePrice The new purchase price
+     * @param salePrice The new sale price, without tax
+     * @param wholesalePrice The new wholesale price, or null for none
+     * @return The change, not yet saved
+     */
+    public static ScheduledPriceChange price(Long productId, LocalDateTime effectiveAt, BigDecimal purchasePrice,
+                                             BigDecimal salePrice, BigDecimal wholesalePrice) {
+        ScheduledPriceChange change = new ScheduledPriceChange();
+        change.type = Type.PRODUCT_PRICE;
+        change.targetId = productId;
+        change.effectiveAt = effectiveAt;
+        change.purchasePrice = purchasePrice;
+        change.salePrice = salePrice;
+        change.wholesalePrice = wholesalePrice;
+        return change;
+    }
+
+    /**
+     * Creates a pending change of the percentage of a tax.
+     *
+     * @param taxId The tax ID
+     * @param effectiveAt When the percentage takes effect
+     * @param percentage The new percentage
+     * @return The change, not yet saved
+     */
+    public static ScheduledPriceChange tax(Long taxId, LocalDateTime effectiveAt, BigDecimal percentage) {
+        ScheduledPriceChange change = new ScheduledPriceChange();
+        change.type = Type.TAX;
+        change.targetId = taxId;
+        change.effectiveAt = effectiveAt;
+        change.percentage = percentage;
+        return change;
+    }
+
+    public Long getId() { return id; }
+
+    public Type getType() { return type; }
+
+    public Long getTargetId() { return targetId; }
+
+    public LocalDateTime getEffectiveAt() { return effectiveAt; }
+
+    public BigDecimal getPurchasePrice() { return purchasePrice; }
+
+    public BigDecimal getSalePrice() { return salePrice; }
+
+    public BigDecimal getWholesalePrice() { return wholesalePrice; }
+
+    public BigDecimal getPercentage() { return percentage; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getAppliedAt() { return appliedAt; }
+    public void setAppliedAt(LocalDateTime appliedAt) { this.appliedAt = appliedAt; }
+}
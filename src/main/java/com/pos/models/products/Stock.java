@@ -0,0 +1,45 @@
+package com.pos.models.products;
+
+import jakarta.persistence.*;
+
+/**
+ * On-hand quantity of a product, kept in step with the {@link StockMovement} ledger.
+ * <p>
+ * The quantity is only changed through conditional {@code UPDATE} statements in
+ * {@link com.pos.repositories.products.StockRepository}, never by saving a loaded entity.
+ */
+@Entity
+@Table(name = "stock")
+public class Stock {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public Stock() {
+    }
+
+    public Stock(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,73 @@
+package com.pos.models.products;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the append-only stock ledger. The on-hand {@link Stock} of a product is the sum of
+ * its movements.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = @Index(name = "idx_stock_movements_product", columnList = "product_id"))
+public class StockMovement {
+
+    /**
+     * Reason of a stock movement.
+     */
+    public enum Type {
+        SALE,
+        PURCHASE,
+        ADJUSTMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(nullable = false, updatable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 20)
+    private Type type;
+
+    @Column(updatable = false)
+    private String reference;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public StockMovement() {
+    }
+
+    /**
+     * Creates a movement.
+     *
+     * @param productId The product ID
+     * @param quantity The signed quantity: positive when stock comes in, negative when it goes out
+     * @param type The reason of the movement
+     * @param reference Free text identifying the source document, such as the sale
+     */
+    public StockMovement(Long productId, int quantity, Type type, String reference) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.type = type;
+        this.reference = reference;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getProductId() { return productId; }
+
+    public int getQuantity() { return quantity; }
+
+    public Type getType() { return type; }
+
+    public String getReference() { return reference; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
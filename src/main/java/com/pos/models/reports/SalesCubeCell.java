@@ -0,0 +1,103 @@
+package com.pos.models.reports;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sales of one bucket of time for one member of a dimension, such as the sales of
+ * a product on a day. Reports read these cells instead of the sale lines, so their cost depends
+ * on the period shown and not on the length of the history.
+ * <p>
+ * Cells are only changed through {@link com.pos.repositories.reports.SalesCubeRepository#add},
+ * and can be rebuilt from the sales at any time.
+ */
+@Entity
+@Table(name = "sales_cube",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_cube_cell", columnNames = {"dimension", "bucket", "member_id"}))
+public class SalesCubeCell {
+
+    /**
+     * What a cell aggregates by. {@link #HOUR} cells cover one hour, the rest one day.
+     */
+    public enum Dimension {
+        /** Whole sales per hour; the member is always {@link #NO_MEMBER}. */
+        HOUR,
+        /** Whole sales per day; the member is always {@link #NO_MEMBER}. */
+        DAY,
+        /** Sold lines per product and day; the member is the product ID. */
+        PRODUCT,
+        /** Sold lines per category and day; the member is the category ID. */
+        CATEGORY,
+        /** Sold lines per tax and day; the member is the tax ID, or {@link #NO_MEMBER} if untaxed. */
+        TAX
+    }
+
+    /**
+     * Member of the {@link Dimension#HOUR} and {@link Dimension#DAY} cells and of untaxed lines.
+     */
+    public static final long NO_MEMBER = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 20)
+    private Dimension dimension;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime bucket;
+
+    @Column(name = "member_id", nullable = false, updatable = false)
+    private long memberId;
+
+    /** Sales for {@link Dimension#HOUR} and {@link Dimension#DAY}, sold lines otherwise. */
+    @Column(name = "entry_count", nullable = false)
+    private long entries;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(name = "net_cents", nullable = false)
+    private long netCents;
+
+    @Column(name = "tax_cents", nullable = false)
+    private long taxCents;
+
+    @Column(name = "total_cents", nullable = false)
+    private long totalCents;
+
+    public SalesCubeCell() {
+    }
+
+    public SalesCubeCell(Dimension dimension, LocalDateTime bucket, long memberId,
+                         long entries, long quantity, long netCents, long taxCents, long totalCents) {
+        this.dimension = dimension;
+        this.bucket = bucket;
+        this.memberId = memberId;
+        this.entries = entries;
+        this.quantity = quantity;
+        this.netCents = netCents;
+        this.taxCents = taxCents;
+        this.totalCents = totalCents;
+    }
+
+    public Long getId() { return id; }
+
+    public Dimension getDimension() { return dimension; }
+
+    public LocalDateTime getBucket() { return bucket; }
+
+    public long getMemberId() { return memberId; }
+
+    public long getEntries() { return entries; }
+
+    public long getQuantity() { return quantity; }
+
+    public long getNetCents() { return netCents; }
+
+    public long getTaxCents() { return taxCents; }
+
+    public long getTotalCents() { return totalCents; }
+}
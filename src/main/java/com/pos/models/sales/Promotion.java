@@ -0,0 +1,140 @@
+package com.pos.models.sales;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A discount rule applied to the cart while selling. Line rules target products and categories;
+ * a line matches a rule if its product or the product's category is listed. Threshold rules apply
+ * to the whole basket.
+ * <p>
+ * Amounts are gross, with tax, like the prices shown at the till. Rules are compiled into a
+ * {@link com.pos.manager.sales.PromotionIndex} for evaluation.
+ */
+@Entity
+@Table(name = "promotions")
+public class Promotion {
+
+    /**
+     * Kind of rule, and which fields it uses.
+     */
+    public enum Type {
+        /** Every {@code quantity} units of the same product, {@code payQuantity} are charged (3 for 2). */
+        BUY_N_PAY_M,
+        /** {@code percentage} off every matching line, such as 10% off a category. */
+        PERCENT_OFF,
+        /** Any {@code quantity} matching units, mixed across products, for {@code amount} (mix and match). */
+        BUNDLE_PRICE,
+        /** {@code amount} or {@code percentage} off the basket once it reaches {@code threshold}. */
+        THRESHOLD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(name = "starts_at")
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at")
+    private LocalDateTime endsAt;
+
+    @Column
+    private Integer quantity;
+
+    @Column(name = "pay_quantity")
+    private Integer payQuantity;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal percentage;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal threshold;
+
+    @ElementCollection
+    @CollectionTable(name = "promotion_products", joinColumns = @JoinColumn(name = "promotion_id"))
+    @Column(name = "product_id", nullable = false)
+    private Set<Long> productIds = new HashSet<>();
+
+    @ElementCollection
+    @CollectionTable(name = "promotion_categories", joinColumns = @JoinColumn(name = "promotion_id"))
+    @Column(name = "category_id", nullable = false)
+    private Set<Long> categoryIds = new HashSet<>();
+
+    public Promotion() {
+    }
+
+    /**
+     * @param name The name printed on the receipt
+     * @param type The kind of rule
+     */
+    public Promotion(String name, Type type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+
+    public LocalDateTime getStartsAt() { return startsAt; }
+    public void setStartsAt(LocalDateTime startsAt) { this.startsAt = startsAt; }
+
+    public LocalDateTime getEndsAt() { return endsAt; }
+    public void setEndsAt(LocalDateTime endsAt) { this.endsAt = endsAt; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Integer getPayQuantity() { return payQuantity; }
+    public void setPayQuantity(Integer payQuantity) { this.payQuantity = payQuantity; }
+
+    public BigDecimal getPercentage() { return percentage; }
+    public void setPercentage(BigDecimal percentage) { this.percentage = percentage; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public BigDecimal getThreshold() { return threshold; }
+    public void setThreshold(BigDecimal threshold) { this.threshold = threshold; }
+
+    public Set<Long> getProductIds() { return productIds; }
+    public void setProductIds(Set<Long> productIds) { this.productIds = productIds; }
+
+    public Set<Long> getCategoryIds() { return categoryIds; }
+    public void setCategoryIds(Set<Long> categoryIds) { this.categoryIds = categoryIds; }
+
+    @Override
+    public String toString() {
+        return "Promotion{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", type=" + type +
+                '}';
+    }
+}
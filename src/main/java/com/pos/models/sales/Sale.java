@@ -0,0 +1,107 @@
+package com.pos.models.sales;
+
+import com.pos.models.products.Product;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity representing a completed sale. Lines are saved together with the sale.
+ */
+@Entity
+@Table(name = "sales")
+public class Sale {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+    @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = Product.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "sale_date", nullable = false, updatable = false)
+    private LocalDateTime saleDate = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private String cashier;
+
+    @Column(nullable = false)
+    private boolean wholesale;
+
+    @Column(name = "net_total", nullable = false, precision = 12, scale = 2)
+    private BigDecimal netTotal;
+
+    @Column(name = "tax_total", nullable = false, precision = 12, scale = 2)
+    private BigDecimal taxTotal;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal total;
+
+    /**
+     * Whether the sale has been added to the sales cube. Only the cube sets it, so a sale is
+     * counted once however its addition and a rebuild interleave.
+     */
+    @Column(name = "in_cube", nullable = false)
+    @ColumnDefault("false")
+    private boolean inCube;
+
+    @OneToMany(mappedBy = "sale", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineNumber")
+    private List<SaleLine> lines = new ArrayList<>();
+
+    public Sale() {
+    }
+
+    public Sale(String cashier, boolean wholesale) {
+        this.cashier = cashier;
+        this.wholesale = wholesale;
+    }
+
+    /**
+     * Adds a line to the sale.
+     *
+     * @param line The line
+     */
+    public void addLine(SaleLine line) {
+        line.setSale(this);
+        lines.add(line);
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getSaleDate() { return saleDate; }
+    public void setSaleDate(LocalDateTime saleDate) { this.saleDate = saleDate; }
+
+    public String getCashier() { return cashier; }
+    public void setCashier(String cashier) { this.cashier = cashier; }
+
+    public boolean isWholesale() { return wholesale; }
+    public void setWholesale(boolean wholesale) { this.wholesale = wholesale; }
+
+    public BigDecimal getNetTotal() { return netTotal; }
+    public void setNetTotal(BigDecimal netTotal) { this.netTotal = netTotal; }
+
+    public BigDecimal getTaxTotal() { return taxTotal; }
+    public void setTaxTotal(BigDecimal taxTotal) { this.taxTotal = taxTotal; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    public boolean isInCube() { return inCube; }
+    public void setInCube(boolean inCube) { this.inCube = inCube; }
+
+    public List<SaleLine> getLines() { return lines; }
+    public void setLines(List<SaleLine> lines) { this.lines = lines; }
+
+    @Override
+    public String toString() {
+        return "Sale{" +
+                "id=" + id +
+                ", saleDate=" + saleDate +
+                ", total=" + total +
+                '}';
+    }
+}
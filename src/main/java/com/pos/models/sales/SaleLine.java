@@ -0,0 +1,104 @@
+package com.pos.models.sales;
+
+import com.pos.models.products.Product;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity representing a line of a sale, with the prices that applied when it was sold.
+ */
+@Entity
+@Table(name = "sale_lines")
+public class SaleLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_lines_seq")
+    @SequenceGenerator(name = "sale_lines_seq", sequenceName = "sale_lines_seq", allocationSize = Product.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "sale_id", nullable = false)
+    private Sale sale;
+
+    @Column(name = "line_number", nullable = false)
+    private int lineNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+
+    /**
+     * Tax that applied when the line was sold, null if it was untaxed.
+     */
+    @Column(name = "tax_id", updatable = false)
+    private Long taxId;
+
+    /**
+     * Category of the product when the line was sold, null for lines sold before it was recorded.
+     */
+    @Column(name = "category_id", updatable = false)
+    private Long categoryId;
+
+    @Column(name = "tax_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal taxAmount;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private boolean voided;
+
+    public SaleLine() {
+    }
+
+    public SaleLine(int lineNumber, Product product, int quantity, BigDecimal unitPrice,
+                    BigDecimal taxAmount, BigDecimal total, boolean voided) {
+        this.lineNumber = lineNumber;
+        this.product = product;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.taxAmount = taxAmount;
+        this.total = total;
+        this.voided = voided;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Sale getSale() { return sale; }
+    public void setSale(Sale sale) { this.sale = sale; }
+
+    public int getLineNumber() { return lineNumber; }
+    public void setLineNumber(int lineNumber) { this.lineNumber = lineNumber; }
+
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+
+    public Long getTaxId() { return taxId; }
+    public void setTaxId(Long taxId) { this.taxId = taxId; }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public BigDecimal getTaxAmount() { return taxAmount; }
+    public void setTaxAmount(BigDecimal taxAmount) { this.taxAmount = taxAmount; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    public boolean isVoided() { return voided; }
+    public void setVoided(boolean voided) { this.voided = voided; }
+}
@@ -0,0 +1,61 @@
+package com.pos.models.sync;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the catalogue change log of the back office. The ID is the catalogue version: tills
+ * pull the changes after the last version they applied.
+ * <p>
+ * Only the changed row is recorded, not its contents; the tills receive the state the row has
+ * when they pull, so several changes of a row between two pulls are sent once, and a row that no
+ * longer exists is sent as deleted.
+ */
+@Entity
+@Table(name = "catalogue_changes")
+public class CatalogueChange {
+
+    /**
+     * Kind of catalogue row. Prices travel with their product.
+     */
+    public enum EntityType {
+        TAX,
+        CATEGORY,
+        PRODUCT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, updatable = false, length = 20)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false, updatable = false)
+    private long entityId;
+
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private LocalDateTime changedAt = LocalDateTime.now();
+
+    public CatalogueChange() {
+    }
+
+    /**
+     * @param entityType The kind of row that changed
+     * @param entityId The ID of the row
+     */
+    public CatalogueChange(EntityType entityType, long entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+    }
+
+    public Long getId() { return id; }
+
+    public EntityType getEntityType() { return entityType; }
+
+    public long getEntityId() { return entityId; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+}
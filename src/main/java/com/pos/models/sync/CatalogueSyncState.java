@@ -0,0 +1,51 @@
+package com.pos.models.sync;
+
+import jakarta.persistence.*;
+
+/**
+ * Position of a till in the catalogue of the back office. There is a single row, written in the
+ * same transaction as the changes it covers, so a crash never leaves the till thinking it has
+ * applied a delta it has not.
+ */
+@Entity
+@Table(name = "catalogue_sync_state")
+public class CatalogueSyncState {
+
+    /**
+     * ID of the only row.
+     */
+    public static final long ID = 1L;
+
+    @Id
+    private Long id = ID;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "snapshot_position")
+    private Long snapshotPosition;
+
+    public CatalogueSyncState() {
+    }
+
+    /**
+     * @param version The last catalogue version applied
+     * @param snapshotPosition The last product ID of the snapshot applied while the first snapshot is
+     *                         still being read, null once it is complete
+     */
+    public CatalogueSyncState(long version, Long snapshotPosition) {
+        this.version = version;
+        this.snapshotPosition = snapshotPosition;
+    }
+
+    public Long getId() { return id; }
+
+    public long getVersion() { return version; }
+
+    public Long getSnapshotPosition() { return snapshotPosition; }
+
+    /**
+     * @return Whether the first snapshot has been applied completely
+     */
+    public boolean isSnapshotComplete() { return snapshotPosition == null; }
+}
@@ -0,0 +1,72 @@
+package com.pos.models.sync;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Journal entry of a till stored by the back office. Each till numbers its entries without gaps,
+ * so the till and the sequence identify an entry and a resent one is not stored twice.
+ */
+@Entity
+@Table(name = "replicated_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_replicated_entry", columnNames = {"till_id", "sequence"}))
+public class ReplicatedEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "till_id", nullable = false, updatable = false, length = 50)
+    private String tillId;
+
+    @Column(nullable = false, updatable = false)
+    private long sequence;
+
+    @Column(nullable = false, updatable = false, length = 20)
+    private String type;
+
+    @Column(name = "source_id", nullable = false, updatable = false)
+    private long sourceId;
+
+    @Lob
+    @Column(nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt = LocalDateTime.now();
+
+    public ReplicatedEntry() {
+    }
+
+    /**
+     * Creates an entry.
+     *
+     * @param tillId The till that journaled the entry
+     * @param sequence The sequence of the entry in the journal of the till
+     * @param type The kind of entry
+     * @param sourceId The ID of the journaled row on the till
+     * @param payload The entry as JSON
+     */
+    public ReplicatedEntry(String tillId, long sequence, String type, long sourceId, String payload) {
+        this.tillId = tillId;
+        this.sequence = sequence;
+        this.type = type;
+        this.sourceId = sourceId;
+        this.payload = payload;
+    }
+
+    public Long getId() { return id; }
+
+    public String getTillId() { return tillId; }
+
+    public long getSequence() { return sequence; }
+
+    public String getType() { return type; }
+
+    public long getSourceId() { return sourceId; }
+
+    public String getPayload() { return payload; }
+
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+}
@@ -0,0 +1,50 @@
+package com.pos.repositories.products;
+
+import com.pos.models.products.PriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the price history. Lookups seek the (product_id, valid_from) index.
+ */
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+
+    /**
+     * Finds the entry of a product in force at an instant.
+     *
+     * @param productId The product ID
+     * @param at The instant
+     * @return The last entry that started at or before the instant
+     */
+    Optional<PriceHistory> findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(Long productId, LocalDateTime at);
+
+    /**
+     * @param productId The product ID
+     * @return The newest entry of the product, the one in force now
+     */
+    Optional<PriceHistory> findFirstByProductIdOrderByValidFromDescIdDesc(Long productId);
+
+    /**
+     * Finds the entries of several products in force at an instant, for reports over many sales.
+     * Two entries of a product starting at the same instant are both returned.
+     *
+     * @param productIds The product IDs
+     * @param at The instant
+     * @return The entries in force, at most one per product apart from ties
+     */
+    @Query("SELECT h FROM PriceHistory h WHERE h.productId IN :productIds AND h.validFrom = "
+            + "(SELECT MAX(h2.validFrom) FROM PriceHistory h2 WHERE h2.productId = h.productId AND h2.validFrom <= :at)")
+    List<PriceHistory> findInForceAt(@Param("productIds") Collection<Long> productIds, @Param("at") LocalDateTime at);
+
+    /**
+     * @param productId The product ID
+     * @return Every entry of the product, oldest first
+     */
+    List<PriceHistory> findByProductIdOrderByValidFromAscIdAsc(Long productId);
+}
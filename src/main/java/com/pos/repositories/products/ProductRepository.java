@@ -1,13 +1,25 @@
 package com.pos.repositories.products;
 
 import com.pos.models.products.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for accessing and manipulating Product entities.
@@ -15,13 +27,90 @@ import java.util.Optional;
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     /**
-     * Finds a product by its barcode.
+     * Finds a product by its ID with its price, tax and category.
+     *
+     * @param id The product ID
+     * @return An Optional containing the product if found
+     */
+    @Override
+    @EntityGraph(Product.SALE_GRAPH)
+    Optional<Product> findById(Long id);
+
+    /**
+     * Gets all products with their price, tax and category.
+     *
+     * @return All products
+     */
+    @Override
+    @EntityGraph(Product.SALE_GRAPH)
+    List<Product> findAll();
+
+    /**
+     * Gets a page of products with their price, tax and category.
+     *
+     * @param pageable The pagination information
+     * @return A Page of products
+     */
+    @Override
+    @EntityGraph(Product.SALE_GRAPH)
+    Page<Product> findAll(Pageable pageable);
+
+    /**
+     * Finds a product by its barcode, fetching the price, tax and category needed to sell it.
      *
      * @param barcode The barcode to search for
      * @return An Optional containing the product if found
      */
+    @EntityGraph(Product.SALE_GRAPH)
     Optional<Product> findByBarcode(String barcode);
 
+    /**
+     * Loads every product with the price, tax and category needed to sell it in a single query.
+     * Used to warm the in-memory barcode index.
+     *
+     * @return All products
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllForScan();
+
+    /**
+     * Loads the products of a category with the price, tax and category needed to sell them.
+     *
+     * @param categoryId The category ID
+     * @return The products in the category
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    List<Product> findAllForScanByCategoryId(Long categoryId);
+
+    /**
+     * Loads the given products with the price, tax and category needed to sell them.
+     *
+     * @param ids The product IDs
+     * @return The products that exist
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    List<Product> findAllForScanByIdIn(Collection<Long> ids);
+
+    /**
+     * Reads the products after an ID in ID order, with their price, tax and category, for
+     * sending the catalogue in pages.
+     *
+     * @param id The last product ID already read
+     * @param limit The maximum number of products
+     * @return The products
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    List<Product> findAllForScanByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Gets the barcodes of every product without loading the products.
+     *
+     * @return All barcodes
+     */
+    @Query("SELECT p.barcode FROM Product p")
+    List<String> findAllBarcodes();
+
     /**
      * Checks if a product with the given barcode exists.
      *
@@ -37,8 +126,47 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @param pageable The pagination information
      * @return A Page of Product entities
      */
+    @EntityGraph(Product.SALE_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.name LIKE %:searchTerm% OR p.barcode LIKE %:searchTerm%")
     Page<Product> searchByNameOrBarcode(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    /**
+     * Reads a window of products seeking from the given position instead of using an offset,
+     * so the cost of a page does not depend on how deep it is. The sort must end with the id
+     * to make the keyset unique.
+     *
+     * @param position The keyset position to continue from
+     * @param sort The sort, ending with the id
+     * @param limit The maximum number of products to return
+     * @return A window of products with the position of each element
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    Window<Product> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Reads a page of products by offset without counting the total. Only used to find where a
+     * page starts when jumping to it directly, after which paging continues by keyset.
+     *
+     * @param pageable The pagination information
+     * @return A slice of products
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    Slice<Product> findAllBy(Pageable pageable);
+
+    /**
+     * Streams every product with its price, tax and category through a forward-only cursor,
+     * for exporting the catalogue. Must be consumed inside a read-only transaction and closed;
+     * the caller clears the persistence context as it goes, so memory does not grow with the catalogue.
+     *
+     * @return All products in ID order
+     */
+    @EntityGraph(Product.SALE_GRAPH)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllForExport();
+
     //Page<Product> findByStockLessThanEqual(Integer threshold, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.pos.repositories.products;
+
+import com.pos.models.products.Product;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Columns the product list can be sorted by. Each key is paired with the product id so that
+ * keyset pagination always seeks on a unique (sortKey, id) tuple.
+ */
+public enum ProductSortKey {
+
+    ID("id", Product::getId),
+    BARCODE("barcode", Product::getBarcode),
+    NAME("name", Product::getName),
+    PRICE("price.salePrice", product -> product.getPrice().getSalePrice()),
+    COST("price.purchasePrice", product -> product.getPrice().getPurchasePrice());
+
+    private final String path;
+    private final Function<Product, Object> extractor;
+
+    ProductSortKey(String path, Function<Product, Object> extractor) {
+        this.path = path;
+        this.extractor = extractor;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Builds the sort for this key, using the id as tie-breaker.
+     *
+     * @param ascending Whether to sort in ascending order
+     * @return The sort
+     */
+    public Sort toSort(boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        if (this == ID) {
+            return Sort.by(direction, path);
+        }
+        return Sort.by(new Sort.Order(direction, path), new Sort.Order(direction, ID.path));
+    }
+
+    /**
+     * Builds the keyset position that continues right after the given product.
+     *
+     * @param product The last product already read
+     * @return The keyset position
+     */
+    public ScrollPosition positionAfter(Product product) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(path, extractor.apply(product));
+        keys.put(ID.path, product.getId());
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,30 @@
+package com.pos.repositories.products;
+
+import com.pos.models.products.ScheduledPriceChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for scheduled price and tax changes. Lookups by status seek the
+ * (status, effective_at) index.
+ */
+public interface ScheduledPriceChangeRepository extends JpaRepository<ScheduledPriceChange, Long> {
+
+    /**
+     * @param status The status
+     * @return The changes with the status, the earliest first
+     */
+    List<ScheduledPriceChange> findByStatusOrderByEffectiveAtAscIdAsc(ScheduledPriceChange.Status status);
+
+    /**
+     * Loads the given changes that still have a status, in the order they must be applied.
+     *
+     * @param ids The change IDs
+     * @param status The status
+     * @return The matching changes, the earliest first
+     */
+    List<ScheduledPriceChange> findByIdInAndStatusOrderByEffectiveAtAscIdAsc(Collection<Long> ids,
+                                                                            ScheduledPriceChange.Status status);
+}
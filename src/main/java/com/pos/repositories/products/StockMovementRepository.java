@@ -0,0 +1,47 @@
+package com.pos.repositories.products;
+
+import com.pos.models.products.StockMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for the append-only stock ledger.
+ */
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Gets the movements of a product, oldest first.
+     *
+     * @param productId The product ID
+     * @return The movements
+     */
+    List<StockMovement> findByProductIdOrderByIdAsc(Long productId);
+
+    /**
+     * Sums the movements of a product, which must match its on-hand quantity.
+     *
+     * @param productId The product ID
+     * @return The sum of the signed quantities
+     */
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m WHERE m.productId = :productId")
+    long sumQuantityByProductId(@Param("productId") Long productId);
+
+    /**
+     * @return The highest movement ID, 0 if the ledger is empty
+     */
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m")
+    long findMaxId();
+
+    /**
+     * Reads the ledger in ID order, a batch at a time.
+     *
+     * @param id Only movements with a greater ID are read; 0 for the first batch
+     * @param limit The batch size
+     * @return The movements
+     */
+    List<StockMovement> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+}
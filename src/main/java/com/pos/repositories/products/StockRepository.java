@@ -0,0 +1,47 @@
+package com.pos.repositories.products;
+
+import com.pos.models.products.Stock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Repository for the on-hand quantity of products. Quantities are changed with single
+ * conditional statements, so concurrent tills never overwrite each other.
+ */
+public interface StockRepository extends JpaRepository<Stock, Long> {
+
+    /**
+     * Takes stock out only if enough is on hand.
+     *
+     * @param productId The product ID
+     * @param quantity The quantity to take out
+     * @return 1 if the stock was taken out, 0 if there was not enough or the product has no stock row
+     */
+    @Modifying
+    @Query("UPDATE Stock s SET s.quantity = s.quantity - :quantity WHERE s.productId = :productId AND s.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Puts stock in.
+     *
+     * @param productId The product ID
+     * @param quantity The quantity to put in
+     * @return 1 if the stock was updated, 0 if the product has no stock row
+     */
+    @Modifying
+    @Query("UPDATE Stock s SET s.quantity = s.quantity + :quantity WHERE s.productId = :productId")
+    int increment(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Reads the on-hand quantity without loading the entity.
+     *
+     * @param productId The product ID
+     * @return The quantity, or empty if the product has no stock row
+     */
+    @Query("SELECT s.quantity FROM Stock s WHERE s.productId = :productId")
+    Optional<Integer> findQuantityByProductId(@Param("productId") Long productId);
+}
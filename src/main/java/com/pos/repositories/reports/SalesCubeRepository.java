@@ -0,0 +1,59 @@
+package com.pos.repositories.reports;
+
+import com.pos.models.reports.SalesCubeCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the pre-aggregated sales. Cells are added to with a single {@code UPDATE}, and
+ * read by dimension and bucket range through the unique key index.
+ */
+public interface SalesCubeRepository extends JpaRepository<SalesCubeCell, Long> {
+
+    /**
+     * Adds to the totals of a cell.
+     *
+     * @return 1 if the cell was updated, 0 if it does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE SalesCubeCell c SET c.entries = c.entries + :entries, c.quantity = c.quantity + :quantity, " +
+            "c.netCents = c.netCents + :netCents, c.taxCents = c.taxCents + :taxCents, c.totalCents = c.totalCents + :totalCents " +
+            "WHERE c.dimension = :dimension AND c.bucket = :bucket AND c.memberId = :memberId")
+    int add(@Param("dimension") SalesCubeCell.Dimension dimension, @Param("bucket") LocalDateTime bucket,
+            @Param("memberId") long memberId, @Param("entries") long entries, @Param("quantity") long quantity,
+            @Param("netCents") long netCents, @Param("taxCents") long taxCents, @Param("totalCents") long totalCents);
+
+    /**
+     * Creates a cell without loading it into the persistence context.
+     */
+    @Modifying
+    @Query("INSERT INTO SalesCubeCell (dimension, bucket, memberId, entries, quantity, netCents, taxCents, totalCents) " +
+            "VALUES (:dimension, :bucket, :memberId, :entries, :quantity, :netCents, :taxCents, :totalCents)")
+    void insert(@Param("dimension") SalesCubeCell.Dimension dimension, @Param("bucket") LocalDateTime bucket,
+                @Param("memberId") long memberId, @Param("entries") long entries, @Param("quantity") long quantity,
+                @Param("netCents") long netCents, @Param("taxCents") long taxCents, @Param("totalCents") long totalCents);
+
+    /**
+     * Gets the cells of a dimension in a period, oldest first.
+     *
+     * @param dimension The dimension
+     * @param from The first bucket, inclusive
+     * @param to The last bucket, exclusive
+     * @return The cells
+     */
+    @Query("SELECT c FROM SalesCubeCell c WHERE c.dimension = :dimension AND c.bucket >= :from AND c.bucket < :to ORDER BY c.bucket")
+    List<SalesCubeCell> findCells(@Param("dimension") SalesCubeCell.Dimension dimension,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Deletes every cell, before a rebuild.
+     */
+    @Modifying
+    @Query("DELETE FROM SalesCubeCell c")
+    void deleteAllCells();
+}
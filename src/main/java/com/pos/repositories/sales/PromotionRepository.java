@@ -0,0 +1,21 @@
+package com.pos.repositories.sales;
+
+import com.pos.models.sales.Promotion;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository for promotion rules.
+ */
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    /**
+     * Loads the active rules with their targets, for compiling them.
+     *
+     * @return The active rules
+     */
+    @EntityGraph(attributePaths = {"productIds", "categoryIds"})
+    List<Promotion> findAllByActiveTrue();
+}
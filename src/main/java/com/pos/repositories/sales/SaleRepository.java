@@ -0,0 +1,84 @@
+package com.pos.repositories.sales;
+
+import com.pos.dtos.sales.SoldLineDTO;
+import com.pos.models.sales.Sale;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for accessing and manipulating Sale entities.
+ */
+public interface SaleRepository extends JpaRepository<Sale, Long> {
+
+    /**
+     * Reads the lines of the sales in the cube in ID order, a batch at a time, to rebuild the
+     * reports. Only what was stored with the line is read, so a product that changed category or
+     * tax since is reported as it was sold.
+     *
+     * @param afterLineId Only lines with a greater ID are read; 0 for the first batch
+     * @param limit The batch size
+     * @return The lines
+     */
+    @Query("SELECT new com.pos.dtos.sales.SoldLineDTO(l.id, s.saleDate, l.lineNumber, l.product.id, l.categoryId, " +
+            "l.taxId, l.quantity, l.taxAmount, l.total, l.voided) " +
+            "FROM SaleLine l JOIN l.sale s WHERE s.inCube = TRUE AND l.id > :afterLineId ORDER BY l.id")
+    List<SoldLineDTO> findSoldLines(@Param("afterLineId") long afterLineId, Limit limit);
+
+    /**
+     * Marks every committed sale as added to the cube, at the start of a rebuild.
+     *
+     * @return The number of sales that were not marked yet
+     */
+    @Modifying
+    @Query("UPDATE Sale s SET s.inCube = TRUE WHERE s.inCube = FALSE")
+    int markAllInCube();
+
+    /**
+     * Marks sales as added to the cube.
+     *
+     * @param ids The sale IDs
+     * @return The number of sales marked
+     */
+    @Modifying
+    @Query("UPDATE Sale s SET s.inCube = TRUE WHERE s.id IN :ids")
+    int markInCube(@Param("ids") List<Long> ids);
+
+    /**
+     * @param ids The sale IDs
+     * @return Those of the given sales that are not in the cube yet
+     */
+    @Query("SELECT s.id FROM Sale s WHERE s.id IN :ids AND s.inCube = FALSE")
+    List<Long> findIdsNotInCube(@Param("ids") List<Long> ids);
+
+    /**
+     * @return The highest sale ID, 0 if there are no sales
+     */
+    @Query("SELECT COALESCE(MAX(s.id), 0) FROM Sale s")
+    long findMaxId();
+
+    /**
+     * Reads sale IDs in order, a batch at a time.
+     *
+     * @param afterId Only sales with a greater ID are read; 0 for the first batch
+     * @param limit The batch size
+     * @return The sale IDs
+     */
+    @Query("SELECT s.id FROM Sale s WHERE s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Loads sales with their lines in a single query.
+     *
+     * @param ids The sale IDs
+     * @return The sales in ID order
+     */
+    @EntityGraph(attributePaths = "lines")
+    @Query("SELECT s FROM Sale s WHERE s.id IN :ids ORDER BY s.id")
+    List<Sale> findWithLinesByIdIn(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,29 @@
+package com.pos.repositories.sync;
+
+import com.pos.models.sync.CatalogueChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repository for the catalogue change log of the back office.
+ */
+public interface CatalogueChangeRepository extends JpaRepository<CatalogueChange, Long> {
+
+    /**
+     * @return The current catalogue version, 0 if nothing has changed yet
+     */
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CatalogueChange c")
+    long findMaxVersion();
+
+    /**
+     * Reads the changes after a version, in version order.
+     *
+     * @param version The last version already applied
+     * @param limit The maximum number of changes
+     * @return The changes
+     */
+    List<CatalogueChange> findByIdGreaterThanOrderByIdAsc(long version, Limit limit);
+}
@@ -0,0 +1,10 @@
+package com.pos.repositories.sync;
+
+import com.pos.models.sync.CatalogueSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for the catalogue position of the till.
+ */
+public interface CatalogueSyncStateRepository extends JpaRepository<CatalogueSyncState, Long> {
+}
@@ -0,0 +1,19 @@
+package com.pos.repositories.sync;
+
+import com.pos.models.sync.ReplicatedEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for the journal entries received from the tills.
+ */
+public interface ReplicatedEntryRepository extends JpaRepository<ReplicatedEntry, Long> {
+
+    /**
+     * @param tillId The till ID
+     * @return The last sequence stored for the till, 0 if none; read through the unique key index
+     */
+    @Query("SELECT COALESCE(MAX(e.sequence), 0) FROM ReplicatedEntry e WHERE e.tillId = :tillId")
+    long findLastSequence(@Param("tillId") String tillId);
+}
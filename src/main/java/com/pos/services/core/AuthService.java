@@ -1,5 +1,8 @@
 package com.pos.services.core;
 
+import com.pos.manager.core.PermissionSnapshot;
+import com.pos.manager.core.Permissions;
+import com.pos.manager.core.QuickUnlock;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,20 +19,27 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
+    private final QuickUnlock quickUnlock;
+    private final Permissions permissions;
 
     /**
      * Constructor with dependencies.
      *
      * @param authenticationManager The authentication manager
      * @param userService The user service
+     * @param quickUnlock Checks logins repeated within a short time without BCrypt
+     * @param permissions The permissions of the user logged in
      */
-    public AuthService(AuthenticationManager authenticationManager, UserService userService) {
+    public AuthService(AuthenticationManager authenticationManager, UserService userService, QuickUnlock quickUnlock,
+                       Permissions permissions) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
+        this.quickUnlock = quickUnlock;
+        this.permissions = permissions;
     }
 
     /**
-     * Authenticates a user with the provided credentials.
+     * Authenticates a user with the provided credentials and logs them in on the calling thread.
      *
      * @param username The username
      * @param password The password
@@ -37,17 +47,38 @@ public class AuthService {
      * @throws AuthenticationException If authentication fails
      */
     public UserDetails authenticate(String username, String password) throws AuthenticationException {
-        // Create authentication token
-        Authentication authentication = new UsernamePasswordAuthenticationToken(username, password);
+        Authentication authenticated = checkCredentials(username, password);
+        logIn(authenticated);
+        return (UserDetails) authenticated.getPrincipal();
+    }
 
-        // Authenticate
-        Authentication authenticated = authenticationManager.authenticate(authentication);
+    /**
+     * Checks the credentials of a user without logging them in, so the check can run off the FX
+     * thread and the login be completed on it with {@link #logIn}.
+     *
+     * @param username The username
+     * @param password The password
+     * @return The authentication of the user
+     * @throws AuthenticationException If authentication fails
+     */
+    public Authentication checkCredentials(String username, String password) throws AuthenticationException {
+        Authentication authenticated = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password));
 
-        // Set authentication in security context
-        SecurityContextHolder.getContext().setAuthentication(authenticated);
+        // The next login of this user within the unlock time skips BCrypt
+        quickUnlock.remember((UserDetails) authenticated.getPrincipal(), password);
+        return authenticated;
+    }
 
-        // Return user details
-        return (UserDetails) authenticated.getPrincipal();
+    /**
+     * Logs in an authenticated user. The security context belongs to the calling thread, so this
+     * is called on the FX thread; background tasks submitted from it inherit the user.
+     *
+     * @param authenticated The authentication returned by {@link #checkCredentials}
+     */
+    public void logIn(Authentication authenticated) {
+        SecurityContextHolder.getContext().setAuthentication(authenticated);
+        permissions.grant(authenticated);
     }
 
     /**
@@ -55,6 +86,7 @@ public class AuthService {
      */
     public void logout() {
         SecurityContextHolder.clearContext();
+        permissions.revoke();
     }
 
     /**
@@ -77,12 +109,16 @@ public class AuthService {
      * @return True if the user has the role, false otherwise
      */
     public boolean hasRole(String role) {
-        UserDetails userDetails = getCurrentUser();
-        if (userDetails == null) {
-            return false;
-        }
+        return permissions.has(role);
+    }
 
-        return userDetails.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(role));
+    /**
+     * Gets the permissions of the current user, taken at login. Checking its
+     * {@link PermissionSnapshot} constants is a single bit test.
+     *
+     * @return The permissions, with nothing granted if no user is authenticated
+     */
+    public PermissionSnapshot getPermissions() {
+        return permissions.current();
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.pos.services.core;
+
+import jakarta.annotation.PreDestroy;
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs service calls off the JavaFX application thread.
+ * <p>
+ * Work is wrapped in a JavaFX {@link Task} and executed on a virtual thread. Tasks submitted
+ * under the same key supersede each other: starting a new search cancels the previous one and
+ * only the latest result is delivered. Success and error callbacks run on the FX thread.
+ * <p>
+ * The worker runs with the security context of the thread that submitted the work, so services
+ * see the user logged in on the FX thread.
+ * <p>
+ * Cancellation never interrupts the worker thread, since an interrupt while H2 is writing its
+ * file store closes the database; a superseded task simply has its result discarded.
+ */
+@Service
+public class BackgroundTaskService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundTaskService.class);
+
+    private final ExecutorService executor = new DelegatingSecurityContextExecutorService(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("pos-background-", 0).factory()));
+    private final Map<String, Task<?>> currentTasks = new ConcurrentHashMap<>();
+
+    /**
+     * Runs work in the background, cancelling the previous task submitted with the same key.
+     *
+     * @param key Identifies the kind of request, e.g. "products.load"
+     * @param work The work to run off the FX thread
+     * @param onSuccess Receives the result on the FX thread
+     * @param onError Receives the failure on the FX thread
+     * @param busyIndicator Node shown while the task runs, may be null
+     * @return The submitted task
+     */
+    public <T> Task<T> submit(String key, Callable<T> work, Consumer<T> onSuccess,
+                              Consumer<Throwable> onError, Node busyIndicator) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+
+        task.setOnSucceeded(event -> {
+            if (currentTasks.remove(key, task)) {
+                onSuccess.accept(task.getValue());
+            }
+        });
+        task.setOnFailed(event -> {
+            if (currentTasks.remove(key, task)) {
+                LOGGER.error("Error en tarea en segundo plano '{}'", key, task.getException());
+                onError.accept(task.getException());
+            }
+        });
+
+        if (busyIndicator != null) {
+            busyIndicator.visibleProperty().bind(task.runningProperty());
+        }
+
+        Task<?> previous = currentTasks.put(key, task);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Runs work in the background, cancelling the previous task submitted with the same key.
+     *
+     * @param key Identifies the kind of request
+     * @param work The work to run off the FX thread
+     * @param onSuccess Receives the result on the FX thread
+     * @param onError Receives the failure on the FX thread
+     * @return The submitted task
+     */
+    public <T> Task<T> submit(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        return submit(key, work, onSuccess, onError, null);
+    }
+
+    /**
+     * Cancels the current task for a key, if any.
+     *
+     * @param key The task key
+     */
+    public void cancel(String key) {
+        Task<?> task = currentTasks.remove(key);
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Stops accepting new work when the application closes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,53 +2,56 @@ package com.pos.services.core;
 
 import com.pos.interfaces.core.FormInitialize;
 import com.pos.manager.core.StageManager;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import com.pos.manager.core.ViewRegistry;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class ModalViewService {
 
     private final StageManager stageManager;
     private final AuthService authService;
-    private final ApplicationContext applicationContext;
+    private final ViewRegistry viewRegistry;
 
+    // One window per view: the view is reused, so its stage is too
+    private final Map<String, Stage> stages = new HashMap<>();
 
     public ModalViewService(StageManager stageManager,
                             AuthService authService,
-                            ApplicationContext applicationContext) {
+                            ViewRegistry viewRegistry) {
         this.stageManager = stageManager;
         this.authService = authService;
-        this.applicationContext = applicationContext;
+        this.viewRegistry = viewRegistry;
     }
 
-    public FXMLLoader createFxmlLoaderByPathView(String path) {
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(path));
-        fxmlLoader.setControllerFactory(applicationContext::getBean);
-        return fxmlLoader;
+    public <T> void loadViewByPathAndParam(String path, String title, T param) {
+        this.<FormInitialize>showModal(path, title, controller -> controller.formInitialize(param));
     }
 
-    public <T> void loadViewByPathAndParam(String path, String title, T param) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(path));
-        fxmlLoader.setControllerFactory(applicationContext::getBean);
-        Parent formRoot = fxmlLoader.load();
-
-        // Get the controller and set the parameter
-        FormInitialize controller = fxmlLoader.getController();
-        controller.formInitialize(param);
-
-        // Create a new stage for the form
-        Stage formStage = new Stage();
-        formStage.initModality(Modality.APPLICATION_MODAL);
-        formStage.initOwner(stageManager.getPrimaryStage());
+    /**
+     * Shows a view in a modal window and waits until it is closed.
+     *
+     * @param path The FXML path
+     * @param title The window title
+     * @param initializer Prepares the controller before the window is shown
+     */
+    public <C> void showModal(String path, String title, Consumer<C> initializer) {
+        ViewRegistry.View view = viewRegistry.get(path);
+        initializer.accept(view.getController());
+
+        Stage formStage = stages.computeIfAbsent(path, key -> {
+            Stage stage = new Stage();
+            stage.initModality(Modality.APPLICATION_MODAL);
+            stage.initOwner(stageManager.getPrimaryStage());
+            stage.setScene(view.getScene());
+            return stage;
+        });
         formStage.setTitle(title);
-        formStage.setScene(new Scene(formRoot));
         formStage.showAndWait();
     }
 }
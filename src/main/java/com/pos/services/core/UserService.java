@@ -1,5 +1,8 @@
 package com.pos.services.core;
 
+import com.pos.manager.core.Permissions;
+import com.pos.manager.core.QuickUnlock;
+import com.pos.manager.core.UserDetailsCache;
 import com.pos.models.core.User;
 import com.pos.models.core.Role;
 import com.pos.repositories.core.UserRepository;
@@ -25,6 +28,9 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final QuickUnlock quickUnlock;
+    private final Permissions permissions;
 
     /**
      * Constructor with dependencies.
@@ -32,11 +38,18 @@ public class UserService implements UserDetailsService {
      * @param userRepository The user repository
      * @param roleRepository The role repository
      * @param passwordEncoder The password encoder
+     * @param userDetailsCache Users kept in memory for login
+     * @param quickUnlock Passwords of recent logins, kept as keyed hashes
+     * @param permissions The permissions of the user logged in
      */
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                       UserDetailsCache userDetailsCache, QuickUnlock quickUnlock, Permissions permissions) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
+        this.quickUnlock = quickUnlock;
+        this.permissions = permissions;
     }
 
     /**
@@ -90,14 +103,22 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + user.getId()));
 
         // Update fields
+        String previousUsername = existingUser.getUsername();
         existingUser.setUsername(user.getUsername());
         if (user.getPassword() != null && !user.getPassword().isEmpty()) {
             existingUser.setPassword(passwordEncoder.encode(user.getPassword()));
         }
         existingUser.setEnabled(user.isEnabled());
 
+        // The username, password or status changed, so logins must not use what was kept in memory
+        forgetLogins();
+
         // Save updated user
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+
+        // If it is the user logged in, its permissions follow the change right away
+        permissions.update(previousUsername, savedUser);
+        return savedUser;
     }
 
     /**
@@ -137,6 +158,7 @@ public class UserService implements UserDetailsService {
     @Transactional
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        forgetLogins();
     }
 
     /**
@@ -155,4 +177,13 @@ public class UserService implements UserDetailsService {
         User user = userOpt.get();
         return user.isEnabled() && passwordEncoder.matches(password, user.getPassword());
     }
-}
\ No newline at end of file
+
+    /**
+     * Drops the users and passwords kept in memory for login, so the next login of every user
+     * reads the database and checks BCrypt again.
+     */
+    public void forgetLogins() {
+        userDetailsCache.clear();
+        quickUnlock.clear();
+    }
+}
@@ -0,0 +1,193 @@
+package com.pos.services.products;
+
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.utils.CsvSpreadsheetWriter;
+import com.pos.utils.SpreadsheetWriter;
+import com.pos.utils.XlsxSpreadsheetWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Exports the product catalogue to CSV or Excel.
+ * <p>
+ * Products are read through a forward-only cursor in a single read-only transaction and written
+ * as they arrive; the persistence context is cleared every {@link #CHUNK_SIZE} rows, so memory
+ * stays constant whatever the size of the catalogue. The columns are the ones
+ * {@link CatalogueImportService} reads, so an exported CSV can be imported elsewhere.
+ */
+@Service
+public class CatalogueExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogueExportService.class);
+
+    /**
+     * Rows written between progress reports and persistence context clears.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private static final Object[] HEADER = {
+            "codigo", "nombre", "descripcion", "categoria", "impuesto", "costo", "precio", "precio_mayorista"
+    };
+
+    /**
+     * File formats the catalogue can be exported to.
+     */
+    public enum Format {
+        CSV("csv"),
+        XLSX("xlsx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param transactionManager The transaction manager used for the read-only cursor
+     * @param productRepository The product repository
+     */
+    public CatalogueExportService(PlatformTransactionManager transactionManager, ProductRepository productRepository) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Exports the whole catalogue.
+     *
+     * @param output The stream to write to, which is not closed
+     * @param format The file format
+     * @param onProgress Receives the running result after each chunk, on the exporting thread
+     * @param cancelled Checked after each chunk; the export stops when it returns {@code true}
+     * @return The result of the export
+     * @throws IOException If the output cannot be written
+     * @throws IllegalStateException If the catalogue does not fit in an Excel sheet
+     */
+    public Result export(OutputStream output, Format format, Consumer<Result> onProgress,
+                         BooleanSupplier cancelled) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        result.total = productRepository.count();
+        if (format == Format.XLSX && result.total >= XlsxSpreadsheetWriter.MAX_ROWS) {
+            throw new IllegalStateException("El catálogo tiene " + result.total
+                    + " productos y no cabe en una hoja de Excel, exporte a CSV");
+        }
+
+        SpreadsheetWriter writer = format == Format.XLSX
+                ? new XlsxSpreadsheetWriter(output, "Productos")
+                : new CsvSpreadsheetWriter(output, ',');
+        writer.writeRow(HEADER);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAllForExport()) {
+                    Iterator<Product> iterator = products.iterator();
+                    while (iterator.hasNext()) {
+                        writeProduct(writer, iterator.next());
+                        if (++result.exported % CHUNK_SIZE == 0) {
+                            // Rows already written are not needed again
+                            entityManager.clear();
+                            onProgress.accept(result);
+                            if (cancelled.getAsBoolean()) {
+                                result.cancelled = true;
+                                return;
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        onProgress.accept(result);
+
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info("Catálogo exportado a {}: {} de {} productos en {} ms{}", format, result.exported,
+                result.total, result.elapsedMillis, result.cancelled ? " (cancelado)" : "");
+        return result;
+    }
+
+    private static void writeProduct(SpreadsheetWriter writer, Product product) throws IOException {
+        Category category = product.getCategory();
+        Price price = product.getPrice();
+        writer.writeRow(
+                product.getBarcode(),
+                product.getName(),
+                product.getDescription(),
+                category != null ? category.getName() : null,
+                price != null && price.getTax() != null ? price.getTax().getName() : null,
+                price != null ? price.getPurchasePrice() : null,
+                price != null ? price.getSalePrice() : null,
+                price != null ? price.getWholesalePrice() : null);
+    }
+
+    /**
+     * Running result of an export.
+     */
+    public static class Result {
+
+        private long exported;
+        private long total;
+        private boolean cancelled;
+        private long elapsedMillis;
+
+        /**
+         * @return Number of products written so far
+         */
+        public long getExported() {
+            return exported;
+        }
+
+        /**
+         * @return Number of products in the catalogue when the export started
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return Whether the export was cancelled before the end
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return Duration of the whole export, once finished
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
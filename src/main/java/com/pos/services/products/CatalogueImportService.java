@@ -0,0 +1,323 @@
+package com.pos.services.products;
+
+import com.pos.manager.product.PriceHistoryRecorder;
+import com.pos.manager.product.ProductCacheLoader;
+import com.pos.manager.sync.CatalogueChangeLog;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Stock;
+import com.pos.models.products.Tax;
+import com.pos.models.sync.CatalogueChange;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Imports supplier catalogues from CSV.
+ * <p>
+ * The file is read line by line and written in chunks of {@link #CHUNK_SIZE} rows, each in its
+ * own transaction. Prices and products take their ids from pooled sequences, so Hibernate sends
+ * the inserts of a chunk in JDBC batches. Categories and taxes are resolved from in-memory maps
+ * loaded once; unknown categories are created, unknown taxes reject the row.
+ * <p>
+ * Expected columns, after a header row, separated by {@code ,} or {@code ;}:
+ * barcode, name, description, category, tax name, purchase price, sale price, wholesale price.
+ * Description, tax and wholesale price may be empty.
+ */
+@Service
+public class CatalogueImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogueImportService.class);
+
+    /**
+     * Rows written per transaction.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private static final int COLUMNS = 8;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TaxRepository taxRepository;
+    private final ProductCacheLoader productCacheLoader;
+    private final CatalogueChangeLog catalogueChangeLog;
+    private final PriceHistoryRecorder priceHistoryRecorder;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param transactionManager The transaction manager used to commit each chunk
+     * @param productRepository The product repository
+     * @param categoryRepository The category repository
+     * @param taxRepository The tax repository
+     * @param productCacheLoader The loader that refreshes the in-memory caches after an import
+     * @param catalogueChangeLog The log the imported rows are recorded in for the tills
+     * @param priceHistoryRecorder The recorder that starts the price history of the imported products
+     */
+    public CatalogueImportService(PlatformTransactionManager transactionManager,
+                                  ProductRepository productRepository,
+                                  CategoryRepository categoryRepository,
+                                  TaxRepository taxRepository,
+                                  ProductCacheLoader productCacheLoader,
+                                  CatalogueChangeLog catalogueChangeLog,
+                                  PriceHistoryRecorder priceHistoryRecorder) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.taxRepository = taxRepository;
+        this.productCacheLoader = productCacheLoader;
+        this.catalogueChangeLog = catalogueChangeLog;
+        this.priceHistoryRecorder = priceHistoryRecorder;
+    }
+
+    /**
+     * Imports a catalogue. Products whose barcode already exists are skipped.
+     *
+     * @param input The CSV content, which is not closed
+     * @param onProgress Receives the running result after each committed chunk, on the importing thread
+     * @return The result of the import
+     * @throws IOException If the input cannot be read
+     */
+    public Result importCsv(Reader input, Consumer<Result> onProgress) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        BufferedReader reader = new BufferedReader(input);
+        String header = reader.readLine();
+        if (header == null) {
+            return result;
+        }
+        char delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+
+        Map<String, Long> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(key(category.getName()), category.getId());
+        }
+        Map<String, Long> taxes = new HashMap<>();
+        for (Tax tax : taxRepository.findAll()) {
+            taxes.put(key(tax.getName()), tax.getId());
+        }
+        Set<String> barcodes = new HashSet<>(productRepository.findAllBarcodes());
+
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            result.read++;
+            try {
+                Row row = parse(split(line, delimiter), taxes);
+                if (!barcodes.add(row.barcode())) {
+                    result.skipped++;
+                    continue;
+                }
+                chunk.add(row);
+            } catch (IllegalArgumentException e) {
+                result.addError(lineNumber, e.getMessage());
+                continue;
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, categories);
+                result.imported += chunk.size();
+                chunk.clear();
+                onProgress.accept(result);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, categories);
+            result.imported += chunk.size();
+            onProgress.accept(result);
+        }
+
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info("Catálogo importado: {} productos, {} omitidos, {} errores en {} ms",
+                result.imported, result.skipped, result.errors.size(), result.elapsedMillis);
+        if (result.imported > 0) {
+            productCacheLoader.reload();
+        }
+        return result;
+    }
+
+    private void writeChunk(List<Row> rows, Map<String, Long> categories) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Row row : rows) {
+                Tax tax = row.taxId() != null ? entityManager.getReference(Tax.class, row.taxId()) : null;
+                Price price = new Price(row.purchasePrice(), row.salePrice(), row.wholesalePrice(), tax);
+                entityManager.persist(price);
+
+                Product product = new Product(row.barcode(), row.name(), row.description(), price, true,
+                        category(row.category(), categories));
+                entityManager.persist(product);
+                entityManager.persist(new Stock(product.getId(), 0));
+                catalogueChangeLog.record(CatalogueChange.EntityType.PRODUCT, product.getId());
+                priceHistoryRecorder.record(product.getId());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private Category category(String name, Map<String, Long> categories) {
+        Long id = categories.get(key(name));
+        if (id != null) {
+            return entityManager.getReference(Category.class, id);
+        }
+        Category category = new Category(name, null, true);
+        entityManager.persist(category);
+        catalogueChangeLog.record(CatalogueChange.EntityType.CATEGORY, category.getId());
+        categories.put(key(name), category.getId());
+        return category;
+    }
+
+    private static Row parse(List<String> fields, Map<String, Long> taxes) {
+        if (fields.size() < COLUMNS) {
+            throw new IllegalArgumentException("Se esperaban " + COLUMNS + " columnas y hay " + fields.size());
+        }
+        String barcode = fields.get(0);
+        String name = fields.get(1);
+        String category = fields.get(3);
+        if (barcode.isEmpty() || name.isEmpty() || category.isEmpty()) {
+            throw new IllegalArgumentException("El código, el nombre y la categoría son obligatorios");
+        }
+
+        Long taxId = null;
+        if (!fields.get(4).isEmpty()) {
+            taxId = taxes.get(key(fields.get(4)));
+            if (taxId == null) {
+                throw new IllegalArgumentException("Impuesto desconocido: " + fields.get(4));
+            }
+        }
+        return new Row(barcode, name, fields.get(2).isEmpty() ? null : fields.get(2), category, taxId,
+                amount(fields.get(5), "costo"), amount(fields.get(6), "precio"),
+                fields.get(7).isEmpty() ? null : amount(fields.get(7), "precio mayorista"));
+    }
+
+    private static BigDecimal amount(String value, String column) {
+        try {
+            BigDecimal amount = new BigDecimal(value.replace(',', '.'));
+            if (amount.signum() < 0) {
+                throw new IllegalArgumentException("El " + column + " no puede ser negativo: " + value);
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El " + column + " no es un número: " + value);
+        }
+    }
+
+    /**
+     * Splits a CSV line, honouring double-quoted fields with {@code ""} as an escaped quote.
+     */
+    static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Row(String barcode, String name, String description, String category, Long taxId,
+                       BigDecimal purchasePrice, BigDecimal salePrice, BigDecimal wholesalePrice) {
+    }
+
+    /**
+     * Running result of an import.
+     */
+    public static class Result {
+
+        private int read;
+        private int imported;
+        private int skipped;
+        private long elapsedMillis;
+        private final List<String> errors = new ArrayList<>();
+
+        private void addError(int lineNumber, String message) {
+            errors.add("Línea " + lineNumber + ": " + message);
+        }
+
+        /**
+         * @return Number of data rows read so far
+         */
+        public int getRead() {
+            return read;
+        }
+
+        /**
+         * @return Number of products committed so far
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * @return Number of rows skipped because the barcode already existed
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return Rows rejected, with their line number and reason
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return Duration of the whole import, once finished
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.pos.services.products;
 
 import com.pos.dtos.products.CategoryDTO;
+import com.pos.events.products.CategoryChangedEvent;
+import com.pos.events.products.ProductChangedEvent;
 import com.pos.mapper.products.CategoryMapper;
 import com.pos.models.products.Category;
+import com.pos.models.products.Product;
 import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.ProductRepository;
 import org.hibernate.ObjectNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +20,15 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                           ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<CategoryDTO> getAllCategories() {
@@ -39,13 +49,22 @@ public class CategoryService {
 
         Category category = categoryMapper.toEntity(categoryDTO);
         category = this.categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
+
+        // Los productos en cache muestran el nombre de la categoria: se vuelven a publicar
+        this.productRepository.findAllForScanByCategoryId(category.getId())
+                .forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product, product.getBarcode())));
 
         return  categoryMapper.toDto(category);
     }
 
     @Transactional
     public void deleteCategoryById(Long id) {
+        // Los productos de la categoria se borran en cascada
+        List<Product> products = this.productRepository.findAllForScanByCategoryId(id);
         this.categoryRepository.deleteById(id);
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.deleted(product)));
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     @Transactional
@@ -53,8 +72,9 @@ public class CategoryService {
         this.categoryRepository.findByName(categoryDTO.getName())
                 .ifPresent( category -> { throw new RuntimeException("Ya exsite una categoria con ese nombre");});
 
-        Category category = categoryMapper.toEntity(categoryDTO);
-        return categoryMapper.toDto(this.categoryRepository.save(category));
+        Category category = this.categoryRepository.save(categoryMapper.toEntity(categoryDTO));
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
+        return categoryMapper.toDto(category);
     }
 
     @Transactional
@@ -64,6 +84,7 @@ public class CategoryService {
 
         category.setActive(!category.isActive());
         this.categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
         return categoryMapper.toDto(category);
     }
 }
@@ -0,0 +1,116 @@
+package com.pos.services.products;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.models.products.PriceHistory;
+import com.pos.repositories.products.PriceHistoryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers what a product cost at a given instant, for receipts, returns and margin reports.
+ * <p>
+ * Most lookups ask about recent sales, which fall after the last price change of the product, so
+ * the newest entry of each product looked up is kept in memory and answers them without a query.
+ * Older instants seek the (product, valid from) index. The newest entries are dropped when a
+ * product or tax change commits.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final Map<Long, PriceHistory> newest = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so a lookup that raced with one does not cache what it read
+    private final AtomicLong generation = new AtomicLong();
+
+    public PriceHistoryService(PriceHistoryRepository priceHistoryRepository) {
+        this.priceHistoryRepository = priceHistoryRepository;
+    }
+
+    /**
+     * Finds the price of a product at an instant.
+     *
+     * @param productId The product ID
+     * @param at The instant, such as the date of a sale
+     * @return The entry in force at the instant, empty if the product had no price yet
+     */
+    public Optional<PriceHistory> priceAt(Long productId, LocalDateTime at) {
+        PriceHistory current = newest.get(productId);
+        if (current == null) {
+            long seen = generation.get();
+            current = priceHistoryRepository.findFirstByProductIdOrderByValidFromDescIdDesc(productId).orElse(null);
+            if (current == null) {
+                return Optional.empty();
+            }
+            if (generation.get() == seen) {
+                newest.put(productId, current);
+            }
+        }
+        if (!at.isBefore(current.getValidFrom())) {
+            return Optional.of(current);
+        }
+        return priceHistoryRepository.findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(productId, at);
+    }
+
+    /**
+     * Finds the prices of several products at the same instant with one query per chunk.
+     *
+     * @param productIds The product IDs
+     * @param at The instant
+     * @return The entry in force of each product that had a price at the instant
+     */
+    public Map<Long, PriceHistory> pricesAt(Collection<Long> productIds, LocalDateTime at) {
+        Map<Long, PriceHistory> prices = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            for (PriceHistory entry : priceHistoryRepository.findInForceAt(chunk, at)) {
+                // Of two entries starting at the same instant, the later one wins
+                prices.merge(entry.getProductId(), entry, (a, b) -> a.getId() > b.getId() ? a : b);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * @param productId The product ID
+     * @return Every price the product has had, oldest first
+     */
+    public List<PriceHistory> getHistory(Long productId) {
+        return priceHistoryRepository.findByProductIdOrderByValidFromAscIdAsc(productId);
+    }
+
+    /**
+     * Drops the newest entry of a committed product change.
+     *
+     * @param event The product change
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        newest.remove(event.getProductId());
+    }
+
+    /**
+     * Drops every newest entry after a committed tax change, which may add entries to many products.
+     *
+     * @param event The tax change
+     */
+    @TransactionalEventListener
+    public void onTaxChanged(TaxChangedEvent event) {
+        generation.incrementAndGet();
+        newest.clear();
+    }
+}
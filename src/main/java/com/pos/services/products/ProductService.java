@@ -1,16 +1,32 @@
 package com.pos.services.products;
 
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.manager.product.BarcodeIndex;
+import com.pos.manager.product.InventoryManager;
+import com.pos.manager.product.ProductSearchIndex;
 import com.pos.models.products.Product;
+import com.pos.models.products.StockMovement;
 import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.ProductSortKey;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for managing Product entities.
@@ -19,14 +35,31 @@ import java.util.Optional;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final BarcodeIndex barcodeIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryManager inventoryManager;
+    private final AtomicLong cachedCount = new AtomicLong(-1);
 
     /**
      * Constructor with dependencies.
      *
      * @param productRepository The product repository
+     * @param barcodeIndex The in-memory barcode index
+     * @param productSearchIndex The in-memory full-text index
+     * @param eventPublisher The publisher for product change events
+     * @param inventoryManager The stock ledger
      */
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          BarcodeIndex barcodeIndex,
+                          ProductSearchIndex productSearchIndex,
+                          ApplicationEventPublisher eventPublisher,
+                          InventoryManager inventoryManager) {
         this.productRepository = productRepository;
+        this.barcodeIndex = barcodeIndex;
+        this.productSearchIndex = productSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.inventoryManager = inventoryManager;
     }
 
     /**
@@ -41,7 +74,10 @@ public class ProductService {
         if (productRepository.existsByBarcode(product.getBarcode())) {
             throw new IllegalArgumentException("Ya existe un producto con el código de barras: " + product.getBarcode());
         }
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        inventoryManager.createStock(saved.getId());
+        publishSaved(saved, null);
+        return saved;
     }
 
     /**
@@ -63,6 +99,8 @@ public class ProductService {
             throw new IllegalArgumentException("Ya existe un producto con el código de barras: " + product.getBarcode());
         }
 
+        String previousBarcode = existingProduct.getBarcode();
+
         // Update fields
         existingProduct.setBarcode(product.getBarcode());
         existingProduct.setName(product.getName());
@@ -71,7 +109,9 @@ public class ProductService {
         //existingProduct.setStock(product.getStock());
 
         // Save updated product
-        return productRepository.save(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        publishSaved(saved, previousBarcode);
+        return saved;
     }
 
     /**
@@ -85,13 +125,13 @@ public class ProductService {
     }
 
     /**
-     * Finds a product by its barcode.
+     * Finds a product by its barcode. Served from the in-memory barcode index.
      *
      * @param barcode The barcode
      * @return An Optional containing the product if found
      */
     public Optional<Product> findByBarcode(String barcode) {
-        return productRepository.findByBarcode(barcode);
+        return barcodeIndex.find(barcode);
     }
 
     /**
@@ -119,7 +159,60 @@ public class ProductService {
     }
 
     /**
-     * Searches for products by name or barcode.
+     * Reads a window of products by keyset, seeking on (sortKey, id) instead of skipping rows.
+     *
+     * @param sortKey The column to sort by
+     * @param ascending Whether to sort in ascending order
+     * @param position The position to continue from, {@link ScrollPosition#keyset()} for the first window
+     * @param size The window size
+     * @return A window of products, with the position of each element to continue from
+     */
+    public Window<Product> findAllByKeyset(ProductSortKey sortKey, boolean ascending, ScrollPosition position, int size) {
+        return productRepository.findBy(position, sortKey.toSort(ascending), Limit.of(size));
+    }
+
+    /**
+     * Reads a page of products by offset without counting them.
+     *
+     * @param page The page number (zero-based)
+     * @param size The page size
+     * @param sortKey The column to sort by
+     * @param ascending Whether to sort in ascending order
+     * @return A slice of products
+     */
+    public Slice<Product> findSlice(int page, int size, ProductSortKey sortKey, boolean ascending) {
+        return productRepository.findAllBy(PageRequest.of(page, size, sortKey.toSort(ascending)));
+    }
+
+    /**
+     * Counts all products. The count is cached until a product is created or deleted.
+     *
+     * @return The number of products
+     */
+    public long countProducts() {
+        long count = cachedCount.get();
+        if (count < 0) {
+            count = productRepository.count();
+            cachedCount.set(count);
+        }
+        return count;
+    }
+
+    /**
+     * Invalidates the cached product count when products are created or deleted.
+     *
+     * @param event The product change
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED || event.getPreviousBarcode() == null) {
+            cachedCount.set(-1);
+        }
+    }
+
+    /**
+     * Searches for products by name, description, category or barcode prefix.
+     * Served from the in-memory full-text index, ranked by relevance.
      *
      * @param searchTerm The search term
      * @param page The page number (zero-based)
@@ -128,21 +221,26 @@ public class ProductService {
      */
     public Page<Product> searchProducts(String searchTerm, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.searchByNameOrBarcode(searchTerm, pageable);
+        ProductSearchIndex.Result result = productSearchIndex.search(searchTerm, (int) pageable.getOffset(), size);
+        return new PageImpl<>(result.getProducts(), pageable, result.getTotal());
     }
 
     /**
-     * Deletes a product by its ID.
+     * Deletes a product by its ID. Only administrators may delete products.
      *
      * @param id The product ID
      */
     @Transactional
+    @PreAuthorize("@permissions.has('ROLE_ADMIN')")
     public void deleteById(Long id) {
-        productRepository.deleteById(id);
+        productRepository.findById(id).ifPresent(product -> {
+            productRepository.delete(product);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
+        });
     }
 
     /**
-     * Updates the stock of a product.
+     * Updates the stock of a product through the stock ledger.
      *
      * @param id The product ID
      * @param quantity The quantity to add (positive) or remove (negative)
@@ -151,26 +249,30 @@ public class ProductService {
      */
     @Transactional
     public Product updateStock(Long id, int quantity) {
-        // Get existing product
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado: " + id));
-        /*
-        // Calculate new stock
-        int newStock = product.getStock() + quantity;
-
-        // Check if new stock would be negative
-        if (newStock < 0) {
-            throw new IllegalArgumentException("El stock no puede ser negativo. Stock actual: " +
-                    product.getStock() + ", Cantidad a restar: " + Math.abs(quantity));
-        }
 
-        // Update stock
-        product.setStock(newStock);
-
-         */
-
-        // Save updated product
-        return productRepository.save(product);
+        if (quantity > 0) {
+            inventoryManager.increment(id, quantity, StockMovement.Type.ADJUSTMENT, null);
+        } else if (quantity < 0) {
+            inventoryManager.decrement(id, -quantity, StockMovement.Type.ADJUSTMENT, null);
+        }
+        return product;
     }
 
-}
\ No newline at end of file
+    /**
+     * Publishes a saved product so in-memory caches pick it up after commit. The associations
+     * read outside the session (price, tax and category) are initialized first.
+     *
+     * @param product The saved product
+     * @param previousBarcode The barcode before the change, or null for new products
+     */
+    private void publishSaved(Product product, String previousBarcode) {
+        Hibernate.initialize(product.getCategory());
+        if (product.getPrice() != null) {
+            Hibernate.initialize(product.getPrice());
+            Hibernate.initialize(product.getPrice().getTax());
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product, previousBarcode));
+    }
+}
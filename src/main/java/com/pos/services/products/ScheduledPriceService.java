@@ -0,0 +1,262 @@
+package com.pos.services.products;
+
+import com.pos.events.products.PriceChangeScheduledEvent;
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.ScheduledPriceChange;
+import com.pos.models.products.Tax;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.ScheduledPriceChangeRepository;
+import com.pos.repositories.products.TaxRepository;
+import org.hibernate.ObjectNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for price and tax changes that take effect at a given instant.
+ * <p>
+ * Scheduling only stores the change; {@link com.pos.manager.product.PriceChangeScheduler} calls
+ * {@link #activate} when it is due. A batch of due changes is applied in one transaction, and
+ * the caches swap the whole batch after it commits.
+ */
+@Service
+public class ScheduledPriceService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledPriceService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ScheduledPriceChangeRepository scheduledPriceChangeRepository;
+    private final ProductRepository productRepository;
+    private final PriceRepository priceRepository;
+    private final TaxRepository taxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ScheduledPriceService(ScheduledPriceChangeRepository scheduledPriceChangeRepository,
+                                 ProductRepository productRepository,
+                                 PriceRepository priceRepository,
+                                 TaxRepository taxRepository,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.scheduledPriceChangeRepository = scheduledPriceChangeRepository;
+        this.productRepository = productRepository;
+        this.priceRepository = priceRepository;
+        this.taxRepository = taxRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Schedules new prices for a product. The product keeps its tax.
+     *
+     * @param productId The product ID
+     * @param effectiveAt When the prices take effect; a past instant applies them straight away
+     * @param purchasePrice The new purchase price
+     * @param salePrice The new sale price, without tax
+     * @param wholesalePrice The new wholesale price, or null for none
+     * @return The saved change
+     * @throws ObjectNotFoundException If the product does not exist
+     * @throws IllegalArgumentException If a required price is missing or not positive
+     */
+    @Transactional
+    public ScheduledPriceChange schedulePrice(Long productId, LocalDateTime effectiveAt, BigDecimal purchasePrice,
+                                              BigDecimal salePrice, BigDecimal wholesalePrice) {
+        if (!productRepository.existsById(productId)) {
+            throw new ObjectNotFoundException("Product not found by id", productId);
+        }
+        requirePositive(purchasePrice, "El precio de compra");
+        requirePositive(salePrice, "El precio de venta");
+        if (wholesalePrice != null) {
+            requirePositive(wholesalePrice, "El precio mayorista");
+        }
+        return save(ScheduledPriceChange.price(productId, requireInstant(effectiveAt), purchasePrice, salePrice,
+                wholesalePrice));
+    }
+
+    /**
+     * Schedules a new percentage for a tax, for every product that uses it.
+     *
+     * @param taxId The tax ID
+     * @param effectiveAt When the percentage takes effect; a past instant applies it straight away
+     * @param percentage The new percentage
+     * @return The saved change
+     * @throws ObjectNotFoundException If the tax does not exist
+     * @throws IllegalArgumentException If the percentage is missing or not positive
+     */
+    @Transactional
+    public ScheduledPriceChange scheduleTax(Long taxId, LocalDateTime effectiveAt, BigDecimal percentage) {
+        if (!taxRepository.existsById(taxId)) {
+            throw new ObjectNotFoundException("Tax not found by id", taxId);
+        }
+        requirePositive(percentage, "El valor del impuesto");
+        return save(ScheduledPriceChange.tax(taxId, requireInstant(effectiveAt), percentage));
+    }
+
+    /**
+     * Cancels a change that has not taken effect yet.
+     *
+     * @param id The change ID
+     * @throws ObjectNotFoundException If the change does not exist
+     * @throws IllegalStateException If the change was already applied or cancelled
+     */
+    @Transactional
+    public void cancel(Long id) {
+        ScheduledPriceChange change = scheduledPriceChangeRepository.findById(id)
+                .orElseThrow(() -> new ObjectNotFoundException("Scheduled price change not found by id", id));
+        if (change.getStatus() != ScheduledPriceChange.Status.PENDING) {
+            throw new IllegalStateException("El cambio de precio programado ya no está pendiente");
+        }
+        change.setStatus(ScheduledPriceChange.Status.CANCELLED);
+    }
+
+    /**
+     * @return The changes that have not taken effect yet, the earliest first
+     */
+    public List<ScheduledPriceChange> findPending() {
+        return scheduledPriceChangeRepository.findByStatusOrderByEffectiveAtAscIdAsc(ScheduledPriceChange.Status.PENDING);
+    }
+
+    /**
+     * Applies due changes in one transaction. Changes that are no longer pending are skipped, and
+     * of several changes of the same product or tax the latest one wins. Products get a new
+     * price row, as when they are edited, so the previous prices stay as they were.
+     *
+     * @param ids The IDs of the due changes
+     * @return The number of changes applied
+     */
+    @Transactional
+    public int activate(Collection<Long> ids) {
+        List<ScheduledPriceChange> changes = findPending(ids);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<Long> taxIds = new LinkedHashSet<>();
+        for (ScheduledPriceChange change : changes) {
+            (change.getType() == ScheduledPriceChange.Type.TAX ? taxIds : productIds).add(change.getTargetId());
+        }
+        Map<Long, Tax> taxes = new HashMap<>();
+        taxRepository.findAllById(taxIds).forEach(tax -> taxes.put(tax.getId(), tax));
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> productIdList = new ArrayList<>(productIds);
+        for (int from = 0; from < productIdList.size(); from += CHUNK_SIZE) {
+            productRepository.findAllForScanByIdIn(productIdList.subList(from, Math.min(from + CHUNK_SIZE, productIdList.size())))
+                    .forEach(product -> products.put(product.getId(), product));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Tax> changedTaxes = new LinkedHashMap<>();
+        Map<Long, Product> changedProducts = new LinkedHashMap<>();
+        Map<Long, Price> newPrices = new HashMap<>();
+        int applied = 0;
+        for (ScheduledPriceChange change : changes) {
+            if (change.getType() == ScheduledPriceChange.Type.TAX) {
+                Tax tax = taxes.get(change.getTargetId());
+                if (tax == null) {
+                    cancelMissing(change);
+                    continue;
+                }
+                tax.setPercentage(change.getPercentage());
+                changedTaxes.put(tax.getId(), tax);
+            } else {
+                Product product = products.get(change.getTargetId());
+                if (product == null) {
+                    cancelMissing(change);
+                    continue;
+                }
+                Price price = newPrices.computeIfAbsent(product.getId(), id -> {
+                    Price created = new Price();
+                    created.setTax(product.getPrice() != null ? product.getPrice().getTax() : null);
+                    product.setPrice(created);
+                    return created;
+                });
+                price.setPurchasePrice(change.getPurchasePrice());
+                price.setSalePrice(change.getSalePrice());
+                price.setWholesalePrice(change.getWholesalePrice());
+                changedProducts.put(product.getId(), product);
+            }
+            change.setStatus(ScheduledPriceChange.Status.APPLIED);
+            change.setAppliedAt(now);
+            applied++;
+        }
+        priceRepository.saveAll(newPrices.values());
+
+        eventPublisher.publishEvent(new PricesActivatedEvent(List.copyOf(changedProducts.values()),
+                List.copyOf(changedTaxes.values())));
+        for (Tax tax : changedTaxes.values()) {
+            eventPublisher.publishEvent(new TaxChangedEvent(tax));
+        }
+        for (Product product : changedProducts.values()) {
+            eventPublisher.publishEvent(ProductChangedEvent.saved(product, product.getBarcode()));
+        }
+        return applied;
+    }
+
+    /**
+     * Keeps the given changes that are still pending, in the order {@link #activate} applies them.
+     *
+     * @param ids The change IDs
+     * @return The IDs of the pending changes, the earliest first
+     */
+    public List<Long> findPendingIds(Collection<Long> ids) {
+        return findPending(ids).stream().map(ScheduledPriceChange::getId).toList();
+    }
+
+    private List<ScheduledPriceChange> findPending(Collection<Long> ids) {
+        List<ScheduledPriceChange> changes = new ArrayList<>(ids.size());
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += CHUNK_SIZE) {
+            changes.addAll(scheduledPriceChangeRepository.findByIdInAndStatusOrderByEffectiveAtAscIdAsc(
+                    idList.subList(from, Math.min(from + CHUNK_SIZE, idList.size())),
+                    ScheduledPriceChange.Status.PENDING));
+        }
+        // Chunks are ordered separately, and a later change must overwrite an earlier one
+        changes.sort((a, b) -> {
+            int byInstant = a.getEffectiveAt().compareTo(b.getEffectiveAt());
+            return byInstant != 0 ? byInstant : a.getId().compareTo(b.getId());
+        });
+        return changes;
+    }
+
+    private ScheduledPriceChange save(ScheduledPriceChange change) {
+        ScheduledPriceChange saved = scheduledPriceChangeRepository.save(change);
+        eventPublisher.publishEvent(new PriceChangeScheduledEvent(saved));
+        return saved;
+    }
+
+    private static void cancelMissing(ScheduledPriceChange change) {
+        LOGGER.warn("Cambio de precio programado {} cancelado: {} {} ya no existe",
+                change.getId(), change.getType(), change.getTargetId());
+        change.setStatus(ScheduledPriceChange.Status.CANCELLED);
+    }
+
+    private static LocalDateTime requireInstant(LocalDateTime effectiveAt) {
+        if (effectiveAt == null) {
+            throw new IllegalArgumentException("La fecha de entrada en vigor es obligatoria");
+        }
+        return effectiveAt;
+    }
+
+    private static void requirePositive(BigDecimal value, String name) {
+        if (value == null || value.signum() <= 0) {
+            throw new IllegalArgumentException(name + " debe ser mayor que cero");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pos.services.products;
+
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.models.products.Tax;
+import com.pos.repositories.products.TaxRepository;
+import org.hibernate.ObjectNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service for managing Tax entities.
+ */
+@Service
+public class TaxService {
+
+    private final TaxRepository taxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TaxService(TaxRepository taxRepository, ApplicationEventPublisher eventPublisher) {
+        this.taxRepository = taxRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<Tax> getAllTaxes() {
+        return taxRepository.findAll();
+    }
+
+    /**
+     * Updates a tax. Cached gross prices that use it are recomputed after commit.
+     *
+     * @param tax The tax to update
+     * @return The updated tax
+     */
+    @Transactional
+    public Tax updateTax(Tax tax) {
+        Tax existing = taxRepository.findById(tax.getId())
+                .orElseThrow(() -> new ObjectNotFoundException("Tax not found by id", tax.getId()));
+
+        existing.setName(tax.getName());
+        existing.setDescription(tax.getDescription());
+        existing.setPercentage(tax.getPercentage());
+        Tax saved = taxRepository.save(existing);
+
+        eventPublisher.publishEvent(new TaxChangedEvent(saved));
+        return saved;
+    }
+}
@@ -0,0 +1,192 @@
+package com.pos.services.reports;
+
+import com.pos.dtos.reports.ReportRowDTO;
+import com.pos.manager.reports.InventoryValuation;
+import com.pos.manager.reports.SalesCube;
+import com.pos.models.products.Category;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.models.reports.SalesCubeCell;
+import com.pos.models.reports.SalesCubeCell.Dimension;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import com.pos.repositories.reports.SalesCubeRepository;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Service for the sales and inventory reports.
+ * <p>
+ * Reports read the pre-aggregated cells kept by {@link SalesCube}: a period costs one row per
+ * hour, day or member of that period, however many sales the history holds. The inventory value
+ * is a running total kept by {@link InventoryValuation}.
+ */
+@Service
+public class ReportService {
+
+    /**
+     * How a sales report groups its rows.
+     */
+    public enum Grouping {
+        DAY,
+        HOUR,
+        PRODUCT,
+        CATEGORY,
+        TAX
+    }
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:00");
+
+    private final SalesCubeRepository salesCubeRepository;
+    private final SalesCube salesCube;
+    private final InventoryValuation inventoryValuation;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TaxRepository taxRepository;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param salesCubeRepository The pre-aggregated sales
+     * @param salesCube Keeps and rebuilds the pre-aggregated sales
+     * @param inventoryValuation The running inventory value
+     * @param productRepository The product repository, for product names
+     * @param categoryRepository The category repository, for category names
+     * @param taxRepository The tax repository, for tax names
+     */
+    public ReportService(SalesCubeRepository salesCubeRepository,
+                         SalesCube salesCube,
+                         InventoryValuation inventoryValuation,
+                         ProductRepository productRepository,
+                         CategoryRepository categoryRepository,
+                         TaxRepository taxRepository) {
+        this.salesCubeRepository = salesCubeRepository;
+        this.salesCube = salesCube;
+        this.inventoryValuation = inventoryValuation;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.taxRepository = taxRepository;
+    }
+
+    /**
+     * Gets the sales of a period.
+     *
+     * @param from The first day
+     * @param to The last day, inclusive
+     * @param grouping How to group the rows
+     * @return The rows, in time order for days and hours and by total otherwise
+     * @throws IllegalArgumentException If the period ends before it starts
+     */
+    public List<ReportRowDTO> getSales(LocalDate from, LocalDate to, Grouping grouping) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La fecha final es anterior a la inicial");
+        }
+        return switch (grouping) {
+            case DAY -> byBucket(cells(Dimension.DAY, from, to), DAY_FORMAT);
+            case HOUR -> byBucket(cells(Dimension.HOUR, from, to), HOUR_FORMAT);
+            case PRODUCT -> byMember(cells(Dimension.PRODUCT, from, to),
+                    ids -> names(productRepository.findAllById(ids), Product::getId, Product::getName));
+            case CATEGORY -> byMember(cells(Dimension.CATEGORY, from, to),
+                    ids -> names(categoryRepository.findAllById(ids), Category::getId, Category::getName));
+            case TAX -> byMember(cells(Dimension.TAX, from, to),
+                    ids -> names(taxRepository.findAllById(ids), Tax::getId, Tax::getName));
+        };
+    }
+
+    /**
+     * Gets the totals of a period.
+     *
+     * @param from The first day
+     * @param to The last day, inclusive
+     * @return The number of sales and their amounts, labelled with the period
+     */
+    public ReportRowDTO getTotals(LocalDate from, LocalDate to) {
+        long sales = 0, quantity = 0, net = 0, tax = 0, total = 0;
+        for (SalesCubeCell cell : cells(Dimension.DAY, from, to)) {
+            sales += cell.getEntries();
+            quantity += cell.getQuantity();
+            net += cell.getNetCents();
+            tax += cell.getTaxCents();
+            total += cell.getTotalCents();
+        }
+        return new ReportRowDTO(DAY_FORMAT.format(from) + " - " + DAY_FORMAT.format(to), sales, quantity, net, tax, total);
+    }
+
+    /**
+     * @return The value of the stock on hand at purchase price, in cents
+     */
+    public long getInventoryValueCents() {
+        return inventoryValuation.getValueCents();
+    }
+
+    /**
+     * @return The units on hand across all products
+     */
+    public long getInventoryUnits() {
+        return inventoryValuation.getUnits();
+    }
+
+    /**
+     * Recomputes the reports from the sales. Only administrators may rebuild them.
+     *
+     * @return The number of sale lines read
+     */
+    @PreAuthorize("@permissions.has('ROLE_ADMIN')")
+    public long rebuild() {
+        return salesCube.rebuild();
+    }
+
+    private List<SalesCubeCell> cells(Dimension dimension, LocalDate from, LocalDate to) {
+        return salesCubeRepository.findCells(dimension, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    private static List<ReportRowDTO> byBucket(List<SalesCubeCell> cells, DateTimeFormatter format) {
+        List<ReportRowDTO> rows = new ArrayList<>(cells.size());
+        for (SalesCubeCell cell : cells) {
+            rows.add(new ReportRowDTO(format.format(cell.getBucket()), cell.getEntries(), cell.getQuantity(),
+                    cell.getNetCents(), cell.getTaxCents(), cell.getTotalCents()));
+        }
+        return rows;
+    }
+
+    private static List<ReportRowDTO> byMember(List<SalesCubeCell> cells, Function<List<Long>, Map<Long, String>> names) {
+        // Members come one cell per day; add the days up
+        Map<Long, long[]> totals = new LinkedHashMap<>();
+        for (SalesCubeCell cell : cells) {
+            long[] sum = totals.computeIfAbsent(cell.getMemberId(), id -> new long[5]);
+            sum[0] += cell.getEntries();
+            sum[1] += cell.getQuantity();
+            sum[2] += cell.getNetCents();
+            sum[3] += cell.getTaxCents();
+            sum[4] += cell.getTotalCents();
+        }
+
+        Map<Long, String> labels = names.apply(new ArrayList<>(totals.keySet()));
+        List<ReportRowDTO> rows = new ArrayList<>(totals.size());
+        totals.forEach((memberId, sum) -> rows.add(new ReportRowDTO(
+                labels.getOrDefault(memberId, memberId == SalesCubeCell.NO_MEMBER ? "Sin impuesto" : "#" + memberId),
+                sum[0], sum[1], sum[2], sum[3], sum[4])));
+        rows.sort(Comparator.comparingLong(ReportRowDTO::totalCents).reversed());
+        return rows;
+    }
+
+    private static <T> Map<Long, String> names(List<T> entities, Function<T, Long> id, Function<T, String> name) {
+        Map<Long, String> names = new HashMap<>();
+        for (T entity : entities) {
+            names.put(id.apply(entity), name.apply(entity));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,143 @@
+package com.pos.services.sales;
+
+import com.pos.events.sales.PromotionChangedEvent;
+import com.pos.models.sales.Promotion;
+import com.pos.repositories.sales.PromotionRepository;
+import org.hibernate.ObjectNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Service for managing promotion rules. The carts pick the changes up once they commit. Only
+ * administrators may change the rules.
+ */
+@Service
+public class PromotionService {
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private final PromotionRepository promotionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PromotionService(PromotionRepository promotionRepository, ApplicationEventPublisher eventPublisher) {
+        this.promotionRepository = promotionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<Promotion> getAllPromotions() {
+        return promotionRepository.findAll();
+    }
+
+    /**
+     * Creates or updates a promotion after checking it has what its type needs.
+     *
+     * @param promotion The promotion
+     * @return The saved promotion
+     * @throws IllegalArgumentException If the promotion is incomplete or inconsistent
+     */
+    @Transactional
+    @PreAuthorize("@permissions.has('ROLE_ADMIN')")
+    public Promotion savePromotion(Promotion promotion) {
+        validate(promotion);
+        Promotion saved = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Switches a promotion on or off.
+     *
+     * @param id The promotion ID
+     * @param active Whether the promotion applies
+     * @throws ObjectNotFoundException If the promotion does not exist
+     */
+    @Transactional
+    @PreAuthorize("@permissions.has('ROLE_ADMIN')")
+    public void setActive(Long id, boolean active) {
+        Promotion promotion = promotionRepository.findById(id)
+                .orElseThrow(() -> new ObjectNotFoundException("Promotion not found by id", id));
+        promotion.setActive(active);
+        eventPublisher.publishEvent(new PromotionChangedEvent(id));
+    }
+
+    /**
+     * Deletes a promotion. Sales already made keep their discounts.
+     *
+     * @param id The promotion ID
+     */
+    @Transactional
+    @PreAuthorize("@permissions.has('ROLE_ADMIN')")
+    public void deletePromotion(Long id) {
+        promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PromotionChangedEvent(id));
+    }
+
+    private static void validate(Promotion promotion) {
+        if (promotion.getName() == null || promotion.getName().isBlank()) {
+            throw new IllegalArgumentException("El nombre es obligatorio");
+        }
+        if (promotion.getType() == null) {
+            throw new IllegalArgumentException("El tipo de promoción es obligatorio");
+        }
+        if (promotion.getStartsAt() != null && promotion.getEndsAt() != null
+                && !promotion.getEndsAt().isAfter(promotion.getStartsAt())) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la de inicio");
+        }
+        boolean targeted = !promotion.getProductIds().isEmpty() || !promotion.getCategoryIds().isEmpty();
+        switch (promotion.getType()) {
+            case BUY_N_PAY_M -> {
+                requireTargets(targeted);
+                if (promotion.getQuantity() == null || promotion.getPayQuantity() == null
+                        || promotion.getPayQuantity() < 0 || promotion.getQuantity() <= promotion.getPayQuantity()) {
+                    throw new IllegalArgumentException("La cantidad a pagar debe ser menor que la cantidad llevada");
+                }
+            }
+            case PERCENT_OFF -> {
+                requireTargets(targeted);
+                requirePercentage(promotion.getPercentage());
+            }
+            case BUNDLE_PRICE -> {
+                requireTargets(targeted);
+                if (promotion.getQuantity() == null || promotion.getQuantity() < 2) {
+                    throw new IllegalArgumentException("El combo debe tener al menos dos unidades");
+                }
+                if (promotion.getAmount() == null || promotion.getAmount().signum() < 0) {
+                    throw new IllegalArgumentException("El precio del combo es obligatorio");
+                }
+            }
+            case THRESHOLD -> {
+                if (targeted) {
+                    throw new IllegalArgumentException("La promoción por monto mínimo se aplica a toda la venta");
+                }
+                if (promotion.getThreshold() == null || promotion.getThreshold().signum() < 0) {
+                    throw new IllegalArgumentException("El monto mínimo es obligatorio");
+                }
+                boolean hasAmount = promotion.getAmount() != null && promotion.getAmount().signum() > 0;
+                boolean hasPercentage = promotion.getPercentage() != null;
+                if (hasAmount == hasPercentage) {
+                    throw new IllegalArgumentException("Indique un descuento fijo o un porcentaje, no ambos");
+                }
+                if (hasPercentage) {
+                    requirePercentage(promotion.getPercentage());
+                }
+            }
+        }
+    }
+
+    private static void requireTargets(boolean targeted) {
+        if (!targeted) {
+            throw new IllegalArgumentException("Indique al menos un producto o una categoría");
+        }
+    }
+
+    private static void requirePercentage(BigDecimal percentage) {
+        if (percentage == null || percentage.signum() <= 0 || percentage.compareTo(ONE_HUNDRED) > 0) {
+            throw new IllegalArgumentException("El porcentaje debe estar entre 0 y 100");
+        }
+    }
+}
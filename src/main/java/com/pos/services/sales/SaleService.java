@@ -0,0 +1,157 @@
+package com.pos.services.sales;
+
+import com.pos.events.sales.SaleCompletedEvent;
+import com.pos.manager.product.InventoryManager;
+import com.pos.manager.product.PriceCache;
+import com.pos.manager.reports.SalesCubeDelta;
+import com.pos.manager.sales.Cart;
+import com.pos.manager.sales.PromotionEngine;
+import com.pos.models.products.Product;
+import com.pos.models.products.StockMovement;
+import com.pos.models.sales.Sale;
+import com.pos.models.sales.SaleLine;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.sales.SaleRepository;
+import com.pos.services.products.ProductService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service for ringing up and committing sales.
+ */
+@Service
+public class SaleService {
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final SaleRepository saleRepository;
+    private final PriceCache priceCache;
+    private final PromotionEngine promotionEngine;
+    private final InventoryManager inventoryManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param productService The product service used to resolve scanned barcodes
+     * @param productRepository The product repository
+     * @param saleRepository The sale repository
+     * @param priceCache The precomputed gross prices
+     * @param promotionEngine The compiled promotions applied to carts
+     * @param inventoryManager The stock ledger
+     * @param eventPublisher The publisher for completed sales
+     */
+    public SaleService(ProductService productService,
+                       ProductRepository productRepository,
+                       SaleRepository saleRepository,
+                       PriceCache priceCache,
+                       PromotionEngine promotionEngine,
+                       InventoryManager inventoryManager,
+                       ApplicationEventPublisher eventPublisher) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.saleRepository = saleRepository;
+        this.priceCache = priceCache;
+        this.promotionEngine = promotionEngine;
+        this.inventoryManager = inventoryManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Creates an empty cart for a till, with the promotions in force.
+     *
+     * @return The cart
+     */
+    public Cart newCart() {
+        return new Cart(priceCache, promotionEngine::current);
+    }
+
+    /**
+     * Adds a scanned product to a cart.
+     *
+     * @param cart The cart
+     * @param barcode The scanned barcode
+     * @param quantity The quantity to add
+     * @return The index of the line the product was added to
+     * @throws IllegalArgumentException If no active product has the barcode
+     */
+    public int scan(Cart cart, String barcode, int quantity) {
+        Product product = productService.findByBarcode(barcode)
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado: " + barcode));
+        if (!product.isActive()) {
+            throw new IllegalArgumentException("El producto no está activo: " + barcode);
+        }
+        if (priceCache.getRetailCents(product.getId()) == PriceCache.NO_PRICE) {
+            priceCache.put(product);
+        }
+        return cart.add(product, quantity);
+    }
+
+    /**
+     * Stores the cart as a sale, with all its lines, and takes the sold quantities out of stock
+     * in a single transaction. The cart is left untouched so the caller can clear it once the
+     * sale has been committed.
+     *
+     * @param cart The cart
+     * @param cashier The username of the cashier
+     * @return The saved sale
+     * @throws IllegalStateException If the cart has no active lines
+     * @throws IllegalArgumentException If a product does not have enough stock
+     */
+    @Transactional
+    public Sale checkout(Cart cart, String cashier) {
+        if (cart.isEmpty()) {
+            throw new IllegalStateException("No hay productos en la venta");
+        }
+
+        Sale sale = new Sale(cashier, cart.isWholesale());
+        SalesCubeDelta delta = new SalesCubeDelta();
+        for (int i = 0; i < cart.getLineCount(); i++) {
+            Product scanned = cart.getProduct(i);
+            long taxId = cart.getTaxId(i);
+            Product product = productRepository.getReferenceById(scanned.getId());
+            SaleLine line = new SaleLine(i + 1, product, cart.getQuantity(i),
+                    toAmount(cart.getUnitCents(i)),
+                    toAmount(cart.getLineTaxCents(i)),
+                    toAmount(cart.getLineCents(i)),
+                    cart.isVoided(i));
+            // The category id is read from the proxy without initializing it
+            long categoryId = scanned.getCategory().getId();
+            line.setTaxId(taxId != PriceCache.NO_TAX ? taxId : null);
+            line.setCategoryId(categoryId);
+            sale.addLine(line);
+            delta.addLine(sale.getSaleDate(), i + 1, scanned.getId(), categoryId, taxId,
+                    cart.getQuantity(i), cart.getLineTaxCents(i), cart.getLineCents(i), cart.isVoided(i));
+        }
+        sale.setNetTotal(toAmount(cart.getNetCents()));
+        sale.setTaxTotal(toAmount(cart.getTaxCents()));
+        sale.setTotal(toAmount(cart.getTotalCents()));
+        Sale saved = saleRepository.save(sale);
+
+        // Always in product order, so two sales sharing products lock their stock rows in the same order
+        List<SaleLine> sold = new ArrayList<>();
+        for (SaleLine line : saved.getLines()) {
+            if (!line.isVoided()) {
+                sold.add(line);
+            }
+        }
+        sold.sort(Comparator.comparing(line -> line.getProduct().getId()));
+        String reference = "Venta #" + saved.getId();
+        for (SaleLine line : sold) {
+            inventoryManager.decrement(line.getProduct().getId(), line.getQuantity(), StockMovement.Type.SALE, reference);
+        }
+
+        eventPublisher.publishEvent(new SaleCompletedEvent(saved, delta));
+        return saved;
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
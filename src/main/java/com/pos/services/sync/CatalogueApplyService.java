@@ -0,0 +1,197 @@
+package com.pos.services.sync;
+
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.models.sync.CatalogueSyncState;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import com.pos.repositories.sync.CatalogueSyncStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies on a till the catalogue deltas pulled from the back office.
+ * <p>
+ * A delta is written in one transaction with JDBC batches of {@code MERGE} statements keyed by
+ * the back-office IDs, together with the new position of the till, so applying it twice is
+ * harmless. Once it commits, the usual {@link ProductChangedEvent}s and {@link TaxChangedEvent}s
+ * are published, so the in-memory caches update the changed rows instead of reloading the
+ * catalogue. Tills take their catalogue from the back office and do not edit it locally.
+ */
+@Service
+public class CatalogueApplyService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogueApplyService.class);
+
+    // Rows per JDBC batch and per query when loading the changed products back
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String MERGE_TAX =
+            "MERGE INTO taxes (id, name, description, percentage) KEY (id) VALUES (?, ?, ?, ?)";
+    private static final String MERGE_CATEGORY =
+            "MERGE INTO categories (id, name, description, active) KEY (id) VALUES (?, ?, ?, ?)";
+    private static final String MERGE_PRICE =
+            "MERGE INTO Price (id, purchase_price, sale_price, wholesale_price, tax_id, update_date) KEY (id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String MERGE_PRODUCT =
+            "MERGE INTO products (id, barcode, name, description, active, category_id, product_id, creation_date) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_STOCK =
+            "INSERT INTO stock (product_id, quantity) SELECT ?, 0 WHERE NOT EXISTS (SELECT 1 FROM stock WHERE product_id = ?)";
+    // Products already sold stay, inactive, so the sales that reference them remain valid. Their
+    // barcode is retired so the back office can give it to another product
+    private static final String DEACTIVATE_SOLD_PRODUCT =
+            "UPDATE products SET active = FALSE, barcode = 'BAJA-' || id WHERE id = ? AND EXISTS (SELECT 1 FROM sale_lines WHERE product_id = ?)";
+    private static final String DELETE_PRODUCT =
+            "DELETE FROM products WHERE id = ? AND NOT EXISTS (SELECT 1 FROM sale_lines WHERE product_id = ?)";
+    private static final String DELETE_CATEGORY =
+            "DELETE FROM categories WHERE id = ? AND NOT EXISTS (SELECT 1 FROM products WHERE category_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final TaxRepository taxRepository;
+    private final CatalogueSyncStateRepository catalogueSyncStateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatalogueApplyService(JdbcTemplate jdbcTemplate,
+                                 ProductRepository productRepository,
+                                 TaxRepository taxRepository,
+                                 CatalogueSyncStateRepository catalogueSyncStateRepository,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.taxRepository = taxRepository;
+        this.catalogueSyncStateRepository = catalogueSyncStateRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return The position of the till, or null if it has never synchronized
+     */
+    @Transactional(readOnly = true)
+    public CatalogueSyncState getState() {
+        return catalogueSyncStateRepository.findById(CatalogueSyncState.ID).orElse(null);
+    }
+
+    /**
+     * Applies a delta and moves the till to the given position.
+     *
+     * @param delta The rows to apply
+     * @param state The position of the till once the delta is applied
+     * @return The time the delta took to apply, in milliseconds
+     */
+    @Transactional
+    public long apply(CatalogueDeltaDTO delta, CatalogueSyncState state) {
+        long start = System.nanoTime();
+
+        Set<Long> changedIds = new HashSet<>();
+        delta.products().forEach(row -> changedIds.add(row.id()));
+        changedIds.addAll(delta.deletedProductIds());
+        Map<Long, String> previousBarcodes = barcodes(changedIds);
+
+        // Removed products go first, so a barcode they free can be reused by a product in the same delta
+        List<Long> deleted = new ArrayList<>();
+        Set<Long> deactivated = new HashSet<>();
+        for (Long id : delta.deletedProductIds()) {
+            if (jdbcTemplate.update(DEACTIVATE_SOLD_PRODUCT, id, id) > 0) {
+                deactivated.add(id);
+            } else if (jdbcTemplate.update(DELETE_PRODUCT, id, id) > 0) {
+                deleted.add(id);
+            }
+        }
+        jdbcTemplate.batchUpdate(MERGE_TAX, delta.taxes(), CHUNK_SIZE, (statement, row) -> {
+            statement.setLong(1, row.id());
+            statement.setString(2, row.name());
+            statement.setString(3, row.description());
+            statement.setBigDecimal(4, row.percentage());
+        });
+        jdbcTemplate.batchUpdate(MERGE_CATEGORY, delta.categories(), CHUNK_SIZE, (statement, row) -> {
+            statement.setLong(1, row.id());
+            statement.setString(2, row.name());
+            statement.setString(3, row.description());
+            statement.setBoolean(4, row.active());
+        });
+        jdbcTemplate.batchUpdate(MERGE_PRICE, delta.products(), CHUNK_SIZE, (statement, row) -> {
+            statement.setLong(1, row.priceId());
+            statement.setBigDecimal(2, row.purchasePrice());
+            statement.setBigDecimal(3, row.salePrice());
+            statement.setBigDecimal(4, row.wholesalePrice());
+            statement.setObject(5, row.taxId());
+            statement.setObject(6, row.priceUpdateDate());
+        });
+        jdbcTemplate.batchUpdate(MERGE_PRODUCT, delta.products(), CHUNK_SIZE, (statement, row) -> {
+            statement.setLong(1, row.id());
+            statement.setString(2, row.barcode());
+            statement.setString(3, row.name());
+            statement.setString(4, row.description());
+            statement.setBoolean(5, row.active());
+            statement.setLong(6, row.categoryId());
+            statement.setLong(7, row.priceId());
+            statement.setTimestamp(8, row.creationDate());
+        });
+        jdbcTemplate.batchUpdate(INSERT_STOCK, delta.products(), CHUNK_SIZE, (statement, row) -> {
+            statement.setLong(1, row.id());
+            statement.setLong(2, row.id());
+        });
+
+        for (Long id : delta.deletedCategoryIds()) {
+            jdbcTemplate.update(DELETE_CATEGORY, id, id);
+        }
+        catalogueSyncStateRepository.save(state);
+
+        publishChanges(delta, previousBarcodes, deactivated, deleted);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info("Catálogo actualizado a la versión {}: {} filas aplicadas en {} ms",
+                state.getVersion(), delta.size(), elapsedMillis);
+        return elapsedMillis;
+    }
+
+    private void publishChanges(CatalogueDeltaDTO delta, Map<Long, String> previousBarcodes,
+                                Set<Long> deactivated, List<Long> deleted) {
+        if (!delta.taxes().isEmpty()) {
+            for (Tax tax : taxRepository.findAllById(delta.taxes().stream().map(CatalogueDeltaDTO.TaxRow::id).toList())) {
+                eventPublisher.publishEvent(new TaxChangedEvent(tax));
+            }
+        }
+
+        // Products of a renamed category come in the same delta, as the back office republishes them
+        List<Long> ids = new ArrayList<>(deactivated);
+        delta.products().forEach(row -> ids.add(row.id()));
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            for (Product product : productRepository.findAllForScanByIdIn(chunk)) {
+                eventPublisher.publishEvent(ProductChangedEvent.saved(product, previousBarcodes.get(product.getId())));
+            }
+        }
+
+        for (Long id : deleted) {
+            Product product = new Product();
+            product.setId(id);
+            product.setBarcode(previousBarcodes.get(id));
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
+        }
+    }
+
+    private Map<Long, String> barcodes(Set<Long> ids) {
+        Map<Long, String> barcodes = new HashMap<>();
+        if (!ids.isEmpty()) {
+            jdbcTemplate.query("SELECT id, barcode FROM products WHERE id = ANY(?)", resultSet -> {
+                barcodes.put(resultSet.getLong(1), resultSet.getString(2));
+            }, (Object) ids.toArray(Long[]::new));
+        }
+        return barcodes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.pos.services.sync;
+
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.models.products.Category;
+import com.pos.models.products.Product;
+import com.pos.models.sync.CatalogueChange;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import com.pos.repositories.sync.CatalogueChangeRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the catalogue deltas the back office sends to the tills from its {@link CatalogueChange} log.
+ */
+@Service
+public class CatalogueDeltaService {
+
+    /**
+     * Most rows sent in one answer, whatever the till asks for.
+     */
+    public static final int MAX_LIMIT = 10_000;
+
+    private final CatalogueChangeRepository catalogueChangeRepository;
+    private final TaxRepository taxRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    public CatalogueDeltaService(CatalogueChangeRepository catalogueChangeRepository,
+                                 TaxRepository taxRepository,
+                                 CategoryRepository categoryRepository,
+                                 ProductRepository productRepository) {
+        this.catalogueChangeRepository = catalogueChangeRepository;
+        this.taxRepository = taxRepository;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Reads the rows changed after a version, in their current state. A row changed several times
+     * is sent once; a row that no longer exists is sent as deleted.
+     *
+     * @param version The last version the till applied
+     * @param limit The maximum number of changes to read
+     * @return The delta, whose version is the last change read, or the given version if there were none
+     */
+    @Transactional(readOnly = true)
+    public CatalogueDeltaDTO changesAfter(long version, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<CatalogueChange> changes = catalogueChangeRepository.findByIdGreaterThanOrderByIdAsc(version, Limit.of(size));
+        if (changes.isEmpty()) {
+            return new CatalogueDeltaDTO(version, false, List.of(), List.of(), List.of(), List.of(), List.of());
+        }
+
+        Set<Long> taxIds = new LinkedHashSet<>();
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (CatalogueChange change : changes) {
+            switch (change.getEntityType()) {
+                case TAX -> taxIds.add(change.getEntityId());
+                case CATEGORY -> categoryIds.add(change.getEntityId());
+                case PRODUCT -> productIds.add(change.getEntityId());
+            }
+        }
+
+        // Taxes are never deleted, so a missing one is simply skipped
+        List<CatalogueDeltaDTO.TaxRow> taxes = taxRepository.findAllById(taxIds).stream()
+                .map(CatalogueDeltaDTO.TaxRow::of)
+                .toList();
+
+        List<CatalogueDeltaDTO.CategoryRow> categories = new ArrayList<>();
+        Set<Long> deletedCategoryIds = new LinkedHashSet<>(categoryIds);
+        for (Category category : categoryRepository.findAllById(categoryIds)) {
+            categories.add(CatalogueDeltaDTO.CategoryRow.of(category));
+            deletedCategoryIds.remove(category.getId());
+        }
+
+        List<CatalogueDeltaDTO.ProductRow> products = new ArrayList<>();
+        Set<Long> deletedProductIds = new LinkedHashSet<>(productIds);
+        for (Product product : productRepository.findAllForScanByIdIn(productIds)) {
+            products.add(CatalogueDeltaDTO.ProductRow.of(product));
+            deletedProductIds.remove(product.getId());
+        }
+
+        return new CatalogueDeltaDTO(changes.getLast().getId(), changes.size() == size, taxes, categories, products,
+                List.copyOf(deletedCategoryIds), List.copyOf(deletedProductIds));
+    }
+
+    /**
+     * Reads a page of the whole catalogue, for a till that has never synchronized. The first page
+     * also carries every tax and category. The version is read before the rows, so the changes
+     * the till pulls after the last page may repeat rows of the snapshot but never miss one.
+     *
+     * @param afterProductId The last product ID of the previous page, 0 for the first page
+     * @param limit The maximum number of products
+     * @return The page, with the current version of the catalogue
+     */
+    @Transactional(readOnly = true)
+    public CatalogueDeltaDTO snapshot(long afterProductId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long version = catalogueChangeRepository.findMaxVersion();
+
+        List<CatalogueDeltaDTO.TaxRow> taxes = List.of();
+        List<CatalogueDeltaDTO.CategoryRow> categories = List.of();
+        if (afterProductId == 0) {
+            taxes = taxRepository.findAll().stream().map(CatalogueDeltaDTO.TaxRow::of).toList();
+            categories = categoryRepository.findAll().stream().map(CatalogueDeltaDTO.CategoryRow::of).toList();
+        }
+        List<Product> page = productRepository.findAllForScanByIdGreaterThanOrderByIdAsc(afterProductId, Limit.of(size));
+        List<CatalogueDeltaDTO.ProductRow> products = page.stream().map(CatalogueDeltaDTO.ProductRow::of).toList();
+
+        return new CatalogueDeltaDTO(version, page.size() == size, taxes, categories, products, List.of(), List.of());
+    }
+}
@@ -0,0 +1,59 @@
+package com.pos.services.sync;
+
+import com.pos.dtos.sync.SyncBatchDTO;
+import com.pos.dtos.sync.SyncEntryDTO;
+import com.pos.models.sync.ReplicatedEntry;
+import com.pos.repositories.sync.ReplicatedEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores the journal entries the tills ship to the back office.
+ */
+@Service
+public class SyncReceiverService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncReceiverService.class);
+
+    private final ReplicatedEntryRepository replicatedEntryRepository;
+
+    public SyncReceiverService(ReplicatedEntryRepository replicatedEntryRepository) {
+        this.replicatedEntryRepository = replicatedEntryRepository;
+    }
+
+    /**
+     * Stores the entries of a batch that follow the last stored sequence of the till. Entries
+     * already stored are skipped, so a resent batch is stored once, and storing stops at a gap,
+     * so the till resends from the first missing sequence.
+     *
+     * @param batch The batch
+     * @return The last sequence of the till stored without gaps
+     * @throws IllegalArgumentException If the batch has no till ID
+     */
+    @Transactional
+    public long receive(SyncBatchDTO batch) {
+        if (batch.tillId() == null || batch.tillId().isBlank()) {
+            throw new IllegalArgumentException("El lote no indica la caja");
+        }
+        String tillId = batch.tillId();
+        long last = replicatedEntryRepository.findLastSequence(tillId);
+        int stored = 0;
+        for (SyncEntryDTO entry : batch.entries()) {
+            if (entry.sequence() <= last) {
+                continue;
+            }
+            if (entry.sequence() != last + 1) {
+                LOGGER.warn("La caja {} envió la secuencia {} y se esperaba la {}", tillId, entry.sequence(), last + 1);
+                break;
+            }
+            replicatedEntryRepository.save(new ReplicatedEntry(tillId, entry.sequence(), entry.type(),
+                    entry.sourceId(), entry.payload()));
+            last = entry.sequence();
+            stored++;
+        }
+        LOGGER.debug("Caja {}: {} registros guardados hasta la secuencia {}", tillId, stored, last);
+        return last;
+    }
+}
@@ -0,0 +1,71 @@
+package com.pos.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes UTF-8 CSV, one line per row, in the form the catalogue import reads back: fields
+ * containing the delimiter or quotes are double-quoted with {@code ""} for a quote, and line
+ * breaks inside a field are written as spaces.
+ */
+public class CsvSpreadsheetWriter implements SpreadsheetWriter {
+
+    private final Writer writer;
+    private final char delimiter;
+
+    /**
+     * @param output The stream to write to, which is not closed
+     * @param delimiter The field delimiter
+     */
+    public CsvSpreadsheetWriter(OutputStream output, char delimiter) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public void writeRow(Object... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            Object cell = cells[i];
+            if (cell instanceof BigDecimal amount) {
+                writer.write(amount.toPlainString());
+            } else if (cell != null) {
+                writeText(cell.toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeText(String text) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == delimiter || c == '"';
+        }
+        if (quote) {
+            writer.write('"');
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        if (quote) {
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pos.utils;
+
+import java.io.IOException;
+
+/**
+ * Writes a table row by row, so a file of any size is written in constant memory.
+ * <p>
+ * Cells are strings, numbers or {@code null} for an empty cell. The writer does not close the
+ * stream it writes to.
+ */
+public interface SpreadsheetWriter {
+
+    /**
+     * Writes a row.
+     *
+     * @param cells The cells of the row; the array may be reused for the next row
+     * @throws IOException If the output cannot be written
+     */
+    void writeRow(Object... cells) throws IOException;
+
+    /**
+     * Writes whatever closes the file and flushes it.
+     *
+     * @throws IOException If the output cannot be written
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,95 @@
+package com.pos.utils;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cell and cell value factories for tables that are scrolled a lot.
+ * <p>
+ * Value factories call a getter instead of looking the property up by reflection, as
+ * {@code PropertyValueFactory} does, and cells keep their formatter and the last value they
+ * rendered, so a cell that is scrolled back to the same row does not format again. Cells are only
+ * updated on the FX thread, which is what makes sharing the formatter safe.
+ */
+public class TableCellFactory {
+
+    /**
+     * Marks a value that renders as an empty cell.
+     */
+    public static final long NO_VALUE = -1;
+
+    private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance();
+
+    /**
+     * @param getter Reads the column value from the row item
+     * @return A value factory that calls the getter, with no value for rows still being loaded
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> value(Function<S, T> getter) {
+        return cellData -> {
+            S item = cellData.getValue();
+            return new ReadOnlyObjectWrapper<>(item == null ? null : getter.apply(item));
+        };
+    }
+
+    /**
+     * @return A value factory whose value is the row item itself, for cells that read several fields
+     */
+    public static <S> Callback<TableColumn.CellDataFeatures<S, S>, ObservableValue<S>> row() {
+        return cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue());
+    }
+
+    /**
+     * @param cents Reads an amount in cents from the row item, or {@link #NO_VALUE}
+     * @return A cell factory that renders the amount as currency
+     */
+    public static <S> Callback<TableColumn<S, S>, TableCell<S, S>> currency(ToLongFunction<S> cents) {
+        return column -> new TableCell<>() {
+            private long rendered = NO_VALUE;
+
+            @Override
+            protected void updateItem(S item, boolean empty) {
+                super.updateItem(item, empty);
+                long value = empty || item == null ? NO_VALUE : cents.applyAsLong(item);
+                if (value == NO_VALUE) {
+                    rendered = NO_VALUE;
+                    setText(null);
+                } else if (value != rendered || getText() == null) {
+                    rendered = value;
+                    setText(formatCents(value));
+                }
+            }
+        };
+    }
+
+    /**
+     * Formats an amount in cents as currency. Must be called on the FX thread.
+     *
+     * @param cents The amount in cents
+     * @return The formatted amount
+     */
+    public static String formatCents(long cents) {
+        return CURRENCY_FORMAT.format(cents / 100.0);
+    }
+
+    /**
+     * Formats an amount as currency. Must be called on the FX thread.
+     *
+     * @param amount The amount
+     * @return The formatted amount
+     */
+    public static String formatAmount(BigDecimal amount) {
+        return CURRENCY_FORMAT.format(amount);
+    }
+
+    private TableCellFactory() {
+        // Empty constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,58 @@
+package com.pos;
+
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+
+import java.math.BigDecimal;
+
+/**
+ * Builds detached catalogue entities with their IDs set, for tests and benchmarks that work on the
+ * in-memory caches and carts without a database.
+ */
+public final class TestCatalogue {
+
+    private TestCatalogue() {
+    }
+
+    public static Tax tax(Long id, String percentage) {
+        Tax tax = new Tax();
+        tax.setId(id);
+        tax.setName("IVA " + percentage);
+        tax.setPercentage(new BigDecimal(percentage));
+        return tax;
+    }
+
+    public static Category category(Long id, String name) {
+        Category category = new Category(name, null, true);
+        category.setId(id);
+        return category;
+    }
+
+    /**
+     * @param salePrice Retail price without tax
+     * @param wholesalePrice Wholesale price without tax, or null for none
+     * @param tax The tax, or null for untaxed
+     */
+    public static Price price(String salePrice, String wholesalePrice, Tax tax) {
+        return new Price(BigDecimal.ONE, new BigDecimal(salePrice),
+                wholesalePrice != null ? new BigDecimal(wholesalePrice) : null, tax);
+    }
+
+    /**
+     * Builds a product without category, with barcode {@code 779} followed by its ID.
+     */
+    public static Product product(Long id, String salePrice, String wholesalePrice, Tax tax) {
+        return product(id, price(salePrice, wholesalePrice, tax), null);
+    }
+
+    /**
+     * Builds a product with barcode {@code 779} followed by its ID.
+     */
+    public static Product product(Long id, Price price, Category category) {
+        Product product = new Product(String.format("779%010d", id), "Producto " + id, null, price, true, category);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,50 @@
+package com.pos.config;
+
+import com.pos.MainApp;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures starting and closing the Spring context in the back-office mode ({@code servlet})
+ * and in the desktop-only mode ({@code none}). Every fork is a fresh JVM, so the first iteration
+ * is a cold start; the GC profiler reports what each mode allocates.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.config.StartupModeBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 0)
+@Measurement(iterations = 3)
+@Fork(5)
+public class StartupModeBenchmark {
+
+    @Param({"servlet", "none"})
+    private String webApplicationType;
+
+    @Benchmark
+    public int startAndClose() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApp.class)
+                .run("--spring.main.web-application-type=" + webApplicationType,
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:startup-bench",
+                        "--logging.level.com.pos=WARN")) {
+            return context.getBeanDefinitionCount();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StartupModeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
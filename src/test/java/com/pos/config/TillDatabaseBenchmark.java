@@ -0,0 +1,118 @@
+package com.pos.config;
+
+import com.pos.MainApp;
+import com.pos.manager.product.InventoryManager;
+import com.pos.manager.sales.Cart;
+import com.pos.models.products.Product;
+import com.pos.models.products.StockMovement;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.ProductSortKey;
+import com.pos.services.products.CatalogueImportService;
+import com.pos.services.products.ProductService;
+import com.pos.services.sales.SaleService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a till workload against a file database with the default settings and with the
+ * {@code till} profile: committing five-line sales, which are many small write transactions,
+ * and reading the first page of the product list.
+ * <p>
+ * Each trial starts from a fresh database in a temporary directory. Run with
+ * {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.config.TillDatabaseBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TillDatabaseBenchmark {
+
+    private static final int PRODUCTS = 2000;
+    private static final int LINES_PER_SALE = 5;
+
+    @Param({"default", "till"})
+    private String profile;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private SaleService saleService;
+    private ProductService productService;
+    private String[] barcodes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pos-till-bench");
+        List<String> args = new ArrayList<>(List.of(
+                "--app.db.path=" + directory.resolve("posdb"),
+                // A fresh database has no schema to validate yet
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--logging.level.com.pos=WARN"));
+        if (!"default".equals(profile)) {
+            args.add("--spring.profiles.active=" + profile);
+        }
+        context = new SpringApplicationBuilder(MainApp.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        saleService = context.getBean(SaleService.class);
+        productService = context.getBean(ProductService.class);
+
+        StringBuilder csv = new StringBuilder("codigo,nombre,descripcion,categoria,impuesto,costo,precio,precio_mayorista\n");
+        barcodes = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            barcodes[i] = String.format("778%010d", i);
+            csv.append(barcodes[i]).append(",Producto ").append(i).append(",,Benchmark,,5,10,\n");
+        }
+        context.getBean(CatalogueImportService.class).importCsv(new StringReader(csv.toString()), result -> { });
+
+        InventoryManager inventoryManager = context.getBean(InventoryManager.class);
+        for (Product product : context.getBean(ProductRepository.class).findAll()) {
+            inventoryManager.increment(product.getId(), 1_000_000, StockMovement.Type.PURCHASE, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Long checkout() {
+        Cart cart = saleService.newCart();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < LINES_PER_SALE; i++) {
+            saleService.scan(cart, barcodes[random.nextInt(PRODUCTS)], 1);
+        }
+        return saleService.checkout(cart, "benchmark").getId();
+    }
+
+    @Benchmark
+    public int firstPage() {
+        return productService.findAllByKeyset(ProductSortKey.NAME, true, ScrollPosition.keyset(), 20).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TillDatabaseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
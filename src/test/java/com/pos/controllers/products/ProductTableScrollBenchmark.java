@@ -0,0 +1,185 @@
+package com.pos.controllers.products;
+
+import com.pos.actions.products.ProductActionCell;
+import com.pos.models.products.Product;
+import com.pos.utils.TableCellFactory;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+
+import java.lang.management.ManagementFactory;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrolls a product table a few rows per frame on a headless JavaFX (Monocle) and reports the
+ * time spent laying out each frame and the bytes allocated on the FX thread per scrolled row.
+ * <p>
+ * The {@code legacy} table uses the cells the product list had before: reflective
+ * {@code PropertyValueFactory}, a currency formatter per render and a new {@code HBox} per update.
+ * The {@code cached} table uses {@link TableCellFactory} and {@link ProductActionCell}. This is
+ * not a JMH benchmark because frames only happen on the FX thread.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.controllers.products.ProductTableScrollBenchmark}.
+ */
+public class ProductTableScrollBenchmark {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int ROWS_PER_FRAME = 3;
+    private static final int WARMUP_FRAMES = 600;
+    private static final int MEASURED_FRAMES = 3_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        long[] cents = new long[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product(String.format("779%010d", i), "Producto " + i, null, null, true, null);
+            product.setId((long) i);
+            products.add(product);
+            cents[i] = 100 + i % 10_000;
+        }
+
+        for (String mode : List.of("legacy", "cached", "legacy", "cached")) {
+            TableView<Product> table = "legacy".equals(mode) ? legacyTable(cents) : cachedTable(cents);
+            table.setItems(FXCollections.observableArrayList(products));
+            scroll(mode, table);
+        }
+        Platform.exit();
+    }
+
+    private static void scroll(String mode, TableView<Product> table) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        long[] frameNanos = new long[MEASURED_FRAMES];
+
+        Platform.runLater(() -> {
+            Stage stage = new Stage();
+            stage.setScene(new Scene(table, 1024, 768));
+            stage.show();
+
+            new AnimationTimer() {
+                private int frame;
+                private int row;
+                private long allocatedBefore;
+
+                @Override
+                public void handle(long now) {
+                    if (frame == WARMUP_FRAMES) {
+                        allocatedBefore = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId());
+                    }
+
+                    long start = System.nanoTime();
+                    row = (row + ROWS_PER_FRAME) % (PRODUCTS - 50);
+                    table.scrollTo(row);
+                    table.layout();
+                    long elapsed = System.nanoTime() - start;
+
+                    if (frame >= WARMUP_FRAMES) {
+                        frameNanos[frame - WARMUP_FRAMES] = elapsed;
+                    }
+                    if (++frame == WARMUP_FRAMES + MEASURED_FRAMES) {
+                        long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId()) - allocatedBefore;
+                        stop();
+                        stage.close();
+                        report(mode, frameNanos, allocated);
+                        done.countDown();
+                    }
+                }
+            }.start();
+        });
+        done.await(5, TimeUnit.MINUTES);
+    }
+
+    private static void report(String mode, long[] frameNanos, long allocated) {
+        long[] sorted = frameNanos.clone();
+        Arrays.sort(sorted);
+        double average = Arrays.stream(sorted).average().orElse(0) / 1_000_000.0;
+        double p99 = sorted[(int) (sorted.length * 0.99)] / 1_000_000.0;
+        long rows = (long) MEASURED_FRAMES * ROWS_PER_FRAME;
+        System.out.printf("%-7s frame %.3f ms (p99 %.3f ms), %d bytes per scrolled row%n",
+                mode, average, p99, allocated / rows);
+    }
+
+    private static TableView<Product> cachedTable(long[] cents) {
+        TableView<Product> table = new TableView<>();
+        TableColumn<Product, Long> id = new TableColumn<>("ID");
+        id.setCellValueFactory(TableCellFactory.value(Product::getId));
+        TableColumn<Product, String> barcode = new TableColumn<>("Código");
+        barcode.setCellValueFactory(TableCellFactory.value(Product::getBarcode));
+        TableColumn<Product, String> name = new TableColumn<>("Nombre");
+        name.setCellValueFactory(TableCellFactory.value(Product::getName));
+        TableColumn<Product, Product> price = new TableColumn<>("Precio");
+        price.setCellValueFactory(TableCellFactory.row());
+        price.setCellFactory(TableCellFactory.currency(product -> cents[product.getId().intValue()]));
+        TableColumn<Product, Product> actions = new TableColumn<>("Acciones");
+        actions.setCellValueFactory(TableCellFactory.row());
+        actions.setCellFactory(column -> new ProductActionCell(null, true));
+        table.getColumns().addAll(List.of(id, barcode, name, price, actions));
+        return table;
+    }
+
+    private static TableView<Product> legacyTable(long[] cents) {
+        TableView<Product> table = new TableView<>();
+        TableColumn<Product, Long> id = new TableColumn<>("ID");
+        id.setCellValueFactory(new PropertyValueFactory<>("id"));
+        TableColumn<Product, String> barcode = new TableColumn<>("Código");
+        barcode.setCellValueFactory(new PropertyValueFactory<>("barcode"));
+        TableColumn<Product, String> name = new TableColumn<>("Nombre");
+        name.setCellValueFactory(new PropertyValueFactory<>("name"));
+        TableColumn<Product, Product> price = new TableColumn<>("Precio");
+        price.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue()));
+        price.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Product product, boolean empty) {
+                super.updateItem(product, empty);
+                setText(empty || product == null ? null
+                        : NumberFormat.getCurrencyInstance().format(cents[product.getId().intValue()] / 100.0));
+            }
+        });
+        TableColumn<Product, Product> actions = new TableColumn<>("Acciones");
+        actions.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue()));
+        actions.setCellFactory(column -> new TableCell<>() {
+            private final Button editButton = new Button("Editar");
+            private final Button deleteButton = new Button("Eliminar");
+
+            @Override
+            protected void updateItem(Product product, boolean empty) {
+                super.updateItem(product, empty);
+                if (empty || product == null) {
+                    setGraphic(null);
+                } else {
+                    HBox buttons = new HBox(5);
+                    buttons.getChildren().addAll(editButton, deleteButton);
+                    setGraphic(buttons);
+                }
+                setText(null);
+            }
+        });
+        table.getColumns().addAll(List.of(id, barcode, name, price, actions));
+        return table;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pos.manager.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PermissionsTest {
+
+    private final Permissions permissions = new Permissions();
+
+    @Test
+    void nothingIsGrantedBeforeLogin() {
+        assertThat(permissions.current()).isSameAs(PermissionSnapshot.NONE);
+        assertThat(permissions.has("ROLE_ADMIN")).isFalse();
+    }
+
+    @Test
+    void grantsTheAuthoritiesOfTheLogin() {
+        permissions.grant(login("vendedor", "ROLE_VENDEDOR", "ROLE_REPORTES"));
+
+        PermissionSnapshot snapshot = permissions.current();
+        assertThat(snapshot.getUsername()).isEqualTo("vendedor");
+        assertThat(snapshot.has(PermissionSnapshot.VENDEDOR)).isTrue();
+        assertThat(snapshot.has(PermissionSnapshot.ADMIN)).isFalse();
+        assertThat(snapshot.hasAny(PermissionSnapshot.ADMIN, PermissionSnapshot.VENDEDOR)).isTrue();
+        assertThat(permissions.has("ROLE_REPORTES")).isTrue();
+        assertThat(permissions.hasAny("ROLE_ADMIN", "ROLE_REPORTES")).isTrue();
+        assertThat(permissions.has("ROLE_DESCONOCIDO")).isFalse();
+    }
+
+    @Test
+    void logoutRevokesEverything() {
+        permissions.grant(login("admin", "ROLE_ADMIN"));
+        permissions.revoke();
+
+        assertThat(permissions.has("ROLE_ADMIN")).isFalse();
+    }
+
+    @Test
+    void roleChangesOfTheUserLoggedInApplyRightAway() {
+        permissions.grant(login("admin", "ROLE_ADMIN"));
+
+        permissions.update("otro", User.withUsername("otro").password("x").roles("VENDEDOR").build());
+        assertThat(permissions.has("ROLE_ADMIN")).isTrue();
+
+        permissions.update("admin", User.withUsername("jefe").password("x").roles("VENDEDOR").build());
+        assertThat(permissions.current().getUsername()).isEqualTo("jefe");
+        assertThat(permissions.has("ROLE_ADMIN")).isFalse();
+        assertThat(permissions.has("ROLE_VENDEDOR")).isTrue();
+
+        permissions.update("jefe", User.withUsername("jefe").password("x").roles("VENDEDOR").disabled(true).build());
+        assertThat(permissions.current()).isSameAs(PermissionSnapshot.NONE);
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String username, String... authorities) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null,
+                AuthorityUtils.createAuthorityList(authorities));
+    }
+}
@@ -0,0 +1,100 @@
+package com.pos.manager.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuickUnlockTest {
+
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    private final AtomicLong now = new AtomicLong();
+    private final UserDetails cashier = User.withUsername("cajero").password("{noop}x").roles("CASHIER").build();
+    private QuickUnlock quickUnlock;
+
+    @BeforeEach
+    void setUp() {
+        quickUnlock = new QuickUnlock(TTL, 3, now::get);
+    }
+
+    @Test
+    void unknownUsersFallBackToTheFullCheck() {
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNull();
+    }
+
+    @Test
+    void unlocksWithThePasswordOfTheLastLogin() {
+        quickUnlock.remember(cashier, "1234");
+
+        Authentication result = quickUnlock.authenticate(login("cajero", "1234"));
+
+        assertThat(result).isNotNull();
+        assertThat(result.isAuthenticated()).isTrue();
+        assertThat(result.getPrincipal()).isSameAs(cashier);
+        assertThat(result.getCredentials()).isNull();
+        assertThat(result.getAuthorities()).extracting("authority").containsExactly("ROLE_CASHIER");
+    }
+
+    @Test
+    void wrongPasswordsFallBackAndDropTheEntryAfterTheLimit() {
+        quickUnlock.remember(cashier, "1234");
+
+        assertThat(quickUnlock.authenticate(login("cajero", "0000"))).isNull();
+        assertThat(quickUnlock.authenticate(login("cajero", "1111"))).isNull();
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNotNull();
+
+        for (int i = 0; i < 3; i++) {
+            quickUnlock.authenticate(login("cajero", "9999"));
+        }
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNull();
+    }
+
+    @Test
+    void expiresWithoutBeingExtendedByUnlocking() {
+        quickUnlock.remember(cashier, "1234");
+
+        now.addAndGet(TTL.toNanos() - 1);
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNotNull();
+        // Unlocking remembers the same password again, which must not restart the time to live
+        quickUnlock.remember(cashier, "1234");
+
+        now.addAndGet(2);
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNull();
+    }
+
+    @Test
+    void newPasswordReplacesTheEntry() {
+        quickUnlock.remember(cashier, "1234");
+        quickUnlock.remember(cashier, "5678");
+
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNull();
+        assertThat(quickUnlock.authenticate(login("cajero", "5678"))).isNotNull();
+    }
+
+    @Test
+    void clearForgetsEveryUser() {
+        quickUnlock.remember(cashier, "1234");
+        quickUnlock.clear();
+
+        assertThat(quickUnlock.authenticate(login("cajero", "1234"))).isNull();
+    }
+
+    @Test
+    void passwordsAreBoundToTheirUser() {
+        quickUnlock.remember(cashier, "1234");
+
+        assertThat(quickUnlock.authenticate(login("admin", "1234"))).isNull();
+    }
+
+    private static Authentication login(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+}
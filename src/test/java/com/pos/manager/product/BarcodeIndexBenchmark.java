@@ -0,0 +1,97 @@
+package com.pos.manager.product;
+
+import com.pos.MainApp;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares barcode lookups through {@link BarcodeIndex} with the repository query it replaces.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.manager.product.BarcodeIndexBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BarcodeIndexBenchmark {
+
+    @Param({"10000"})
+    private int products;
+
+    private ConfigurableApplicationContext context;
+    private BarcodeIndex barcodeIndex;
+    private ProductRepository productRepository;
+    private String[] barcodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MainApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:barcode-bench;DB_CLOSE_DELAY=-1",
+                        "--logging.level.com.pos=WARN");
+        productRepository = context.getBean(ProductRepository.class);
+        barcodeIndex = context.getBean(BarcodeIndex.class);
+
+        barcodes = new String[products];
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            Category category = context.getBean(CategoryRepository.class).save(new Category("Benchmark", null, true));
+            PriceRepository priceRepository = context.getBean(PriceRepository.class);
+            List<Product> batch = new ArrayList<>();
+            for (int i = 0; i < products; i++) {
+                barcodes[i] = String.format("779%010d", i);
+                Price price = priceRepository.save(new Price(BigDecimal.ONE, BigDecimal.TEN, null, null));
+                batch.add(new Product(barcodes[i], "Producto " + i, null, price, true, category));
+            }
+            productRepository.saveAll(batch);
+        });
+        context.getBean(ProductCacheLoader.class).reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> indexLookup() {
+        return barcodeIndex.find(nextBarcode());
+    }
+
+    @Benchmark
+    public Optional<Product> repositoryLookup() {
+        return productRepository.findByBarcode(nextBarcode());
+    }
+
+    private String nextBarcode() {
+        return barcodes[ThreadLocalRandom.current().nextInt(barcodes.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BarcodeIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
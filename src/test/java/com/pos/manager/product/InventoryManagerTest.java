@@ -0,0 +1,174 @@
+package com.pos.manager.product;
+
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.StockMovement;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.StockMovementRepository;
+import com.pos.repositories.products.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sells and restocks the same product from several threads at once, each call in its own
+ * committed transaction, and checks that no update is lost and stock never goes negative.
+ */
+@DataJpaTest
+@Import(InventoryManager.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryManagerTest {
+
+    private static final int THREADS = 8;
+    private static final long PRODUCT_ID = 1001L;
+
+    @Autowired
+    private InventoryManager inventoryManager;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @AfterEach
+    void tearDown() {
+        stockMovementRepository.deleteAll();
+        stockRepository.deleteAll();
+        productRepository.deleteAll();
+        priceRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentSalesNeverOversell() throws Exception {
+        inventoryManager.increment(PRODUCT_ID, 1000, StockMovement.Type.PURCHASE, null);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 200; i++) {
+                try {
+                    inventoryManager.decrement(PRODUCT_ID, 1, StockMovement.Type.SALE, "till-" + thread);
+                    sold.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(sold.get()).isEqualTo(1000);
+        assertThat(rejected.get()).isEqualTo(THREADS * 200 - 1000);
+        assertThat(inventoryManager.getOnHand(PRODUCT_ID)).isZero();
+        assertThat(stockMovementRepository.sumQuantityByProductId(PRODUCT_ID)).isZero();
+        assertThat(stockMovementRepository.findByProductIdOrderByIdAsc(PRODUCT_ID)).hasSize(1001);
+    }
+
+    @Test
+    void concurrentSalesAndReceiptsLoseNoUpdates() throws Exception {
+        inventoryManager.increment(PRODUCT_ID, 5000, StockMovement.Type.PURCHASE, null);
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 250; i++) {
+                if (thread % 2 == 0) {
+                    inventoryManager.decrement(PRODUCT_ID, 2, StockMovement.Type.SALE, "till-" + thread);
+                } else {
+                    inventoryManager.increment(PRODUCT_ID, 1, StockMovement.Type.PURCHASE, null);
+                }
+            }
+        });
+
+        int expected = 5000 - (THREADS / 2) * 250 * 2 + (THREADS / 2) * 250;
+        assertThat(inventoryManager.getOnHand(PRODUCT_ID)).isEqualTo(expected);
+        assertThat(stockMovementRepository.sumQuantityByProductId(PRODUCT_ID)).isEqualTo(expected);
+    }
+
+    @Test
+    void concurrentReceiptsCreateTheFirstStockRowOnce() throws Exception {
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 50; i++) {
+                inventoryManager.increment(PRODUCT_ID, 1, StockMovement.Type.PURCHASE, "till-" + thread);
+            }
+        });
+
+        assertThat(inventoryManager.getOnHand(PRODUCT_ID)).isEqualTo(THREADS * 50);
+        assertThat(stockMovementRepository.sumQuantityByProductId(PRODUCT_ID)).isEqualTo(THREADS * 50);
+    }
+
+    @Test
+    void productsFromBeforeTheLedgerGetStockOnStart() {
+        Category category = categoryRepository.save(new Category("General", null, true));
+        Price price = priceRepository.save(new Price(BigDecimal.ONE, BigDecimal.TEN, null, null));
+        Product product = productRepository.save(new Product("7790000000001", "Producto", null, price, true, category));
+        assertThat(stockRepository.existsById(product.getId())).isFalse();
+
+        inventoryManager.onApplicationReady();
+        inventoryManager.increment(product.getId(), 3, StockMovement.Type.PURCHASE, null);
+        inventoryManager.decrement(product.getId(), 1, StockMovement.Type.SALE, null);
+
+        assertThat(inventoryManager.getOnHand(product.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void decrementWithoutStockIsRejected() {
+        inventoryManager.createStock(PRODUCT_ID);
+
+        assertThatThrownBy(() -> inventoryManager.decrement(PRODUCT_ID, 1, StockMovement.Type.SALE, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Stock actual: 0");
+        assertThat(inventoryManager.getOnHand(PRODUCT_ID)).isZero();
+        assertThat(stockMovementRepository.findByProductIdOrderByIdAsc(PRODUCT_ID)).isEmpty();
+    }
+
+    private static void runConcurrently(int threads, IntConsumer body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.accept(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
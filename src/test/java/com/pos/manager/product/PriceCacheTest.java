@@ -0,0 +1,116 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pos.TestCatalogue.product;
+import static com.pos.TestCatalogue.tax;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceCacheTest {
+
+    private final PriceCache cache = new PriceCache();
+    private final Tax iva = tax(1L, "21");
+    private final Tax reduced = tax(2L, "10.5");
+
+    @BeforeEach
+    void setUp() {
+        cache.load(List.of(
+                product(1L, "100.00", null, iva),
+                product(2L, "100.00", "80.00", reduced),
+                product(3L, "9.99", null, null)));
+    }
+
+    @Test
+    void precomputesRetailAndWholesaleGrossPrices() {
+        assertThat(cache.getRetailCents(1L)).isEqualTo(12100);
+        assertThat(cache.getWholesaleCents(1L)).isEqualTo(12100);
+        assertThat(cache.getRetailCents(2L)).isEqualTo(11050);
+        assertThat(cache.getWholesaleCents(2L)).isEqualTo(8840);
+        assertThat(cache.getRetailCents(3L)).isEqualTo(999);
+        assertThat(cache.getRetailCents(99L)).isEqualTo(PriceCache.NO_PRICE);
+    }
+
+    @Test
+    void quoteReadsGrossNetAndTaxTogether() {
+        PriceCache.Quote quote = new PriceCache.Quote();
+
+        assertThat(cache.quote(2L, true, quote)).isTrue();
+        assertThat(quote.getCents()).isEqualTo(8840);
+        assertThat(quote.getNetCents()).isEqualTo(8000);
+        assertThat(quote.getTaxId()).isEqualTo(2L);
+
+        assertThat(cache.quote(3L, true, quote)).isTrue();
+        assertThat(quote.getCents()).isEqualTo(999);
+        assertThat(quote.getNetCents()).isEqualTo(999);
+        assertThat(quote.getTaxId()).isEqualTo(PriceCache.NO_TAX);
+
+        assertThat(cache.quote(99L, false, quote)).isFalse();
+    }
+
+    @Test
+    void taxChangeRecomputesOnlyProductsUsingIt() {
+        iva.setPercentage(new BigDecimal("10"));
+        cache.onTaxChanged(new TaxChangedEvent(iva));
+
+        assertThat(cache.getRetailCents(1L)).isEqualTo(11000);
+        assertThat(cache.getRetailCents(2L)).isEqualTo(11050);
+    }
+
+    @Test
+    void activatedBatchSwapsTaxesAndProductsTogether() {
+        reduced.setPercentage(new BigDecimal("21"));
+        cache.onPricesActivated(new PricesActivatedEvent(List.of(product(3L, "20.00", null, null)), List.of(reduced)));
+
+        assertThat(cache.getRetailCents(1L)).isEqualTo(12100);
+        assertThat(cache.getRetailCents(2L)).isEqualTo(12100);
+        assertThat(cache.getWholesaleCents(2L)).isEqualTo(9680);
+        assertThat(cache.getRetailCents(3L)).isEqualTo(2000);
+    }
+
+    @Test
+    void productChangeReplacesOrRemovesItsPrices() {
+        Product changed = product(1L, "50.00", null, iva);
+        cache.onProductChanged(ProductChangedEvent.saved(changed, "1"));
+        assertThat(cache.getRetailCents(1L)).isEqualTo(6050);
+
+        cache.onProductChanged(ProductChangedEvent.deleted(changed));
+        assertThat(cache.getRetailCents(1L)).isEqualTo(PriceCache.NO_PRICE);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void nonTerminatingPercentageDoesNotThrow() {
+        Tax third = tax(3L, "33.333333333333333333");
+        Price price = new Price(BigDecimal.ONE, new BigDecimal("3.00"), null, third);
+
+        assertThat(price.getFinalPrice(false)).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void survivesGrowthAndDeletes() {
+        List<Product> catalogue = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            catalogue.add(product(id, id + ".00", null, null));
+        }
+        cache.load(catalogue);
+        for (long id = 1; id <= 5_000; id += 2) {
+            cache.onProductChanged(ProductChangedEvent.deleted(catalogue.get((int) id - 1)));
+        }
+
+        assertThat(cache.size()).isEqualTo(2_500);
+        for (long id = 1; id <= 5_000; id++) {
+            assertThat(cache.getRetailCents(id)).isEqualTo(id % 2 == 0 ? id * 100 : PriceCache.NO_PRICE);
+        }
+    }
+}
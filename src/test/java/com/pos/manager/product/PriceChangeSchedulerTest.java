@@ -0,0 +1,43 @@
+package com.pos.manager.product;
+
+import com.pos.services.products.ScheduledPriceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PriceChangeSchedulerTest {
+
+    private final ScheduledPriceService service = mock(ScheduledPriceService.class);
+    private final PriceChangeScheduler scheduler = new PriceChangeScheduler(service, 100, 60_000, 3);
+
+    @Test
+    void failedBatchIsAppliedOneByOneAndTheBadChangeIsParked() {
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("precio inválido");
+        when(service.activate(List.of(1L, 2L, 3L))).thenThrow(failure);
+        when(service.findPendingIds(anyCollection())).thenReturn(List.of(3L, 1L, 2L));
+        when(service.activate(List.of(1L))).thenReturn(1);
+        when(service.activate(List.of(2L))).thenThrow(failure);
+        when(service.activate(List.of(3L))).thenReturn(1);
+
+        scheduler.activate(List.of(1L, 2L, 3L));
+
+        verify(service).activate(List.of(1L));
+        verify(service).activate(List.of(3L));
+        assertThat(scheduler.pendingCount()).isEqualTo(1);
+
+        // The retries run when the wheel hands the change back; the third failure parks it
+        scheduler.activate(List.of(2L));
+        assertThat(scheduler.pendingCount()).isEqualTo(2);
+        scheduler.activate(List.of(2L));
+        verify(service, times(3)).activate(List.of(2L));
+        assertThat(scheduler.pendingCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,72 @@
+package com.pos.manager.product;
+
+import com.pos.models.products.Category;
+import com.pos.models.products.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.pos.TestCatalogue.category;
+
+/**
+ * Measures a first page of search results over a catalogue of {@code products} products, for a
+ * query with a prefix token and for one with a typo.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.manager.product.ProductSearchIndexBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchIndexBenchmark {
+
+    private static final String[] WORDS = {"leche", "yerba", "galletitas", "arroz", "fideos", "aceite", "azúcar", "café", "té", "jabón"};
+    private static final String[] BRANDS = {"La Serenísima", "Taragüí", "Bagley", "Gallo", "Lucchetti", "Natura", "Ledesma", "Cabrales"};
+
+    @Param({"100000"})
+    private int products;
+
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Category[] categories = new Category[50];
+        for (int c = 0; c < categories.length; c++) {
+            categories[c] = category((long) c + 1, "Categoría " + c);
+        }
+        List<Product> catalogue = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product(String.format("779%010d", i),
+                    WORDS[i % WORDS.length] + " " + BRANDS[i % BRANDS.length] + " " + (i % 997) + "g",
+                    null, null, true, categories[i % categories.length]);
+            product.setId((long) i + 1);
+            catalogue.add(product);
+        }
+        index = new ProductSearchIndex();
+        index.load(catalogue);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Result prefix() {
+        return index.search("yerba tarag", 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Result typo() {
+        return index.search("yebra taragui", 0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
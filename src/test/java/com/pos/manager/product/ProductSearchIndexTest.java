@@ -0,0 +1,106 @@
+package com.pos.manager.product;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.models.products.Category;
+import com.pos.models.products.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final Category electronics = category(1L, "Electrónica");
+
+    @BeforeEach
+    void setUp() {
+        index.load(List.of(
+                product(1L, "1234567890123", "Laptop HP ProBook", "Laptop de alta gama", electronics),
+                product(2L, "2345678901234", "Cámara Web HD", "Cámara web con micrófono", electronics),
+                product(3L, "3456789012345", "Teclado Mecánico Logitech", null, category(2L, "Periféricos")),
+                product(4L, "4567890123456", "Funda para laptop", null, category(3L, "Accesorios"))));
+    }
+
+    @Test
+    void foldsAccentsAndCase() {
+        assertThat(names(index.search("CAMARA", 0, 10))).containsExactly("Cámara Web HD");
+        assertThat(names(index.search("mecanico", 0, 10))).containsExactly("Teclado Mecánico Logitech");
+    }
+
+    @Test
+    void requiresEveryTokenAndMatchesPrefixes() {
+        assertThat(names(index.search("lap hp", 0, 10))).containsExactly("Laptop HP ProBook");
+        assertThat(names(index.search("electr", 0, 10))).hasSize(2);
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        assertThat(names(index.search("laptop", 0, 10)))
+                .containsExactly("Funda para laptop", "Laptop HP ProBook");
+        assertThat(names(index.search("microfono", 0, 10))).containsExactly("Cámara Web HD");
+    }
+
+    @Test
+    void toleratesOneTypo() {
+        assertThat(names(index.search("latop", 0, 10))).contains("Laptop HP ProBook");
+        assertThat(names(index.search("tecaldo", 0, 10))).containsExactly("Teclado Mecánico Logitech");
+        assertThat(names(index.search("logitehc", 0, 10))).containsExactly("Teclado Mecánico Logitech");
+    }
+
+    @Test
+    void matchesBarcodePrefixes() {
+        assertThat(names(index.search("2345678", 0, 10))).containsExactly("Cámara Web HD");
+    }
+
+    @Test
+    void shortPrefixMatchesEveryTermItExpandsTo() {
+        List<Product> catalogue = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            catalogue.add(product((long) i, String.format("779%010d", i), String.format("Repuesto ref%04d", i), null, electronics));
+        }
+        index.load(catalogue);
+
+        assertThat(index.search("ref", 0, 10).getTotal()).isEqualTo(2_000);
+        // Terms one edit away match too, below the exact one
+        assertThat(names(index.search("ref1999", 0, 1))).containsExactly("Repuesto ref1999");
+    }
+
+    @Test
+    void appliesIncrementalUpdates() {
+        Product renamed = product(1L, "1234567890123", "Notebook Lenovo", null, electronics);
+        index.onProductChanged(ProductChangedEvent.saved(renamed, renamed.getBarcode()));
+        index.onProductChanged(ProductChangedEvent.deleted(product(2L, "2345678901234", "", null, electronics)));
+
+        assertThat(names(index.search("probook", 0, 10))).isEmpty();
+        assertThat(names(index.search("notebook", 0, 10))).containsExactly("Notebook Lenovo");
+        assertThat(names(index.search("camara", 0, 10))).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void paginatesRankedResults() {
+        ProductSearchIndex.Result result = index.search("electronica", 1, 1);
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getProducts()).hasSize(1);
+    }
+
+    private static List<String> names(ProductSearchIndex.Result result) {
+        return result.getProducts().stream().map(Product::getName).toList();
+    }
+
+    private static Product product(Long id, String barcode, String name, String description, Category category) {
+        Product product = new Product(barcode, name, description, null, true, category);
+        product.setId(id);
+        return product;
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category(name, null, true);
+        category.setId(id);
+        return category;
+    }
+}
@@ -0,0 +1,122 @@
+package com.pos.manager.product;
+
+import com.pos.models.products.Product;
+import com.pos.repositories.products.ProductSortKey;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductWindowListTest {
+
+    private static final int BLOCK_SIZE = 10;
+    private static final int TOTAL = 95;
+    private static final ProductWindowList.Query BY_NAME = ProductWindowList.Query.sorted(ProductSortKey.NAME, true);
+    private static final ProductWindowList.Query BY_ID = ProductWindowList.Query.sorted(ProductSortKey.ID, false);
+
+    private final List<String> requests = new ArrayList<>();
+    private final List<ListChangeListener.Change<? extends Product>> changes = new ArrayList<>();
+    private ProductWindowList list;
+
+    @BeforeEach
+    void setUp() {
+        list = new ProductWindowList(BLOCK_SIZE, 4, 1, (query, block) -> requests.add(name(query) + block));
+        list.addListener((ListChangeListener<Product>) changes::add);
+    }
+
+    @Test
+    void readsBlocksOnDemandAndPrefetchesTheNextOne() {
+        list.setQuery(BY_NAME);
+        assertThat(list).isEmpty();
+        assertThat(requests).containsExactly("name0");
+
+        load(BY_NAME, 0);
+        assertThat(list).hasSize(TOTAL);
+        assertThat(list.get(3).getName()).isEqualTo("name-3");
+        assertThat(requests).containsExactly("name0", "name1");
+
+        assertThat(list.get(55)).isNull();
+        assertThat(requests).containsExactly("name0", "name1", "name5");
+
+        load(BY_NAME, 5);
+        assertThat(list.get(55).getName()).isEqualTo("name-55");
+        assertThat(changes).isNotEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyReadBlocks() {
+        list.setQuery(BY_NAME);
+        for (int block = 0; block < 9; block++) {
+            if (block > 0) {
+                list.get(block * BLOCK_SIZE);
+            }
+            load(BY_NAME, block);
+        }
+
+        assertThat(list.getCachedBlocks()).isEqualTo(4);
+        requests.clear();
+        assertThat(list.get(0)).isNull();
+        assertThat(requests).containsExactly("name0");
+    }
+
+    @Test
+    void keepsBlocksPerQuery() {
+        list.setQuery(BY_NAME);
+        load(BY_NAME, 0);
+        list.setQuery(BY_ID);
+        load(BY_ID, 0);
+        requests.clear();
+
+        list.setQuery(BY_NAME);
+        assertThat(list).hasSize(TOTAL);
+        assertThat(list.get(0).getName()).isEqualTo("name-0");
+        assertThat(requests).doesNotContain("name0");
+    }
+
+    @Test
+    void discardsBlocksReadBeforeAnInvalidation() {
+        list.setQuery(BY_NAME);
+        load(BY_NAME, 0);
+        list.get(15);
+        list.invalidate();
+        requests.clear();
+
+        // Block 1 was requested before the catalogue changed: its rows are stale
+        list.blockLoaded(BY_NAME, 1, rows(BY_NAME, 1), TOTAL);
+        assertThat(list.get(15)).isNull();
+        assertThat(requests).containsExactly("name1");
+    }
+
+    @Test
+    void failedBlocksAreRequestedAgain() {
+        list.setQuery(BY_NAME);
+        list.blockFailed(BY_NAME, 0);
+        requests.clear();
+
+        list.setQuery(BY_NAME);
+        assertThat(requests).containsExactly("name0");
+    }
+
+    private void load(ProductWindowList.Query query, int block) {
+        list.blockLoaded(query, block, rows(query, block), TOTAL);
+    }
+
+    private static List<Product> rows(ProductWindowList.Query query, int block) {
+        List<Product> rows = new ArrayList<>();
+        for (int i = block * BLOCK_SIZE; i < Math.min((block + 1) * BLOCK_SIZE, TOTAL); i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName(name(query) + "-" + i);
+            rows.add(product);
+        }
+        return rows;
+    }
+
+    private static String name(ProductWindowList.Query query) {
+        return query.getSortKey().name().toLowerCase();
+    }
+}
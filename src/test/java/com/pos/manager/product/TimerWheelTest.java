@@ -0,0 +1,92 @@
+package com.pos.manager.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private static final long TICK = 100;
+    private static final long START = 1_000_000;
+
+    @Test
+    void firesItemsOnTheTickOfTheirDeadlineAndNeverEarly() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, START);
+        wheel.schedule("a", START + 150);
+        wheel.schedule("b", START + 200);
+
+        assertThat(wheel.advance(START + 199)).isEmpty();
+        assertThat(wheel.advance(START + 200)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsItemsBeyondOneTurnUntilTheirTurn() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, START);
+        // 8 slots of 100 ms: both land in the same slot, one turn apart
+        wheel.schedule("soon", START + 300);
+        wheel.schedule("later", START + 1100);
+
+        assertThat(wheel.advance(START + 300)).containsExactly("soon");
+        assertThat(wheel.advance(START + 1099)).isEmpty();
+        assertThat(wheel.advance(START + 1100)).containsExactly("later");
+    }
+
+    @Test
+    void firesOverdueItemsOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, START);
+        wheel.schedule("overdue", START - 60_000);
+
+        assertThat(wheel.advance(START + 99)).isEmpty();
+        assertThat(wheel.advance(START + 100)).containsExactly("overdue");
+    }
+
+    @Test
+    void catchesUpAfterALongPause() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(TICK, 8, START);
+        for (int i = 1; i <= 50; i++) {
+            wheel.schedule(i, START + i * TICK);
+        }
+        wheel.schedule(1000, START + 1000 * TICK);
+
+        List<Integer> due = wheel.advance(START + 50 * TICK);
+
+        assertThat(due).hasSize(50).doesNotContain(1000);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tracksTheEarliestDueTickAcrossTurns() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, START);
+        assertThat(wheel.nextDueMillis()).isEqualTo(Long.MAX_VALUE);
+
+        wheel.schedule("far", START + 5_000);
+        wheel.schedule("near", START + 250);
+        assertThat(wheel.nextDueMillis()).isEqualTo(START + 300);
+
+        assertThat(wheel.advance(START + 300)).containsExactly("near");
+        // More than a turn away, so it is found by the full scan
+        assertThat(wheel.nextDueMillis()).isEqualTo(START + 5_000);
+        assertThat(wheel.advance(START + 4_999)).isEmpty();
+        assertThat(wheel.advance(START + 5_000)).containsExactly("far");
+        assertThat(wheel.nextDueMillis()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void pollWakesUpWhenAnItemIsScheduled() throws InterruptedException {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 64, System.currentTimeMillis());
+        Thread scheduler = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            wheel.schedule("due", System.currentTimeMillis() + 30);
+        });
+
+        assertThat(wheel.poll()).containsExactly("due");
+        scheduler.join();
+    }
+}
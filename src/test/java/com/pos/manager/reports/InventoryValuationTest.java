@@ -0,0 +1,72 @@
+package com.pos.manager.reports;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.StockChangedEvent;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Stock;
+import com.pos.models.products.StockMovement;
+import com.pos.repositories.products.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryValuationTest {
+
+    private InventoryValuation valuation;
+
+    @BeforeEach
+    void setUp() {
+        StockRepository stockRepository = mock(StockRepository.class);
+        when(stockRepository.findAll()).thenReturn(List.of(new Stock(1L, 10), new Stock(2L, 4)));
+        valuation = new InventoryValuation(stockRepository);
+        valuation.load(List.of(product(1L, "2.50"), product(2L, "10.00")));
+    }
+
+    @Test
+    void loadsTheStockAtPurchasePrice() {
+        assertThat(valuation.getValueCents()).isEqualTo(10 * 250 + 4 * 1000);
+        assertThat(valuation.getUnits()).isEqualTo(14);
+    }
+
+    @Test
+    void followsStockMovements() {
+        valuation.onStockChanged(new StockChangedEvent(new StockMovement(1L, -3, StockMovement.Type.ADJUSTMENT, null)));
+        valuation.onStockChanged(new StockChangedEvent(new StockMovement(2L, 6, StockMovement.Type.ADJUSTMENT, null)));
+
+        assertThat(valuation.getValueCents()).isEqualTo(7 * 250 + 10 * 1000);
+        assertThat(valuation.getUnits()).isEqualTo(17);
+    }
+
+    @Test
+    void revaluesOnPurchasePriceChangesAndDrops() {
+        valuation.onProductChanged(ProductChangedEvent.saved(product(1L, "3.00"), "1"));
+        assertThat(valuation.getValueCents()).isEqualTo(10 * 300 + 4 * 1000);
+
+        valuation.onProductChanged(ProductChangedEvent.deleted(product(2L, "10.00")));
+        assertThat(valuation.getValueCents()).isEqualTo(10 * 300);
+        assertThat(valuation.getUnits()).isEqualTo(10);
+    }
+
+    @Test
+    void newProductsAreValuedOnceStocked() {
+        valuation.onProductChanged(ProductChangedEvent.saved(product(3L, "1.25"), null));
+        valuation.onStockChanged(new StockChangedEvent(new StockMovement(3L, 8, StockMovement.Type.ADJUSTMENT, null)));
+
+        assertThat(valuation.getValueCents()).isEqualTo(10 * 250 + 4 * 1000 + 8 * 125);
+    }
+
+    private static Product product(Long id, String purchasePrice) {
+        Product product = new Product();
+        product.setId(id);
+        product.setBarcode(String.valueOf(id));
+        product.setPrice(new Price(new BigDecimal(purchasePrice), new BigDecimal("20.00"), null, null));
+        return product;
+    }
+}
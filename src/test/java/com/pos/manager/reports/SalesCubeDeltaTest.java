@@ -0,0 +1,102 @@
+package com.pos.manager.reports;
+
+import com.pos.models.reports.SalesCubeCell;
+import com.pos.models.reports.SalesCubeCell.Dimension;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesCubeDeltaTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2025, 3, 14, 9, 41, 7);
+    private static final LocalDateTime EVENING = LocalDateTime.of(2025, 3, 14, 19, 5, 0);
+
+    @Test
+    void addsEachLineToItsHourDayProductCategoryAndTax() {
+        SalesCubeDelta delta = new SalesCubeDelta();
+        delta.addLine(MORNING, 1, 10, 100, 7, 2, 42, 242, false);
+        delta.addLine(MORNING, 2, 11, 100, SalesCubeCell.NO_MEMBER, 1, 0, 50, false);
+
+        List<SalesCubeCell> cells = delta.getCells();
+
+        SalesCubeCell hour = cell(cells, Dimension.HOUR, SalesCubeCell.NO_MEMBER);
+        assertThat(hour.getBucket()).isEqualTo(LocalDateTime.of(2025, 3, 14, 9, 0));
+        assertThat(hour.getEntries()).isEqualTo(1);
+        assertThat(hour.getQuantity()).isEqualTo(3);
+        assertThat(hour.getTotalCents()).isEqualTo(292);
+        assertThat(hour.getTaxCents()).isEqualTo(42);
+        assertThat(hour.getNetCents()).isEqualTo(250);
+
+        SalesCubeCell day = cell(cells, Dimension.DAY, SalesCubeCell.NO_MEMBER);
+        assertThat(day.getBucket()).isEqualTo(LocalDateTime.of(2025, 3, 14, 0, 0));
+        assertThat(day.getEntries()).isEqualTo(1);
+
+        assertThat(cell(cells, Dimension.PRODUCT, 10).getTotalCents()).isEqualTo(242);
+        assertThat(cell(cells, Dimension.PRODUCT, 10).getBucket()).isEqualTo(day.getBucket());
+        assertThat(cell(cells, Dimension.CATEGORY, 100).getEntries()).isEqualTo(2);
+        assertThat(cell(cells, Dimension.CATEGORY, 100).getTotalCents()).isEqualTo(292);
+        assertThat(cell(cells, Dimension.TAX, 7).getTaxCents()).isEqualTo(42);
+        assertThat(cell(cells, Dimension.TAX, SalesCubeCell.NO_MEMBER).getNetCents()).isEqualTo(50);
+        assertThat(cells).hasSize(7);
+    }
+
+    @Test
+    void countsEverySaleOnceInItsHourAndDay() {
+        SalesCubeDelta delta = new SalesCubeDelta();
+        delta.addLine(MORNING, 1, 10, 100, 7, 1, 21, 121, false);
+        delta.addLine(MORNING, 2, 10, 100, 7, 1, 21, 121, false);
+        delta.addLine(EVENING, 1, 10, 100, 7, 1, 21, 121, false);
+
+        List<SalesCubeCell> cells = delta.getCells();
+
+        assertThat(cell(cells, Dimension.DAY, SalesCubeCell.NO_MEMBER).getEntries()).isEqualTo(2);
+        assertThat(cells).filteredOn(c -> c.getDimension() == Dimension.HOUR)
+                .extracting(SalesCubeCell::getEntries).containsExactlyInAnyOrder(1L, 1L);
+        assertThat(cell(cells, Dimension.PRODUCT, 10).getQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void voidedLinesOnlyCountTheSale() {
+        SalesCubeDelta delta = new SalesCubeDelta();
+        delta.addLine(MORNING, 1, 10, 100, 7, 5, 105, 605, true);
+
+        List<SalesCubeCell> cells = delta.getCells();
+
+        SalesCubeCell day = cell(cells, Dimension.DAY, SalesCubeCell.NO_MEMBER);
+        assertThat(day.getEntries()).isEqualTo(1);
+        assertThat(day.getQuantity()).isZero();
+        assertThat(day.getTotalCents()).isZero();
+        assertThat(cells).extracting(SalesCubeCell::getDimension).containsOnly(Dimension.HOUR, Dimension.DAY);
+    }
+
+    @Test
+    void splittingLinesAcrossDeltasGivesTheSameTotals() {
+        SalesCubeDelta whole = new SalesCubeDelta();
+        whole.addLine(MORNING, 1, 10, 100, 7, 1, 21, 121, false);
+        whole.addLine(MORNING, 2, 11, 100, 7, 2, 42, 242, false);
+
+        SalesCubeDelta first = new SalesCubeDelta();
+        first.addLine(MORNING, 1, 10, 100, 7, 1, 21, 121, false);
+        SalesCubeDelta second = new SalesCubeDelta();
+        second.addLine(MORNING, 2, 11, 100, 7, 2, 42, 242, false);
+
+        long splitEntries = cell(first.getCells(), Dimension.DAY, SalesCubeCell.NO_MEMBER).getEntries()
+                + cell(second.getCells(), Dimension.DAY, SalesCubeCell.NO_MEMBER).getEntries();
+        long splitTotal = cell(first.getCells(), Dimension.DAY, SalesCubeCell.NO_MEMBER).getTotalCents()
+                + cell(second.getCells(), Dimension.DAY, SalesCubeCell.NO_MEMBER).getTotalCents();
+
+        SalesCubeCell day = cell(whole.getCells(), Dimension.DAY, SalesCubeCell.NO_MEMBER);
+        assertThat(splitEntries).isEqualTo(day.getEntries()).isEqualTo(1);
+        assertThat(splitTotal).isEqualTo(day.getTotalCents());
+    }
+
+    private static SalesCubeCell cell(List<SalesCubeCell> cells, Dimension dimension, long memberId) {
+        return cells.stream()
+                .filter(c -> c.getDimension() == dimension && c.getMemberId() == memberId)
+                .findFirst()
+                .orElseThrow();
+    }
+}
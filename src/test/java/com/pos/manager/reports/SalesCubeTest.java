@@ -0,0 +1,159 @@
+package com.pos.manager.reports;
+
+import com.pos.events.sales.SaleCompletedEvent;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.models.reports.SalesCubeCell;
+import com.pos.models.sales.Sale;
+import com.pos.models.sales.SaleLine;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import com.pos.repositories.reports.SalesCubeRepository;
+import com.pos.repositories.sales.SaleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Adds committed sales to the cube as checkouts do and checks a rebuild from the sale lines
+ * gives the same cells, even after the products changed category and tax.
+ */
+@DataJpaTest
+@Import(SalesCube.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesCubeTest {
+
+    @Autowired
+    private SalesCube salesCube;
+
+    @Autowired
+    private SalesCubeRepository salesCubeRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private TaxRepository taxRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("sales_cube", "sale_lines", "sales", "products", "Price", "categories", "taxes")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void rebuildGivesTheCellsTheSalesAdded() {
+        Tax iva = inTransaction(() -> taxRepository.save(tax("IVA 21", "21")));
+        Tax reduced = inTransaction(() -> taxRepository.save(tax("IVA 10,5", "10.5")));
+        Category drinks = inTransaction(() -> categoryRepository.save(new Category("Bebidas", null, true)));
+        Category food = inTransaction(() -> categoryRepository.save(new Category("Almacén", null, true)));
+        Product water = inTransaction(() -> {
+            Price price = priceRepository.save(new Price(BigDecimal.ONE, new BigDecimal("100"), null, iva));
+            return productRepository.save(new Product("7790001", "Agua", null, price, true, drinks));
+        });
+        Product rice = inTransaction(() -> {
+            Price price = priceRepository.save(new Price(BigDecimal.ONE, new BigDecimal("50"), null, null));
+            return productRepository.save(new Product("7790002", "Arroz", null, price, true, food));
+        });
+
+        SaleCompletedEvent first = sell(water, drinks.getId(), iva.getId(), 2, "242.00", "42.00", false);
+        sell(rice, food.getId(), null, 1, "50.00", "0.00", true);
+        // The product moves to another category and tax after it was sold
+        inTransaction(() -> {
+            Product moved = productRepository.findById(water.getId()).orElseThrow();
+            moved.setCategory(categoryRepository.findById(food.getId()).orElseThrow());
+            moved.getPrice().setTax(taxRepository.findById(reduced.getId()).orElseThrow());
+            return moved;
+        });
+        sell(water, food.getId(), reduced.getId(), 1, "110.50", "10.50", false);
+        salesCube.flush();
+        List<String> incremental = cells();
+
+        assertThat(salesCube.rebuild()).isEqualTo(3);
+        assertThat(cells()).containsExactlyElementsOf(incremental);
+
+        // A sale the rebuild already counted is not added again when its event is written late
+        salesCube.onSaleCompleted(first);
+        salesCube.flush();
+        assertThat(cells()).containsExactlyElementsOf(incremental);
+    }
+
+    // Saves a one-line sale and queues it with its delta, like a checkout
+    private SaleCompletedEvent sell(Product product, Long categoryId, Long taxId, int quantity,
+                                    String total, String taxAmount, boolean voided) {
+        SaleCompletedEvent event = inTransaction(() -> {
+            Sale sale = new Sale("caja", false);
+            SaleLine line = new SaleLine(1, productRepository.getReferenceById(product.getId()), quantity,
+                    new BigDecimal(total), new BigDecimal(taxAmount), new BigDecimal(total), voided);
+            line.setCategoryId(categoryId);
+            line.setTaxId(taxId);
+            sale.addLine(line);
+            sale.setNetTotal(new BigDecimal(total).subtract(new BigDecimal(taxAmount)));
+            sale.setTaxTotal(new BigDecimal(taxAmount));
+            sale.setTotal(new BigDecimal(total));
+            SalesCubeDelta delta = new SalesCubeDelta();
+            delta.addLine(sale.getSaleDate(), 1, product.getId(), categoryId,
+                    taxId != null ? taxId : SalesCubeCell.NO_MEMBER, quantity, cents(taxAmount), cents(total), voided);
+            return new SaleCompletedEvent(saleRepository.save(sale), delta);
+        });
+        salesCube.onSaleCompleted(event);
+        return event;
+    }
+
+    private List<String> cells() {
+        return salesCubeRepository.findAll().stream()
+                .map(cell -> cell.getDimension() + " " + cell.getBucket() + " " + cell.getMemberId() + ": "
+                        + cell.getEntries() + " " + cell.getQuantity() + " " + cell.getNetCents() + " "
+                        + cell.getTaxCents() + " " + cell.getTotalCents())
+                .sorted()
+                .toList();
+    }
+
+    private static long cents(String amount) {
+        return new BigDecimal(amount).movePointRight(2).longValueExact();
+    }
+
+    private static Tax tax(String name, String percentage) {
+        Tax tax = new Tax();
+        tax.setName(name);
+        tax.setPercentage(new BigDecimal(percentage));
+        return tax;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
@@ -0,0 +1,117 @@
+package com.pos.manager.sales;
+
+import com.pos.manager.product.PriceCache;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.pos.TestCatalogue.product;
+import static com.pos.TestCatalogue.tax;
+
+/**
+ * Measures a scan, a void and a removal on a basket that already holds {@code lines} lines.
+ * Each benchmark leaves the basket with the same number of active lines it started with.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.manager.sales.CartBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"200"})
+    private int lines;
+
+    @Param({"10000"})
+    private int products;
+
+    private Product[] catalogue;
+    private PriceCache priceCache;
+    private Cart cart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Tax[] taxes = {tax(1L, "21"), tax(2L, "10.5"), null};
+        List<Product> list = new ArrayList<>(products);
+        catalogue = new Product[products];
+        for (int i = 0; i < products; i++) {
+            Price price = new Price(BigDecimal.ONE, BigDecimal.valueOf(100 + i, 2),
+                    BigDecimal.valueOf(90 + i, 2), taxes[i % taxes.length]);
+            Product product = product((long) i + 1, price, null);
+            catalogue[i] = product;
+            list.add(product);
+        }
+        priceCache = new PriceCache();
+        priceCache.load(list);
+    }
+
+    @Setup(Level.Iteration)
+    public void fillBasket() {
+        cart = new Cart(priceCache);
+        for (int i = 0; i < lines; i++) {
+            cart.add(catalogue[i], 1);
+        }
+    }
+
+    @Benchmark
+    public long addAndRemove() {
+        int line = cart.add(nextProduct(), 1);
+        cart.remove(line);
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public long addToExistingLine() {
+        int line = cart.add(catalogue[ThreadLocalRandom.current().nextInt(lines)], 1);
+        cart.setQuantity(line, cart.getQuantity(line) - 1);
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public long addAndVoid() {
+        int line = cart.add(nextProduct(), 1);
+        cart.voidLine(line);
+        // Drop the voided line so the basket does not keep growing across invocations
+        cart.remove(line);
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public long removeFromMiddle() {
+        int line = ThreadLocalRandom.current().nextInt(lines);
+        Product product = cart.getProduct(line);
+        cart.remove(line);
+        cart.add(product, 1);
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public long switchToWholesale() {
+        cart.setWholesale(!cart.isWholesale());
+        return cart.getTotalCents();
+    }
+
+    private Product nextProduct() {
+        return catalogue[lines + ThreadLocalRandom.current().nextInt(products - lines)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
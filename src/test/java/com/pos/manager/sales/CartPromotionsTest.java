@@ -0,0 +1,213 @@
+package com.pos.manager.sales;
+
+import com.pos.manager.product.PriceCache;
+import com.pos.models.products.Category;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.models.sales.Promotion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.pos.TestCatalogue.category;
+import static com.pos.TestCatalogue.price;
+import static com.pos.TestCatalogue.product;
+import static com.pos.TestCatalogue.tax;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartPromotionsTest {
+
+    private final PriceCache priceCache = new PriceCache();
+    private final Tax iva = tax(1L, "21");
+    private final Category drinks = category(5L, "Bebidas");
+    private final List<Product> catalogue = new ArrayList<>();
+    private PromotionIndex promotions = PromotionIndex.EMPTY;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        catalogue.add(product(1L, "10.00", null, null));
+        catalogue.add(product(2L, price("100.00", null, iva), drinks));
+        catalogue.add(product(3L, "4.00", null, null));
+        catalogue.add(product(4L, "3.00", null, null));
+        catalogue.add(product(5L, "2.00", null, null));
+        catalogue.add(product(6L, "30.00", null, null));
+        priceCache.load(catalogue);
+        cart = new Cart(priceCache, () -> promotions);
+    }
+
+    @Test
+    void buyNPayMChargesOnlyThePaidUnitsOfEachGroup() {
+        use(buyPay(1L, 3, 2, Set.of(1L)));
+
+        int line = cart.add(catalogue.get(0), 7);
+
+        assertThat(cart.getLineDiscountCents(line)).isEqualTo(2000);
+        assertThat(cart.getLinePromotionId(line)).isEqualTo(1L);
+        assertThat(cart.getSubtotalCents()).isEqualTo(7000);
+        assertThat(cart.getTotalCents()).isEqualTo(5000);
+    }
+
+    @Test
+    void categoryPercentageTakesItsShareOfTheTaxToo() {
+        Promotion promotion = promotion(2L, Promotion.Type.PERCENT_OFF);
+        promotion.setPercentage(new BigDecimal("10"));
+        promotion.setCategoryIds(Set.of(drinks.getId()));
+        use(promotion);
+
+        int line = cart.add(catalogue.get(1), 1);
+
+        assertThat(cart.getLineDiscountCents(line)).isEqualTo(1210);
+        assertThat(cart.getLineCents(line)).isEqualTo(10890);
+        assertThat(cart.getLineTaxCents(line)).isEqualTo(1890);
+        assertThat(cart.getNetCents()).isEqualTo(9000);
+        assertThat(cart.getTaxBucketCents(0)).isEqualTo(10890);
+        assertThat(cart.getTaxBucketTaxCents(0)).isEqualTo(1890);
+    }
+
+    @Test
+    void saleTotalsAreReportedAfterDiscounts() {
+        Promotion promotion = promotion(2L, Promotion.Type.PERCENT_OFF);
+        promotion.setPercentage(new BigDecimal("10"));
+        promotion.setProductIds(Set.of(2L));
+        use(promotion);
+
+        cart.add(catalogue.get(1), 2);
+
+        assertThat(cart.getSubtotalCents()).isEqualTo(24200);
+        assertThat(cart.getTotalCents()).isEqualTo(21780);
+        assertThat(cart.getNetCents()).isEqualTo(18000);
+        assertThat(cart.getTaxCents()).isEqualTo(3780);
+        assertThat(cart.getTaxCents()).isEqualTo(cart.getTotalCents() - cart.getNetCents());
+    }
+
+    @Test
+    void linePromotionsDoNotStackAndTheBestOneWins() {
+        Promotion half = promotion(2L, Promotion.Type.PERCENT_OFF);
+        half.setPercentage(new BigDecimal("50"));
+        half.setProductIds(Set.of(1L));
+        use(buyPay(1L, 3, 2, Set.of(1L)), half);
+
+        int line = cart.add(catalogue.get(0), 3);
+
+        assertThat(cart.getLineDiscountCents(line)).isEqualTo(1500);
+        assertThat(cart.getLinePromotionId(line)).isEqualTo(2L);
+    }
+
+    @Test
+    void bundleMixesProductsAndUsesTheDearestUnits() {
+        Promotion bundle = promotion(3L, Promotion.Type.BUNDLE_PRICE);
+        bundle.setQuantity(3);
+        bundle.setAmount(new BigDecimal("6.00"));
+        bundle.setProductIds(Set.of(3L, 4L, 5L));
+        use(bundle);
+
+        cart.add(catalogue.get(2), 1);
+        cart.add(catalogue.get(3), 1);
+        assertThat(cart.getDiscountCents()).isZero();
+        int cheapest = cart.add(catalogue.get(4), 2);
+
+        // 4.00 + 3.00 + 2.00 for 6.00; the second 2.00 unit is not part of a bundle
+        assertThat(cart.getDiscountCents()).isEqualTo(300);
+        assertThat(cart.getLineDiscountCents(0) + cart.getLineDiscountCents(1) + cart.getLineDiscountCents(cheapest))
+                .isEqualTo(300);
+        assertThat(cart.getLineDiscountCents(0)).isGreaterThan(cart.getLineDiscountCents(1));
+        assertThat(cart.getTotalCents()).isEqualTo(800);
+
+        // Without the 4.00 unit, 3.00 + 2.00 + 2.00 make the bundle
+        cart.voidLine(0);
+        assertThat(cart.getLineDiscountCents(0)).isZero();
+        assertThat(cart.getDiscountCents()).isEqualTo(100);
+    }
+
+    @Test
+    void basketGetsTheBestThresholdItReaches() {
+        Promotion fixed = promotion(4L, Promotion.Type.THRESHOLD);
+        fixed.setThreshold(new BigDecimal("50.00"));
+        fixed.setAmount(new BigDecimal("5.00"));
+        Promotion percent = promotion(5L, Promotion.Type.THRESHOLD);
+        percent.setThreshold(new BigDecimal("100.00"));
+        percent.setPercentage(new BigDecimal("10"));
+        use(fixed, percent);
+
+        int line = cart.add(catalogue.get(5), 1);
+        assertThat(cart.getBasketPromotionId()).isZero();
+
+        cart.setQuantity(line, 2);
+        assertThat(cart.getBasketPromotionId()).isEqualTo(4L);
+        assertThat(cart.getTotalCents()).isEqualTo(5500);
+
+        cart.add(catalogue.get(5), 2);
+        assertThat(cart.getBasketPromotionId()).isEqualTo(5L);
+        assertThat(cart.getBasketDiscountCents()).isEqualTo(1200);
+        assertThat(cart.getTotalCents()).isEqualTo(10800);
+
+        cart.clear();
+        assertThat(cart.getBasketPromotionId()).isZero();
+        assertThat(cart.getTotalCents()).isZero();
+    }
+
+    @Test
+    void nextSaleStartsWithoutTheDiscountsOfAnEndedPromotion() {
+        use(buyPay(1L, 3, 2, Set.of(1L)));
+        cart.add(catalogue.get(0), 3);
+        assertThat(cart.getLineDiscountCents(0)).isEqualTo(1000);
+
+        cart.clear();
+        promotions = PromotionIndex.EMPTY;
+        int line = cart.add(catalogue.get(1), 1);
+
+        assertThat(line).isZero();
+        assertThat(cart.getLineDiscountCents(line)).isZero();
+        assertThat(cart.getLinePromotionId(line)).isZero();
+        assertThat(cart.getLineCents(line)).isEqualTo(12100);
+        assertThat(cart.getLineTaxCents(line)).isEqualTo(2100);
+        assertThat(cart.getTotalCents()).isEqualTo(12100);
+    }
+
+    @Test
+    void onlyRulesInForceAreCompiled() {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        Promotion later = buyPay(1L, 2, 1, Set.of(1L));
+        later.setStartsAt(now.plusHours(12));
+        Promotion ended = buyPay(2L, 2, 1, Set.of(1L));
+        ended.setEndsAt(now.minusMinutes(1));
+        Promotion inactive = buyPay(3L, 2, 1, Set.of(1L));
+        inactive.setActive(false);
+
+        PromotionIndex index = PromotionIndex.compile(List.of(later, ended, inactive), millis(now));
+
+        assertThat(index.isEmpty()).isTrue();
+        assertThat(index.getValidUntilMillis()).isEqualTo(millis(now.plusHours(12)));
+        assertThat(PromotionIndex.compile(List.of(later), millis(now.plusHours(12))).size()).isEqualTo(1);
+    }
+
+    private void use(Promotion... rules) {
+        promotions = PromotionIndex.compile(List.of(rules), System.currentTimeMillis());
+        cart.refreshPromotions();
+    }
+
+    private static Promotion buyPay(Long id, int quantity, int payQuantity, Set<Long> productIds) {
+        Promotion promotion = promotion(id, Promotion.Type.BUY_N_PAY_M);
+        promotion.setQuantity(quantity);
+        promotion.setPayQuantity(payQuantity);
+        promotion.setProductIds(productIds);
+        return promotion;
+    }
+
+    private static Promotion promotion(Long id, Promotion.Type type) {
+        Promotion promotion = new Promotion("Promoción " + id, type);
+        promotion.setId(id);
+        return promotion;
+    }
+
+    private static long millis(LocalDateTime instant) {
+        return instant.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
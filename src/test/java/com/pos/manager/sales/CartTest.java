@@ -0,0 +1,123 @@
+package com.pos.manager.sales;
+
+import com.pos.manager.product.PriceCache;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pos.TestCatalogue.product;
+import static com.pos.TestCatalogue.tax;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartTest {
+
+    private final PriceCache priceCache = new PriceCache();
+    private final Tax iva = tax(1L, "21");
+    private final Tax reduced = tax(2L, "10.5");
+    private final List<Product> catalogue = new ArrayList<>();
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        catalogue.add(product(1L, "100.00", "80.00", iva));
+        catalogue.add(product(2L, "10.00", null, reduced));
+        catalogue.add(product(3L, "5.00", null, null));
+        for (long id = 4; id <= 500; id++) {
+            catalogue.add(product(id, "1.00", null, id % 2 == 0 ? iva : reduced));
+        }
+        priceCache.load(catalogue);
+        cart = new Cart(priceCache);
+    }
+
+    @Test
+    void totalsLinesAndTaxBuckets() {
+        cart.add(catalogue.get(0), 2);
+        cart.add(catalogue.get(1), 1);
+        cart.add(catalogue.get(2), 3);
+
+        assertThat(cart.getLineCount()).isEqualTo(3);
+        assertThat(cart.getItemCount()).isEqualTo(6);
+        assertThat(cart.getLineCents(0)).isEqualTo(24200);
+        assertThat(cart.getTotalCents()).isEqualTo(24200 + 1105 + 1500);
+        assertThat(cart.getTaxCents()).isEqualTo(4200 + 105);
+        assertThat(cart.getTaxBucketCount()).isEqualTo(3);
+        assertThat(cart.getTaxBucketTaxId(0)).isEqualTo(1L);
+        assertThat(cart.getTaxBucketTaxCents(0)).isEqualTo(4200);
+        assertThat(cart.getTaxBucketTaxId(2)).isEqualTo(PriceCache.NO_TAX);
+        assertThat(cart.getTaxBucketTaxCents(2)).isZero();
+    }
+
+    @Test
+    void scanningAgainMergesIntoTheActiveLine() {
+        cart.add(catalogue.get(1), 1);
+        int line = cart.add(catalogue.get(1), 2);
+
+        assertThat(line).isZero();
+        assertThat(cart.getLineCount()).isEqualTo(1);
+        assertThat(cart.getQuantity(0)).isEqualTo(3);
+        assertThat(cart.getTotalCents()).isEqualTo(3315);
+    }
+
+    @Test
+    void voidedLinesStayButNoLongerCount() {
+        cart.add(catalogue.get(0), 1);
+        cart.add(catalogue.get(1), 1);
+        cart.voidLine(0);
+
+        assertThat(cart.getLineCount()).isEqualTo(2);
+        assertThat(cart.isVoided(0)).isTrue();
+        assertThat(cart.getTotalCents()).isEqualTo(1105);
+        assertThat(cart.getTaxBucketCents(0)).isZero();
+        assertThatThrownBy(() -> cart.setQuantity(0, 2)).isInstanceOf(IllegalStateException.class);
+
+        // A voided product starts a new line when scanned again
+        assertThat(cart.add(catalogue.get(0), 1)).isEqualTo(2);
+    }
+
+    @Test
+    void removeShiftsLaterLines() {
+        cart.add(catalogue.get(0), 1);
+        cart.add(catalogue.get(1), 1);
+        cart.add(catalogue.get(2), 1);
+        cart.remove(1);
+
+        assertThat(cart.getLineCount()).isEqualTo(2);
+        assertThat(cart.getProduct(1).getId()).isEqualTo(3L);
+        assertThat(cart.getTotalCents()).isEqualTo(12100 + 500);
+    }
+
+    @Test
+    void wholesaleRepricesEveryLine() {
+        cart.add(catalogue.get(0), 1);
+        cart.add(catalogue.get(1), 1);
+        cart.setWholesale(true);
+
+        assertThat(cart.getUnitCents(0)).isEqualTo(9680);
+        assertThat(cart.getUnitCents(1)).isEqualTo(1105);
+        assertThat(cart.getTotalCents()).isEqualTo(9680 + 1105);
+    }
+
+    @Test
+    void recalculatesALongBasketFast() {
+        for (int i = 0; i < 200; i++) {
+            cart.add(catalogue.get(i + 3), 1);
+        }
+
+        int runs = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            int line = cart.add(catalogue.get(300 + i % 100), 1);
+            cart.remove(line);
+        }
+        long averageMicros = (System.nanoTime() - start) / runs / 1_000;
+
+        assertThat(cart.getLineCount()).isEqualTo(200);
+        assertThat(cart.getItemCount()).isEqualTo(200);
+        assertThat(averageMicros).isLessThan(1_000);
+    }
+}
@@ -0,0 +1,159 @@
+package com.pos.manager.sales;
+
+import com.pos.manager.product.PriceCache;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.models.sales.Promotion;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.pos.TestCatalogue.category;
+import static com.pos.TestCatalogue.product;
+import static com.pos.TestCatalogue.tax;
+
+/**
+ * Measures a scan on a basket of {@code lines} lines with {@code rules} active promotions, every
+ * scan evaluating the promotions again. A tenth of the rules are basket thresholds; the rest are
+ * buy N pay M and percentages off on products and categories, and mix and match bundles.
+ * Comparing the rule counts shows the cost follows the basket, not the rules.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.manager.sales.PromotionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromotionBenchmark {
+
+    private static final int CATEGORIES = 100;
+
+    @Param({"100"})
+    private int lines;
+
+    @Param({"0", "500", "5000"})
+    private int rules;
+
+    @Param({"10000"})
+    private int products;
+
+    private Product[] catalogue;
+    private List<Promotion> promotions;
+    private PromotionIndex index;
+    private Cart cart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Tax[] taxes = {tax(1L, "21"), tax(2L, "10.5"), null};
+        Category[] categories = new Category[CATEGORIES];
+        for (int c = 0; c < CATEGORIES; c++) {
+            categories[c] = category((long) c + 1, "Categoría " + c);
+        }
+        List<Product> list = new ArrayList<>(products);
+        catalogue = new Product[products];
+        for (int i = 0; i < products; i++) {
+            Price price = new Price(BigDecimal.ONE, BigDecimal.valueOf(100 + i % 5_000, 2), null, taxes[i % taxes.length]);
+            Product product = product((long) i + 1, price, categories[i % CATEGORIES]);
+            catalogue[i] = product;
+            list.add(product);
+        }
+        PriceCache priceCache = new PriceCache();
+        priceCache.load(list);
+
+        Random random = new Random(42);
+        promotions = new ArrayList<>(rules);
+        for (int r = 0; r < rules; r++) {
+            promotions.add(rule(r + 1L, random));
+        }
+        index = PromotionIndex.compile(promotions, System.currentTimeMillis());
+        cart = new Cart(priceCache, () -> index);
+    }
+
+    @Setup(Level.Iteration)
+    public void fillBasket() {
+        cart.clear();
+        for (int i = 0; i < lines; i++) {
+            // Spread over the catalogue, with a few lines of several units
+            cart.add(catalogue[i * (products / lines)], 1 + i % 4);
+        }
+    }
+
+    @Benchmark
+    public long scanAndRemove() {
+        int line = cart.add(catalogue[ThreadLocalRandom.current().nextInt(products)], 1);
+        if (cart.getQuantity(line) == 1 && line == cart.getLineCount() - 1) {
+            cart.remove(line);
+        } else {
+            cart.setQuantity(line, cart.getQuantity(line) - 1);
+        }
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public PromotionIndex compile() {
+        return PromotionIndex.compile(promotions, System.currentTimeMillis());
+    }
+
+    private Promotion rule(long id, Random random) {
+        int kind = (int) (id % 10);
+        Promotion promotion;
+        if (kind == 0) {
+            promotion = new Promotion("Monto mínimo " + id, Promotion.Type.THRESHOLD);
+            promotion.setThreshold(BigDecimal.valueOf(5_000 + random.nextInt(50_000), 2));
+            if (random.nextBoolean()) {
+                promotion.setAmount(BigDecimal.valueOf(100 + random.nextInt(2_000), 2));
+            } else {
+                promotion.setPercentage(BigDecimal.valueOf(1 + random.nextInt(15)));
+            }
+        } else if (kind <= 4) {
+            promotion = new Promotion("Lleve y pague " + id, Promotion.Type.BUY_N_PAY_M);
+            promotion.setQuantity(2 + random.nextInt(2));
+            promotion.setPayQuantity(promotion.getQuantity() - 1);
+            promotion.setProductIds(randomProducts(random, 1 + random.nextInt(3)));
+        } else if (kind <= 7) {
+            promotion = new Promotion("Descuento " + id, Promotion.Type.PERCENT_OFF);
+            promotion.setPercentage(BigDecimal.valueOf(5 + random.nextInt(30)));
+            if (kind == 7) {
+                promotion.setCategoryIds(Set.of((long) 1 + random.nextInt(CATEGORIES)));
+            } else {
+                promotion.setProductIds(randomProducts(random, 1 + random.nextInt(5)));
+            }
+        } else {
+            promotion = new Promotion("Combo " + id, Promotion.Type.BUNDLE_PRICE);
+            promotion.setQuantity(2 + random.nextInt(3));
+            promotion.setAmount(BigDecimal.valueOf(100 + random.nextInt(500), 2));
+            promotion.setProductIds(randomProducts(random, 5));
+        }
+        promotion.setId(id);
+        return promotion;
+    }
+
+    private Set<Long> randomProducts(Random random, int count) {
+        Set<Long> ids = new HashSet<>();
+        while (ids.size() < count) {
+            ids.add((long) 1 + random.nextInt(products));
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PromotionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,151 @@
+package com.pos.manager.sync;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.dtos.sync.SyncAckDTO;
+import com.pos.dtos.sync.SyncBatchDTO;
+import com.pos.dtos.sync.SyncEntryDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ships a journal to a stub of the back office that stores entries as {@code SyncReceiverService} does.
+ */
+class JournalReplicatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<SyncEntryDTO> stored = new ArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile boolean loseAnswers;
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private Journal journal;
+    private JournalReplicator replicator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(JournalReplicator.ENTRIES_PATH, this::receive);
+        server.start();
+
+        journal = Journal.open(directory, 64 * 1024);
+        RestClient client = RestClient.builder().baseUrl("http://127.0.0.1:" + server.getAddress().getPort()).build();
+        replicator = new JournalReplicator(journal, client, "caja-1", "secreto", 3,
+                Duration.ofMillis(10), Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop(0);
+        journal.close();
+    }
+
+    @Test
+    void shipsInBatchesAndAcknowledges() throws IOException {
+        append(5);
+
+        assertThat(replicator.replicateOnce()).isEqualTo(3);
+        assertThat(replicator.replicateOnce()).isEqualTo(2);
+        assertThat(replicator.replicateOnce()).isZero();
+
+        assertThat(journal.getAcknowledged()).isEqualTo(5);
+        assertThat(stored).extracting(SyncEntryDTO::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(stored.getFirst().type()).isEqualTo("SALE");
+        assertThat(stored.getFirst().payload()).isEqualTo("{\"saleId\":1}");
+    }
+
+    @Test
+    void keepsTheEntriesWhileTheBackOfficeIsDown() throws IOException {
+        append(2);
+        failuresLeft.set(1);
+
+        assertThatThrownBy(replicator::replicateOnce).isInstanceOf(RestClientException.class);
+        assertThat(journal.getAcknowledged()).isZero();
+
+        assertThat(replicator.replicateOnce()).isEqualTo(2);
+        assertThat(stored).hasSize(2);
+    }
+
+    @Test
+    void storesAResentBatchOnce() throws IOException {
+        append(2);
+        loseAnswers = true;
+        assertThatThrownBy(replicator::replicateOnce).isInstanceOf(RestClientException.class);
+        loseAnswers = false;
+
+        assertThat(replicator.replicateOnce()).isEqualTo(2);
+        assertThat(requests).hasValue(2);
+        assertThat(stored).extracting(SyncEntryDTO::sequence).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void backsOffUpToTheMaximum() {
+        assertThat(replicator.backoff(1)).isEqualTo(Duration.ofMillis(20));
+        assertThat(replicator.backoff(3)).isEqualTo(Duration.ofMillis(80));
+        assertThat(replicator.backoff(30)).isEqualTo(Duration.ofMillis(100));
+    }
+
+    private void append(int sales) throws IOException {
+        for (int i = 1; i <= sales; i++) {
+            journal.append(JournalEntryType.SALE.getCode(), i, ("{\"saleId\":" + i + "}").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void receive(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        if (!"secreto".equals(exchange.getRequestHeaders().getFirst(JournalReplicator.TOKEN_HEADER))) {
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+            return;
+        }
+
+        SyncBatchDTO batch = objectMapper.readValue(exchange.getRequestBody(), SyncBatchDTO.class);
+        long last;
+        synchronized (stored) {
+            last = stored.isEmpty() ? 0 : stored.getLast().sequence();
+            for (SyncEntryDTO entry : batch.entries()) {
+                if (entry.sequence() == last + 1) {
+                    stored.add(entry);
+                    last = entry.sequence();
+                }
+            }
+        }
+        if (loseAnswers) {
+            exchange.sendResponseHeaders(502, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] answer = objectMapper.writeValueAsBytes(new SyncAckDTO(last));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, answer.length);
+        exchange.getResponseBody().write(answer);
+        exchange.close();
+    }
+}
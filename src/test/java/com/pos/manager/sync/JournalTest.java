@@ -0,0 +1,110 @@
+package com.pos.manager.sync;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalTest {
+
+    // Room for the header and five entries of "venta-N"
+    private static final int SEGMENT_SIZE = Journal.HEADER_SIZE + 5 * (Journal.ENTRY_OVERHEAD + 8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEntriesInOrderAcrossSegments() throws IOException {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 12; i++) {
+                assertThat(journal.append(1, 100 + i, payload(i))).isEqualTo(i);
+            }
+            assertThat(segments()).hasSize(3);
+
+            List<JournalRecord> first = journal.read(1, 4);
+            assertThat(first).extracting(JournalRecord::sequence).containsExactly(1L, 2L, 3L, 4L);
+            List<JournalRecord> rest = journal.read(5, 100);
+            assertThat(rest).extracting(JournalRecord::sequence).containsExactly(5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L);
+            assertThat(new String(rest.get(3).payload(), StandardCharsets.UTF_8)).isEqualTo("venta-08");
+            assertThat(rest.get(3).sourceId()).isEqualTo(108);
+            assertThat(journal.read(13, 10)).isEmpty();
+        }
+    }
+
+    @Test
+    void recoversTheSequenceAndTheAcknowledgedPositionAfterReopening() throws IOException {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 7; i++) {
+                journal.append(i % 2, i, payload(i));
+            }
+            journal.acknowledge(6);
+        }
+
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            assertThat(journal.getAcknowledged()).isEqualTo(6);
+            assertThat(journal.getNextSequence()).isEqualTo(8);
+            assertThat(journal.getPendingCount()).isEqualTo(1);
+            assertThat(journal.getLastSourceId(0)).isEqualTo(6);
+            assertThat(journal.getLastSourceId(1)).isEqualTo(7);
+            assertThat(journal.read(7, 10)).extracting(JournalRecord::sourceId).containsExactly(7L);
+        }
+    }
+
+    @Test
+    void deletesAcknowledgedSegmentsButKeepsTheLastSourceIds() throws IOException {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 12; i++) {
+                journal.append(1, 100 + i, payload(i));
+            }
+            journal.acknowledge(12);
+            // Only the segment being written is kept
+            assertThat(segments()).hasSize(1);
+        }
+
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            assertThat(journal.getNextSequence()).isEqualTo(13);
+            assertThat(journal.getLastSourceId(1)).isEqualTo(112);
+            assertThat(journal.append(1, 113, payload(13))).isEqualTo(13);
+        }
+    }
+
+    @Test
+    void dropsAnEntryTornByACrash() throws IOException {
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            journal.append(1, 1, payload(1));
+            journal.append(1, 2, payload(2));
+        }
+        // Corrupt the payload of the second entry, as if the crash happened while copying it
+        Path segment = segments().getFirst();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            int secondPayload = Journal.HEADER_SIZE + Journal.ENTRY_OVERHEAD + 8 + 21;
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondPayload);
+        }
+
+        try (Journal journal = Journal.open(directory, SEGMENT_SIZE)) {
+            assertThat(journal.getNextSequence()).isEqualTo(2);
+            assertThat(journal.append(1, 3, payload(3))).isEqualTo(2);
+            assertThat(journal.read(1, 10)).extracting(JournalRecord::sourceId).containsExactly(1L, 3L);
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return String.format("venta-%02d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.pos.repositories.products;
+
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the list, search and scan fetch plans load a page of products, with their
+ * price, tax and category, in a fixed number of statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductRepositoryTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Tax[] taxes = {tax("IVA 21", "21"), tax("IVA 10.5", "10.5")};
+        Category[] categories = {category("Bebidas"), category("Almacén"), category("Limpieza")};
+        for (int i = 0; i < 60; i++) {
+            Price price = entityManager.persist(new Price(new BigDecimal("50"), new BigDecimal("100." + (i % 100)),
+                    null, taxes[i % taxes.length]));
+            entityManager.persist(new Product(String.format("779%010d", i), "Producto " + i, null,
+                    price, true, categories[i % categories.length]));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void keysetPageLoadsInOneStatement() {
+        Window<Product> window = productRepository.findBy(ScrollPosition.keyset(),
+                ProductSortKey.PRICE.toSort(true), Limit.of(PAGE_SIZE));
+        touchAssociations(window.getContent());
+
+        assertThat(window.size()).isEqualTo(PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        Window<Product> next = productRepository.findBy(window.positionAt(window.size() - 1),
+                ProductSortKey.PRICE.toSort(true), Limit.of(PAGE_SIZE));
+        touchAssociations(next.getContent());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void offsetPageLoadsContentAndCountOnly() {
+        List<Product> page = productRepository.findAll(PageRequest.of(1, PAGE_SIZE)).getContent();
+        touchAssociations(page);
+
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void searchPageLoadsContentAndCountOnly() {
+        List<Product> page = productRepository.searchByNameOrBarcode("Producto", PageRequest.of(0, PAGE_SIZE)).getContent();
+        touchAssociations(page);
+
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void scanLoadsInOneStatement() {
+        Product product = productRepository.findByBarcode("7790000000042").orElseThrow();
+        touchAssociations(List.of(product));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void catalogueLoadsInOneStatement() {
+        List<Product> products = productRepository.findAllForScan();
+        touchAssociations(products);
+
+        assertThat(products).hasSize(60);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void touchAssociations(List<Product> products) {
+        for (Product product : products) {
+            assertThat(product.getCategory().getName()).isNotNull();
+            assertThat(product.getPrice().getTax().getPercentage()).isNotNull();
+        }
+    }
+
+    private Tax tax(String name, String percentage) {
+        Tax tax = new Tax();
+        tax.setName(name);
+        tax.setPercentage(new BigDecimal(percentage));
+        return entityManager.persist(tax);
+    }
+
+    private Category category(String name) {
+        return entityManager.persist(new Category(name, null, true));
+    }
+}
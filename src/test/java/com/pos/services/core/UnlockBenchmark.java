@@ -0,0 +1,81 @@
+package com.pos.services.core;
+
+import com.pos.manager.core.QuickUnlock;
+import com.pos.manager.core.UserDetailsCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures logging a user in again with the authentication manager the application builds:
+ * {@code fullLogin} checks BCrypt at the configured strength, as on the first login or after the
+ * unlock time, and {@code quickUnlock} is served by {@link QuickUnlock}. Users are read from
+ * memory, so the difference shown is the BCrypt check alone.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.services.core.UnlockBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class UnlockBenchmark {
+
+    private static final String USERNAME = "cajero";
+    private static final String PASSWORD = "cajero123";
+
+    private AuthenticationManager fullLogin;
+    private AuthenticationManager quickUnlock;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        UserDetails user = User.withUsername(USERNAME).password(encoder.encode(PASSWORD)).roles("CASHIER").build();
+
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(new InMemoryUserDetailsManager(user));
+        dao.setPasswordEncoder(encoder);
+        dao.setUserCache(new UserDetailsCache(64, 30));
+        ProviderManager full = new ProviderManager(dao);
+        // Spring's User erases its password after a login, which would empty the cached copy;
+        // the application's User entity does not, so nothing is erased here either
+        full.setEraseCredentialsAfterAuthentication(false);
+        fullLogin = full;
+
+        QuickUnlock unlock = new QuickUnlock(15, 3);
+        unlock.remember(user, PASSWORD);
+        ProviderManager quick = new ProviderManager(unlock, dao);
+        quick.setEraseCredentialsAfterAuthentication(false);
+        quickUnlock = quick;
+    }
+
+    @Benchmark
+    public Authentication fullLogin() {
+        return fullLogin.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication quickUnlock() {
+        return quickUnlock.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UnlockBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
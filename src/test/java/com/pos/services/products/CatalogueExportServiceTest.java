@@ -0,0 +1,117 @@
+package com.pos.services.products;
+
+import com.pos.manager.product.PriceHistoryRecorder;
+import com.pos.manager.product.ProductCacheLoader;
+import com.pos.manager.sync.CatalogueChangeLog;
+import com.pos.models.products.Category;
+import com.pos.models.products.Tax;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({CatalogueImportService.class, CatalogueExportService.class, CatalogueChangeLog.class,
+        PriceHistoryRecorder.class})
+class CatalogueExportServiceTest {
+
+    private static final int ROWS = CatalogueExportService.CHUNK_SIZE * 2 + 10;
+
+    @Autowired
+    private CatalogueImportService importService;
+
+    @Autowired
+    private CatalogueExportService exportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private ProductCacheLoader productCacheLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Tax tax = new Tax();
+        tax.setName("IVA 21");
+        tax.setPercentage(new BigDecimal("21"));
+        entityManager.persist(tax);
+        entityManager.persist(new Category("Bebidas", null, true));
+        entityManager.flush();
+
+        StringBuilder csv = new StringBuilder("codigo,nombre,descripcion,categoria,impuesto,costo,precio,precio_mayorista\n");
+        csv.append("7780000000000,\"Galletitas, surtidas\",\"Paquete \"\"familiar\"\"\",Bebidas,IVA 21,10,20,18\n");
+        for (int i = 1; i < ROWS; i++) {
+            csv.append(String.format("779%010d,Producto %d,,Bebidas,,50,100.%02d,%n", i, i, i % 100));
+        }
+        importService.importCsv(new StringReader(csv.toString()), result -> { });
+        entityManager.clear();
+    }
+
+    @Test
+    void exportsCsvThatTheImportReadsBack() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<Long> progress = new ArrayList<>();
+        CatalogueExportService.Result result = exportService.export(output, CatalogueExportService.Format.CSV,
+                running -> progress.add(running.getExported()), () -> false);
+
+        assertThat(result.getExported()).isEqualTo(ROWS);
+        assertThat(result.isCancelled()).isFalse();
+        assertThat(progress).containsExactly(1000L, 2000L, (long) ROWS);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(ROWS + 1);
+        assertThat(lines[0]).isEqualTo("codigo,nombre,descripcion,categoria,impuesto,costo,precio,precio_mayorista");
+        assertThat(CatalogueImportService.split(lines[1], ',')).containsExactly(
+                "7780000000000", "Galletitas, surtidas", "Paquete \"familiar\"", "Bebidas", "IVA 21", "10.00", "20.00", "18.00");
+        assertThat(CatalogueImportService.split(lines[3], ',')).containsExactly(
+                "7790000000002", "Producto 2", "", "Bebidas", "", "50.00", "100.02", "");
+    }
+
+    @Test
+    void stopsWhenCancelled() throws Exception {
+        CatalogueExportService.Result result = exportService.export(new ByteArrayOutputStream(),
+                CatalogueExportService.Format.CSV, running -> { }, () -> true);
+
+        assertThat(result.isCancelled()).isTrue();
+        assertThat(result.getExported()).isEqualTo(CatalogueExportService.CHUNK_SIZE);
+    }
+
+    @Test
+    void exportsXlsxWorkbook() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.export(output, CatalogueExportService.Format.XLSX, running -> { }, () -> false);
+
+        List<String> entries = new ArrayList<>();
+        String sheet = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    sheet = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        assertThat(entries).contains("[Content_Types].xml", "xl/workbook.xml", "xl/worksheets/sheet1.xml");
+        assertThat(sheet).endsWith("</sheetData></worksheet>")
+                .contains("<row r=\"" + (ROWS + 1) + "\">")
+                .contains("Paquete &quot;familiar&quot;")
+                .contains("<c><v>20.00</v></c>");
+    }
+}
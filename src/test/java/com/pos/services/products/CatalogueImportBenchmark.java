@@ -0,0 +1,105 @@
+package com.pos.services.products;
+
+import com.pos.MainApp;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the rows per second of {@link CatalogueImportService} with saving each price and
+ * product through its repository, as {@code DataInitializer} does.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.services.products.CatalogueImportBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(CatalogueImportBenchmark.ROWS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CatalogueImportBenchmark {
+
+    static final int ROWS = 5000;
+
+    private ConfigurableApplicationContext context;
+    private CatalogueImportService importService;
+    private PriceRepository priceRepository;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private Category category;
+    private int run;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MainApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:import-bench;DB_CLOSE_DELAY=-1",
+                        "--logging.level.com.pos=WARN");
+        importService = context.getBean(CatalogueImportService.class);
+        priceRepository = context.getBean(PriceRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        category = context.getBean(CategoryRepository.class).save(new Category("Benchmark", null, true));
+    }
+
+    @Setup(Level.Invocation)
+    public void nextRun() {
+        run++;
+        StringBuilder builder = new StringBuilder("codigo,nombre,descripcion,categoria,impuesto,costo,precio,precio_mayorista\n");
+        for (int i = 0; i < ROWS; i++) {
+            builder.append(barcode(i)).append(",Producto ").append(i).append(",,Benchmark,,5,10,\n");
+        }
+        csv = builder.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int batchedImport() throws IOException {
+        return importService.importCsv(new StringReader(csv), result -> { }).getImported();
+    }
+
+    @Benchmark
+    public int perEntitySave() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                Price price = priceRepository.save(new Price(new BigDecimal("5"), BigDecimal.TEN, null, null));
+                productRepository.save(new Product(barcode(i), "Producto " + i, null, price, true, category));
+            }
+        });
+        return ROWS;
+    }
+
+    private String barcode(int i) {
+        return String.format("%04d%09d", run, i);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogueImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.pos.services.products;
+
+import com.pos.manager.product.PriceHistoryRecorder;
+import com.pos.manager.product.ProductCacheLoader;
+import com.pos.manager.sync.CatalogueChangeLog;
+import com.pos.models.products.Category;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@Import({CatalogueImportService.class, CatalogueChangeLog.class, PriceHistoryRecorder.class})
+class CatalogueImportServiceTest {
+
+    @Autowired
+    private CatalogueImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private ProductCacheLoader productCacheLoader;
+
+    @BeforeEach
+    void setUp() {
+        Tax tax = new Tax();
+        tax.setName("IVA 21");
+        tax.setPercentage(new BigDecimal("21"));
+        entityManager.persist(tax);
+        entityManager.persist(new Category("Bebidas", null, true));
+        entityManager.flush();
+    }
+
+    @Test
+    void importsInChunksAndReportsRejectedRows() throws Exception {
+        StringBuilder csv = new StringBuilder("codigo;nombre;descripcion;categoria;impuesto;costo;precio;precio_mayorista\n");
+        int rows = CatalogueImportService.CHUNK_SIZE * 2 + 500;
+        for (int i = 0; i < rows; i++) {
+            csv.append(String.format("779%010d;Producto %d;;%s;iva 21;50,00;100.%02d;%n",
+                    i, i, i % 2 == 0 ? "Bebidas" : "Almacén", i % 100));
+        }
+        csv.append("7790000000001;Repetido;;Bebidas;IVA 21;1;2;\n");
+        csv.append("7791111111111;Sin impuesto conocido;;Bebidas;IVA 99;1;2;\n");
+        csv.append("7792222222222;Precio roto;;Bebidas;;1;abc;\n");
+        csv.append("7793333333333;\"Galletitas; surtidas\";\"Paquete \"\"familiar\"\"\";Almacén;;10;20;18\n");
+
+        List<Integer> progress = new ArrayList<>();
+        CatalogueImportService.Result result = importService.importCsv(new StringReader(csv.toString()),
+                running -> progress.add(running.getImported()));
+
+        assertThat(result.getRead()).isEqualTo(rows + 4);
+        assertThat(result.getImported()).isEqualTo(rows + 1);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0)).startsWith("Línea " + (rows + 3));
+        assertThat(progress).containsExactly(1000, 2000, rows + 1);
+        verify(productCacheLoader).reload();
+
+        entityManager.clear();
+        assertThat(productRepository.count()).isEqualTo(rows + 1);
+        assertThat(stockRepository.count()).isEqualTo(rows + 1);
+
+        Product quoted = productRepository.findByBarcode("7793333333333").orElseThrow();
+        assertThat(quoted.getName()).isEqualTo("Galletitas; surtidas");
+        assertThat(quoted.getDescription()).isEqualTo("Paquete \"familiar\"");
+        assertThat(quoted.getCategory().getName()).isEqualTo("Almacén");
+        assertThat(quoted.getPrice().getWholesalePrice()).isEqualByComparingTo("18");
+        assertThat(quoted.getPrice().getTax()).isNull();
+
+        Product taxed = productRepository.findByBarcode("7790000000002").orElseThrow();
+        assertThat(taxed.getPrice().getSalePrice()).isEqualByComparingTo("100.02");
+        assertThat(taxed.getPrice().getTax().getName()).isEqualTo("IVA 21");
+    }
+}
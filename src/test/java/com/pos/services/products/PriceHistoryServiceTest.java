@@ -0,0 +1,140 @@
+package com.pos.services.products;
+
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.manager.product.PriceHistoryRecorder;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.PriceHistory;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changes prices and taxes in committed transactions, as the services do, and looks the prices
+ * up at instants before and after each change.
+ */
+@DataJpaTest
+@Import({PriceHistoryRecorder.class, PriceHistoryService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriceHistoryServiceTest {
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private TaxRepository taxRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("price_history", "products", "Price", "categories", "taxes")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void looksUpThePriceInForceAtEachInstant() throws InterruptedException {
+        LocalDateTime beforeCreation = LocalDateTime.now().minusDays(1);
+        Product product = inTransaction(() -> {
+            Tax tax = new Tax();
+            tax.setName("IVA");
+            tax.setPercentage(new BigDecimal("21"));
+            taxRepository.save(tax);
+            Category category = categoryRepository.save(new Category("Bebidas", null, true));
+            Price price = priceRepository.save(new Price(new BigDecimal("50"), new BigDecimal("100"), null, tax));
+            Product saved = productRepository.save(new Product("7790001", "Agua", null, price, true, category));
+            eventPublisher.publishEvent(ProductChangedEvent.saved(saved, null));
+            return saved;
+        });
+        Long taxId = product.getPrice().getTax().getId();
+        LocalDateTime afterCreation = pause();
+
+        // As ProductService.updateProduct does, the product gets a new price row
+        inTransaction(() -> {
+            Product loaded = productRepository.findById(product.getId()).orElseThrow();
+            loaded.setPrice(priceRepository.save(new Price(new BigDecimal("50"), new BigDecimal("120"), null,
+                    loaded.getPrice().getTax())));
+            eventPublisher.publishEvent(ProductChangedEvent.saved(loaded, loaded.getBarcode()));
+            return loaded;
+        });
+        LocalDateTime afterPriceChange = pause();
+
+        // Republishing without a price change, as CategoryService does, adds nothing
+        inTransaction(() -> {
+            Product loaded = productRepository.findById(product.getId()).orElseThrow();
+            eventPublisher.publishEvent(ProductChangedEvent.saved(loaded, loaded.getBarcode()));
+            return loaded;
+        });
+        assertThat(priceHistoryService.getHistory(product.getId())).hasSize(2);
+        assertThat(priceHistoryService.priceAt(product.getId(), afterPriceChange))
+                .hasValueSatisfying(entry -> assertThat(entry.getSalePrice()).isEqualByComparingTo("120"));
+
+        inTransaction(() -> {
+            Tax tax = taxRepository.findById(taxId).orElseThrow();
+            tax.setPercentage(new BigDecimal("10.5"));
+            eventPublisher.publishEvent(new TaxChangedEvent(tax));
+            return tax;
+        });
+
+        assertThat(priceHistoryService.priceAt(product.getId(), beforeCreation)).isEmpty();
+        assertThat(priceHistoryService.priceAt(product.getId(), afterCreation))
+                .hasValueSatisfying(entry -> assertThat(entry.getFinalPrice(false)).isEqualByComparingTo("121.00"));
+        assertThat(priceHistoryService.priceAt(product.getId(), afterPriceChange))
+                .hasValueSatisfying(entry -> assertThat(entry.getFinalPrice(false)).isEqualByComparingTo("145.20"));
+        assertThat(priceHistoryService.priceAt(product.getId(), LocalDateTime.now()))
+                .hasValueSatisfying(entry -> assertThat(entry.getFinalPrice(false)).isEqualByComparingTo("132.60"));
+        PriceHistory reported = priceHistoryService.pricesAt(List.of(product.getId()), afterCreation).get(product.getId());
+        assertThat(reported.getSalePrice()).isEqualByComparingTo("100");
+        assertThat(priceHistoryService.getHistory(product.getId())).hasSize(3);
+    }
+
+    private static LocalDateTime pause() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(5);
+        return now;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
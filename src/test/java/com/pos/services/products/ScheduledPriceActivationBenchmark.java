@@ -0,0 +1,104 @@
+package com.pos.services.products;
+
+import com.pos.MainApp;
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.models.products.ScheduledPriceChange;
+import com.pos.models.sync.CatalogueSyncState;
+import com.pos.repositories.products.ScheduledPriceChangeRepository;
+import com.pos.services.sync.CatalogueApplyService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a night's batch of {@value #CHANGES} scheduled price changes takes to
+ * activate, one tax change included, from loading the changes to the caches swapping the prices
+ * after commit. The changes are stored before each invocation without going through the
+ * scheduler, so only the activation is timed.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.services.products.ScheduledPriceActivationBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScheduledPriceActivationBenchmark {
+
+    static final int CHANGES = 5_000;
+
+    private static final long TAX_ID = 1_000_000L;
+    private static final long CATEGORY_ID = 1_000_000L;
+    private static final long FIRST_ID = 1_000_000L;
+
+    private ConfigurableApplicationContext context;
+    private ScheduledPriceService scheduledPriceService;
+    private ScheduledPriceChangeRepository scheduledPriceChangeRepository;
+    private int round;
+    private List<Long> due;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MainApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:scheduled-price-bench;DB_CLOSE_DELAY=-1",
+                        "--logging.level.com.pos=WARN");
+        scheduledPriceService = context.getBean(ScheduledPriceService.class);
+        scheduledPriceChangeRepository = context.getBean(ScheduledPriceChangeRepository.class);
+
+        List<CatalogueDeltaDTO.ProductRow> products = new ArrayList<>(CHANGES);
+        Timestamp created = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < CHANGES; i++) {
+            long id = FIRST_ID + i;
+            products.add(new CatalogueDeltaDTO.ProductRow(id, String.format("881%010d", i), "Producto " + i, null,
+                    true, CATEGORY_ID, created, id, BigDecimal.TEN, BigDecimal.valueOf(100), null, TAX_ID, null));
+        }
+        context.getBean(CatalogueApplyService.class).apply(new CatalogueDeltaDTO(1, false,
+                List.of(new CatalogueDeltaDTO.TaxRow(TAX_ID, "IVA 21", null, new BigDecimal("21"))),
+                List.of(new CatalogueDeltaDTO.CategoryRow(CATEGORY_ID, "Benchmark", null, true)),
+                products, List.of(), List.of()), new CatalogueSyncState(1, null));
+    }
+
+    @Setup(Level.Invocation)
+    public void scheduleNight() {
+        round++;
+        // Due in the past, as when the tick arrives; the scheduler never sees them
+        LocalDateTime midnight = LocalDateTime.now().minusSeconds(1);
+        BigDecimal salePrice = BigDecimal.valueOf(100 + round);
+        List<ScheduledPriceChange> changes = new ArrayList<>(CHANGES + 1);
+        for (int i = 0; i < CHANGES; i++) {
+            changes.add(ScheduledPriceChange.price(FIRST_ID + i, midnight, BigDecimal.TEN, salePrice, null));
+        }
+        changes.add(ScheduledPriceChange.tax(TAX_ID, midnight, new BigDecimal(round % 2 == 0 ? "21" : "10.5")));
+        due = scheduledPriceChangeRepository.saveAll(changes).stream().map(ScheduledPriceChange::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int activate() {
+        return scheduledPriceService.activate(due);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ScheduledPriceActivationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,181 @@
+package com.pos.services.products;
+
+import com.pos.events.products.PriceChangeScheduledEvent;
+import com.pos.events.products.PricesActivatedEvent;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.manager.product.PriceCache;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.ScheduledPriceChange;
+import com.pos.models.products.Tax;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.ScheduledPriceChangeRepository;
+import com.pos.repositories.products.TaxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Schedules price and tax changes and activates them, each in its own committed transaction as
+ * the scheduler does, checking the database, the events and the price cache.
+ */
+@DataJpaTest
+@Import({ScheduledPriceService.class, PriceCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class ScheduledPriceServiceTest {
+
+    @Autowired
+    private ScheduledPriceService scheduledPriceService;
+
+    @Autowired
+    private ScheduledPriceChangeRepository scheduledPriceChangeRepository;
+
+    @Autowired
+    private PriceCache priceCache;
+
+    @Autowired
+    private TaxRepository taxRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Tax iva;
+    private Tax reduced;
+    private Product water;
+    private Product bread;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            iva = taxRepository.save(tax("IVA", "21"));
+            reduced = taxRepository.save(tax("IVA reducido", "10.5"));
+            Category category = categoryRepository.save(new Category("Almacén", null, true));
+            water = productRepository.save(new Product("7790001", "Agua", null,
+                    priceRepository.save(new Price(new BigDecimal("50"), new BigDecimal("100"), null, iva)), true, category));
+            bread = productRepository.save(new Product("7790002", "Pan", null,
+                    priceRepository.save(new Price(new BigDecimal("20"), new BigDecimal("40"), null, reduced)), true, category));
+        });
+        priceCache.load(productRepository.findAllForScan());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("scheduled_price_changes", "products", "Price", "categories", "taxes")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void activatesADueBatchInOneGo() {
+        LocalDateTime midnight = LocalDateTime.now().plusHours(1);
+        ScheduledPriceChange first = scheduledPriceService.schedulePrice(water.getId(), midnight,
+                new BigDecimal("50"), new BigDecimal("90"), null);
+        ScheduledPriceChange second = scheduledPriceService.schedulePrice(water.getId(), midnight,
+                new BigDecimal("50"), new BigDecimal("80"), new BigDecimal("70"));
+        ScheduledPriceChange tax = scheduledPriceService.scheduleTax(reduced.getId(), midnight, new BigDecimal("21"));
+        assertThat(events.stream(PriceChangeScheduledEvent.class)).hasSize(3);
+        Long oldPriceId = water.getPrice().getId();
+
+        int applied = scheduledPriceService.activate(List.of(tax.getId(), second.getId(), first.getId()));
+
+        // The later change of the same product wins, and the old price row is kept
+        assertThat(applied).isEqualTo(3);
+        assertThat(priceCache.getRetailCents(water.getId())).isEqualTo(9680);
+        assertThat(priceCache.getWholesaleCents(water.getId())).isEqualTo(8470);
+        assertThat(priceCache.getRetailCents(bread.getId())).isEqualTo(4840);
+        Product reloaded = productRepository.findById(water.getId()).orElseThrow();
+        assertThat(reloaded.getPrice().getId()).isNotEqualTo(oldPriceId);
+        assertThat(reloaded.getPrice().getTax().getId()).isEqualTo(iva.getId());
+        assertThat(priceRepository.findById(oldPriceId)).isPresent();
+        assertThat(taxRepository.findById(reduced.getId()).orElseThrow().getPercentage()).isEqualByComparingTo("21");
+        assertThat(scheduledPriceChangeRepository.findAll())
+                .allSatisfy(change -> {
+                    assertThat(change.getStatus()).isEqualTo(ScheduledPriceChange.Status.APPLIED);
+                    assertThat(change.getAppliedAt()).isNotNull();
+                });
+        assertThat(events.stream(PricesActivatedEvent.class)).singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getProducts()).extracting(Product::getId).containsExactly(water.getId());
+                    assertThat(event.getTaxes()).extracting(Tax::getId).containsExactly(reduced.getId());
+                });
+        assertThat(events.stream(TaxChangedEvent.class)).hasSize(1);
+        assertThat(events.stream(ProductChangedEvent.class)).hasSize(1);
+
+        // Activating the same changes again, as after a retry, does nothing
+        assertThat(scheduledPriceService.activate(List.of(first.getId(), second.getId(), tax.getId()))).isZero();
+    }
+
+    @Test
+    void skipsCancelledChangesAndCancelsThoseWhoseTargetIsGone() {
+        LocalDateTime later = LocalDateTime.now().plusMinutes(5);
+        ScheduledPriceChange cancelled = scheduledPriceService.schedulePrice(water.getId(), later,
+                new BigDecimal("50"), new BigDecimal("1"), null);
+        ScheduledPriceChange orphan = scheduledPriceService.schedulePrice(bread.getId(), later,
+                new BigDecimal("20"), new BigDecimal("30"), null);
+        scheduledPriceService.cancel(cancelled.getId());
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", bread.getId());
+
+        assertThat(scheduledPriceService.findPending()).extracting(ScheduledPriceChange::getId)
+                .containsExactly(orphan.getId());
+        assertThat(scheduledPriceService.activate(List.of(cancelled.getId(), orphan.getId()))).isZero();
+        assertThat(priceCache.getRetailCents(water.getId())).isEqualTo(12100);
+        assertThat(scheduledPriceChangeRepository.findById(orphan.getId()).orElseThrow().getStatus())
+                .isEqualTo(ScheduledPriceChange.Status.CANCELLED);
+        assertThatThrownBy(() -> scheduledPriceService.cancel(cancelled.getId()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsChangesWithoutPositivePrices() {
+        assertThatThrownBy(() -> scheduledPriceService.schedulePrice(water.getId(), LocalDateTime.now(),
+                new BigDecimal("50"), BigDecimal.ZERO, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> scheduledPriceService.scheduleTax(iva.getId(), null, new BigDecimal("21")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(scheduledPriceChangeRepository.count()).isZero();
+    }
+
+    private static Tax tax(String name, String percentage) {
+        Tax tax = new Tax();
+        tax.setName(name);
+        tax.setPercentage(new BigDecimal(percentage));
+        return tax;
+    }
+}
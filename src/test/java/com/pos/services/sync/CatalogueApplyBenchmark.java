@@ -0,0 +1,89 @@
+package com.pos.services.sync;
+
+import com.pos.MainApp;
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.models.sync.CatalogueSyncState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a till takes to apply a catalogue delta of {@value #ROWS} products, including
+ * the in-memory caches picking the changes up after commit. The first invocation creates the
+ * products and the following ones change every price, as a price list update from the back office does.
+ * <p>
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.pos.services.sync.CatalogueApplyBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CatalogueApplyBenchmark {
+
+    static final int ROWS = 10_000;
+
+    private static final long TAX_ID = 1_000_000L;
+    private static final long CATEGORY_ID = 1_000_000L;
+    private static final long FIRST_ID = 1_000_000L;
+
+    private ConfigurableApplicationContext context;
+    private CatalogueApplyService applyService;
+    private long version;
+    private CatalogueDeltaDTO delta;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MainApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:catalogue-apply-bench;DB_CLOSE_DELAY=-1",
+                        "--logging.level.com.pos=WARN");
+        applyService = context.getBean(CatalogueApplyService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextDelta() {
+        version++;
+        BigDecimal salePrice = BigDecimal.valueOf(100 + version);
+        List<CatalogueDeltaDTO.ProductRow> products = new ArrayList<>(ROWS);
+        Timestamp created = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < ROWS; i++) {
+            long id = FIRST_ID + i;
+            products.add(new CatalogueDeltaDTO.ProductRow(id, String.format("880%010d", i), "Producto " + i, null,
+                    true, CATEGORY_ID, created, id, BigDecimal.TEN, salePrice, null, TAX_ID, null));
+        }
+        delta = new CatalogueDeltaDTO(version, false,
+                List.of(new CatalogueDeltaDTO.TaxRow(TAX_ID, "IVA 21", null, new BigDecimal("21"))),
+                List.of(new CatalogueDeltaDTO.CategoryRow(CATEGORY_ID, "Benchmark", null, true)),
+                products, List.of(), List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long applyDelta() {
+        applyService.apply(delta, new CatalogueSyncState(version, null));
+        return version;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogueApplyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,233 @@
+package com.pos.services.sync;
+
+import com.pos.dtos.sync.CatalogueDeltaDTO;
+import com.pos.events.products.ProductChangedEvent;
+import com.pos.events.products.TaxChangedEvent;
+import com.pos.manager.sync.CatalogueChangeLog;
+import com.pos.models.products.Category;
+import com.pos.models.products.Price;
+import com.pos.models.products.Product;
+import com.pos.models.products.Tax;
+import com.pos.models.sync.CatalogueChange;
+import com.pos.models.sync.CatalogueSyncState;
+import com.pos.repositories.products.CategoryRepository;
+import com.pos.repositories.products.PriceRepository;
+import com.pos.repositories.products.ProductRepository;
+import com.pos.repositories.products.TaxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records catalogue changes on the back-office side, reads them back as deltas and applies deltas
+ * on the till side, each step in its own committed transaction as in production.
+ */
+@DataJpaTest
+@Import({CatalogueDeltaService.class, CatalogueApplyService.class, CatalogueChangeLog.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class CatalogueDeltaServiceTest {
+
+    @Autowired
+    private CatalogueDeltaService deltaService;
+
+    @Autowired
+    private CatalogueApplyService applyService;
+
+    @Autowired
+    private CatalogueChangeLog changeLog;
+
+    @Autowired
+    private TaxRepository taxRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("catalogue_changes", "catalogue_sync_state", "sale_lines", "sales", "stock", "products", "Price",
+                "categories", "taxes")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void sendsEachChangedRowOnceInItsCurrentState() {
+        Product product = inTransaction(() -> {
+            Tax tax = new Tax();
+            tax.setName("IVA 21");
+            tax.setPercentage(new BigDecimal("21"));
+            taxRepository.save(tax);
+            Category category = categoryRepository.save(new Category("Bebidas", null, true));
+            Price price = priceRepository.save(new Price(new BigDecimal("50"), new BigDecimal("100"), null, tax));
+            Product saved = productRepository.save(new Product("7790001", "Agua", null, price, true, category));
+            changeLog.record(CatalogueChange.EntityType.TAX, tax.getId());
+            changeLog.record(CatalogueChange.EntityType.CATEGORY, category.getId());
+            changeLog.record(CatalogueChange.EntityType.PRODUCT, saved.getId());
+            return saved;
+        });
+
+        CatalogueDeltaDTO first = deltaService.changesAfter(0, 100);
+        assertThat(first.taxes()).extracting(CatalogueDeltaDTO.TaxRow::name).containsExactly("IVA 21");
+        assertThat(first.categories()).extracting(CatalogueDeltaDTO.CategoryRow::name).containsExactly("Bebidas");
+        assertThat(first.products()).singleElement().satisfies(row -> {
+            assertThat(row.barcode()).isEqualTo("7790001");
+            assertThat(row.priceId()).isEqualTo(product.getPrice().getId());
+            assertThat(row.salePrice()).isEqualByComparingTo("100");
+        });
+        assertThat(first.more()).isFalse();
+
+        for (String name : List.of("Agua mineral", "Agua sin gas")) {
+            inTransaction(() -> {
+                Product loaded = productRepository.findById(product.getId()).orElseThrow();
+                loaded.setName(name);
+                changeLog.record(CatalogueChange.EntityType.PRODUCT, loaded.getId());
+                return loaded;
+            });
+        }
+        CatalogueDeltaDTO renamed = deltaService.changesAfter(first.version(), 100);
+        assertThat(renamed.version()).isGreaterThan(first.version());
+        assertThat(renamed.products()).extracting(CatalogueDeltaDTO.ProductRow::name).containsExactly("Agua sin gas");
+        assertThat(deltaService.changesAfter(renamed.version(), 100).size()).isZero();
+
+        inTransaction(() -> {
+            productRepository.deleteById(product.getId());
+            changeLog.record(CatalogueChange.EntityType.PRODUCT, product.getId());
+            return null;
+        });
+        CatalogueDeltaDTO deleted = deltaService.changesAfter(renamed.version(), 100);
+        assertThat(deleted.products()).isEmpty();
+        assertThat(deleted.deletedProductIds()).containsExactly(product.getId());
+    }
+
+    @Test
+    void pagesTheSnapshotByProductId() {
+        inTransaction(() -> {
+            Category category = categoryRepository.save(new Category("Almacén", null, true));
+            for (int i = 0; i < 3; i++) {
+                Price price = priceRepository.save(new Price(BigDecimal.ONE, BigDecimal.TEN, null, null));
+                productRepository.save(new Product("779000" + i, "Producto " + i, null, price, true, category));
+            }
+            return null;
+        });
+
+        CatalogueDeltaDTO first = deltaService.snapshot(0, 2);
+        assertThat(first.categories()).hasSize(1);
+        assertThat(first.products()).hasSize(2);
+        assertThat(first.more()).isTrue();
+
+        CatalogueDeltaDTO last = deltaService.snapshot(first.products().getLast().id(), 2);
+        assertThat(last.categories()).isEmpty();
+        assertThat(last.products()).hasSize(1);
+        assertThat(last.more()).isFalse();
+    }
+
+    @Test
+    void appliesDeltasWithTheBackOfficeIdsAndPublishesTheChanges() {
+        CatalogueDeltaDTO.TaxRow tax = new CatalogueDeltaDTO.TaxRow(900L, "IVA 10,5", null, new BigDecimal("10.5"));
+        CatalogueDeltaDTO.CategoryRow category = new CatalogueDeltaDTO.CategoryRow(901L, "Limpieza", null, true);
+        CatalogueDeltaDTO created = new CatalogueDeltaDTO(5, false, List.of(tax), List.of(category),
+                List.of(productRow("7791000")), List.of(), List.of());
+
+        applyService.apply(created, new CatalogueSyncState(5, null));
+
+        Product product = productRepository.findById(902L).orElseThrow();
+        assertThat(product.getBarcode()).isEqualTo("7791000");
+        assertThat(product.getCategory().getName()).isEqualTo("Limpieza");
+        assertThat(product.getPrice().getId()).isEqualTo(903L);
+        assertThat(product.getPrice().getTax().getPercentage()).isEqualByComparingTo("10.5");
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stock WHERE product_id = 902", Integer.class)).isZero();
+        assertThat(applyService.getState().getVersion()).isEqualTo(5);
+        assertThat(events.stream(TaxChangedEvent.class)).extracting(TaxChangedEvent::getTaxId).containsExactly(900L);
+        assertThat(events.stream(ProductChangedEvent.class)).singleElement()
+                .satisfies(event -> assertThat(event.getPreviousBarcode()).isNull());
+
+        events.clear();
+        applyService.apply(new CatalogueDeltaDTO(6, false, List.of(), List.of(), List.of(productRow("7791001")),
+                List.of(), List.of()), new CatalogueSyncState(6, null));
+        assertThat(productRepository.findById(902L).orElseThrow().getBarcode()).isEqualTo("7791001");
+        assertThat(events.stream(ProductChangedEvent.class)).singleElement()
+                .satisfies(event -> assertThat(event.getPreviousBarcode()).isEqualTo("7791000"));
+
+        events.clear();
+        applyService.apply(new CatalogueDeltaDTO(7, false, List.of(), List.of(), List.of(), List.of(), List.of(902L)),
+                new CatalogueSyncState(7, null));
+        assertThat(productRepository.findById(902L)).isEmpty();
+        assertThat(events.stream(ProductChangedEvent.class)).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(ProductChangedEvent.Type.DELETED);
+            assertThat(event.getPreviousBarcode()).isEqualTo("7791001");
+        });
+        assertThat(applyService.getState().getVersion()).isEqualTo(7);
+    }
+
+    @Test
+    void reusesTheBarcodeOfAProductRemovedInTheSameDelta() {
+        CatalogueDeltaDTO.TaxRow tax = new CatalogueDeltaDTO.TaxRow(900L, "IVA 10,5", null, new BigDecimal("10.5"));
+        CatalogueDeltaDTO.CategoryRow category = new CatalogueDeltaDTO.CategoryRow(901L, "Limpieza", null, true);
+        applyService.apply(new CatalogueDeltaDTO(5, false, List.of(tax), List.of(category),
+                List.of(productRow(902L, 903L, "7791000"), productRow(904L, 905L, "7792000")), List.of(), List.of()),
+                new CatalogueSyncState(5, null));
+        jdbcTemplate.update("INSERT INTO sales (id, sale_date, cashier, wholesale, net_total, tax_total, total) "
+                + "VALUES (1, CURRENT_TIMESTAMP, 'caja', FALSE, 450, 0, 450)");
+        jdbcTemplate.update("INSERT INTO sale_lines (id, sale_id, line_number, product_id, quantity, unit_price, "
+                + "tax_amount, total, voided) VALUES (1, 1, 0, 904, 1, 450, 0, 450, FALSE)");
+
+        // Both products are removed and their barcodes handed to new ones in the same delta
+        applyService.apply(new CatalogueDeltaDTO(6, false, List.of(), List.of(),
+                List.of(productRow(906L, 907L, "7791000"), productRow(908L, 909L, "7792000")), List.of(),
+                List.of(902L, 904L)), new CatalogueSyncState(6, null));
+
+        assertThat(productRepository.findById(902L)).isEmpty();
+        Product sold = productRepository.findById(904L).orElseThrow();
+        assertThat(sold.isActive()).isFalse();
+        assertThat(sold.getBarcode()).isEqualTo("BAJA-904");
+        assertThat(productRepository.findById(906L).orElseThrow().getBarcode()).isEqualTo("7791000");
+        assertThat(productRepository.findById(908L).orElseThrow().getBarcode()).isEqualTo("7792000");
+        assertThat(applyService.getState().getVersion()).isEqualTo(6);
+    }
+
+    private static CatalogueDeltaDTO.ProductRow productRow(String barcode) {
+        return productRow(902L, 903L, barcode);
+    }
+
+    private static CatalogueDeltaDTO.ProductRow productRow(long id, long priceId, String barcode) {
+        return new CatalogueDeltaDTO.ProductRow(id, barcode, "Lavandina", null, true, 901L,
+                new Timestamp(System.currentTimeMillis()), priceId, new BigDecimal("300"), new BigDecimal("450"),
+                null, 900L, null);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}